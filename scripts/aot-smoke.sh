@@ -0,0 +1,120 @@
+#!/usr/bin/env bash
+#
+# Boots each available build of the application against the in-memory H2
+# "embedded" profile, exercises every controller once and prints startup time
+# and resident memory side by side.
+#
+#   mvn -Paot -DskipTests package                       # JVM + AOT jar (bundles H2)
+#   mvn -Pnative,native-smoke -DskipTests native:compile # optional, needs GraalVM
+#   scripts/aot-smoke.sh
+#
+# Variants (skipped when their artifact is missing):
+#   jvm      plain java -jar
+#   jvm-aot  java -Dspring.aot.enabled=true with a class-data sharing archive
+#   native   target/AutoVault native executable
+#
+# Exits non-zero if any request returns a 5xx or the application fails to start.
+
+set -uo pipefail
+
+PORT=${PORT:-9100}
+BASE="http://localhost:${PORT}"
+JAR=${JAR:-$(ls target/AutoVault-*.jar 2>/dev/null | grep -v original | head -1)}
+NATIVE=${NATIVE:-target/AutoVault}
+WORK=target/aot-smoke
+FAILURES=0
+
+mkdir -p "$WORK"
+now_ms() { date +%s%3N; }
+rss_kb() { awk '/VmRSS/ {print $2}' "/proc/$1/status" 2>/dev/null || ps -o rss= -p "$1"; }
+
+call() {
+    local method=$1 path=$2 body=${3:-}
+    local code
+    if [[ -n "$body" ]]; then
+        code=$(curl -s -o "$WORK/last-response" -w '%{http_code}' -X "$method" -H 'Content-Type: application/json' -d "$body" "$BASE$path")
+    else
+        code=$(curl -s -o "$WORK/last-response" -w '%{http_code}' -X "$method" "$BASE$path")
+    fi
+    if [[ "$code" -ge 500 || "$code" == "000" ]]; then
+        echo "    FAIL $code $method $path" >&2
+        FAILURES=$((FAILURES + 1))
+    else
+        echo "    $code $method $path" >&2
+    fi
+}
+
+exercise_controllers() {
+    local today
+    today=$(date +%F)
+    # Writes that give the reads something to return
+    call POST /api/v1/locations '{"name":"Smoke Yard","address":"1 Test Road","totalCapacity":20}'
+    call POST /api/v1/car-models '{"make":"Toyota","model":"Corolla","variant":"LE","fuelType":"Petrol","bodyType":"Sedan","transmissionType":"Automatic"}'
+    call POST /api/v1/cars '{"vinNumber":"SMOKE000000000001","year":2021,"color":"Red","mileage":12000,"purchaseDate":"2024-01-10","purchasePrice":15000,"sellingPrice":18000,"carModel":{"id":1},"storageLocation":{"id":1}}'
+    call POST /api/clients '{"name":"Smoke Client","email":"smoke@example.com","phone":"555-0100","status":"ACTIVE"}'
+    call POST /api/employees '{"name":"Smoke Employee","email":"employee@example.com","phone":"555-0101","position":"Sales","department":"Sales","joinDate":"2024-01-01","status":"ACTIVE","password":"secret"}'
+
+    # One read per controller
+    call GET /api/v1/cars/1
+    call GET "/api/v1/cars/search?searchTerm=Toyota"
+    call POST /api/v1/cars/search/advanced '{"make":"Toyota","status":"available"}'
+    call GET /api/v1/cars/statistics
+    call GET /api/v1/car-models
+    call GET /api/v1/locations/statistics
+    call GET /api/clients
+    call GET /api/employees
+    call GET /api/sales/statistics/yearly-performance
+    call GET /api/reservations/statistics
+    call GET /api/inquiries/statistics
+    call GET /api/v1/inspections
+    call GET /api/v1/transactions/statistics
+    call GET "/api/calendar/events/summary?start=${today}&end=${today}"
+    call GET /api/kanban/board
+    call GET /api/v1/jobs
+    call POST /api/v1/auth/login '{"email":"admin@ws.com","password":"password"}'
+}
+
+run_variant() {
+    local name=$1; shift
+    echo "== $name" >&2
+    local start pid ready rss
+    start=$(now_ms)
+    "$@" --server.port="$PORT" --spring.profiles.active=embedded >"$WORK/$name.log" 2>&1 &
+    pid=$!
+    until curl -sf -o /dev/null "$BASE/api/v1/locations"; do
+        if ! kill -0 "$pid" 2>/dev/null; then
+            echo "    $name failed to start, see $WORK/$name.log" >&2
+            FAILURES=$((FAILURES + 1))
+            return
+        fi
+        sleep 0.05
+    done
+    ready=$(( $(now_ms) - start ))
+    exercise_controllers
+    rss=$(rss_kb "$pid")
+    kill "$pid"; wait "$pid" 2>/dev/null
+    local started
+    started=$(grep -o 'Started WheelShiftApplication in [0-9.]* seconds' "$WORK/$name.log" | grep -o '[0-9.]*' | head -1)
+    printf '%-8s ready=%6s ms  spring-reported=%6ss  rss=%7s MB\n' "$name" "$ready" "${started:-?}" "$(( ${rss:-0} / 1024 ))" >>"$WORK/summary.txt"
+}
+
+: >"$WORK/summary.txt"
+
+if [[ -n "$JAR" ]]; then
+    run_variant jvm java -jar "$JAR"
+
+    # Training run writes the CDS archive once, then the AOT variant starts with it
+    if [[ ! -f "$WORK/app.jsa" ]]; then
+        java -XX:ArchiveClassesAtExit="$WORK/app.jsa" -Dspring.aot.enabled=true -Dspring.context.exit=onRefresh \
+            -jar "$JAR" --spring.profiles.active=embedded >"$WORK/cds-training.log" 2>&1
+    fi
+    run_variant jvm-aot java -XX:SharedArchiveFile="$WORK/app.jsa" -Dspring.aot.enabled=true -jar "$JAR"
+fi
+
+if [[ -x "$NATIVE" ]]; then
+    run_variant native "$NATIVE"
+fi
+
+echo
+cat "$WORK/summary.txt"
+[[ $FAILURES -eq 0 ]] || { echo "$FAILURES smoke check(s) failed" >&2; exit 1; }
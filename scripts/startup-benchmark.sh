@@ -0,0 +1,64 @@
+#!/usr/bin/env bash
+#
+# Measures time-to-first-request of the packaged application for two profile
+# sets (default: the dev defaults vs. prod) and prints the median of N runs.
+#
+#   mvn -DskipTests package
+#   scripts/startup-benchmark.sh [runs]
+#
+# Environment:
+#   JAR             jar to start (default: target/AutoVault-*.jar)
+#   BEFORE_PROFILES profiles for the baseline run (default: none)
+#   AFTER_PROFILES  profiles for the optimised run (default: prod)
+#   PORT            port to start on (default: 9000)
+#   PROBE_PATH      endpoint polled until it answers 200 (default: /api/v1/locations)
+#   JAVA_OPTS       extra JVM options for both runs
+#
+# Requires a reachable MySQL configured through the usual spring.datasource.* settings.
+
+set -euo pipefail
+
+RUNS=${1:-5}
+JAR=${JAR:-$(ls target/AutoVault-*.jar | grep -v original | head -1)}
+BEFORE_PROFILES=${BEFORE_PROFILES:-}
+AFTER_PROFILES=${AFTER_PROFILES:-prod}
+PORT=${PORT:-9000}
+PROBE_PATH=${PROBE_PATH:-/api/v1/locations}
+
+now_ms() { date +%s%3N; }
+
+measure() {
+    local profiles=$1
+    local start pid elapsed
+    start=$(now_ms)
+    java ${JAVA_OPTS:-} -jar "$JAR" --server.port="$PORT" --spring.profiles.active="$profiles" >/tmp/startup-benchmark.log 2>&1 &
+    pid=$!
+    until curl -sf -o /dev/null "http://localhost:${PORT}${PROBE_PATH}"; do
+        if ! kill -0 "$pid" 2>/dev/null; then
+            echo "application exited, see /tmp/startup-benchmark.log" >&2
+            exit 1
+        fi
+        sleep 0.05
+    done
+    elapsed=$(( $(now_ms) - start ))
+    kill "$pid"
+    wait "$pid" 2>/dev/null || true
+    echo "$elapsed"
+}
+
+median() { sort -n | awk '{a[NR]=$1} END {print a[int((NR+1)/2)]}'; }
+
+run_set() {
+    local label=$1 profiles=$2 results=()
+    for ((i = 1; i <= RUNS; i++)); do
+        results+=("$(measure "$profiles")")
+    done
+    local med
+    med=$(printf '%s\n' "${results[@]}" | median)
+    echo "$label [${profiles:-default}] time-to-first-request ms: ${results[*]} (median $med)" >&2
+    echo "$med"
+}
+
+before=$(run_set before "$BEFORE_PROFILES")
+after=$(run_set after "$AFTER_PROFILES")
+echo "before=${before}ms after=${after}ms reduction=$(( 100 - after * 100 / before ))%"
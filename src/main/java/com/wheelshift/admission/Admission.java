@@ -0,0 +1,22 @@
+package com.wheelshift.admission;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Puts a controller method, or every method of a controller, in a traffic
+ * class. Without it, GETs under a {@code statistics} or {@code stats} path are
+ * {@link TrafficClass#ANALYTICS}, other GETs {@link TrafficClass#LOOKUP} and
+ * everything else {@link TrafficClass#TRANSACTIONAL}. An annotation on the
+ * method replaces the one on the class.
+ */
+@Target({ElementType.TYPE, ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface Admission {
+
+    TrafficClass value();
+}
@@ -0,0 +1,31 @@
+package com.wheelshift.admission;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * The {@link Bulkhead} of every {@link TrafficClass}, sized from
+ * {@link AdmissionProperties}.
+ */
+public class AdmissionControl {
+
+    private final Map<TrafficClass, Bulkhead> bulkheads = new EnumMap<>(TrafficClass.class);
+
+    public AdmissionControl(AdmissionProperties properties) {
+        for (TrafficClass trafficClass : TrafficClass.values()) {
+            AdmissionProperties.Limits limits = properties.limits(trafficClass);
+            bulkheads.put(trafficClass, new Bulkhead(limits.getMaxConcurrent(), limits.getMaxQueued(),
+                    limits.getMaxWait(), properties.getMaxTenantShare(), System::nanoTime));
+        }
+    }
+
+    public Bulkhead bulkhead(TrafficClass trafficClass) {
+        return bulkheads.get(trafficClass);
+    }
+
+    public Map<TrafficClass, Bulkhead.Stats> stats() {
+        Map<TrafficClass, Bulkhead.Stats> stats = new EnumMap<>(TrafficClass.class);
+        bulkheads.forEach((trafficClass, bulkhead) -> stats.put(trafficClass, bulkhead.stats()));
+        return stats;
+    }
+}
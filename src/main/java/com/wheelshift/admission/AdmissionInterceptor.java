@@ -0,0 +1,97 @@
+package com.wheelshift.admission;
+
+import com.wheelshift.tenancy.TenantContext;
+
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.regex.Pattern;
+
+/**
+ * Admits each request through the {@link Bulkhead} of its {@link TrafficClass}
+ * and answers 429 with a {@code Retry-After} when that bulkhead is full. The
+ * slot is held until the response is complete, or until the handler hands the
+ * request off to asynchronous processing and frees its thread. A tenant over
+ * its share of the bulkhead is answered the same way.
+ */
+@Slf4j
+public class AdmissionInterceptor implements AsyncHandlerInterceptor {
+
+    private static final String PERMIT_ATTRIBUTE = AdmissionInterceptor.class.getName() + ".permit";
+    private static final Pattern ANALYTICS_PATH = Pattern.compile("/(statistics|stats)(/|$)");
+
+    private final AdmissionControl admissionControl;
+
+    public AdmissionInterceptor(AdmissionControl admissionControl) {
+        this.admissionControl = admissionControl;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler)
+            throws IOException {
+        // Error and async dispatches belong to a request that was admitted already
+        if (!(handler instanceof HandlerMethod handlerMethod) || request.getDispatcherType() != DispatcherType.REQUEST) {
+            return true;
+        }
+        TrafficClass trafficClass = classify(handlerMethod, request);
+        Bulkhead bulkhead = admissionControl.bulkhead(trafficClass);
+        Bulkhead.Permit permit;
+        try {
+            permit = bulkhead.tryAcquire(TenantContext.current());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            permit = null;
+        }
+        if (permit == null) {
+            log.debug("Shedding {} {} ({})", request.getMethod(), request.getRequestURI(), trafficClass);
+            response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(bulkhead.retryAfterSeconds()));
+            response.sendError(HttpStatus.TOO_MANY_REQUESTS.value(), "Too many " + trafficClass + " requests");
+            return false;
+        }
+        request.setAttribute(PERMIT_ATTRIBUTE, permit);
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        release(request);
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        release(request);
+    }
+
+    TrafficClass classify(HandlerMethod handlerMethod, HttpServletRequest request) {
+        Admission admission = handlerMethod.getMethodAnnotation(Admission.class);
+        if (admission == null) {
+            admission = AnnotatedElementUtils.findMergedAnnotation(handlerMethod.getBeanType(), Admission.class);
+        }
+        if (admission != null) {
+            return admission.value();
+        }
+        if (!HttpMethod.GET.matches(request.getMethod()) && !HttpMethod.HEAD.matches(request.getMethod())) {
+            return TrafficClass.TRANSACTIONAL;
+        }
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String path = pattern != null ? pattern.toString() : request.getRequestURI();
+        return ANALYTICS_PATH.matcher(path).find() ? TrafficClass.ANALYTICS : TrafficClass.LOOKUP;
+    }
+
+    private static void release(HttpServletRequest request) {
+        if (request.getAttribute(PERMIT_ATTRIBUTE) instanceof Bulkhead.Permit permit) {
+            request.removeAttribute(PERMIT_ATTRIBUTE);
+            permit.release();
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.wheelshift.admission;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Bulkhead sizes per {@link TrafficClass} ({@code wheelshift.admission.*}).
+ *
+ * A request holds at most one connection at a time, so a class's
+ * {@code max-concurrent} is also its share of the connection pool. The lookup,
+ * analytics and export limits together should stay below the pool size, so
+ * transactional requests always find a connection.
+ */
+@Data
+@ConfigurationProperties(prefix = "wheelshift.admission")
+public class AdmissionProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * Share of each class's slots and queue that the requests of one tenant
+     * may hold together; 1 leaves tenants uncapped.
+     */
+    private double maxTenantShare = 1.0;
+
+    private Limits transactional = new Limits(16, 32, Duration.ofSeconds(5));
+
+    private Limits lookup = new Limits(6, 48, Duration.ofSeconds(1));
+
+    private Limits analytics = new Limits(2, 4, Duration.ofSeconds(2));
+
+    private Limits export = new Limits(1, 2, Duration.ofSeconds(5));
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Limits {
+
+        /** Requests of the class handled at once. */
+        private int maxConcurrent;
+
+        /** Requests waiting for a slot; each keeps a server thread. */
+        private int maxQueued;
+
+        /** How long a request waits for a slot before it is shed. */
+        private Duration maxWait;
+    }
+
+    public Limits limits(TrafficClass trafficClass) {
+        return switch (trafficClass) {
+            case TRANSACTIONAL -> transactional;
+            case LOOKUP -> lookup;
+            case ANALYTICS -> analytics;
+            case EXPORT -> export;
+        };
+    }
+}
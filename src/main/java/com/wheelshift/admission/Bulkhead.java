@@ -0,0 +1,183 @@
+package com.wheelshift.admission;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Caps how many requests of one {@link TrafficClass} run at once, and how many
+ * may wait for a slot and for how long. Requests beyond that are turned away
+ * at once instead of piling up on the server's threads.
+ *
+ * Requests can also be capped per tenant, counting both those running and
+ * those queued, so one dealership's burst cannot take every slot of a class.
+ */
+public class Bulkhead {
+
+    // Weight of the latest request in the average hold time
+    private static final double HOLD_TIME_WEIGHT = 0.1;
+    private static final long MAX_RETRY_AFTER_SECONDS = 60;
+
+    /**
+     * Saturation of a bulkhead at one point in time. {@code utilization} is the
+     * share of slots in use.
+     */
+    public record Stats(int maxConcurrent, int maxQueued, int inFlight, int queued, double utilization,
+                        long admitted, long rejected, long averageHoldMillis) {
+    }
+
+    private final int maxConcurrent;
+    private final int maxQueued;
+    private final long maxWaitNanos;
+    private final int maxPerTenant;
+    private final LongSupplier nanoClock;
+    private final Semaphore slots;
+    // Running and queued requests per tenant, only tracked while tenants are capped
+    private final ConcurrentHashMap<String, Integer> heldByTenant = new ConcurrentHashMap<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final LongAdder admitted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    // Guarded by this
+    private double averageHoldNanos;
+
+    public Bulkhead(int maxConcurrent, int maxQueued, Duration maxWait, LongSupplier nanoClock) {
+        this(maxConcurrent, maxQueued, maxWait, 1.0, nanoClock);
+    }
+
+    /**
+     * @param maxTenantShare share of the slots and queue one tenant may hold, 1 for no cap
+     */
+    public Bulkhead(int maxConcurrent, int maxQueued, Duration maxWait, double maxTenantShare,
+                    LongSupplier nanoClock) {
+        if (maxConcurrent < 1 || maxQueued < 0 || maxWait.isNegative()) {
+            throw new IllegalArgumentException("A bulkhead needs at least one slot and a non-negative queue and wait");
+        }
+        if (!(maxTenantShare > 0 && maxTenantShare <= 1)) {
+            throw new IllegalArgumentException("A tenant's share must be above 0 and at most 1");
+        }
+        this.maxConcurrent = maxConcurrent;
+        this.maxQueued = maxQueued;
+        this.maxWaitNanos = maxWait.toNanos();
+        this.maxPerTenant = maxTenantShare == 1 ? Integer.MAX_VALUE
+                : Math.max(1, (int) ((maxConcurrent + maxQueued) * maxTenantShare));
+        this.nanoClock = nanoClock;
+        // Fair, so queued requests are served in arrival order
+        this.slots = new Semaphore(maxConcurrent, true);
+    }
+
+    /**
+     * Takes a slot, waiting in the queue if there is room in it. Returns null
+     * when the request should be shed.
+     */
+    public Permit tryAcquire() throws InterruptedException {
+        return tryAcquire(null);
+    }
+
+    /**
+     * Same as {@link #tryAcquire()}, also shedding the request when
+     * {@code tenant} already holds its share.
+     */
+    public Permit tryAcquire(String tenant) throws InterruptedException {
+        String capped = maxPerTenant == Integer.MAX_VALUE ? null : tenant;
+        if (capped != null && heldByTenant.merge(capped, 1, Integer::sum) > maxPerTenant) {
+            leave(capped);
+            rejected.increment();
+            return null;
+        }
+        boolean acquired = false;
+        try {
+            acquired = acquireSlot();
+        } finally {
+            if (!acquired && capped != null) {
+                leave(capped);
+            }
+        }
+        if (!acquired) {
+            rejected.increment();
+            return null;
+        }
+        admitted.increment();
+        return new Permit(capped, nanoClock.getAsLong());
+    }
+
+    private boolean acquireSlot() throws InterruptedException {
+        if (slots.tryAcquire()) {
+            return true;
+        }
+        if (queued.incrementAndGet() > maxQueued) {
+            queued.decrementAndGet();
+            return false;
+        }
+        try {
+            return slots.tryAcquire(maxWaitNanos, TimeUnit.NANOSECONDS);
+        } finally {
+            queued.decrementAndGet();
+        }
+    }
+
+    private void leave(String tenant) {
+        heldByTenant.computeIfPresent(tenant, (key, held) -> held == 1 ? null : held - 1);
+    }
+
+    /**
+     * Rough time until a slot frees up for a newly queued request, from the
+     * average time requests hold one. At least a second.
+     */
+    public long retryAfterSeconds() {
+        double holdNanos;
+        synchronized (this) {
+            holdNanos = averageHoldNanos;
+        }
+        double waitNanos = holdNanos * (queued.get() + 1) / maxConcurrent;
+        long seconds = (long) Math.ceil(waitNanos / TimeUnit.SECONDS.toNanos(1));
+        return Math.max(1, Math.min(MAX_RETRY_AFTER_SECONDS, seconds));
+    }
+
+    public Stats stats() {
+        int inFlight = maxConcurrent - slots.availablePermits();
+        long holdMillis;
+        synchronized (this) {
+            holdMillis = TimeUnit.NANOSECONDS.toMillis((long) averageHoldNanos);
+        }
+        return new Stats(maxConcurrent, maxQueued, inFlight, queued.get(), (double) inFlight / maxConcurrent,
+                admitted.sum(), rejected.sum(), holdMillis);
+    }
+
+    private synchronized void recordHold(long holdNanos) {
+        averageHoldNanos = averageHoldNanos == 0 ? holdNanos
+                : averageHoldNanos + HOLD_TIME_WEIGHT * (holdNanos - averageHoldNanos);
+    }
+
+    /**
+     * A slot held by one request. Releasing it twice has no effect.
+     */
+    public final class Permit {
+
+        private final String tenant;
+        private final long acquiredAt;
+        private boolean released;
+
+        private Permit(String tenant, long acquiredAt) {
+            this.tenant = tenant;
+            this.acquiredAt = acquiredAt;
+        }
+
+        public void release() {
+            synchronized (this) {
+                if (released) {
+                    return;
+                }
+                released = true;
+            }
+            recordHold(nanoClock.getAsLong() - acquiredAt);
+            slots.release();
+            if (tenant != null) {
+                leave(tenant);
+            }
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.wheelshift.admission;
+
+/**
+ * Kinds of requests that get a {@link Bulkhead} each, so a burst of one kind
+ * cannot take the threads and connections another needs.
+ */
+public enum TrafficClass {
+
+    /** Writes: sales, reservations, moves. Latency critical. */
+    TRANSACTIONAL,
+
+    /** Reads of single records and paged lists. */
+    LOOKUP,
+
+    /** Statistics and reports that aggregate whole tables. */
+    ANALYTICS,
+
+    /** Unpaged lists of whole tables. */
+    EXPORT
+}
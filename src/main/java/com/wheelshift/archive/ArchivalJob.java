@@ -0,0 +1,117 @@
+package com.wheelshift.archive;
+
+import com.wheelshift.job.KeyRange;
+import com.wheelshift.job.PartitionLease;
+import com.wheelshift.job.PartitionedJob;
+import com.wheelshift.versioning.ChangeVersions;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Moves the rows of one {@link ArchivedTable} that are past its retention to
+ * the archive table. Each partition is worked through in batches of
+ * {@code batch-size} rows, every batch copied and deleted in one transaction
+ * that locks just those rows, with a pause in between. The partition's lease
+ * is renewed after every batch, so a long backlog is not taken over by
+ * another node halfway.
+ *
+ * A batch copies rows by id and skips ids that are in the archive already, so
+ * a partition that is re-run after its node died does not fail on the rows it
+ * had moved.
+ */
+public class ArchivalJob implements PartitionedJob {
+
+    private final ArchivedTable table;
+    private final ArchivalProperties properties;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ChangeVersions changeVersions;
+    private final Clock clock;
+
+    public ArchivalJob(ArchivedTable table, ArchivalProperties properties, JdbcTemplate jdbcTemplate,
+                       TransactionTemplate transactionTemplate, ChangeVersions changeVersions, Clock clock) {
+        this.table = table;
+        this.properties = properties;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.changeVersions = changeVersions;
+        this.clock = clock;
+    }
+
+    @Override
+    public String getName() {
+        return "archive-" + table.table().replace('_', '-');
+    }
+
+    @Override
+    public int getPartitionCount() {
+        return properties.getPartitions();
+    }
+
+    @Override
+    public KeyRange getKeySpace() {
+        return jdbcTemplate.queryForObject("SELECT MIN(id), MAX(id) FROM " + table.table(),
+                (rs, rowNum) -> KeyRange.ofMinMax(rs.getObject(1, Long.class), rs.getObject(2, Long.class)));
+    }
+
+    @Override
+    public long processRange(KeyRange range, PartitionLease lease) {
+        LocalDateTime now = LocalDateTime.now(clock);
+        Timestamp horizon = Timestamp.valueOf(table.horizon(properties, now));
+        Timestamp archivedAt = Timestamp.valueOf(now);
+        long from = range.fromInclusive();
+        long moved = 0;
+        while (true) {
+            long batchFrom = from;
+            List<Long> ids = transactionTemplate.execute(status -> moveBatch(batchFrom, range.upperBoundOrMax(),
+                    horizon, archivedAt));
+            if (ids == null || ids.isEmpty()) {
+                return moved;
+            }
+            moved += ids.size();
+            from = ids.get(ids.size() - 1) + 1;
+            // Deleted past the entity listeners
+            changeVersions.changed(table.aggregate());
+            if (ids.size() < properties.getBatchSize()) {
+                return moved;
+            }
+            lease.renew();
+            pause();
+        }
+    }
+
+    private List<Long> moveBatch(long from, long to, Timestamp horizon, Timestamp archivedAt) {
+        List<Long> ids = jdbcTemplate.queryForList("SELECT id FROM " + table.table() + " WHERE id >= ? AND id < ? AND "
+                + table.eligible() + " ORDER BY id LIMIT ? FOR UPDATE", Long.class,
+                from, to, horizon, properties.getBatchSize());
+        if (ids.isEmpty()) {
+            return ids;
+        }
+        String idList = " IN (" + String.join(", ", Collections.nCopies(ids.size(), "?")) + ")";
+        Object[] idArgs = ids.toArray();
+        Object[] copyArgs = new Object[ids.size() + 1];
+        copyArgs[0] = archivedAt;
+        System.arraycopy(idArgs, 0, copyArgs, 1, ids.size());
+        jdbcTemplate.update("INSERT INTO " + table.archiveTable() + " (" + table.columns() + ", archived_at) "
+                + "SELECT " + table.columns() + ", ? FROM " + table.table() + " WHERE id" + idList
+                + " AND id NOT IN (SELECT id FROM " + table.archiveTable() + ")", copyArgs);
+        jdbcTemplate.update("DELETE FROM " + table.table() + " WHERE id" + idList, idArgs);
+        return ids;
+    }
+
+    private void pause() {
+        try {
+            Thread.sleep(properties.getPause().toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while archiving " + table.table(), e);
+        }
+    }
+}
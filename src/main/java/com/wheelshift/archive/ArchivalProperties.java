@@ -0,0 +1,39 @@
+package com.wheelshift.archive;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Moving old rows to the archive tables ({@code wheelshift.archival.*}).
+ *
+ * Reads over a date range that reaches past a table's retention include its
+ * archive. Reads without a range, such as the all-time financial statistics,
+ * only cover what is left in the hot tables, which is why archiving is off
+ * until enabled.
+ */
+@Data
+@ConfigurationProperties(prefix = "wheelshift.archival")
+public class ArchivalProperties {
+
+    private boolean enabled = false;
+
+    /** Partitions of each table's id range, claimed by the nodes like any other job. */
+    private int partitions = 2;
+
+    /** Rows moved per transaction. */
+    private int batchSize = 500;
+
+    /** Pause between batches, so archiving does not crowd out the requests. */
+    private Duration pause = Duration.ofMillis(200);
+
+    /** Calendar events are archived this long after they ended. */
+    private Duration calendarEventsAfter = Duration.ofDays(365);
+
+    /** Financial transactions are archived this long after their transaction date. */
+    private Duration transactionsAfter = Duration.ofDays(730);
+
+    /** Closed inquiries are archived this long after their last update. */
+    private Duration closedInquiriesAfter = Duration.ofDays(180);
+}
@@ -0,0 +1,135 @@
+package com.wheelshift.archive;
+
+import com.wheelshift.model.CalendarEvent;
+import com.wheelshift.model.EventType;
+import com.wheelshift.model.FinancialTransaction;
+import com.wheelshift.model.Inquiry;
+import com.wheelshift.tenancy.TenantContext;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads archived rows for the date range queries of the services, which add
+ * them to what the hot tables return. A range that starts after a table's
+ * horizon cannot contain archived rows, so it is answered without touching
+ * the archive. Like {@code BETWEEN} on the hot tables, a range with a missing
+ * bound matches nothing. Archived rows come back as detached entities without
+ * their associations, and only for the current tenant.
+ */
+public class ArchiveReader {
+
+    private static final RowMapper<CalendarEvent> CALENDAR_EVENT = (rs, rowNum) -> CalendarEvent.builder()
+            .id(rs.getLong("id"))
+            .tenantId(rs.getString("tenant_id"))
+            .title(rs.getString("title"))
+            .startTime(toLocalDateTime(rs.getTimestamp("start_time")))
+            .endTime(toLocalDateTime(rs.getTimestamp("end_time")))
+            .backgroundColor(rs.getString("background_color"))
+            .borderColor(rs.getString("border_color"))
+            .eventType(EventType.valueOf(rs.getString("event_type")))
+            .customerName(rs.getString("customer_name"))
+            .carDetails(rs.getString("car_details"))
+            .createdAt(toLocalDateTime(rs.getTimestamp("created_at")))
+            .updatedAt(toLocalDateTime(rs.getTimestamp("updated_at")))
+            .createdBy(rs.getString("created_by"))
+            .updatedBy(rs.getString("updated_by"))
+            .build();
+
+    private static final RowMapper<FinancialTransaction> FINANCIAL_TRANSACTION = (rs, rowNum) -> {
+        FinancialTransaction transaction = new FinancialTransaction();
+        transaction.setId(rs.getLong("id"));
+        transaction.setTenantId(rs.getString("tenant_id"));
+        transaction.setTransactionType(rs.getString("transaction_type"));
+        transaction.setAmount(rs.getBigDecimal("amount"));
+        transaction.setTransactionDate(rs.getDate("transaction_date").toLocalDate());
+        transaction.setDescription(rs.getString("description"));
+        transaction.setVendorName(rs.getString("vendor_name"));
+        transaction.setReceiptUrl(rs.getString("receipt_url"));
+        transaction.setCreatedAt(toLocalDateTime(rs.getTimestamp("created_at")));
+        return transaction;
+    };
+
+    private static final RowMapper<Inquiry> INQUIRY = (rs, rowNum) -> {
+        Inquiry inquiry = new Inquiry();
+        inquiry.setId(rs.getLong("id"));
+        inquiry.setTenantId(rs.getString("tenant_id"));
+        inquiry.setInquiryType(rs.getString("inquiry_type"));
+        inquiry.setMessage(rs.getString("message"));
+        inquiry.setStatus(rs.getString("status"));
+        inquiry.setResponse(rs.getString("response"));
+        inquiry.setResponseDate(toLocalDateTime(rs.getTimestamp("response_date")));
+        inquiry.setCreatedAt(toLocalDateTime(rs.getTimestamp("created_at")));
+        inquiry.setUpdatedAt(toLocalDateTime(rs.getTimestamp("updated_at")));
+        return inquiry;
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ArchivalProperties properties;
+    private final Clock clock;
+
+    public ArchiveReader(JdbcTemplate jdbcTemplate, ArchivalProperties properties, Clock clock) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.properties = properties;
+        this.clock = clock;
+    }
+
+    /**
+     * Whether a range starting at {@code start} may hold archived rows of
+     * {@code table}.
+     */
+    public boolean reaches(ArchivedTable table, LocalDateTime start) {
+        return start == null || start.isBefore(table.horizon(properties, LocalDateTime.now(clock)));
+    }
+
+    public List<CalendarEvent> calendarEvents(LocalDateTime start, LocalDateTime end) {
+        if (start == null || end == null || !reaches(ArchivedTable.CALENDAR_EVENTS, start)) {
+            return List.of();
+        }
+        return query(ArchivedTable.CALENDAR_EVENTS, "start_time BETWEEN ? AND ?", CALENDAR_EVENT,
+                Timestamp.valueOf(start), Timestamp.valueOf(end));
+    }
+
+    /**
+     * @param type transaction type to restrict to, or {@code null} for all
+     */
+    public List<FinancialTransaction> transactions(LocalDate start, LocalDate end, String type) {
+        if (start == null || end == null || !reaches(ArchivedTable.FINANCIAL_TRANSACTIONS, start.atStartOfDay())) {
+            return List.of();
+        }
+        return type == null
+                ? query(ArchivedTable.FINANCIAL_TRANSACTIONS, "transaction_date BETWEEN ? AND ?",
+                        FINANCIAL_TRANSACTION, start, end)
+                : query(ArchivedTable.FINANCIAL_TRANSACTIONS,
+                        "transaction_type = ? AND transaction_date BETWEEN ? AND ?", FINANCIAL_TRANSACTION, type, start, end);
+    }
+
+    public List<Inquiry> inquiries(LocalDateTime start, LocalDateTime end) {
+        if (start == null || end == null || !reaches(ArchivedTable.INQUIRIES, start)) {
+            return List.of();
+        }
+        return query(ArchivedTable.INQUIRIES, "created_at BETWEEN ? AND ?", INQUIRY,
+                Timestamp.valueOf(start), Timestamp.valueOf(end));
+    }
+
+    private <T> List<T> query(ArchivedTable table, String condition, RowMapper<T> mapper, Object... args) {
+        List<Object> allArgs = new ArrayList<>(List.of(args));
+        String sql = "SELECT " + table.columns() + " FROM " + table.archiveTable() + " WHERE " + condition;
+        if (!TenantContext.isRoot()) {
+            sql += " AND tenant_id = ?";
+            allArgs.add(TenantContext.current());
+        }
+        return jdbcTemplate.query(sql, mapper, allArgs.toArray());
+    }
+
+    private static LocalDateTime toLocalDateTime(Timestamp timestamp) {
+        return timestamp == null ? null : timestamp.toLocalDateTime();
+    }
+}
@@ -0,0 +1,77 @@
+package com.wheelshift.archive;
+
+import com.wheelshift.versioning.Aggregate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.function.Function;
+
+/**
+ * A table whose old rows are moved to {@code <table>_archive}, which has the
+ * same columns plus {@code archived_at}. A row is archived once the age
+ * column in {@link #eligible()} is older than the table's retention.
+ */
+public enum ArchivedTable {
+
+    CALENDAR_EVENTS("calendar_events", Aggregate.CALENDAR, "end_time < ?",
+            "id, tenant_id, title, start_time, end_time, background_color, border_color, event_type, "
+                    + "customer_name, car_details, created_at, updated_at, created_by, updated_by",
+            ArchivalProperties::getCalendarEventsAfter),
+
+    FINANCIAL_TRANSACTIONS("financial_transactions", Aggregate.CARS, "transaction_date < ?",
+            "id, tenant_id, car_id, transaction_type, amount, transaction_date, description, vendor_name, "
+                    + "receipt_url, created_at",
+            ArchivalProperties::getTransactionsAfter),
+
+    // Rows written before updated_at was kept fall back to their creation
+    INQUIRIES("inquiries", Aggregate.CARS, "status = 'CLOSED' AND COALESCE(updated_at, created_at) < ?",
+            "id, tenant_id, car_id, client_id, assigned_employee_id, inquiry_type, message, status, response, "
+                    + "response_date, created_at, updated_at",
+            ArchivalProperties::getClosedInquiriesAfter);
+
+    private final String table;
+    private final Aggregate aggregate;
+    private final String eligible;
+    private final String columns;
+    private final Function<ArchivalProperties, Duration> retention;
+
+    ArchivedTable(String table, Aggregate aggregate, String eligible, String columns,
+                  Function<ArchivalProperties, Duration> retention) {
+        this.table = table;
+        this.aggregate = aggregate;
+        this.eligible = eligible;
+        this.columns = columns;
+        this.retention = retention;
+    }
+
+    public String table() {
+        return table;
+    }
+
+    public String archiveTable() {
+        return table + "_archive";
+    }
+
+    public Aggregate aggregate() {
+        return aggregate;
+    }
+
+    /**
+     * Condition a row must meet to be archived, with the horizon as its one
+     * parameter.
+     */
+    public String eligible() {
+        return eligible;
+    }
+
+    public String columns() {
+        return columns;
+    }
+
+    /**
+     * Rows older than this may be in the archive rather than in the table.
+     */
+    public LocalDateTime horizon(ArchivalProperties properties, LocalDateTime now) {
+        return now.minus(retention.apply(properties));
+    }
+}
@@ -0,0 +1,35 @@
+package com.wheelshift.archive;
+
+import com.wheelshift.job.JobCoordinator;
+
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Runs the {@link ArchivalJob} of every {@link ArchivedTable} once a day. Like
+ * the other jobs the schedule fires often on every node, and the date as run
+ * key lets only the first tick of the day do the work.
+ */
+public class Archiver {
+
+    private final JobCoordinator jobCoordinator;
+    private final List<ArchivalJob> jobs;
+    private final Clock clock;
+
+    public Archiver(JobCoordinator jobCoordinator, List<ArchivalJob> jobs, Clock clock) {
+        this.jobCoordinator = jobCoordinator;
+        this.jobs = jobs;
+        this.clock = clock;
+    }
+
+    @Scheduled(cron = "${wheelshift.archival.cron:0 */15 * * * *}")
+    public void run() {
+        String runKey = LocalDate.now(clock).toString();
+        for (ArchivalJob job : jobs) {
+            jobCoordinator.run(job, runKey);
+        }
+    }
+}
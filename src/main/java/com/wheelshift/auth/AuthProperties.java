@@ -0,0 +1,36 @@
+package com.wheelshift.auth;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Employee access tokens ({@code wheelshift.auth.*}).
+ */
+@Data
+@ConfigurationProperties(prefix = "wheelshift.auth")
+public class AuthProperties {
+
+    /**
+     * Rejects requests without a valid token, except logins. Off until the
+     * frontend sends tokens.
+     */
+    private boolean required = false;
+
+    /**
+     * Base64 HMAC-SHA256 key of at least 32 bytes, the same on every node.
+     * Unset means a random key per start, so tokens stop working on restart
+     * and are only valid on the node that issued them.
+     */
+    private String tokenSecret;
+
+    /** How long a token is valid; a revoked token is remembered for as long. */
+    private Duration tokenTtl = Duration.ofMinutes(15);
+
+    /** How often revocations made on other nodes are picked up. */
+    private long revocationPollIntervalMs = 1000;
+
+    /** How often last login times are written to the employees table. */
+    private long lastLoginFlushIntervalMs = 5000;
+}
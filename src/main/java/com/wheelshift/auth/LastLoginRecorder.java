@@ -0,0 +1,78 @@
+package com.wheelshift.auth;
+
+import com.wheelshift.versioning.Aggregate;
+import com.wheelshift.versioning.ChangeVersions;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Writes {@code Employee.lastLogin} behind logins: each login only records
+ * the time in memory, and the latest time per employee is written in one
+ * batch on a schedule and on shutdown. A failed batch is kept for the next
+ * one.
+ */
+@Component
+@Slf4j
+public class LastLoginRecorder implements DisposableBean {
+
+    // Never moves a last login backwards, whatever order nodes flush in
+    private static final String UPDATE_LAST_LOGIN = "UPDATE employees SET last_login = ? "
+            + "WHERE id = ? AND (last_login IS NULL OR last_login < ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ChangeVersions changeVersions;
+    private final Map<Long, LocalDateTime> pending = new ConcurrentHashMap<>();
+
+    public LastLoginRecorder(JdbcTemplate jdbcTemplate, ChangeVersions changeVersions) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.changeVersions = changeVersions;
+    }
+
+    public void record(long employeeId, LocalDateTime loginTime) {
+        pending.merge(employeeId, loginTime, (a, b) -> a.isAfter(b) ? a : b);
+    }
+
+    @Scheduled(fixedDelayString = "${wheelshift.auth.last-login-flush-interval-ms:5000}")
+    public synchronized void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        List<Object[]> batch = new ArrayList<>();
+        for (Long employeeId : List.copyOf(pending.keySet())) {
+            LocalDateTime loginTime = pending.remove(employeeId);
+            if (loginTime != null) {
+                Timestamp at = Timestamp.valueOf(loginTime);
+                batch.add(new Object[] {at, employeeId, at});
+            }
+        }
+        try {
+            jdbcTemplate.batchUpdate(UPDATE_LAST_LOGIN, batch);
+        } catch (DataAccessException e) {
+            log.warn("Could not write {} last login times, retrying with the next batch: {}", batch.size(),
+                    e.getMessage());
+            for (Object[] row : batch) {
+                record((Long) row[1], ((Timestamp) row[0]).toLocalDateTime());
+            }
+            return;
+        }
+        // Written past the entity listener, which would otherwise announce the change
+        changeVersions.changed(Aggregate.EMPLOYEES);
+    }
+
+    @Override
+    public void destroy() {
+        flush();
+    }
+}
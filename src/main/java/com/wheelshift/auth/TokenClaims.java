@@ -0,0 +1,10 @@
+package com.wheelshift.auth;
+
+import java.time.Instant;
+
+/**
+ * What a verified access token says: who it was issued to and for which
+ * tenant, its id for revocation and when it expires.
+ */
+public record TokenClaims(String tenantId, long employeeId, String tokenId, Instant expiresAt) {
+}
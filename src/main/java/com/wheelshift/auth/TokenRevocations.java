@@ -0,0 +1,66 @@
+package com.wheelshift.auth;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Ids of revoked tokens that have not expired yet. Checked in memory on every
+ * request; revocations are written to {@code revoked_tokens} and read back on
+ * a schedule, so a token revoked on one node stops working on the others
+ * within a poll interval. Tokens are short-lived, so the set stays small.
+ */
+@Component
+@Slf4j
+public class TokenRevocations {
+
+    private final JdbcTemplate jdbcTemplate;
+    // Token id to expiry
+    private final Map<String, Instant> revoked = new ConcurrentHashMap<>();
+
+    public TokenRevocations(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public boolean isRevoked(TokenClaims claims) {
+        return revoked.containsKey(claims.tokenId());
+    }
+
+    public void revoke(TokenClaims claims) {
+        revoked.put(claims.tokenId(), claims.expiresAt());
+        try {
+            jdbcTemplate.update("INSERT INTO revoked_tokens (token_id, expires_at) VALUES (?, ?)",
+                    claims.tokenId(), Timestamp.from(claims.expiresAt()));
+        } catch (DuplicateKeyException e) {
+            // Revoked twice
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${wheelshift.auth.revocation-poll-interval-ms:1000}")
+    public void refresh() {
+        Timestamp now = Timestamp.from(Instant.now());
+        Map<String, Instant> current = new HashMap<>();
+        try {
+            jdbcTemplate.update("DELETE FROM revoked_tokens WHERE expires_at < ?", now);
+            jdbcTemplate.query("SELECT token_id, expires_at FROM revoked_tokens",
+                    rs -> {
+                        current.put(rs.getString(1), rs.getTimestamp(2).toInstant());
+                    });
+        } catch (DataAccessException e) {
+            // Keep what is known; expired entries are still dropped below
+            log.warn("Could not read token revocations: {}", e.getMessage());
+        }
+        Instant cutoff = now.toInstant();
+        revoked.putAll(current);
+        revoked.values().removeIf(expiresAt -> expiresAt.isBefore(cutoff));
+    }
+}
@@ -0,0 +1,42 @@
+package com.wheelshift.cache;
+
+import com.wheelshift.versioning.Aggregate;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Caches the result of a read-only service method per argument list. Callers
+ * asking for the same arguments while the value is being computed wait for
+ * that one computation instead of starting their own. Once the value is older
+ * than the cache's TTL it is still served, and refreshed in the background,
+ * until it is older than TTL plus the maximum staleness; after that callers
+ * wait for a fresh value again.
+ *
+ * The cached value is handed to every caller, so it must not be modified.
+ * Expiry is configured per cache name under {@code wheelshift.cache.*}, see
+ * {@link CoalescedCacheProperties}. Methods sharing a cache can declare it
+ * once on an annotation of their own, which they are annotated with instead.
+ *
+ * A method whose result is served behind a conditional GET lists the aggregates
+ * it reads in {@link #dependsOn()}. Their versions are part of the key, so a
+ * committed write is never answered with a value computed before it.
+ */
+@Target({ElementType.METHOD, ElementType.ANNOTATION_TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface CoalescedCache {
+
+    /**
+     * Name of the cache, used to look up its expiry settings.
+     */
+    String value();
+
+    /**
+     * Aggregates whose change makes the cached value unusable at once.
+     */
+    Aggregate[] dependsOn() default {};
+}
@@ -0,0 +1,148 @@
+package com.wheelshift.cache;
+
+import com.wheelshift.tenancy.TenantContext;
+import com.wheelshift.versioning.Aggregate;
+import com.wheelshift.versioning.ChangeVersions;
+import com.wheelshift.versioning.ConditionalGetInterceptor;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.ProxyMethodInvocation;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.UndeclaredThrowableException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Advice behind {@link CoalescedCache}. It runs outside the transaction advice,
+ * so a cache hit costs no connection. The computation is a copy of the
+ * intercepted invocation, so a background refresh still goes through the rest
+ * of the advice chain. It runs in a read-only transaction, so lazy associations
+ * can be loaded off the request thread. Entries are kept per tenant.
+ *
+ * Each value remembers the versions of its dependencies it was computed at. A
+ * value whose versions are behind is served like one past its TTL, and the
+ * response's tag is replaced so it is not paired with the newer versions.
+ */
+public class CoalescedCacheInterceptor implements MethodInterceptor, DisposableBean {
+
+    private record Key(String tenant, Method method, List<Object> arguments) {
+    }
+
+    // Versions are read before the computation, so they are never newer than the data
+    private record Versioned(Object value, List<Long> versions) {
+    }
+
+    private final CoalescedCacheProperties properties;
+    private final ObjectProvider<PlatformTransactionManager> transactionManager;
+    private final ObjectProvider<ChangeVersions> changeVersions;
+    private volatile TransactionTemplate readOnlyTransaction;
+    private final ThreadPoolTaskExecutor refreshExecutor;
+    private final Map<String, CoalescingCache> caches = new ConcurrentHashMap<>();
+
+    /**
+     * The transaction manager and the change versions are looked up on first
+     * use. Advisors are created while the bean post-processors are still being
+     * registered, and pulling the persistence layer in that early would leave
+     * it unprocessed.
+     */
+    public CoalescedCacheInterceptor(CoalescedCacheProperties properties,
+                                     ObjectProvider<PlatformTransactionManager> transactionManager,
+                                     ObjectProvider<ChangeVersions> changeVersions) {
+        this.properties = properties;
+        this.transactionManager = transactionManager;
+        this.changeVersions = changeVersions;
+        this.refreshExecutor = new ThreadPoolTaskExecutor();
+        this.refreshExecutor.setCorePoolSize(properties.getRefreshThreads());
+        this.refreshExecutor.setMaxPoolSize(properties.getRefreshThreads());
+        // Refreshes that cannot queue are dropped; the stale value is served until a later call retries
+        this.refreshExecutor.setQueueCapacity(64);
+        this.refreshExecutor.setThreadNamePrefix("cache-refresh-");
+        this.refreshExecutor.setDaemon(true);
+        this.refreshExecutor.initialize();
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        CoalescedCache annotation = AnnotatedElementUtils.findMergedAnnotation(invocation.getMethod(), CoalescedCache.class);
+        if (!properties.isEnabled() || annotation == null || !(invocation instanceof ProxyMethodInvocation proxied)) {
+            return invocation.proceed();
+        }
+        MethodInvocation computation = proxied.invocableClone();
+        Aggregate[] dependsOn = annotation.dependsOn();
+        List<Long> versions = versionsOf(dependsOn);
+        // Refreshes run on another thread, so the computation carries the caller's tenant with it
+        String tenant = TenantContext.current();
+        Key key = new Key(tenant, invocation.getMethod(), Arrays.asList(invocation.getArguments().clone()));
+        Versioned cached = (Versioned) cache(annotation.value()).get(key,
+                () -> {
+                    List<Long> computedAt = versionsOf(dependsOn);
+                    return new Versioned(TenantContext.callAs(tenant, () -> proceedReadOnly(computation)), computedAt);
+                },
+                value -> !isBehind(((Versioned) value).versions(), versions));
+        if (isBehind(cached.versions(), versions)) {
+            ConditionalGetInterceptor.retagAsBehind(cached.versions());
+        }
+        return cached.value();
+    }
+
+    public CoalescingCache cache(String name) {
+        return caches.computeIfAbsent(name, cacheName -> new CoalescingCache(cacheName,
+                properties.ttl(cacheName), properties.maxStale(cacheName), properties.getMaxEntries(),
+                refreshExecutor, System::nanoTime));
+    }
+
+    public void clearAll() {
+        caches.values().forEach(CoalescingCache::clear);
+    }
+
+    private List<Long> versionsOf(Aggregate[] dependsOn) {
+        return dependsOn.length == 0 ? List.of() : changeVersions.getObject().versionsOf(dependsOn);
+    }
+
+    /**
+     * Whether a dependency has moved past the version a value was computed at.
+     * Versions unknown now compare as unchanged, leaving it to the TTL.
+     */
+    private static boolean isBehind(List<Long> computedAt, List<Long> current) {
+        for (int i = 0; i < current.size(); i++) {
+            Long now = current.get(i);
+            Long then = computedAt.get(i);
+            if (now != null && (then == null || then < now)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private Object proceedReadOnly(MethodInvocation computation) {
+        if (readOnlyTransaction == null) {
+            TransactionTemplate template = new TransactionTemplate(transactionManager.getObject());
+            template.setReadOnly(true);
+            readOnlyTransaction = template;
+        }
+        return readOnlyTransaction.execute(status -> {
+            try {
+                return computation.proceed();
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable t) {
+                throw new UndeclaredThrowableException(t);
+            }
+        });
+    }
+
+    @Override
+    public void destroy() {
+        refreshExecutor.shutdown();
+    }
+}
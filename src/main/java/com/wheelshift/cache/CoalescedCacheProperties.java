@@ -0,0 +1,52 @@
+package com.wheelshift.cache;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Settings for {@link CoalescedCache} methods ({@code wheelshift.cache.*}). The
+ * top-level TTL and maximum staleness apply to every cache that has no entry
+ * of its own under {@link #caches}.
+ */
+@Data
+@ConfigurationProperties(prefix = "wheelshift.cache")
+public class CoalescedCacheProperties {
+
+    private boolean enabled = true;
+
+    /** How long a value is served without refreshing it. */
+    private Duration ttl = Duration.ofSeconds(30);
+
+    /** How long past the TTL a value is still served while a refresh runs. */
+    private Duration maxStale = Duration.ofMinutes(5);
+
+    /** Distinct argument lists kept per cache. */
+    private int maxEntries = 256;
+
+    /** Threads running background refreshes, shared by all caches. */
+    private int refreshThreads = 2;
+
+    private Map<String, Expiry> caches = new HashMap<>();
+
+    @Data
+    public static class Expiry {
+
+        private Duration ttl;
+
+        private Duration maxStale;
+    }
+
+    Duration ttl(String cacheName) {
+        Expiry expiry = caches.get(cacheName);
+        return expiry == null || expiry.getTtl() == null ? ttl : expiry.getTtl();
+    }
+
+    Duration maxStale(String cacheName) {
+        Expiry expiry = caches.get(cacheName);
+        return expiry == null || expiry.getMaxStale() == null ? maxStale : expiry.getMaxStale();
+    }
+}
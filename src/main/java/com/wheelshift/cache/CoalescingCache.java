@@ -0,0 +1,191 @@
+package com.wheelshift.cache;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
+
+/**
+ * One named cache behind {@link CoalescedCache}. Each key holds the last value
+ * computed for it and at most one computation in flight; every caller that
+ * needs a value while that computation runs waits for it rather than starting
+ * another one.
+ */
+@Slf4j
+public class CoalescingCache {
+
+    /**
+     * Computes the value for a key. May throw whatever the cached method throws.
+     */
+    @FunctionalInterface
+    public interface Loader {
+        Object load() throws Throwable;
+    }
+
+    private record Loaded(Object value, long loadedAt) {
+    }
+
+    private final String name;
+    private final long ttlNanos;
+    private final long maxStaleNanos;
+    private final int maxEntries;
+    private final Executor refreshExecutor;
+    private final LongSupplier nanoClock;
+    private final Map<Object, Entry> entries = new ConcurrentHashMap<>();
+
+    public CoalescingCache(String name, Duration ttl, Duration maxStale, int maxEntries, Executor refreshExecutor,
+                           LongSupplier nanoClock) {
+        if (ttl.isNegative() || maxStale.isNegative() || maxEntries < 1) {
+            throw new IllegalArgumentException("Cache " + name + " needs a non-negative TTL and staleness and room for one entry");
+        }
+        this.name = name;
+        this.ttlNanos = ttl.toNanos();
+        this.maxStaleNanos = maxStale.toNanos();
+        this.maxEntries = maxEntries;
+        this.refreshExecutor = refreshExecutor;
+        this.nanoClock = nanoClock;
+    }
+
+    public Object get(Object key, Loader loader) throws Throwable {
+        return get(key, loader, value -> true);
+    }
+
+    /**
+     * Like {@link #get(Object, Loader)}, but a value that fails {@code upToDate}
+     * is treated as past its TTL however young it is: it is served while a
+     * refresh runs in the background, as long as the staleness allows it.
+     */
+    public Object get(Object key, Loader loader, Predicate<Object> upToDate) throws Throwable {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            evictIfFull();
+            entry = entries.computeIfAbsent(key, k -> new Entry());
+        }
+        Loaded current = entry.loaded;
+        if (current != null) {
+            long age = nanoClock.getAsLong() - current.loadedAt();
+            if (age < ttlNanos && upToDate.test(current.value())) {
+                return current.value();
+            }
+            if (Math.max(age - ttlNanos, 0) < maxStaleNanos) {
+                entry.refresh(loader, true);
+                return current.value();
+            }
+        }
+        return await(entry.refresh(loader, false));
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public void clear() {
+        entries.clear();
+    }
+
+    private static Object await(CompletableFuture<Object> computation) throws Throwable {
+        try {
+            return computation.join();
+        } catch (CompletionException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Makes room for a new key, first by dropping entries with nothing left to
+     * serve, then the least recently loaded ones. Keys with a computation in
+     * flight are kept so their waiters are not split from later callers.
+     */
+    private void evictIfFull() {
+        if (entries.size() < maxEntries) {
+            return;
+        }
+        long now = nanoClock.getAsLong();
+        entries.entrySet().removeIf(e -> e.getValue().isExpired(now));
+        while (entries.size() >= maxEntries) {
+            Map.Entry<Object, Entry> oldest = entries.entrySet().stream()
+                    .filter(e -> e.getValue().loaded != null && !e.getValue().isLoading())
+                    .min(Comparator.comparingLong(e -> e.getValue().loaded.loadedAt()))
+                    .orElse(null);
+            if (oldest == null) {
+                return;
+            }
+            entries.remove(oldest.getKey(), oldest.getValue());
+        }
+    }
+
+    private final class Entry {
+
+        private volatile Loaded loaded;
+        // Guarded by this
+        private CompletableFuture<Object> inFlight;
+
+        /**
+         * Starts a computation unless one is already running, and returns the one
+         * that is.
+         */
+        CompletableFuture<Object> refresh(Loader loader, boolean background) {
+            CompletableFuture<Object> computation;
+            synchronized (this) {
+                if (inFlight != null) {
+                    return inFlight;
+                }
+                computation = new CompletableFuture<>();
+                inFlight = computation;
+            }
+            if (!background) {
+                load(loader, computation);
+                return computation;
+            }
+            try {
+                refreshExecutor.execute(() -> load(loader, computation));
+            } catch (RejectedExecutionException e) {
+                // The stale value keeps being served; a later call tries again
+                finish(computation);
+                computation.completeExceptionally(e);
+            }
+            return computation;
+        }
+
+        private void load(Loader loader, CompletableFuture<Object> computation) {
+            Object value;
+            try {
+                value = loader.load();
+            } catch (Throwable t) {
+                if (loaded != null) {
+                    log.warn("Refreshing cache {} failed: {}", name, t.toString());
+                }
+                finish(computation);
+                computation.completeExceptionally(t);
+                return;
+            }
+            loaded = new Loaded(value, nanoClock.getAsLong());
+            finish(computation);
+            computation.complete(value);
+        }
+
+        private synchronized void finish(CompletableFuture<Object> computation) {
+            if (inFlight == computation) {
+                inFlight = null;
+            }
+        }
+
+        synchronized boolean isLoading() {
+            return inFlight != null;
+        }
+
+        // Too stale to serve, or never loaded because the computation failed
+        boolean isExpired(long now) {
+            Loaded current = loaded;
+            return (current == null || now - current.loadedAt() - ttlNanos >= maxStaleNanos) && !isLoading();
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.wheelshift.changefeed;
+
+import com.wheelshift.model.Car;
+import com.wheelshift.model.CarInspection;
+import com.wheelshift.model.CarStatus;
+import com.wheelshift.model.Reservation;
+import com.wheelshift.versioning.Aggregate;
+
+import org.springframework.jdbc.core.RowMapper;
+
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A table whose inserts, updates and deletes are kept in {@code change_feed}
+ * for clients that sync incrementally. An upsert carries the row in compact
+ * form, the columns a client keeps rather than the entity with its
+ * associations, read by {@link #selectRows()} with the ids appended.
+ */
+public enum ChangeFeed {
+
+    CARS("cars", Aggregate.CARS, "SELECT id, vin_number, registration_number, model_id, year, color, mileage, "
+            + "status_code, location_id, selling_price, updated_at FROM cars", rs -> {
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("id", rs.getLong(1));
+        row.put("vinNumber", rs.getString(2));
+        row.put("registrationNumber", rs.getString(3));
+        row.put("carModelId", rs.getInt(4));
+        row.put("year", rs.getInt(5));
+        row.put("color", rs.getString(6));
+        row.put("mileage", rs.getBigDecimal(7));
+        row.put("currentStatus", CarStatus.fromCode(rs.getInt(8)));
+        row.put("storageLocationId", rs.getObject(9, Long.class));
+        row.put("sellingPrice", rs.getBigDecimal(10));
+        row.put("updatedAt", toLocalDateTime(rs.getTimestamp(11)));
+        return row;
+    }),
+
+    RESERVATIONS("reservations", Aggregate.RESERVATIONS, "SELECT id, car_id, client_id, reservation_date, "
+            + "expiry_date, status, deposit_amount, deposit_paid, updated_at FROM reservations", rs -> {
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("id", rs.getLong(1));
+        row.put("carId", rs.getLong(2));
+        row.put("clientId", rs.getLong(3));
+        row.put("reservationDate", toLocalDateTime(rs.getTimestamp(4)));
+        row.put("expiryDate", toLocalDateTime(rs.getTimestamp(5)));
+        row.put("status", rs.getString(6));
+        row.put("depositAmount", rs.getBigDecimal(7));
+        row.put("depositPaid", rs.getObject(8, Boolean.class));
+        row.put("updatedAt", toLocalDateTime(rs.getTimestamp(9)));
+        return row;
+    }),
+
+    INSPECTIONS("inspections", Aggregate.CARS, "SELECT id, car_id, inspection_date, inspector_name, "
+            + "overall_condition, inspection_pass, estimated_repair_cost, required_repairs, "
+            + "inspection_report_filename FROM car_inspections", rs -> {
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("id", rs.getLong(1));
+        row.put("carId", rs.getLong(2));
+        row.put("inspectionDate", toLocalDate(rs.getDate(3)));
+        row.put("inspectorName", rs.getString(4));
+        row.put("overallCondition", rs.getString(5));
+        row.put("inspectionPass", rs.getObject(6, Boolean.class));
+        row.put("estimatedRepairCost", rs.getBigDecimal(7));
+        row.put("requiredRepairs", rs.getString(8));
+        row.put("inspectionReportFilename", rs.getString(9));
+        return row;
+    });
+
+    private final String path;
+    private final Aggregate aggregate;
+    private final String select;
+    private final RowMapper<Map<String, Object>> rowMapper;
+
+    ChangeFeed(String path, Aggregate aggregate, String select, CompactRow compactRow) {
+        this.path = path;
+        this.aggregate = aggregate;
+        this.select = select;
+        this.rowMapper = (rs, rowNum) -> compactRow.read(rs);
+    }
+
+    /**
+     * Name of the feed in URLs and in {@code change_feed.feed}.
+     */
+    public String getPath() {
+        return path;
+    }
+
+    public Aggregate getAggregate() {
+        return aggregate;
+    }
+
+    /**
+     * Select of the compact rows, to be followed by a WHERE clause.
+     */
+    String selectRows() {
+        return select;
+    }
+
+    RowMapper<Map<String, Object>> rowMapper() {
+        return rowMapper;
+    }
+
+    public static ChangeFeed fromPath(String path) {
+        for (ChangeFeed feed : values()) {
+            if (feed.path.equals(path)) {
+                return feed;
+            }
+        }
+        throw new IllegalArgumentException("No change feed named " + path);
+    }
+
+    /**
+     * The feed an entity's changes go to, or null if it has none.
+     */
+    public static ChangeFeed of(Object entity) {
+        if (entity instanceof Car) {
+            return CARS;
+        } else if (entity instanceof Reservation) {
+            return RESERVATIONS;
+        } else if (entity instanceof CarInspection) {
+            return INSPECTIONS;
+        }
+        return null;
+    }
+
+    @FunctionalInterface
+    private interface CompactRow {
+        Map<String, Object> read(ResultSet rs) throws SQLException;
+    }
+
+    private static LocalDateTime toLocalDateTime(Timestamp timestamp) {
+        return timestamp == null ? null : timestamp.toLocalDateTime();
+    }
+
+    private static LocalDate toLocalDate(Date date) {
+        return date == null ? null : date.toLocalDate();
+    }
+}
@@ -0,0 +1,82 @@
+package com.wheelshift.changefeed;
+
+import com.wheelshift.events.RowChanged;
+import com.wheelshift.model.Car;
+import com.wheelshift.model.CarInspection;
+import com.wheelshift.model.Reservation;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Entity listener on {@link Car}, {@link Reservation} and {@link CarInspection}
+ * that raises a {@link RowChanged} for every row written, once per row and
+ * kind of change however often a transaction flushes it. The outbox stores it
+ * with the write and {@link ChangeFeedWriter} files it in the feed. Writes
+ * that bypass JPA, such as the dataset generator, do not reach the feed.
+ */
+public class ChangeFeedListener {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    public ChangeFeedListener(ApplicationEventPublisher eventPublisher) {
+        this.eventPublisher = eventPublisher;
+    }
+
+    @PostPersist
+    @PostUpdate
+    public void written(Object entity) {
+        changed(entity, false);
+    }
+
+    @PostRemove
+    public void removed(Object entity) {
+        changed(entity, true);
+    }
+
+    private void changed(Object entity, boolean deleted) {
+        ChangeFeed feed = ChangeFeed.of(entity);
+        Long id = null;
+        String tenantId = null;
+        if (entity instanceof Car car) {
+            id = car.getId();
+            tenantId = car.getTenantId();
+        } else if (entity instanceof Reservation reservation) {
+            id = reservation.getId();
+            tenantId = reservation.getTenantId();
+        } else if (entity instanceof CarInspection inspection) {
+            id = inspection.getId();
+            tenantId = inspection.getTenantId();
+        }
+        if (feed == null || id == null) {
+            return;
+        }
+        RowChanged event = new RowChanged(tenantId, feed, id, deleted);
+        if (!TransactionSynchronizationManager.isSynchronizationActive() || raised().add(event)) {
+            eventPublisher.publishEvent(event);
+        }
+    }
+
+    private Set<RowChanged> raised() {
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            if (synchronization instanceof RaisedChanges raised) {
+                return raised.events;
+            }
+        }
+        RaisedChanges raised = new RaisedChanges();
+        TransactionSynchronizationManager.registerSynchronization(raised);
+        return raised.events;
+    }
+
+    private static final class RaisedChanges implements TransactionSynchronization {
+
+        private final Set<RowChanged> events = new HashSet<>();
+    }
+}
@@ -0,0 +1,33 @@
+package com.wheelshift.changefeed;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Change feeds served to incrementally syncing clients
+ * ({@code wheelshift.change-feed.*}).
+ */
+@Data
+@ConfigurationProperties(prefix = "wheelshift.change-feed")
+public class ChangeFeedProperties {
+
+    /** Changes per response when the client does not ask for fewer. */
+    private int pageSize = 500;
+
+    private int maxPageSize = 5000;
+
+    /**
+     * Longest a request without new changes is held open. Keep it below the
+     * async request timeout, or the container answers the request first.
+     */
+    private Duration maxWait = Duration.ofSeconds(25);
+
+    /**
+     * How long a delete stays in the feed. A client whose resume token is
+     * older than a delete compacted away is answered 410 and has to take a
+     * new snapshot.
+     */
+    private Duration tombstoneRetention = Duration.ofDays(30);
+}
@@ -0,0 +1,75 @@
+package com.wheelshift.changefeed;
+
+import com.wheelshift.events.DomainEvent;
+import com.wheelshift.events.RowChanged;
+import com.wheelshift.outbox.OutboxConsumer;
+import com.wheelshift.outbox.PublishedEvent;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Files the {@link RowChanged} events in {@code change_feed}, replacing each
+ * row's previous entry so the feed holds one per row. A batch is filed in one
+ * transaction, so readers never see a row between losing its old entry and
+ * getting the new one, and redelivering a batch files the same rows again
+ * under new numbers, which clients apply as no-op upserts.
+ */
+public class ChangeFeedWriter implements OutboxConsumer {
+
+    private static final String DELETE_ENTRY = "DELETE FROM change_feed WHERE tenant_id = ? AND feed = ? AND row_id = ?";
+    private static final String INSERT_ENTRY = "INSERT INTO change_feed (tenant_id, feed, row_id, deleted, changed_at) "
+            + "VALUES (?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ChangeFeeds changeFeeds;
+
+    public ChangeFeedWriter(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                            ChangeFeeds changeFeeds) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.changeFeeds = changeFeeds;
+    }
+
+    @Override
+    public String getName() {
+        return "change-feed";
+    }
+
+    @Override
+    public boolean accepts(DomainEvent event) {
+        return event instanceof RowChanged;
+    }
+
+    @Override
+    public void consume(List<PublishedEvent> events) {
+        // A run is one tenant's, so the feed and row id identify the row; the last change wins
+        Map<List<Object>, PublishedEvent> latest = new LinkedHashMap<>();
+        for (PublishedEvent published : events) {
+            RowChanged changed = (RowChanged) published.event();
+            List<Object> key = List.of(changed.feed(), changed.rowId());
+            latest.remove(key);
+            latest.put(key, published);
+        }
+        List<Object[]> deletes = new ArrayList<>(latest.size());
+        List<Object[]> inserts = new ArrayList<>(latest.size());
+        for (PublishedEvent published : latest.values()) {
+            RowChanged changed = (RowChanged) published.event();
+            deletes.add(new Object[] {published.tenantId(), changed.feed().getPath(), changed.rowId()});
+            inserts.add(new Object[] {published.tenantId(), changed.feed().getPath(), changed.rowId(),
+                    changed.deleted(), Timestamp.valueOf(published.raisedAt())});
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.batchUpdate(DELETE_ENTRY, deletes);
+            jdbcTemplate.batchUpdate(INSERT_ENTRY, inserts);
+        });
+        changeFeeds.wakeWaiters();
+    }
+}
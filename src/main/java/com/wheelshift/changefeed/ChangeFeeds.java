@@ -0,0 +1,246 @@
+package com.wheelshift.changefeed;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.wheelshift.tenancy.TenantContext;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reads the change feeds. The feed holds one entry per row, its latest
+ * change, under a sequence number taken when {@link ChangeFeedWriter} filed
+ * it; the writer is a single outbox consumer, so numbers are handed out in
+ * commit order and a client that read up to a number never misses a change
+ * filed after it. The resume token is the sequence number of the last change
+ * a client received. A page of changes carries each changed row as it is now.
+ *
+ * A client with nothing new may wait for changes. Waiting requests do not
+ * hold a thread; they are answered when this node files a change for their
+ * tenant and feed, or when the poll of the feed's head sees one filed by
+ * another node.
+ */
+@Slf4j
+public class ChangeFeeds {
+
+    private static final String SELECT_HEAD = "SELECT MAX(seq) FROM change_feed";
+    private static final String SELECT_FEED_HEAD = "SELECT MAX(seq) FROM change_feed WHERE tenant_id = ? AND feed = ?";
+    private static final String SELECT_CHANGES = "SELECT seq, row_id, deleted FROM change_feed "
+            + "WHERE tenant_id = ? AND feed = ? AND seq > ? ORDER BY seq LIMIT ?";
+    private static final String SELECT_HORIZON = "SELECT purged_through FROM change_feed_horizons WHERE feed = ?";
+    private static final String SELECT_EXPIRED_TOMBSTONES = "SELECT MAX(seq) FROM change_feed "
+            + "WHERE feed = ? AND deleted = TRUE AND changed_at < ?";
+    private static final String RAISE_HORIZON = "UPDATE change_feed_horizons SET purged_through = ? "
+            + "WHERE feed = ? AND purged_through < ?";
+    private static final String INSERT_HORIZON =
+            "INSERT INTO change_feed_horizons (feed, purged_through) VALUES (?, ?)";
+    private static final String DELETE_TOMBSTONES =
+            "DELETE FROM change_feed WHERE feed = ? AND deleted = TRUE AND seq <= ?";
+
+    /**
+     * One row's latest change. {@code data} is the compact row of an upsert
+     * and absent for a delete.
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public record Change(long seq, long id, String op, Map<String, Object> data) {
+    }
+
+    /**
+     * Changes after the requested token, and the token to ask for the next
+     * ones with. {@code hasMore} means another page is ready right away.
+     */
+    public record ChangePage(List<Change> changes, String resumeToken, boolean hasMore) {
+    }
+
+    private record Waiter(String tenantId, ChangeFeed feed, long since, int limit,
+                          CompletableFuture<ChangePage> page) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ChangeFeedProperties properties;
+    private final Set<Waiter> waiters = ConcurrentHashMap.newKeySet();
+    private volatile long polledHead = -1;
+
+    public ChangeFeeds(JdbcTemplate jdbcTemplate, ChangeFeedProperties properties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.properties = properties;
+    }
+
+    /* ===== Reads ===== */
+
+    /**
+     * The changes of the request's tenant after {@code since}, or none and the
+     * current token for a client about to take its snapshot when null. The
+     * token has to be taken before the snapshot, so that changes made while
+     * the snapshot is read are not missed.
+     */
+    public ChangePage read(ChangeFeed feed, Long since, int limit) {
+        if (since == null) {
+            Long head = jdbcTemplate.queryForObject(SELECT_HEAD, Long.class);
+            return new ChangePage(List.of(), String.valueOf(head == null ? 0L : head), false);
+        }
+        String tenantId = tenant();
+        int size = Math.min(Math.max(limit, 1), properties.getMaxPageSize());
+        List<long[]> entries = jdbcTemplate.query(SELECT_CHANGES, (rs, rowNum) ->
+                new long[] {rs.getLong(1), rs.getLong(2), rs.getBoolean(3) ? 1 : 0}, tenantId, feed.getPath(),
+                since, size + 1);
+        boolean hasMore = entries.size() > size;
+        if (hasMore) {
+            entries = entries.subList(0, size);
+        }
+        Map<Long, Map<String, Object>> rows = rows(feed, tenantId, entries);
+        List<Change> changes = new ArrayList<>(entries.size());
+        for (long[] entry : entries) {
+            if (entry[2] == 1) {
+                changes.add(new Change(entry[0], entry[1], "delete", null));
+            } else if (rows.containsKey(entry[1])) {
+                changes.add(new Change(entry[0], entry[1], "upsert", rows.get(entry[1])));
+            }
+            // An upsert of a row deleted since is followed by the delete once that is filed
+        }
+        long last = entries.isEmpty() ? since : entries.get(entries.size() - 1)[0];
+        return new ChangePage(changes, String.valueOf(last), hasMore);
+    }
+
+    private Map<Long, Map<String, Object>> rows(ChangeFeed feed, String tenantId, List<long[]> entries) {
+        List<Object> args = new ArrayList<>();
+        args.add(tenantId);
+        for (long[] entry : entries) {
+            if (entry[2] == 0) {
+                args.add(entry[1]);
+            }
+        }
+        if (args.size() == 1) {
+            return Map.of();
+        }
+        String sql = feed.selectRows() + " WHERE tenant_id = ? AND id IN ("
+                + String.join(", ", Collections.nCopies(args.size() - 1, "?")) + ")";
+        Map<Long, Map<String, Object>> rows = new HashMap<>();
+        for (Map<String, Object> row : jdbcTemplate.query(sql, feed.rowMapper(), args.toArray())) {
+            rows.put((Long) row.get("id"), row);
+        }
+        return rows;
+    }
+
+    /**
+     * Whether deletes after {@code since} may have been compacted away, so the
+     * client cannot catch up from it.
+     */
+    public boolean isExpired(ChangeFeed feed, long since) {
+        List<Long> horizon = jdbcTemplate.queryForList(SELECT_HORIZON, Long.class, feed.getPath());
+        return !horizon.isEmpty() && since < horizon.get(0);
+    }
+
+    /* ===== Waiting ===== */
+
+    /**
+     * Like {@link #read}, but with nothing new completes once there is, or
+     * with an empty page after {@code wait}.
+     */
+    public CompletableFuture<ChangePage> await(ChangeFeed feed, long since, int limit, Duration wait) {
+        ChangePage page = read(feed, since, limit);
+        Duration timeout = wait.compareTo(properties.getMaxWait()) > 0 ? properties.getMaxWait() : wait;
+        if (!page.changes().isEmpty() || page.hasMore() || timeout.isZero() || timeout.isNegative()) {
+            return CompletableFuture.completedFuture(page);
+        }
+        Waiter waiter = new Waiter(tenant(), feed, since, limit, new CompletableFuture<>());
+        waiters.add(waiter);
+        waiter.page().whenComplete((result, failure) -> waiters.remove(waiter));
+        // A change filed between the read and registering the waiter would not wake it
+        wake(waiter);
+        return waiter.page().completeOnTimeout(page, timeout.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Answers the waiters of every tenant and feed whose head moved past
+     * their token.
+     */
+    void wakeWaiters() {
+        if (waiters.isEmpty()) {
+            return;
+        }
+        Map<List<String>, Long> heads = new HashMap<>();
+        for (Waiter waiter : waiters) {
+            Long head = heads.computeIfAbsent(List.of(waiter.tenantId(), waiter.feed().getPath()), key ->
+                    jdbcTemplate.queryForObject(SELECT_FEED_HEAD, Long.class, key.get(0), key.get(1)));
+            if (head != null && head > waiter.since()) {
+                wake(waiter);
+            }
+        }
+    }
+
+    private void wake(Waiter waiter) {
+        try {
+            ChangePage page = TenantContext.callAs(waiter.tenantId(),
+                    () -> read(waiter.feed(), waiter.since(), waiter.limit()));
+            if (!page.changes().isEmpty() || page.hasMore()) {
+                waiter.page().complete(page);
+            }
+        } catch (RuntimeException e) {
+            waiter.page().completeExceptionally(e);
+        }
+    }
+
+    /**
+     * Wakes the waiters when another node filed changes.
+     */
+    @Scheduled(fixedDelayString = "${wheelshift.change-feed.poll-interval-ms:1000}",
+            initialDelayString = "${wheelshift.change-feed.poll-interval-ms:1000}")
+    public void pollHead() {
+        if (waiters.isEmpty()) {
+            return;
+        }
+        Long head = jdbcTemplate.queryForObject(SELECT_HEAD, Long.class);
+        if (head != null && head > polledHead) {
+            polledHead = head;
+            wakeWaiters();
+        }
+    }
+
+    /* ===== Compaction ===== */
+
+    /**
+     * Drops the deletes older than the tombstone retention. Updates need no
+     * compaction, filing a change replaces the row's previous one. The feed
+     * horizon is raised before the deletes go, so no client is told its token
+     * is fine while the deletes it needs are being dropped.
+     */
+    @Scheduled(cron = "${wheelshift.change-feed.compaction-cron:0 50 3 * * *}")
+    public void compact() {
+        Timestamp cutoff = Timestamp.valueOf(LocalDateTime.now().minus(properties.getTombstoneRetention()));
+        for (ChangeFeed feed : ChangeFeed.values()) {
+            Long purgeThrough = jdbcTemplate.queryForObject(SELECT_EXPIRED_TOMBSTONES, Long.class, feed.getPath(),
+                    cutoff);
+            if (purgeThrough == null) {
+                continue;
+            }
+            if (jdbcTemplate.queryForList(SELECT_HORIZON, Long.class, feed.getPath()).isEmpty()) {
+                jdbcTemplate.update(INSERT_HORIZON, feed.getPath(), purgeThrough);
+            } else {
+                jdbcTemplate.update(RAISE_HORIZON, purgeThrough, feed.getPath(), purgeThrough);
+            }
+            int deleted = jdbcTemplate.update(DELETE_TOMBSTONES, feed.getPath(), purgeThrough);
+            log.info("Compacted {} deletes out of the {} change feed", deleted, feed.getPath());
+        }
+    }
+
+    private static String tenant() {
+        if (TenantContext.isRoot()) {
+            throw new IllegalStateException("Change feeds are read for one tenant");
+        }
+        return TenantContext.current();
+    }
+}
@@ -0,0 +1,58 @@
+package com.wheelshift.config;
+
+import com.wheelshift.admission.AdmissionControl;
+import com.wheelshift.admission.AdmissionInterceptor;
+import com.wheelshift.admission.AdmissionProperties;
+import com.wheelshift.admission.TrafficClass;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.EnumSet;
+
+/**
+ * Registers the {@link AdmissionInterceptor} after the conditional GET one,
+ * so requests answered with 304 are never shed and take no slot.
+ */
+@Slf4j
+@Configuration
+@EnableConfigurationProperties(AdmissionProperties.class)
+public class AdmissionConfig implements WebMvcConfigurer {
+
+    // Hikari's default
+    private static final int DEFAULT_POOL_SIZE = 10;
+
+    private final AdmissionProperties properties;
+    private final Environment environment;
+
+    public AdmissionConfig(AdmissionProperties properties, Environment environment) {
+        this.properties = properties;
+        this.environment = environment;
+    }
+
+    @Bean
+    public AdmissionControl admissionControl() {
+        int poolSize = environment.getProperty("spring.datasource.hikari.maximum-pool-size", Integer.class,
+                DEFAULT_POOL_SIZE);
+        int reads = EnumSet.complementOf(EnumSet.of(TrafficClass.TRANSACTIONAL)).stream()
+                .mapToInt(trafficClass -> properties.limits(trafficClass).getMaxConcurrent())
+                .sum();
+        if (reads >= poolSize) {
+            log.warn("Lookup, analytics and export requests may take all {} pooled connections ({} allowed at once); "
+                    + "writes can wait for a connection behind them", poolSize, reads);
+        }
+        return new AdmissionControl(properties);
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        if (properties.isEnabled()) {
+            registry.addInterceptor(new AdmissionInterceptor(admissionControl())).order(1);
+        }
+    }
+}
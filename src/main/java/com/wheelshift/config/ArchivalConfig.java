@@ -0,0 +1,48 @@
+package com.wheelshift.config;
+
+import com.wheelshift.archive.ArchivalJob;
+import com.wheelshift.archive.ArchivalProperties;
+import com.wheelshift.archive.ArchiveReader;
+import com.wheelshift.archive.ArchivedTable;
+import com.wheelshift.archive.Archiver;
+import com.wheelshift.job.JobCoordinator;
+import com.wheelshift.versioning.ChangeVersions;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The archive is always read, so rows archived while archiving was enabled
+ * stay visible after it is turned off again.
+ */
+@Configuration
+@EnableConfigurationProperties(ArchivalProperties.class)
+public class ArchivalConfig {
+
+    @Bean
+    public ArchiveReader archiveReader(JdbcTemplate jdbcTemplate, ArchivalProperties properties) {
+        return new ArchiveReader(jdbcTemplate, properties, Clock.systemDefaultZone());
+    }
+
+    @Bean
+    @ConditionalOnProperty("wheelshift.archival.enabled")
+    public Archiver archiver(JobCoordinator jobCoordinator, ArchivalProperties properties, JdbcTemplate jdbcTemplate,
+                             PlatformTransactionManager transactionManager, ChangeVersions changeVersions) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        List<ArchivalJob> jobs = new ArrayList<>();
+        for (ArchivedTable table : ArchivedTable.values()) {
+            jobs.add(new ArchivalJob(table, properties, jdbcTemplate, transactionTemplate, changeVersions,
+                    Clock.systemDefaultZone()));
+        }
+        return new Archiver(jobCoordinator, jobs, Clock.systemDefaultZone());
+    }
+}
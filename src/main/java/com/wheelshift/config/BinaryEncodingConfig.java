@@ -0,0 +1,67 @@
+package com.wheelshift.config;
+
+import com.wheelshift.dto.CalendarEventDTO;
+import com.wheelshift.dto.KanbanBoardDTO;
+import com.wheelshift.dto.SaleDTO;
+import com.wheelshift.dto.TaskDTO;
+import com.wheelshift.encoding.BinaryEncodingProperties;
+import com.wheelshift.encoding.ProtobufSchemaHttpMessageConverter;
+import com.wheelshift.encoding.ProtobufSchemas;
+import com.wheelshift.projection.CarBasicDetails;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+/**
+ * Binary encodings of the responses, chosen with the {@code Accept} header.
+ * The converters are added after the JSON one, so JSON stays the answer to
+ * clients accepting anything, and their object mappers come from Boot's
+ * builder, so they write dates, amounts and enums as the JSON does.
+ */
+@Configuration
+@EnableConfigurationProperties(BinaryEncodingProperties.class)
+public class BinaryEncodingConfig implements WebMvcConfigurer {
+
+    /** The types with a message in the protobuf schema. */
+    private static final List<Class<?>> PROTOBUF_TYPES = List.of(SaleDTO.class, CarBasicDetails.class,
+            TaskDTO.class, KanbanBoardDTO.class, CalendarEventDTO.class);
+
+    private final BinaryEncodingProperties properties;
+    private final ObjectProvider<Jackson2ObjectMapperBuilder> builders;
+
+    public BinaryEncodingConfig(BinaryEncodingProperties properties,
+                                ObjectProvider<Jackson2ObjectMapperBuilder> builders) {
+        this.properties = properties;
+        this.builders = builders;
+    }
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        // Spring adds its own when the formats are on the classpath, without Boot's Jackson settings
+        converters.removeIf(converter -> converter instanceof MappingJackson2CborHttpMessageConverter
+                || converter instanceof MappingJackson2SmileHttpMessageConverter);
+        if (properties.isCbor()) {
+            converters.add(new MappingJackson2CborHttpMessageConverter(
+                    builders.getObject().factory(new CBORFactory()).build()));
+        }
+        if (properties.isSmile()) {
+            converters.add(new MappingJackson2SmileHttpMessageConverter(
+                    builders.getObject().factory(new SmileFactory()).build()));
+        }
+        if (properties.isProtobuf()) {
+            converters.add(new ProtobufSchemaHttpMessageConverter(
+                    ProtobufSchemaHttpMessageConverter.objectMapper(builders.getObject()),
+                    ProtobufSchemas.load(properties.getProtobufSchema(), PROTOBUF_TYPES)));
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.wheelshift.config;
+
+import com.wheelshift.cache.CoalescedCache;
+import com.wheelshift.cache.CoalescedCacheInterceptor;
+import com.wheelshift.cache.CoalescedCacheProperties;
+import com.wheelshift.versioning.ChangeVersions;
+
+import org.springframework.aop.Advisor;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.annotation.AnnotationMatchingPointcut;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Role;
+import org.springframework.core.Ordered;
+import org.springframework.transaction.PlatformTransactionManager;
+
+@Configuration
+@EnableConfigurationProperties(CoalescedCacheProperties.class)
+public class CacheConfig {
+
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    public CoalescedCacheInterceptor coalescedCacheInterceptor(CoalescedCacheProperties properties,
+                                                               ObjectProvider<PlatformTransactionManager> transactionManager,
+                                                               ObjectProvider<ChangeVersions> changeVersions) {
+        return new CoalescedCacheInterceptor(properties, transactionManager, changeVersions);
+    }
+
+    /**
+     * Applies {@link CoalescedCache}, also where it is a meta-annotation, ahead
+     * of the transaction advice, so cache hits never open a transaction.
+     */
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    public Advisor coalescedCacheAdvisor(CoalescedCacheInterceptor coalescedCacheInterceptor) {
+        DefaultPointcutAdvisor advisor = new DefaultPointcutAdvisor(
+                new AnnotationMatchingPointcut(null, CoalescedCache.class, true), coalescedCacheInterceptor);
+        advisor.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return advisor;
+    }
+}
@@ -0,0 +1,32 @@
+package com.wheelshift.config;
+
+import com.wheelshift.changefeed.ChangeFeedProperties;
+import com.wheelshift.changefeed.ChangeFeedWriter;
+import com.wheelshift.changefeed.ChangeFeeds;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * The writer is an outbox consumer, so the feeds are filed by whichever node
+ * holds its lease and read on every node.
+ */
+@Configuration
+@EnableConfigurationProperties(ChangeFeedProperties.class)
+public class ChangeFeedConfig {
+
+    @Bean
+    public ChangeFeeds changeFeeds(JdbcTemplate jdbcTemplate, ChangeFeedProperties properties) {
+        return new ChangeFeeds(jdbcTemplate, properties);
+    }
+
+    @Bean
+    public ChangeFeedWriter changeFeedWriter(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                                             ChangeFeeds changeFeeds) {
+        return new ChangeFeedWriter(jdbcTemplate, new TransactionTemplate(transactionManager), changeFeeds);
+    }
+}
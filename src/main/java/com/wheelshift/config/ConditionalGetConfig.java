@@ -0,0 +1,23 @@
+package com.wheelshift.config;
+
+import com.wheelshift.versioning.ChangeVersions;
+import com.wheelshift.versioning.ConditionalGetInterceptor;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+public class ConditionalGetConfig implements WebMvcConfigurer {
+
+    private final ChangeVersions changeVersions;
+
+    public ConditionalGetConfig(ChangeVersions changeVersions) {
+        this.changeVersions = changeVersions;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new ConditionalGetInterceptor(changeVersions));
+    }
+}
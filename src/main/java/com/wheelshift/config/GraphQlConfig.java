@@ -0,0 +1,31 @@
+package com.wheelshift.config;
+
+import com.wheelshift.graphql.ListSizeComplexityCalculator;
+import com.wheelshift.graphql.QueryLimitsProperties;
+
+import graphql.analysis.MaxQueryComplexityInstrumentation;
+import graphql.analysis.MaxQueryDepthInstrumentation;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Limits on the queries of the GraphQL endpoint. Instrumentation beans are
+ * picked up by the GraphQL auto-configuration, which serves the schema in
+ * {@code graphql/schema.graphqls} at {@code /graphql}.
+ */
+@Configuration
+@EnableConfigurationProperties(QueryLimitsProperties.class)
+public class GraphQlConfig {
+
+    @Bean
+    public MaxQueryDepthInstrumentation maxQueryDepthInstrumentation(QueryLimitsProperties properties) {
+        return new MaxQueryDepthInstrumentation(properties.getMaxDepth());
+    }
+
+    @Bean
+    public MaxQueryComplexityInstrumentation maxQueryComplexityInstrumentation(QueryLimitsProperties properties) {
+        return new MaxQueryComplexityInstrumentation(properties.getMaxComplexity(),
+                new ListSizeComplexityCalculator(properties));
+    }
+}
@@ -0,0 +1,29 @@
+package com.wheelshift.config;
+
+import com.wheelshift.idempotency.IdempotencyFilter;
+import com.wheelshift.idempotency.IdempotencyProperties;
+import com.wheelshift.idempotency.IdempotencyStore;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+@Configuration
+@ConditionalOnWebApplication
+@ConditionalOnProperty(name = "wheelshift.idempotency.enabled", matchIfMissing = true)
+@EnableConfigurationProperties(IdempotencyProperties.class)
+public class IdempotencyConfig {
+
+    @Bean
+    public IdempotencyStore idempotencyStore(JdbcTemplate jdbcTemplate, IdempotencyProperties properties) {
+        return new IdempotencyStore(jdbcTemplate, properties);
+    }
+
+    @Bean
+    public IdempotencyFilter idempotencyFilter(IdempotencyStore idempotencyStore, IdempotencyProperties properties) {
+        return new IdempotencyFilter(idempotencyStore, properties);
+    }
+}
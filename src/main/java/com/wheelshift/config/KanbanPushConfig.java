@@ -0,0 +1,32 @@
+package com.wheelshift.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wheelshift.job.JobCoordinator;
+import com.wheelshift.kanban.KanbanBoards;
+import com.wheelshift.kanban.KanbanBroadcaster;
+import com.wheelshift.kanban.KanbanPushProperties;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * The broadcaster is an outbox consumer of its own on every node, named with
+ * the job coordinator's node id like the outbox leases.
+ */
+@Configuration
+@EnableConfigurationProperties(KanbanPushProperties.class)
+public class KanbanPushConfig {
+
+    @Bean
+    public KanbanBoards kanbanBoards(ObjectMapper objectMapper, KanbanPushProperties properties) {
+        return new KanbanBoards(objectMapper, properties);
+    }
+
+    @Bean
+    public KanbanBroadcaster kanbanBroadcaster(KanbanBoards kanbanBoards, JdbcTemplate jdbcTemplate,
+                                               JobCoordinator jobCoordinator) {
+        return new KanbanBroadcaster(kanbanBoards, jdbcTemplate, jobCoordinator.getNodeId());
+    }
+}
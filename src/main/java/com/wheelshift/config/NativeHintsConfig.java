@@ -0,0 +1,68 @@
+package com.wheelshift.config;
+
+import com.wheelshift.projection.CarBasicDetails;
+
+import org.springframework.aop.SpringProxy;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.context.annotation.ClassPathScanningCandidateComponentProvider;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.ImportRuntimeHints;
+import org.springframework.core.DecoratingProxy;
+import org.springframework.data.projection.TargetAware;
+import org.springframework.util.ClassUtils;
+
+/**
+ * Reflection and proxy hints for the parts of the application that Spring AOT
+ * cannot discover on its own when building a native image.
+ */
+@Configuration
+@ImportRuntimeHints(NativeHintsConfig.WheelShiftRuntimeHints.class)
+public class NativeHintsConfig {
+
+    static class WheelShiftRuntimeHints implements RuntimeHintsRegistrar {
+
+        // Lombok @Data entities and enums (Hibernate accesses fields reflectively, Jackson uses the
+        // accessors and CarStatus.fromString), AttributeConverters and the request/response DTOs.
+        private static final String[] REFLECTIVE_PACKAGES = {
+            "com.wheelshift.model",
+            "com.wheelshift.dto"
+        };
+
+        private static final MemberCategory[] ALL_MEMBERS = {
+            MemberCategory.INVOKE_DECLARED_CONSTRUCTORS,
+            MemberCategory.INVOKE_DECLARED_METHODS,
+            MemberCategory.DECLARED_FIELDS
+        };
+
+        @Override
+        public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+            ClassPathScanningCandidateComponentProvider scanner = new ClassPathScanningCandidateComponentProvider(false);
+            scanner.addIncludeFilter((metadataReader, metadataReaderFactory) -> true);
+            for (String basePackage : REFLECTIVE_PACKAGES) {
+                for (BeanDefinition candidate : scanner.findCandidateComponents(basePackage)) {
+                    Class<?> type = ClassUtils.resolveClassName(candidate.getBeanClassName(), classLoader);
+                    hints.reflection().registerType(type, ALL_MEMBERS);
+                }
+            }
+
+            // Interface projections are backed by JDK proxies created at runtime, including the nested one
+            registerProjection(hints, CarBasicDetails.class);
+            registerProjection(hints, CarBasicDetails.CarModelInfo.class);
+
+            // Loaded from the classpath by BinaryEncodingConfig
+            hints.resources().registerPattern("proto/*.proto");
+
+            // CarSpecification / ClientSpecification and the Object[] statistics queries only go through the
+            // JPA criteria and HQL APIs, which work off the entity metadata registered above; they need no
+            // hints of their own. Flyway scripts are registered by Spring Boot's Flyway auto-configuration.
+        }
+
+        private static void registerProjection(RuntimeHints hints, Class<?> projection) {
+            hints.reflection().registerType(projection, MemberCategory.INVOKE_PUBLIC_METHODS);
+            hints.proxies().registerJdkProxy(projection, TargetAware.class, SpringProxy.class, DecoratingProxy.class);
+        }
+    }
+}
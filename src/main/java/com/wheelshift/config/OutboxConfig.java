@@ -0,0 +1,39 @@
+package com.wheelshift.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wheelshift.job.JobCoordinator;
+import com.wheelshift.outbox.DomainEventOutbox;
+import com.wheelshift.outbox.OutboxConsumer;
+import com.wheelshift.outbox.OutboxDispatcher;
+import com.wheelshift.outbox.OutboxProperties;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+
+/**
+ * Consumers lease their position under the job coordinator's node id, so the
+ * job and outbox leases of one node show up under the same owner.
+ */
+@Configuration
+@EnableConfigurationProperties(OutboxProperties.class)
+public class OutboxConfig {
+
+    @Bean
+    public DomainEventOutbox domainEventOutbox(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper) {
+        return new DomainEventOutbox(jdbcTemplate, objectMapper);
+    }
+
+    @Bean
+    public OutboxDispatcher outboxDispatcher(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper,
+                                             PlatformTransactionManager transactionManager,
+                                             List<OutboxConsumer> consumers, OutboxProperties properties,
+                                             JobCoordinator jobCoordinator) {
+        return new OutboxDispatcher(jdbcTemplate, objectMapper, transactionManager, consumers, properties,
+                jobCoordinator.getNodeId());
+    }
+}
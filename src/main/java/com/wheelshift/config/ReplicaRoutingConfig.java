@@ -0,0 +1,103 @@
+package com.wheelshift.config;
+
+import com.wheelshift.routing.ReadDependencies;
+import com.wheelshift.routing.ReadYourWrites;
+import com.wheelshift.routing.ReplicaRouter;
+import com.wheelshift.routing.ReplicaRoutingProperties;
+import com.wheelshift.versioning.ChangeVersions;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.PhysicalConnectionHandlingMode;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Replaces the auto-configured data source with a {@link ReplicaRouter} when
+ * read replicas are configured.
+ */
+@Configuration
+@ConditionalOnProperty("wheelshift.datasource.routing.replicas[0].url")
+@EnableConfigurationProperties(ReplicaRoutingProperties.class)
+public class ReplicaRoutingConfig {
+
+    @Bean
+    public ReplicaRouter replicaRouter(DataSourceProperties dataSourceProperties, ReplicaRoutingProperties routing,
+                                       Environment environment, ObjectProvider<ChangeVersions> changeVersions) {
+        HikariDataSource primary = pool(environment, "primary", dataSourceProperties.determineDriverClassName(),
+                dataSourceProperties.determineUrl(), dataSourceProperties.determineUsername(),
+                dataSourceProperties.determinePassword());
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        List<ReplicaRoutingProperties.Replica> configured = routing.getReplicas();
+        for (int i = 0; i < configured.size(); i++) {
+            ReplicaRoutingProperties.Replica replica = configured.get(i);
+            HikariDataSource pool = pool(environment, "replica-" + i, dataSourceProperties.determineDriverClassName(),
+                    replica.getUrl(), replica.getUsername(), replica.getPassword());
+            // Nothing may write to a replica, whatever the transaction says
+            pool.setReadOnly(true);
+            replicas.put(pool.getPoolName(), pool);
+        }
+        return new ReplicaRouter(primary, replicas, changeVersions::getObject,
+                routing.getMaxLag());
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRouter replicaRouter) {
+        return replicaRouter.dataSource();
+    }
+
+    @Bean
+    public ReadYourWrites readYourWrites() {
+        return new ReadYourWrites();
+    }
+
+    @Bean
+    public WebMvcConfigurer readDependencies() {
+        return new WebMvcConfigurer() {
+            @Override
+            public void addInterceptors(InterceptorRegistry registry) {
+                registry.addInterceptor(new ReadDependencies());
+            }
+        };
+    }
+
+    /**
+     * Hibernate keeps a session's connection until the session closes, which
+     * with open-in-view is the end of the request. Releasing it after each
+     * transaction lets every transaction be routed on its own.
+     */
+    @Bean
+    public HibernatePropertiesCustomizer releaseConnectionAfterTransaction() {
+        return properties -> properties.put(AvailableSettings.CONNECTION_HANDLING,
+                PhysicalConnectionHandlingMode.DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION);
+    }
+
+    private static HikariDataSource pool(Environment environment, String name, String driverClassName, String url,
+                                         String username, String password) {
+        HikariDataSource pool = new HikariDataSource();
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(pool));
+        pool.setPoolName(name);
+        pool.setDriverClassName(driverClassName);
+        pool.setJdbcUrl(url);
+        pool.setUsername(username);
+        pool.setPassword(password);
+        return pool;
+    }
+}
@@ -1,27 +1,61 @@
 package com.wheelshift.config;
 
+import com.wheelshift.auth.AuthProperties;
+import com.wheelshift.auth.TokenAuthenticationFilter;
+import com.wheelshift.auth.TokenRevocations;
+import com.wheelshift.auth.TokenService;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpStatus;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
+import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.HttpStatusEntryPoint;
+import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+
+import java.time.Clock;
 
 @Configuration
+@EnableConfigurationProperties(AuthProperties.class)
 public class SecurityConfig {
 
 	@Bean
-	 SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
+	@ConditionalOnWebApplication // Not needed by the non-web datagen profile
+	 SecurityFilterChain securityFilterChain(HttpSecurity http, AuthProperties authProperties,
+	                                         TokenService tokenService, TokenRevocations tokenRevocations) throws Exception {
         http.csrf(csrf -> csrf.disable()) // Disable CSRF protection if not required
-                .authorizeHttpRequests(auth -> auth
-                                .anyRequest().permitAll() // Allow all requests without authentication
+                .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS)) // Tokens carry the identity
+                .addFilterBefore(new TokenAuthenticationFilter(tokenService, tokenRevocations),
+                        UsernamePasswordAuthenticationFilter.class)
+                .exceptionHandling(exceptions -> exceptions
+                                .authenticationEntryPoint(new HttpStatusEntryPoint(HttpStatus.UNAUTHORIZED))
                 )
                 .httpBasic(basic -> basic.disable()); // Disable HTTP Basic authentication if enabled
+        if (authProperties.isRequired()) {
+            http.authorizeHttpRequests(auth -> auth
+                            .requestMatchers("/api/v1/auth/login", "/api/v1/auth/token", "/error").permitAll()
+                            .anyRequest().authenticated()
+            );
+        } else {
+            http.authorizeHttpRequests(auth -> auth
+                            .anyRequest().permitAll() // Allow all requests without authentication
+            );
+        }
 	     return http.build();
 	}
+
+    @Bean
+    TokenService tokenService(AuthProperties authProperties) {
+        return new TokenService(authProperties, Clock.systemUTC());
+    }
 	 
     @Bean
     PasswordEncoder passwordEncoder() {
         return new BCryptPasswordEncoder();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,38 @@
+package com.wheelshift.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import java.util.List;
+
+@Configuration
+@Slf4j
+public class StartupConfig {
+
+    /**
+     * Marks the beans listed in {@code wheelshift.startup.lazy-beans} as lazy so
+     * rarely used controllers and services are only built on their first request.
+     * A lazy bean injected into an eager one is still created at startup, so only
+     * list beans nothing on the hot path depends on.
+     */
+    @Bean
+    public static BeanFactoryPostProcessor lazyBeansPostProcessor(Environment environment) {
+        List<String> lazyBeans = Binder.get(environment)
+                .bind("wheelshift.startup.lazy-beans", String[].class)
+                .map(List::of)
+                .orElse(List.of());
+        return beanFactory -> {
+            for (String beanName : lazyBeans) {
+                if (beanFactory.containsBeanDefinition(beanName)) {
+                    beanFactory.getBeanDefinition(beanName).setLazyInit(true);
+                } else {
+                    log.warn("Bean '{}' listed in wheelshift.startup.lazy-beans does not exist", beanName);
+                }
+            }
+        };
+    }
+}
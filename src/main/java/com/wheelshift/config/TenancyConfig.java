@@ -0,0 +1,39 @@
+package com.wheelshift.config;
+
+import com.wheelshift.tenancy.TenancyProperties;
+import com.wheelshift.tenancy.TenantFilter;
+import com.wheelshift.tenancy.TenantIdentifierResolver;
+
+import jakarta.servlet.DispatcherType;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(TenancyProperties.class)
+public class TenancyConfig {
+
+    @Bean
+    public HibernatePropertiesCustomizer tenantIdentifierResolver() {
+        return properties -> properties.put(AvailableSettings.MULTI_TENANT_IDENTIFIER_RESOLVER,
+                new TenantIdentifierResolver());
+    }
+
+    /**
+     * Right after the security filters, which authenticate the token the
+     * tenant is taken from, and before anything that reads or writes data.
+     */
+    @Bean
+    @ConditionalOnWebApplication
+    public FilterRegistrationBean<TenantFilter> tenantFilter(TenancyProperties properties) {
+        FilterRegistrationBean<TenantFilter> registration = new FilterRegistrationBean<>(new TenantFilter(properties));
+        registration.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER + 10);
+        registration.setDispatcherTypes(DispatcherType.REQUEST, DispatcherType.ASYNC, DispatcherType.ERROR);
+        return registration;
+    }
+}
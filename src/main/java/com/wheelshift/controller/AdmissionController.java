@@ -0,0 +1,32 @@
+package com.wheelshift.controller;
+
+import com.wheelshift.admission.Admission;
+import com.wheelshift.admission.AdmissionControl;
+import com.wheelshift.admission.Bulkhead;
+import com.wheelshift.admission.TrafficClass;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/v1/admission")
+@RequiredArgsConstructor
+public class AdmissionController {
+
+    private final AdmissionControl admissionControl;
+
+    /**
+     * Saturation of every traffic class's bulkhead. Admitted as a write so it
+     * still answers while the read classes are saturated.
+     */
+    @GetMapping
+    @Admission(TrafficClass.TRANSACTIONAL)
+    public ResponseEntity<Map<TrafficClass, Bulkhead.Stats>> getAdmissionStats() {
+        return ResponseEntity.ok(admissionControl.stats());
+    }
+}
@@ -1,7 +1,16 @@
 package com.wheelshift.controller;
 
+import com.wheelshift.auth.LastLoginRecorder;
+import com.wheelshift.auth.TokenClaims;
+import com.wheelshift.auth.TokenRevocations;
+import com.wheelshift.auth.TokenService;
+import com.wheelshift.model.Employee;
+import com.wheelshift.service.EmployeeService;
+import com.wheelshift.tenancy.TenantContext;
+
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -9,10 +18,18 @@ import org.springframework.web.bind.annotation.RestController;
 
 import lombok.RequiredArgsConstructor;
 
+import java.time.LocalDateTime;
+import java.util.Optional;
+
 @RestController
 @RequestMapping("/api/v1/auth")
 @RequiredArgsConstructor
 public class AuthController {
+
+	private final EmployeeService employeeService;
+	private final TokenService tokenService;
+	private final TokenRevocations tokenRevocations;
+	private final LastLoginRecorder lastLoginRecorder;
 	
 	 @PostMapping("/login")
 	    public ResponseEntity<?> login(@RequestBody LoginRequest loginRequest) {
@@ -36,6 +53,34 @@ public class AuthController {
 	        }
 	    }
 
+	    /**
+	     * Employee login: checks the password once and returns a short-lived
+	     * access token to send as {@code Authorization: Bearer <token>}.
+	     */
+	    @PostMapping("/token")
+	    public ResponseEntity<?> issueToken(@RequestBody LoginRequest loginRequest) {
+	        Optional<Employee> employee = employeeService.authenticate(loginRequest.getEmail(), loginRequest.getPassword());
+	        if (employee.isEmpty()) {
+	            return new ResponseEntity<>("Invalid credentials", HttpStatus.UNAUTHORIZED);
+	        }
+	        lastLoginRecorder.record(employee.get().getId(), LocalDateTime.now());
+	        String token = tokenService.issue(TenantContext.current(), employee.get().getId());
+	        return ResponseEntity.ok(new TokenResponse(token, "Bearer", tokenService.ttlSeconds(),
+	                employee.get().getId(), employee.get().getName()));
+	    }
+
+	    /**
+	     * Revokes the token the request was made with.
+	     */
+	    @PostMapping("/logout")
+	    public ResponseEntity<Void> logout(@AuthenticationPrincipal TokenClaims claims) {
+	        if (claims == null) {
+	            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+	        }
+	        tokenRevocations.revoke(claims);
+	        return ResponseEntity.noContent().build();
+	    }
+
 	    // Request DTO
 	    static class LoginRequest {
 	        private String email;
@@ -70,4 +115,8 @@ public class AuthController {
 	        public String getPhone() { return phone; }
 	        public String getLocation() { return location; }
 	    }
+
+	    // Token response DTO
+	    record TokenResponse(String accessToken, String tokenType, long expiresIn, Long employeeId, String name) {
+	    }
 }
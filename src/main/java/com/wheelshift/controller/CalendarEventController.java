@@ -6,9 +6,13 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import com.wheelshift.admission.Admission;
+import com.wheelshift.admission.TrafficClass;
 import com.wheelshift.dto.CalendarEventDTO;
 import com.wheelshift.dto.EventSummaryDTO;
 import com.wheelshift.service.CalendarEventService;
+import com.wheelshift.versioning.Aggregate;
+import com.wheelshift.versioning.ConditionalGet;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -18,6 +22,7 @@ import java.util.List;
 @RestController
 @RequestMapping("/api/calendar")
 @RequiredArgsConstructor
+@ConditionalGet(Aggregate.CALENDAR)
 public class CalendarEventController {
 
     private final CalendarEventService eventService;
@@ -93,6 +98,7 @@ public class CalendarEventController {
     }
 
     @GetMapping("/events/summary")
+    @Admission(TrafficClass.ANALYTICS)
     public ResponseEntity<EventSummaryDTO> getEventsSummary(
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate start,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate end) {
@@ -1,5 +1,8 @@
 package com.wheelshift.controller;
 
+import com.wheelshift.admission.Admission;
+import com.wheelshift.admission.TrafficClass;
+import com.wheelshift.dto.CarFacetResult;
 import com.wheelshift.dto.CarSearchCriteria;
 import com.wheelshift.dto.CarStatistics;
 import com.wheelshift.model.Car;
@@ -7,11 +10,14 @@ import com.wheelshift.model.FinancialTransaction;
 import com.wheelshift.model.Sale;
 import com.wheelshift.projection.CarBasicDetails;
 import com.wheelshift.service.CarService;
+import com.wheelshift.versioning.Aggregate;
+import com.wheelshift.versioning.ConditionalGet;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -22,6 +28,7 @@ import java.util.Optional;
 @RestController
 @RequestMapping("/api/v1/cars")
 @RequiredArgsConstructor
+@ConditionalGet(Aggregate.CARS)
 public class CarController {
 
     private final CarService carService;
@@ -38,11 +45,14 @@ public class CarController {
      */
     
     @GetMapping
+    // Every car, unpaged
+    @Admission(TrafficClass.EXPORT)
     public ResponseEntity<List<Car>> getAllCars() {
         return ResponseEntity.ok(carService.getAllCars());
     }
     
     @GetMapping("/basic-details")
+    @Admission(TrafficClass.EXPORT)
     public ResponseEntity<List<CarBasicDetails>> getCarBasicDetails() {
         return ResponseEntity.ok(carService.getCarBasicDetails());
     }
@@ -151,6 +161,16 @@ public class CarController {
         return ResponseEntity.ok(carService.searchCarsAdvanced(criteria, pageable));
     }
     
+    @PostMapping("/search/faceted")
+    public ResponseEntity<CarFacetResult> searchCarsFaceted(
+            @RequestBody CarSearchCriteria criteria,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "ASC") String direction) {
+        Pageable pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.fromString(direction), "id"));
+        return ResponseEntity.ok(carService.searchCarsFaceted(criteria, pageable));
+    }
+    
     @GetMapping("/vin/{vinNumber}")
     public ResponseEntity<Car> findByVinNumber(@PathVariable String vinNumber) {
         Optional<Car> car = carService.findByVinNumber(vinNumber);
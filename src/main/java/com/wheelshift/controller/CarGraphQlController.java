@@ -0,0 +1,154 @@
+package com.wheelshift.controller;
+
+import com.wheelshift.graphql.QueryLimitsProperties;
+import com.wheelshift.model.Car;
+import com.wheelshift.model.CarInspection;
+import com.wheelshift.model.CarStatus;
+import com.wheelshift.model.Client;
+import com.wheelshift.model.Inquiry;
+import com.wheelshift.model.Sale;
+import com.wheelshift.service.CarInspectionService;
+import com.wheelshift.service.CarService;
+import com.wheelshift.service.ClientService;
+import com.wheelshift.service.InquiryService;
+import com.wheelshift.service.SaleService;
+
+import org.dataloader.DataLoader;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.graphql.data.method.annotation.Argument;
+import org.springframework.graphql.data.method.annotation.QueryMapping;
+import org.springframework.graphql.data.method.annotation.SchemaMapping;
+import org.springframework.graphql.execution.BatchLoaderRegistry;
+import org.springframework.stereotype.Controller;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+/**
+ * Resolves the GraphQL schema in {@code graphql/schema.graphqls}.
+ *
+ * The to-one relations of a car come with it from the listing entity graph.
+ * The to-many relations go through data loaders keyed by id: every car or
+ * client of a request that asks for one is collected and loaded with a
+ * single {@code IN (...)} query once the level of the query is resolved,
+ * and each id is loaded at most once per request.
+ */
+@Controller
+public class CarGraphQlController {
+
+    private static final String INSPECTIONS_BY_CAR = "inspectionsByCar";
+    private static final String INQUIRIES_BY_CAR = "inquiriesByCar";
+    private static final String INQUIRIES_BY_CLIENT = "inquiriesByClient";
+    private static final String SALES_BY_CLIENT = "salesByClient";
+
+    private final CarService carService;
+    private final ClientService clientService;
+    private final QueryLimitsProperties properties;
+
+    public CarGraphQlController(CarService carService, ClientService clientService,
+                                ObjectProvider<CarInspectionService> carInspectionService,
+                                ObjectProvider<InquiryService> inquiryService, SaleService saleService, QueryLimitsProperties properties,
+                                BatchLoaderRegistry registry) {
+        this.carService = carService;
+        this.clientService = clientService;
+        this.properties = properties;
+        // Looked up on first use, so they stay lazy where prod lists them in wheelshift.startup.lazy-beans
+        register(registry, INSPECTIONS_BY_CAR, ids -> carInspectionService.getObject().getInspectionsByCars(ids),
+                inspection -> inspection.getCar().getId());
+        register(registry, INQUIRIES_BY_CAR, ids -> inquiryService.getObject().getInquiriesByCars(ids),
+                inquiry -> inquiry.getCar().getId());
+        register(registry, INQUIRIES_BY_CLIENT, ids -> inquiryService.getObject().getInquiriesByClients(ids),
+                inquiry -> inquiry.getClient().getId());
+        register(registry, SALES_BY_CLIENT, saleService::findSalesByClients, sale -> sale.getClient().getId());
+    }
+
+    /**
+     * Registers a loader of the rows of each id, in the order the query
+     * returns them; ids without rows get an empty list.
+     */
+    private static <T> void register(BatchLoaderRegistry registry, String name,
+                                     Function<Collection<Long>, List<T>> query, Function<T, Long> owner) {
+        registry.<Long, List<T>>forName(name).registerMappedBatchLoader((ids, environment) -> Mono.fromCallable(() -> {
+            Map<Long, List<T>> rows = new HashMap<>();
+            ids.forEach(id -> rows.put(id, new ArrayList<>()));
+            for (T row : query.apply(ids)) {
+                rows.get(owner.apply(row)).add(row);
+            }
+            return rows;
+        }));
+    }
+
+    /* ===== Queries ===== */
+
+    @QueryMapping
+    public Car car(@Argument Long id) {
+        List<Car> cars = carService.getCarsByIds(List.of(id));
+        return cars.isEmpty() ? null : cars.get(0);
+    }
+
+    @QueryMapping
+    public List<Car> cars(@Argument List<Long> ids, @Argument CarStatus status, @Argument int page,
+                          @Argument int size) {
+        if (ids == null) {
+            int pageSize = Math.min(Math.max(size, 1), properties.getMaxPageSize());
+            return carService.getCarsPage(status, PageRequest.of(Math.max(page, 0), pageSize, Sort.by("id")));
+        }
+        // In the order asked for, without the ones that do not exist or have another status
+        Map<Long, Car> byId = new HashMap<>();
+        carService.getCarsByIds(Set.copyOf(ids)).forEach(car -> byId.put(car.getId(), car));
+        List<Car> cars = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            Car car = byId.get(id);
+            if (car != null && (status == null || status == car.getCurrentStatus())) {
+                cars.add(car);
+            }
+        }
+        return cars;
+    }
+
+    @QueryMapping
+    public Client client(@Argument Long id) {
+        return clientService.getClientById(id).orElse(null);
+    }
+
+    /* ===== Batched relations ===== */
+
+    @SchemaMapping(typeName = "Car")
+    public CompletableFuture<List<CarInspection>> inspections(Car car,
+                                                              DataLoader<Long, List<CarInspection>> inspectionsByCar) {
+        return inspectionsByCar.load(car.getId());
+    }
+
+    @SchemaMapping(typeName = "Car")
+    public CompletableFuture<CarInspection> latestInspection(Car car,
+                                                             DataLoader<Long, List<CarInspection>> inspectionsByCar) {
+        // The inspections come latest first, and share the loader with the inspections field
+        return inspectionsByCar.load(car.getId())
+                .thenApply(inspections -> inspections.isEmpty() ? null : inspections.get(0));
+    }
+
+    @SchemaMapping(typeName = "Car")
+    public CompletableFuture<List<Inquiry>> inquiries(Car car, DataLoader<Long, List<Inquiry>> inquiriesByCar) {
+        return inquiriesByCar.load(car.getId());
+    }
+
+    @SchemaMapping(typeName = "Client")
+    public CompletableFuture<List<Inquiry>> inquiries(Client client,
+                                                      DataLoader<Long, List<Inquiry>> inquiriesByClient) {
+        return inquiriesByClient.load(client.getId());
+    }
+
+    @SchemaMapping(typeName = "Client")
+    public CompletableFuture<List<Sale>> purchases(Client client, DataLoader<Long, List<Sale>> salesByClient) {
+        return salesByClient.load(client.getId());
+    }
+}
@@ -0,0 +1,60 @@
+package com.wheelshift.controller;
+
+import com.wheelshift.changefeed.ChangeFeed;
+import com.wheelshift.changefeed.ChangeFeedProperties;
+import com.wheelshift.changefeed.ChangeFeeds;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Incremental sync of the cars, reservations and inspections. A client asks
+ * for a token without {@code since}, takes its snapshot from the list
+ * endpoint, then keeps asking for the changes since the last token it got,
+ * optionally waiting up to {@code wait} seconds for new ones. A 410 means the
+ * token is too old to catch up from and a new snapshot is needed.
+ */
+@RestController
+@RequestMapping("/api/v1/changes")
+@RequiredArgsConstructor
+public class ChangeFeedController {
+
+    private final ChangeFeeds changeFeeds;
+    private final ChangeFeedProperties properties;
+
+    @GetMapping("/{feed}")
+    public CompletableFuture<ResponseEntity<ChangeFeeds.ChangePage>> getChanges(
+            @PathVariable String feed,
+            @RequestParam(required = false) String since,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(defaultValue = "0") int wait) {
+        ChangeFeed changeFeed;
+        Long token;
+        try {
+            changeFeed = ChangeFeed.fromPath(feed);
+            token = since == null ? null : Long.valueOf(since);
+        } catch (IllegalArgumentException e) {
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().build());
+        }
+        int pageSize = limit != null ? limit : properties.getPageSize();
+        if (token == null) {
+            return CompletableFuture.completedFuture(ResponseEntity.ok(changeFeeds.read(changeFeed, null, pageSize)));
+        }
+        if (token < 0 || pageSize < 1 || wait < 0) {
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().build());
+        }
+        if (changeFeeds.isExpired(changeFeed, token)) {
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.GONE).build());
+        }
+        return changeFeeds.await(changeFeed, token, pageSize, Duration.ofSeconds(wait)).thenApply(ResponseEntity::ok);
+    }
+}
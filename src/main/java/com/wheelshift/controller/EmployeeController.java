@@ -7,6 +7,7 @@ import org.springframework.web.bind.annotation.*;
 import com.wheelshift.model.Employee;
 import com.wheelshift.service.EmployeeService;
 
+import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
@@ -197,7 +198,7 @@ public class EmployeeController {
     }
     
     @GetMapping("/stats/commission-totals")
-    public ResponseEntity<Map<Long, Double>> getEmployeeCommissionTotals() {
+    public ResponseEntity<Map<Long, BigDecimal>> getEmployeeCommissionTotals() {
         return ResponseEntity.ok(employeeService.getEmployeeCommissionTotals());
     }
 }
\ No newline at end of file
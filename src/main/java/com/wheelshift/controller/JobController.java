@@ -0,0 +1,28 @@
+package com.wheelshift.controller;
+
+import com.wheelshift.job.JobCoordinator;
+import com.wheelshift.model.JobLease;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/v1/jobs")
+@RequiredArgsConstructor
+public class JobController {
+
+    private final JobCoordinator jobCoordinator;
+
+    /**
+     * Lease state and last run duration / row count of every job partition.
+     */
+    @GetMapping
+    public ResponseEntity<List<JobLease>> getJobLeases() {
+        return ResponseEntity.ok(jobCoordinator.getLeases());
+    }
+}
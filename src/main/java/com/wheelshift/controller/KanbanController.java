@@ -4,28 +4,55 @@ import com.wheelshift.dto.ColumnDTO;
 import com.wheelshift.dto.KanbanBoardDTO;
 import com.wheelshift.dto.TaskDTO;
 import com.wheelshift.dto.TaskMoveDTO;
+import com.wheelshift.kanban.KanbanBoards;
 import com.wheelshift.service.KanbanService;
+import com.wheelshift.versioning.Aggregate;
+import com.wheelshift.versioning.ConditionalGet;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 @RestController
 @RequestMapping("/api/kanban")
 public class KanbanController {
 	
-	public KanbanController(KanbanService kanbanService) {
+	public KanbanController(KanbanService kanbanService, KanbanBoards kanbanBoards) {
 		this.kanbanService = kanbanService;
+		this.kanbanBoards = kanbanBoards;
 	}
 	
     private final KanbanService kanbanService;
     
+    private final KanbanBoards kanbanBoards;
+    
     /**
      * Get the entire kanban board data
      */
     @GetMapping("/board")
+    @ConditionalGet(Aggregate.KANBAN)
     public ResponseEntity<KanbanBoardDTO> getKanbanBoard() {
         return ResponseEntity.ok(kanbanService.getKanbanBoard());
     }
     
+    /**
+     * Stream the board's changes (server-sent events). Open the stream, then
+     * fetch the board and apply each "deltas" message to it; on a "reset"
+     * or a skipped seq, fetch the board again. Reconnects resume from the
+     * Last-Event-ID.
+     */
+    @GetMapping(path = "/board/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamKanbanBoard(
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        SseEmitter emitter = kanbanBoards.subscribe(lastEventId);
+        if (emitter == null) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "5").build();
+        }
+        return ResponseEntity.ok(emitter);
+    }
+    
     /**
      * Move a task (drag-and-drop)
      */
@@ -47,7 +74,7 @@ public class KanbanController {
     
     @GetMapping("/tasks/{taskId}")
     public ResponseEntity<TaskDTO> getTask(@PathVariable String taskId) {
-        return ResponseEntity.ok(kanbanService.updateTask(taskId, new TaskDTO()));
+        return ResponseEntity.ok(kanbanService.getTask(taskId));
     }
     
     @PutMapping("/tasks/{taskId}")
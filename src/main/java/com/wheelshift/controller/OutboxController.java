@@ -0,0 +1,27 @@
+package com.wheelshift.controller;
+
+import com.wheelshift.outbox.OutboxDispatcher;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/v1/outbox")
+@RequiredArgsConstructor
+public class OutboxController {
+
+    private final OutboxDispatcher outboxDispatcher;
+
+    /**
+     * Position, pending events, lag and retry state of every outbox consumer.
+     */
+    @GetMapping("/consumers")
+    public ResponseEntity<List<OutboxDispatcher.ConsumerLag>> getConsumerLag() {
+        return ResponseEntity.ok(outboxDispatcher.lag());
+    }
+}
@@ -2,6 +2,8 @@ package com.wheelshift.controller;
 
 import com.wheelshift.model.Reservation;
 import com.wheelshift.service.ReservationService;
+import com.wheelshift.versioning.Aggregate;
+import com.wheelshift.versioning.ConditionalGet;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.format.annotation.DateTimeFormat;
@@ -17,6 +19,7 @@ import java.util.Map;
 @RestController
 @RequestMapping("/api/reservations")
 @RequiredArgsConstructor
+@ConditionalGet({Aggregate.RESERVATIONS, Aggregate.CARS, Aggregate.CLIENTS})
 public class ReservationController {
 
     private final ReservationService reservationService;
@@ -175,6 +178,8 @@ public class ReservationController {
     }
     
     @GetMapping("/expiring")
+    // Relative to the current time, so it changes without a write
+    @ConditionalGet({})
     public ResponseEntity<List<Reservation>> getExpiringReservations(@RequestParam(defaultValue = "7") int days) {
         return ResponseEntity.ok(reservationService.getExpiringReservations(days));
     }
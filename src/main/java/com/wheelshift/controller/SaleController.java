@@ -1,9 +1,15 @@
 package com.wheelshift.controller;
 
+import com.wheelshift.admission.Admission;
+import com.wheelshift.admission.TrafficClass;
+import com.wheelshift.dto.ProfitGrouping;
+import com.wheelshift.dto.ProfitSummary;
 import com.wheelshift.dto.SaleDTO;
 import com.wheelshift.model.Sale;
 import com.wheelshift.service.SaleService;
 import com.wheelshift.util.SaleMapper;
+import com.wheelshift.versioning.Aggregate;
+import com.wheelshift.versioning.ConditionalGet;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
@@ -22,6 +28,7 @@ import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/sales")
+@ConditionalGet({Aggregate.SALES, Aggregate.CARS, Aggregate.CLIENTS, Aggregate.EMPLOYEES})
 public class SaleController {
 
     private final SaleService saleService;
@@ -49,6 +56,7 @@ public class SaleController {
     }
 
     @GetMapping
+    @Admission(TrafficClass.EXPORT)
     public ResponseEntity<List<SaleDTO>> getAllSales() {
         List<Sale> sales = saleService.getAllSales();
         return ResponseEntity.ok(SaleMapper.toDTOList(sales));
@@ -171,6 +179,7 @@ public class SaleController {
     }
 
     @GetMapping("/top")
+    @Admission(TrafficClass.ANALYTICS)
     public ResponseEntity<List<Sale>> getTopSalesByPrice(@RequestParam(defaultValue = "5") int limit) {
         List<Sale> sales = saleService.findTopSalesByPrice(limit);
         return ResponseEntity.ok(sales);
@@ -230,6 +239,15 @@ public class SaleController {
         return ResponseEntity.ok(profitMargin);
     }
 
+    @GetMapping("/statistics/profit")
+    public ResponseEntity<List<ProfitSummary>> getProfitReport(
+            @RequestParam ProfitGrouping groupBy,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        List<ProfitSummary> report = saleService.getProfitReport(groupBy, startDate, endDate);
+        return ResponseEntity.ok(report);
+    }
+
     @GetMapping("/statistics/yearly-performance")
     public ResponseEntity<Map<Integer, BigDecimal>> getYearlySalesPerformance() {
         Map<Integer, BigDecimal> yearlyPerformance = saleService.getYearlySalesPerformance();
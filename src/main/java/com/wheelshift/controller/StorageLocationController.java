@@ -3,6 +3,8 @@ package com.wheelshift.controller;
 import com.wheelshift.dto.LocationStatistics;
 import com.wheelshift.model.StorageLocation;
 import com.wheelshift.service.StorageLocationService;
+import com.wheelshift.versioning.Aggregate;
+import com.wheelshift.versioning.ConditionalGet;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
@@ -14,6 +16,7 @@ import java.util.List;
 @RestController
 @RequestMapping("/api/v1/locations")
 @RequiredArgsConstructor
+@ConditionalGet({Aggregate.LOCATIONS, Aggregate.CARS})
 public class StorageLocationController {
 
     private final StorageLocationService storageLocationService;
@@ -0,0 +1,89 @@
+package com.wheelshift.costing;
+
+import com.wheelshift.model.Car;
+import com.wheelshift.model.CarInspection;
+import com.wheelshift.model.FinancialTransaction;
+import com.wheelshift.model.Sale;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Entity listener on {@link Car}, {@link FinancialTransaction}, {@link Sale}
+ * and {@link CarInspection} that refreshes the cost summaries of the cars a
+ * transaction touched once it commits, each car once however many of its rows
+ * changed. The refresh runs after commit but before the change versions are
+ * bumped on completion, so a report cached under the new versions already
+ * reads the new summaries. A refresh that fails is left to the hourly
+ * reconciliation.
+ */
+@Slf4j
+public class CarCostListener {
+
+    private final CarCostSummaries carCostSummaries;
+
+    public CarCostListener(CarCostSummaries carCostSummaries) {
+        this.carCostSummaries = carCostSummaries;
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void changed(Object entity) {
+        Car car = null;
+        if (entity instanceof Car changed) {
+            car = changed;
+        } else if (entity instanceof FinancialTransaction transaction) {
+            car = transaction.getCar();
+        } else if (entity instanceof Sale sale) {
+            car = sale.getCar();
+        } else if (entity instanceof CarInspection inspection) {
+            car = inspection.getCar();
+        }
+        if (car == null || car.getId() == null) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            refresh(Set.of(car.getId()));
+            return;
+        }
+        changedCars().add(car.getId());
+    }
+
+    private Set<Long> changedCars() {
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            if (synchronization instanceof ChangedCars changed) {
+                return changed.carIds;
+            }
+        }
+        ChangedCars changed = new ChangedCars();
+        TransactionSynchronizationManager.registerSynchronization(changed);
+        return changed.carIds;
+    }
+
+    private void refresh(Set<Long> carIds) {
+        try {
+            carCostSummaries.refresh(carIds);
+        } catch (RuntimeException e) {
+            log.warn("Refreshing the cost summaries of cars {} failed, left to the reconciliation: {}", carIds,
+                    e.toString());
+        }
+    }
+
+    private final class ChangedCars implements TransactionSynchronization {
+
+        private final Set<Long> carIds = new HashSet<>();
+
+        @Override
+        public void afterCommit() {
+            refresh(carIds);
+        }
+    }
+}
@@ -0,0 +1,230 @@
+package com.wheelshift.costing;
+
+import com.wheelshift.model.CarCostSummary;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Recomputes {@link CarCostSummary} rows from the tables they summarise. A
+ * refresh covers a range of car ids and rewrites the summaries of the range
+ * in one transaction of its own, dropping those of cars that are gone, so
+ * the same call serves the refresh of a single car after a write and the
+ * reconciliation of the whole table. A reconciliation only rewrites the
+ * summaries whose values differ, so its caller can tell whether anything
+ * changed; after a write the car's summary is rewritten without comparing.
+ *
+ * Transaction types are compared case-insensitively: the purchase and sale
+ * transactions duplicate the car's purchase price and the sale, repair,
+ * maintenance and service transactions are repair costs, and anything else
+ * is another cost.
+ */
+@Component
+public class CarCostSummaries {
+
+    private static final Set<String> REPAIR_TYPES = Set.of("REPAIR", "MAINTENANCE", "SERVICE");
+    private static final Set<String> NOT_COSTS = Set.of("PURCHASE", "SALE");
+
+    private static final String SELECT_ID_BOUNDS = "SELECT MIN(id), MAX(id) FROM ("
+            + "SELECT id FROM cars UNION ALL SELECT car_id FROM car_cost_summaries) ids";
+    private static final String COUNT_SUMMARIES = "SELECT COUNT(*) FROM car_cost_summaries";
+    private static final String SELECT_CARS =
+            "SELECT id, tenant_id, model_id, purchase_price FROM cars WHERE id >= ? AND id < ?";
+    // Archived transactions still count, the car cost what it cost
+    private static final String SELECT_TRANSACTION_TOTALS = "SELECT car_id, UPPER(transaction_type), SUM(amount) "
+            + "FROM (SELECT car_id, transaction_type, amount FROM financial_transactions "
+            + "WHERE car_id >= ? AND car_id < ? "
+            + "UNION ALL SELECT car_id, transaction_type, amount FROM financial_transactions_archive "
+            + "WHERE car_id >= ? AND car_id < ?) t GROUP BY car_id, UPPER(transaction_type)";
+    private static final String SELECT_SALES =
+            "SELECT car_id, sale_price, sale_date, handled_by_id FROM sales WHERE car_id >= ? AND car_id < ?";
+    private static final String SELECT_INSPECTIONS = "SELECT car_id, estimated_repair_cost FROM car_inspections "
+            + "WHERE car_id >= ? AND car_id < ? ORDER BY car_id, inspection_date, id";
+    private static final String SELECT_SUMMARIES = "SELECT car_id, tenant_id, model_id, purchase_price, repair_cost, "
+            + "estimated_repair_cost, other_cost, total_cost, sale_price, sale_date, sold_by_id, profit "
+            + "FROM car_cost_summaries WHERE car_id >= ? AND car_id < ?";
+    private static final String DELETE_SUMMARIES = "DELETE FROM car_cost_summaries WHERE car_id >= ? AND car_id < ?";
+    private static final String DELETE_SUMMARY = "DELETE FROM car_cost_summaries WHERE car_id = ?";
+    // Columns of SELECT_SUMMARIES and INSERT_SUMMARY that hold the values, updated_at aside
+    private static final int VALUES = 12;
+    private static final String INSERT_SUMMARY = "INSERT INTO car_cost_summaries (car_id, tenant_id, model_id, "
+            + "purchase_price, repair_cost, estimated_repair_cost, other_cost, total_cost, sale_price, sale_date, "
+            + "sold_by_id, profit, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    // Cars per transaction when refreshing a large range
+    private static final long CHUNK = 1_000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectProvider<PlatformTransactionManager> transactionManager;
+    private volatile TransactionTemplate separateTransaction;
+
+    /**
+     * The transaction manager is looked up on first use, because the entity
+     * manager factory behind it creates the {@link CarCostListener} that
+     * depends on this bean.
+     */
+    public CarCostSummaries(JdbcTemplate jdbcTemplate, ObjectProvider<PlatformTransactionManager> transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionManager = transactionManager;
+    }
+
+    /**
+     * Lowest and highest id of a car or summary, or null if there are none.
+     */
+    public long[] idBounds() {
+        return jdbcTemplate.queryForObject(SELECT_ID_BOUNDS, (rs, rowNum) -> {
+            long min = rs.getLong(1);
+            return rs.wasNull() ? null : new long[] {min, rs.getLong(2)};
+        });
+    }
+
+    public boolean isEmpty() {
+        Long count = jdbcTemplate.queryForObject(COUNT_SUMMARIES, Long.class);
+        return count == null || count == 0;
+    }
+
+    /**
+     * Refreshes the summaries of the given cars, a car at a time.
+     */
+    public void refresh(Collection<Long> carIds) {
+        for (long carId : new TreeSet<>(carIds)) {
+            separateTransaction().execute(status -> refreshChunk(carId, carId + 1, false));
+        }
+    }
+
+    /**
+     * Reconciles the summaries of the cars with ids from {@code fromId} up to
+     * but excluding {@code toId}, and returns the number of summaries written
+     * or dropped because they had changed.
+     */
+    public long reconcile(long fromId, long toId) {
+        long written = 0;
+        for (long from = fromId; from < toId; from += CHUNK) {
+            long chunkFrom = from;
+            long chunkTo = Math.min(from + CHUNK, toId);
+            written += separateTransaction().execute(status -> refreshChunk(chunkFrom, chunkTo, true));
+        }
+        return written;
+    }
+
+    private int refreshChunk(long from, long to, boolean onlyChanged) {
+        Map<Long, Costs> costs = new HashMap<>();
+        jdbcTemplate.query(SELECT_TRANSACTION_TOTALS, rs -> {
+            Costs car = costs.computeIfAbsent(rs.getLong(1), id -> new Costs());
+            String type = rs.getString(2).toUpperCase(Locale.ROOT);
+            if (REPAIR_TYPES.contains(type)) {
+                car.repairs = car.repairs.add(rs.getBigDecimal(3));
+            } else if (!NOT_COSTS.contains(type)) {
+                car.others = car.others.add(rs.getBigDecimal(3));
+            }
+        }, from, to, from, to);
+        jdbcTemplate.query(SELECT_SALES, rs -> {
+            Costs car = costs.computeIfAbsent(rs.getLong(1), id -> new Costs());
+            car.salePrice = rs.getBigDecimal(2);
+            car.saleDate = rs.getDate(3);
+            car.soldById = rs.getObject(4, Long.class);
+        }, from, to);
+        // Ordered by date, so the estimate left is the latest inspection's
+        jdbcTemplate.query(SELECT_INSPECTIONS, rs -> {
+            costs.computeIfAbsent(rs.getLong(1), id -> new Costs()).estimatedRepairs = rs.getBigDecimal(2);
+        }, from, to);
+
+        Map<Long, List<Object>> existing = new HashMap<>();
+        if (onlyChanged) {
+            jdbcTemplate.query(SELECT_SUMMARIES, rs -> {
+                Object[] values = new Object[VALUES];
+                for (int i = 0; i < VALUES; i++) {
+                    values[i] = rs.getObject(i + 1);
+                }
+                existing.put(rs.getLong(1), comparable(values));
+            }, from, to);
+        }
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = new ArrayList<>();
+        jdbcTemplate.query(SELECT_CARS, rs -> {
+            Costs car = costs.getOrDefault(rs.getLong(1), new Costs());
+            BigDecimal purchasePrice = rs.getBigDecimal(4) == null ? BigDecimal.ZERO : rs.getBigDecimal(4);
+            BigDecimal repairs = car.repairs.signum() == 0 && car.estimatedRepairs != null
+                    ? car.estimatedRepairs : car.repairs;
+            BigDecimal totalCost = purchasePrice.add(repairs).add(car.others);
+            BigDecimal profit = car.salePrice == null ? null : car.salePrice.subtract(totalCost);
+            Object[] row = {rs.getLong(1), rs.getString(2), rs.getObject(3, Integer.class), purchasePrice,
+                    car.repairs, car.estimatedRepairs, car.others, totalCost, car.salePrice, car.saleDate,
+                    car.soldById, profit, now};
+            List<Object> current = existing.remove(rs.getLong(1));
+            if (!onlyChanged || !comparable(row).equals(current)) {
+                rows.add(row);
+            }
+        }, from, to);
+
+        if (!onlyChanged) {
+            jdbcTemplate.update(DELETE_SUMMARIES, from, to);
+            jdbcTemplate.batchUpdate(INSERT_SUMMARY, rows);
+            return rows.size();
+        }
+        // What is left in existing belongs to cars that are gone
+        List<Object[]> deleted = new ArrayList<>();
+        existing.keySet().forEach(carId -> deleted.add(new Object[] {carId}));
+        rows.forEach(row -> deleted.add(new Object[] {row[0]}));
+        jdbcTemplate.batchUpdate(DELETE_SUMMARY, deleted);
+        jdbcTemplate.batchUpdate(INSERT_SUMMARY, rows);
+        return rows.size() + existing.size();
+    }
+
+    /**
+     * The values of a summary as read or about to be written, with numbers and
+     * dates normalised so equal values compare equal whatever their types.
+     */
+    private static List<Object> comparable(Object[] values) {
+        List<Object> comparable = new ArrayList<>(VALUES);
+        for (int i = 0; i < VALUES; i++) {
+            Object value = values[i];
+            if (value instanceof BigDecimal decimal) {
+                value = decimal.stripTrailingZeros();
+            } else if (value instanceof Number number) {
+                value = number.longValue();
+            } else if (value instanceof Date date) {
+                value = date.toLocalDate();
+            }
+            comparable.add(value);
+        }
+        return comparable;
+    }
+
+    private TransactionTemplate separateTransaction() {
+        TransactionTemplate template = separateTransaction;
+        if (template == null) {
+            template = new TransactionTemplate(transactionManager.getObject());
+            template.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+            separateTransaction = template;
+        }
+        return template;
+    }
+
+    private static final class Costs {
+
+        private BigDecimal repairs = BigDecimal.ZERO;
+        private BigDecimal others = BigDecimal.ZERO;
+        private BigDecimal estimatedRepairs;
+        private BigDecimal salePrice;
+        private Date saleDate;
+        private Long soldById;
+    }
+}
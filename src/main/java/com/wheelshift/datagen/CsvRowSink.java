@@ -0,0 +1,122 @@
+package com.wheelshift.datagen;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Writes one CSV file per table chunk and a {@code load.sql} that bulk loads
+ * them with MySQL's {@code LOAD DATA LOCAL INFILE} in dependency order.
+ * Run it with {@code mysql --local-infile=1 wheel_shift < load.sql}.
+ */
+public class CsvRowSink implements RowSink {
+
+    private static final DateTimeFormatter DATE_TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private final Path outputDir;
+    // Table name -> columns, in the order tables were first written
+    private final Map<String, TableSpec> tables = new ConcurrentHashMap<>();
+    private final List<String> tableOrder;
+
+    public CsvRowSink(Path outputDir, List<String> tableOrder) {
+        this.outputDir = outputDir;
+        this.tableOrder = tableOrder;
+        try {
+            Files.createDirectories(outputDir);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void write(TableSpec table, int chunk, List<Object[]> rows) {
+        tables.putIfAbsent(table.name(), table);
+        Path dir = outputDir.resolve(table.name());
+        Path file = dir.resolve(String.format("%06d.csv", chunk));
+        try {
+            Files.createDirectories(dir);
+            try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+                StringBuilder line = new StringBuilder(256);
+                for (Object[] row : rows) {
+                    line.setLength(0);
+                    for (int i = 0; i < row.length; i++) {
+                        if (i > 0) {
+                            line.append(',');
+                        }
+                        appendValue(line, row[i]);
+                    }
+                    writer.append(line).append('\n');
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void finish(List<String> postLoadStatements) {
+        StringBuilder sql = new StringBuilder();
+        sql.append("-- Generated by DatasetGenerator\n");
+        sql.append("SET FOREIGN_KEY_CHECKS = 0;\nSET UNIQUE_CHECKS = 0;\n\n");
+        for (String tableName : tableOrder) {
+            TableSpec table = tables.get(tableName);
+            if (table == null) {
+                continue;
+            }
+            try (var files = Files.list(outputDir.resolve(tableName))) {
+                for (Path file : files.sorted().toList()) {
+                    sql.append("LOAD DATA LOCAL INFILE '").append(file.toAbsolutePath().toString().replace("\\", "/"))
+                       .append("' INTO TABLE ").append(tableName)
+                       .append(" CHARACTER SET utf8mb4 FIELDS TERMINATED BY ',' OPTIONALLY ENCLOSED BY '\"' ESCAPED BY '\\\\'")
+                       .append(" LINES TERMINATED BY '\\n' (").append(String.join(", ", table.columns())).append(");\n");
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        sql.append("\nSET UNIQUE_CHECKS = 1;\nSET FOREIGN_KEY_CHECKS = 1;\n\n");
+        for (String statement : postLoadStatements) {
+            sql.append(statement).append(";\n");
+        }
+        try {
+            Files.writeString(outputDir.resolve("load.sql"), sql, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void appendValue(StringBuilder line, Object value) {
+        if (value == null) {
+            line.append("\\N");
+        } else if (value instanceof Boolean bool) {
+            line.append(bool ? '1' : '0');
+        } else if (value instanceof Number number) {
+            line.append(number instanceof BigDecimal decimal ? decimal.toPlainString() : number.toString());
+        } else if (value instanceof LocalDateTime dateTime) {
+            line.append(DATE_TIME.format(dateTime));
+        } else if (value instanceof LocalDate date) {
+            line.append(date);
+        } else {
+            String text = value.toString();
+            line.append('"');
+            for (int i = 0; i < text.length(); i++) {
+                char c = text.charAt(i);
+                if (c == '"' || c == '\\') {
+                    line.append('\\');
+                }
+                line.append(c == '\n' ? ' ' : c);
+            }
+            line.append('"');
+        }
+    }
+}
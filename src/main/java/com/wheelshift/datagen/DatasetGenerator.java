@@ -0,0 +1,143 @@
+package com.wheelshift.datagen;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Generates a referentially consistent dataset and streams it into a
+ * {@link RowSink}.
+ *
+ * Work is split into fixed-size chunks of ids and each chunk draws from its
+ * own random stream derived from the seed, so the output only depends on the
+ * seed and the size settings, never on the thread count or scheduling. Chunks
+ * of one phase run in parallel; phases run one after the other so foreign keys
+ * are satisfied when inserting directly.
+ */
+@Slf4j
+public class DatasetGenerator {
+
+    // Stream identifiers for Distributions.chunkSeed; never renumber, it changes the output
+    private static final int STREAM_REFERENCE = 0;
+    private static final int STREAM_CLIENTS = 1;
+    private static final int STREAM_CARS = 2;
+    private static final int STREAM_EVENTS = 3;
+    private static final int STREAM_TASKS = 4;
+
+    private final DatasetGeneratorProperties properties;
+    private final RowFactory rowFactory;
+    private final RowSink sink;
+    private final AtomicLong rowsWritten = new AtomicLong();
+
+    public DatasetGenerator(DatasetGeneratorProperties properties, RowSink sink) {
+        this.properties = properties;
+        this.rowFactory = new RowFactory(properties);
+        this.sink = sink;
+    }
+
+    public long generate() {
+        long started = System.currentTimeMillis();
+        log.info("Generating dataset: seed={}, cars={}, clients={}, employees={}, locations={}, threads={}, sink={}",
+                properties.getSeed(), properties.getCars(), properties.resolvedClients(),
+                properties.resolvedEmployees(), properties.resolvedLocations(), properties.getThreads(),
+                sink.getClass().getSimpleName());
+
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, properties.getThreads()));
+        try {
+            SplittableRandom reference = random(STREAM_REFERENCE, 0);
+            write(RowFactory.CAR_MODELS, 0, rowFactory.carModels(reference));
+            write(RowFactory.STORAGE_LOCATIONS, 0, rowFactory.storageLocations(reference));
+            write(RowFactory.EMPLOYEES, 0, rowFactory.employees(reference));
+            write(RowFactory.KANBAN_COLUMNS, 0, rowFactory.kanbanColumns());
+            runChunks(executor, "clients", properties.resolvedClients(), STREAM_CLIENTS, chunk ->
+                    Map.of(RowFactory.CLIENTS, rowFactory.clients(chunk.fromId(), chunk.toId(), chunk.random())));
+
+            runChunks(executor, "cars", properties.getCars(), STREAM_CARS,
+                    chunk -> rowFactory.carGraph(chunk.fromId(), chunk.toId(), chunk.random()));
+            runChunks(executor, "calendar events", Math.round(properties.getCars() * properties.getEventsPerCar()),
+                    STREAM_EVENTS, chunk -> Map.of(RowFactory.CALENDAR_EVENTS,
+                            rowFactory.calendarEvents(chunk.fromId(), chunk.toId(), chunk.random())));
+            runChunks(executor, "tasks", Math.round(properties.getCars() * properties.getTasksPerCar()),
+                    STREAM_TASKS, chunk -> rowFactory.tasks(chunk.fromId(), chunk.toId(), chunk.random()));
+        } finally {
+            executor.shutdownNow();
+        }
+
+        long finishing = System.currentTimeMillis();
+        sink.finish(rowFactory.postLoadStatements());
+        long elapsed = System.currentTimeMillis() - started;
+        log.info("Generated {} rows in {} s ({} rows/s), post-load took {} ms", rowsWritten.get(), elapsed / 1000,
+                rowsWritten.get() * 1000 / Math.max(1, elapsed), System.currentTimeMillis() - finishing);
+        return rowsWritten.get();
+    }
+
+    private void runChunks(ExecutorService executor, String label, long total, int stream,
+                           Function<Chunk, Map<TableSpec, List<Object[]>>> generator) {
+        if (total <= 0) {
+            return;
+        }
+        long phaseStarted = System.currentTimeMillis();
+        long rowsBefore = rowsWritten.get();
+        int chunkSize = Math.max(1, properties.getChunkSize());
+        int chunks = (int) ((total + chunkSize - 1) / chunkSize);
+        int logEvery = Math.max(1, chunks / 10);
+
+        List<Future<?>> futures = new ArrayList<>(chunks);
+        for (int index = 0; index < chunks; index++) {
+            int chunkIndex = index;
+            futures.add(executor.submit(() -> {
+                long fromId = 1 + (long) chunkIndex * chunkSize;
+                long toId = Math.min(total + 1, fromId + chunkSize);
+                Map<TableSpec, List<Object[]>> rows = generator.apply(
+                        new Chunk(chunkIndex, fromId, toId, random(stream, chunkIndex)));
+                // Parents before children within the chunk
+                for (TableSpec table : RowFactory.ALL_TABLES) {
+                    List<Object[]> tableRows = rows.get(table);
+                    if (tableRows != null) {
+                        write(table, chunkIndex, tableRows);
+                    }
+                }
+            }));
+        }
+        for (int index = 0; index < futures.size(); index++) {
+            await(futures.get(index));
+            if ((index + 1) % logEvery == 0 || index + 1 == futures.size()) {
+                long elapsed = Math.max(1, System.currentTimeMillis() - phaseStarted);
+                long rows = rowsWritten.get() - rowsBefore;
+                log.info("{}: {}/{} chunks, {} rows, {} rows/s", label, index + 1, chunks, rows, rows * 1000 / elapsed);
+            }
+        }
+    }
+
+    private void write(TableSpec table, int chunk, List<Object[]> rows) {
+        sink.write(table, chunk, rows);
+        rowsWritten.addAndGet(rows.size());
+    }
+
+    private SplittableRandom random(int stream, int chunk) {
+        return new SplittableRandom(Distributions.chunkSeed(properties.getSeed(), stream, chunk));
+    }
+
+    private static void await(Future<?> future) {
+        try {
+            future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Dataset generation interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Dataset generation failed: " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    private record Chunk(int index, long fromId, long toId, SplittableRandom random) {
+    }
+}
@@ -0,0 +1,86 @@
+package com.wheelshift.datagen;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.LocalDate;
+
+/**
+ * Settings for the synthetic dataset generator ({@code wheelshift.datagen.*}).
+ * Every derived row count scales with {@link #cars}; one million cars yields
+ * roughly ten million rows across all tables.
+ */
+@Data
+@ConfigurationProperties(prefix = "wheelshift.datagen")
+public class DatasetGeneratorProperties {
+
+    public enum Mode {
+        /** Multi-threaded batched INSERTs through the application DataSource. */
+        JDBC,
+        /** CSV files plus a load.sql of LOAD DATA LOCAL INFILE statements. */
+        CSV
+    }
+
+    private Mode mode = Mode.JDBC;
+
+    /** Same seed and settings always produce byte-identical data. */
+    private long seed = 42L;
+
+    private int cars = 100_000;
+
+    private double clientsPerCar = 0.8;
+
+    private double inquiriesPerCar = 1.5;
+
+    private int employees = 0;
+
+    private int locations = 0;
+
+    private double soldFraction = 0.45;
+
+    private double reservedFraction = 0.08;
+
+    private double eventsPerCar = 0.2;
+
+    private double tasksPerCar = 0.02;
+
+    /** Zipf exponent over car models ordered by make popularity; 0 means uniform. */
+    private double makeSkew = 1.1;
+
+    /** Zipf exponent over employees for who handles sales. */
+    private double salesPersonSkew = 0.8;
+
+    /** Relative amplitude of the yearly sales cycle, 0 disables seasonality. */
+    private double seasonality = 0.35;
+
+    /** Month (1-12) in which sales peak. */
+    private int peakSalesMonth = 3;
+
+    /** Years of history generated before {@link #referenceDate}. */
+    private int historyYears = 5;
+
+    /** Fixed "today" for the generated data so output does not depend on the wall clock. */
+    private LocalDate referenceDate = LocalDate.of(2025, 12, 31);
+
+    private int threads = Runtime.getRuntime().availableProcessors();
+
+    /** Rows per generation unit; also the unit of parallelism and of transactions. */
+    private int chunkSize = 5_000;
+
+    private int batchSize = 1_000;
+
+    /** Target directory for {@link Mode#CSV}. */
+    private String outputDir = "target/datagen";
+
+    public int resolvedEmployees() {
+        return employees > 0 ? employees : Math.max(10, cars / 500);
+    }
+
+    public int resolvedLocations() {
+        return locations > 0 ? locations : Math.max(3, cars / 2_000);
+    }
+
+    public int resolvedClients() {
+        return Math.max(10, (int) Math.round(cars * clientsPerCar));
+    }
+}
@@ -0,0 +1,58 @@
+package com.wheelshift.datagen;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Path;
+
+/**
+ * Fills the configured database (or a directory of bulk-load files) with
+ * synthetic data and exits. Activate with the {@code datagen} profile, e.g.
+ * {@code java -jar AutoVault.jar --spring.profiles.active=datagen --wheelshift.datagen.cars=1000000}.
+ * Expects an empty schema.
+ */
+@Component
+@Profile("datagen")
+@EnableConfigurationProperties(DatasetGeneratorProperties.class)
+@Slf4j
+public class DatasetGeneratorRunner implements CommandLineRunner {
+
+    private final DatasetGeneratorProperties properties;
+    private final JdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+    private final ConfigurableApplicationContext context;
+
+    public DatasetGeneratorRunner(DatasetGeneratorProperties properties, JdbcTemplate jdbcTemplate,
+                                  PlatformTransactionManager transactionManager, ConfigurableApplicationContext context) {
+        this.properties = properties;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionManager = transactionManager;
+        this.context = context;
+    }
+
+    @Override
+    public void run(String... args) {
+        RowSink sink = switch (properties.getMode()) {
+            case JDBC -> new JdbcRowSink(jdbcTemplate, new TransactionTemplate(transactionManager), properties.getBatchSize());
+            case CSV -> new CsvRowSink(Path.of(properties.getOutputDir()),
+                    RowFactory.ALL_TABLES.stream().map(TableSpec::name).toList());
+        };
+        try (sink) {
+            new DatasetGenerator(properties, sink).generate();
+        }
+        if (properties.getMode() == DatasetGeneratorProperties.Mode.CSV) {
+            log.info("Bulk load files written, load them with: mysql --local-infile=1 wheel_shift < {}",
+                    Path.of(properties.getOutputDir()).resolve("load.sql").toAbsolutePath());
+        }
+        // Scheduled jobs keep non-daemon threads alive, so shut down explicitly
+        System.exit(SpringApplication.exit(context, () -> 0));
+    }
+}
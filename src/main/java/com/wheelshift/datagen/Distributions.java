@@ -0,0 +1,98 @@
+package com.wheelshift.datagen;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.SplittableRandom;
+
+/**
+ * Seeded sampling helpers shared by the row factory.
+ */
+final class Distributions {
+
+    private Distributions() {
+    }
+
+    /**
+     * Derives an independent seed for one unit of work so that chunks can be
+     * generated in any order, on any thread, with the same result.
+     */
+    static long chunkSeed(long seed, int table, long chunk) {
+        return mix(mix(seed ^ (0x9E3779B97F4A7C15L * (table + 1))) + chunk);
+    }
+
+    // SplitMix64 finalizer
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Cumulative distribution of a Zipf law over ranks {@code 0..n-1}; rank 0 is
+     * the most frequent. An exponent of 0 gives a uniform distribution.
+     */
+    static double[] zipfCdf(int n, double exponent) {
+        double[] cdf = new double[n];
+        double total = 0;
+        for (int rank = 0; rank < n; rank++) {
+            total += 1.0 / Math.pow(rank + 1, exponent);
+            cdf[rank] = total;
+        }
+        for (int rank = 0; rank < n; rank++) {
+            cdf[rank] /= total;
+        }
+        return cdf;
+    }
+
+    static int sample(double[] cdf, SplittableRandom random) {
+        double u = random.nextDouble();
+        int low = 0;
+        int high = cdf.length - 1;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (cdf[mid] < u) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    static LocalDate uniformDate(SplittableRandom random, LocalDate from, LocalDate to) {
+        long days = ChronoUnit.DAYS.between(from, to);
+        return days <= 0 ? from : from.plusDays(random.nextLong(days + 1));
+    }
+
+    /**
+     * A date in {@code [from, to]} whose density follows a yearly cosine cycle
+     * peaking in the middle of {@code peakMonth}. Uses rejection sampling, falling
+     * back to a uniform draw after a bounded number of attempts.
+     */
+    static LocalDate seasonalDate(SplittableRandom random, LocalDate from, LocalDate to, double amplitude, int peakMonth) {
+        if (amplitude <= 0) {
+            return uniformDate(random, from, to);
+        }
+        double peakDay = (peakMonth - 1) * 30.44 + 15;
+        LocalDate candidate = from;
+        for (int attempt = 0; attempt < 32; attempt++) {
+            candidate = uniformDate(random, from, to);
+            double angle = 2 * Math.PI * (candidate.getDayOfYear() - peakDay) / 365.25;
+            double weight = (1 + amplitude * Math.cos(angle)) / (1 + amplitude);
+            if (random.nextDouble() < weight) {
+                return candidate;
+            }
+        }
+        return candidate;
+    }
+
+    static <T> T pick(T[] values, SplittableRandom random) {
+        return values[random.nextInt(values.length)];
+    }
+
+    static int count(double mean, int max, SplittableRandom random) {
+        int whole = (int) mean;
+        int count = whole + (random.nextDouble() < mean - whole ? 1 : 0);
+        return Math.min(count, max);
+    }
+}
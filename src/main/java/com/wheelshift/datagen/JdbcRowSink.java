@@ -0,0 +1,48 @@
+package com.wheelshift.datagen;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * Inserts each chunk as JDBC batches inside one transaction. On MySQL add
+ * {@code rewriteBatchedStatements=true} to the JDBC URL, otherwise the driver
+ * sends batches row by row.
+ */
+@Slf4j
+public class JdbcRowSink implements RowSink {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+
+    public JdbcRowSink(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate, int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public void write(TableSpec table, int chunk, List<Object[]> rows) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        String sql = table.insertSql();
+        transactionTemplate.executeWithoutResult(status -> {
+            for (int from = 0; from < rows.size(); from += batchSize) {
+                jdbcTemplate.batchUpdate(sql, rows.subList(from, Math.min(rows.size(), from + batchSize)));
+            }
+        });
+    }
+
+    @Override
+    public void finish(List<String> postLoadStatements) {
+        for (String statement : postLoadStatements) {
+            long started = System.currentTimeMillis();
+            int updated = jdbcTemplate.update(statement);
+            log.info("Post-load: {} rows updated in {} ms: {}", updated, System.currentTimeMillis() - started, statement);
+        }
+    }
+}
@@ -0,0 +1,460 @@
+package com.wheelshift.datagen;
+
+import com.wheelshift.model.CarStatus;
+import com.wheelshift.model.EventType;
+import com.wheelshift.model.Task;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import static com.wheelshift.datagen.Distributions.count;
+import static com.wheelshift.datagen.Distributions.pick;
+import static com.wheelshift.datagen.Distributions.sample;
+import static com.wheelshift.datagen.Distributions.seasonalDate;
+import static com.wheelshift.datagen.Distributions.uniformDate;
+
+/**
+ * Produces the rows for every table. All identifiers are assigned explicitly
+ * from the car id (e.g. a car's sale and reservation share its id, its
+ * inspections live at {@code (carId - 1) * 3 + k + 1}), so a chunk can be
+ * generated without knowing what any other chunk produced.
+ */
+class RowFactory {
+
+    static final TableSpec CAR_MODELS = new TableSpec("car_models",
+            "id", "make", "model", "variant", "body_type", "fuel_type", "transmission_type", "gears",
+            "emission_norm", "fuel_tank_capacity");
+    static final TableSpec STORAGE_LOCATIONS = new TableSpec("storage_locations",
+            "id", "name", "address", "contact_person", "contact_number", "total_capacity", "current_vehicle_count");
+    static final TableSpec EMPLOYEES = new TableSpec("employees",
+            "id", "name", "email", "phone", "position", "department", "join_date", "status", "performance",
+            "password", "last_login", "created_at", "updated_at");
+    static final TableSpec CLIENTS = new TableSpec("clients",
+            "id", "name", "email", "phone", "location", "status", "total_purchases", "last_purchase",
+            "created_at", "updated_at");
+    static final TableSpec KANBAN_COLUMNS = new TableSpec("kanban_columns",
+            "id", "column_id", "title", "position");
+    static final TableSpec CARS = new TableSpec("cars",
+            "id", "vin_number", "registration_number", "model_id", "location_id", "year", "color", "mileage",
+            "engine_capacity", "purchase_date", "purchase_price", "selling_price", "status_code",
+            "created_at", "updated_at");
+    static final TableSpec CAR_DETAILED_SPECS = new TableSpec("car_detailed_specs",
+            "id", "car_id", "doors", "seats", "cargo_capacity_liters", "acceleration0to100", "top_speed",
+            "created_at", "updated_at");
+    static final TableSpec CAR_ADDITIONAL_FEATURES = new TableSpec("car_additional_features",
+            "car_specs_id", "feature_name", "feature_value");
+    static final TableSpec CAR_INSPECTIONS = new TableSpec("car_inspections",
+            "id", "car_id", "inspection_date", "inspector_name", "overall_condition", "exterior_condition",
+            "interior_condition", "mechanical_condition", "electrical_condition", "accident_history",
+            "required_repairs", "estimated_repair_cost", "inspection_pass", "created_at");
+    static final TableSpec FINANCIAL_TRANSACTIONS = new TableSpec("financial_transactions",
+            "id", "car_id", "transaction_type", "amount", "transaction_date", "description", "vendor_name",
+            "receipt_url", "created_at");
+    static final TableSpec SALES = new TableSpec("sales",
+            "id", "car_id", "client_id", "handled_by_id", "sale_date", "sale_price", "commission_rate",
+            "total_commission", "payment_method", "sale_documents_url", "created_at");
+    static final TableSpec RESERVATIONS = new TableSpec("reservations",
+            "id", "car_id", "client_id", "reservation_date", "expiry_date", "status", "deposit_amount",
+            "deposit_paid", "notes", "created_at", "updated_at");
+    static final TableSpec INQUIRIES = new TableSpec("inquiries",
+            "id", "car_id", "client_id", "assigned_employee_id", "inquiry_type", "message", "status", "response",
+            "response_date", "created_at", "updated_at");
+    static final TableSpec CALENDAR_EVENTS = new TableSpec("calendar_events",
+            "id", "title", "start_time", "end_time", "background_color", "border_color", "event_type",
+            "customer_name", "car_details", "created_at", "updated_at", "created_by", "updated_by");
+    static final TableSpec TASKS = new TableSpec("tasks",
+            "id", "task_id", "title", "description", "assignee", "due_date", "priority", "column_id");
+    static final TableSpec TASK_POSITIONS = new TableSpec("task_positions",
+            "id", "task_id", "column_id", "position");
+    static final TableSpec TASK_TAGS = new TableSpec("task_tags",
+            "task_id", "tag");
+
+    /** Load order that satisfies every foreign key. */
+    static final List<TableSpec> ALL_TABLES = List.of(CAR_MODELS, STORAGE_LOCATIONS, EMPLOYEES, CLIENTS,
+            KANBAN_COLUMNS, CARS, CAR_DETAILED_SPECS, CAR_ADDITIONAL_FEATURES, CAR_INSPECTIONS,
+            FINANCIAL_TRANSACTIONS, SALES, RESERVATIONS, INQUIRIES, CALENDAR_EVENTS, TASKS, TASK_POSITIONS,
+            TASK_TAGS);
+
+    static final int MAX_INSPECTIONS_PER_CAR = 3;
+    static final int MAX_TRANSACTIONS_PER_CAR = 6;
+    static final int MAX_INQUIRIES_PER_CAR = 3;
+
+    // BCrypt hash of "password"; hashing per row would dominate generation time and salts are random
+    private static final String PASSWORD_HASH = "$2a$10$idQRrMzj6bNoWL4XWmySLuXmHIXhF.qm48scLg6KNLNi0beW.tbNi";
+
+    // Makes in descending order of popularity; the Zipf skew is applied over the models in this order
+    private static final String[][] MAKES = {
+        {"Maruti Suzuki", "Swift", "Baleno", "Dzire", "Brezza", "Ertiga"},
+        {"Hyundai", "Creta", "i20", "Venue", "Verna"},
+        {"Tata", "Nexon", "Punch", "Harrier", "Tiago"},
+        {"Mahindra", "Scorpio", "XUV700", "Thar", "Bolero"},
+        {"Toyota", "Innova", "Fortuner", "Glanza"},
+        {"Kia", "Seltos", "Sonet", "Carens"},
+        {"Honda", "City", "Amaze", "Elevate"},
+        {"Renault", "Kwid", "Kiger", "Triber"},
+        {"Skoda", "Slavia", "Kushaq"},
+        {"Volkswagen", "Virtus", "Taigun"},
+        {"MG", "Hector", "Astor"},
+        {"BMW", "3 Series", "X1"},
+        {"Mercedes-Benz", "C-Class", "GLA"}
+    };
+    private static final String[] VARIANTS = {"Base", "Mid", "Top"};
+    private static final String[] BODY_TYPES = {"Hatchback", "Sedan", "SUV", "MUV"};
+    private static final String[] FUEL_TYPES = {"Petrol", "Diesel", "CNG", "Electric"};
+    private static final String[] COLORS = {"White", "Silver", "Grey", "Black", "Red", "Blue", "Brown"};
+    private static final String[] STATE_CODES = {"MH", "DL", "KA", "TN", "GJ", "UP", "RJ", "WB", "TS", "KL"};
+    private static final String[] CITIES = {"Mumbai", "Delhi", "Bengaluru", "Chennai", "Ahmedabad", "Lucknow",
+        "Jaipur", "Kolkata", "Hyderabad", "Kochi", "Pune", "Indore"};
+    private static final String[] FIRST_NAMES = {"Aarav", "Vivaan", "Aditya", "Vihaan", "Arjun", "Sai", "Reyansh",
+        "Ishaan", "Ananya", "Diya", "Saanvi", "Aadhya", "Pari", "Myra", "Meera", "Kavya", "Rohan", "Priya",
+        "Rahul", "Neha", "Karan", "Pooja", "Vikram", "Sneha"};
+    private static final String[] LAST_NAMES = {"Sharma", "Verma", "Patel", "Reddy", "Iyer", "Nair", "Gupta",
+        "Singh", "Kumar", "Das", "Joshi", "Mehta", "Rao", "Kapoor", "Chopra", "Bose"};
+    private static final String[] DEPARTMENTS = {"Sales", "Sales", "Sales", "Service", "Finance", "Operations"};
+    private static final String[] POSITIONS = {"Sales Executive", "Senior Sales Executive", "Sales Manager"};
+    private static final String[] PERFORMANCE = {"Excellent", "Good", "Good", "Average", "Needs Improvement"};
+    private static final String[] FEATURES = {"Sunroof", "Cruise Control", "Rear Camera", "Parking Sensors",
+        "Alloy Wheels", "Touchscreen", "Keyless Entry", "Airbags", "Ventilated Seats", "Wireless Charging"};
+    private static final String[] CONDITIONS = {"Excellent", "Good", "Fair", "Poor"};
+    private static final String[] REPAIR_TYPES = {"REPAIR", "SERVICE", "INSURANCE", "REGISTRATION"};
+    private static final String[] VENDORS = {"AutoCare Garage", "QuickFix Motors", "Prime Service Centre",
+        "City Insurance", "RTO Agent"};
+    private static final String[] PAYMENT_METHODS = {"CASH", "LOAN", "LOAN", "UPI", "BANK_TRANSFER"};
+    private static final String[] INQUIRY_TYPES = {"PRICE", "TEST_DRIVE", "AVAILABILITY", "FINANCING", "GENERAL"};
+    private static final String[] INQUIRY_STATUSES = {"PENDING", "ASSIGNED", "RESPONDED", "CLOSED", "CLOSED"};
+    private static final String[] LAPSED_RESERVATION_STATUSES = {"CANCELLED", "EXPIRED"};
+    private static final String[][] KANBAN = {
+        {"column-1", "To Do"}, {"column-2", "In Progress"}, {"column-3", "Review"}, {"column-4", "Done"}
+    };
+    private static final String[] TASK_VERBS = {"Follow up with", "Prepare paperwork for", "Schedule inspection for",
+        "Arrange test drive for", "Collect documents from"};
+    private static final String[] TAGS = {"urgent", "finance", "paperwork", "customer", "inspection", "delivery"};
+    private static final Map<EventType, String> EVENT_COLORS = Map.of(
+            EventType.TEST_DRIVE, "#4caf50",
+            EventType.DELIVERY, "#2196f3",
+            EventType.INSPECTION, "#ff9800",
+            EventType.MAINTENANCE, "#9c27b0",
+            EventType.NEGOTIATION, "#f44336");
+
+    private final DatasetGeneratorProperties properties;
+    private final LocalDate referenceDate;
+    private final LocalDate historyStart;
+    private final int clients;
+    private final int employees;
+    private final int locations;
+    private final List<String[]> models = new ArrayList<>();
+    private final double[] modelCdf;
+    private final double[] salesPersonCdf;
+
+    RowFactory(DatasetGeneratorProperties properties) {
+        this.properties = properties;
+        this.referenceDate = properties.getReferenceDate();
+        this.historyStart = referenceDate.minusYears(properties.getHistoryYears());
+        this.clients = properties.resolvedClients();
+        this.employees = properties.resolvedEmployees();
+        this.locations = properties.resolvedLocations();
+        for (String[] make : MAKES) {
+            for (int m = 1; m < make.length; m++) {
+                for (String variant : VARIANTS) {
+                    models.add(new String[] {make[0], make[m], variant});
+                }
+            }
+        }
+        this.modelCdf = Distributions.zipfCdf(models.size(), properties.getMakeSkew());
+        this.salesPersonCdf = Distributions.zipfCdf(employees, properties.getSalesPersonSkew());
+    }
+
+    /* =====================================================
+       Reference data
+       ===================================================== */
+
+    List<Object[]> carModels(SplittableRandom random) {
+        List<Object[]> rows = new ArrayList<>(models.size());
+        for (int i = 0; i < models.size(); i++) {
+            String[] model = models.get(i);
+            String fuel = pick(FUEL_TYPES, random);
+            boolean automatic = random.nextInt(3) == 0;
+            rows.add(new Object[] {i + 1, model[0], model[1], model[2], pick(BODY_TYPES, random), fuel,
+                    automatic ? "Automatic" : "Manual", automatic ? 6 + random.nextInt(3) : 5 + random.nextInt(2),
+                    "BS6", "Electric".equals(fuel) ? null : (35 + random.nextInt(36)) + " L"});
+        }
+        return rows;
+    }
+
+    List<Object[]> storageLocations(SplittableRandom random) {
+        // Room for every unsold car plus headroom, spread evenly
+        long unsold = Math.round(properties.getCars() * (1 - properties.getSoldFraction()));
+        int capacity = (int) Math.max(50, unsold * 3 / 2 / locations);
+        List<Object[]> rows = new ArrayList<>(locations);
+        for (int id = 1; id <= locations; id++) {
+            String city = CITIES[(id - 1) % CITIES.length];
+            rows.add(new Object[] {(long) id, city + " Yard " + id, (100 + random.nextInt(900)) + " Ring Road, " + city,
+                    personName(random), phone(random), capacity, 0});
+        }
+        return rows;
+    }
+
+    List<Object[]> employees(SplittableRandom random) {
+        List<Object[]> rows = new ArrayList<>(employees);
+        for (int id = 1; id <= employees; id++) {
+            String first = pick(FIRST_NAMES, random);
+            String last = pick(LAST_NAMES, random);
+            String department = pick(DEPARTMENTS, random);
+            LocalDate joined = uniformDate(random, historyStart.minusYears(3), referenceDate.minusMonths(1));
+            LocalDateTime created = joined.atTime(9, 0);
+            rows.add(new Object[] {(long) id, first + " " + last,
+                    (first + "." + last + "." + id + "@ws.com").toLowerCase(), phone(random),
+                    "Sales".equals(department) ? pick(POSITIONS, random) : department + " Associate", department,
+                    joined, random.nextInt(20) == 0 ? "INACTIVE" : "ACTIVE", pick(PERFORMANCE, random),
+                    PASSWORD_HASH, null, created, created});
+        }
+        return rows;
+    }
+
+    List<Object[]> clients(long fromId, long toId, SplittableRandom random) {
+        List<Object[]> rows = new ArrayList<>((int) (toId - fromId));
+        for (long id = fromId; id < toId; id++) {
+            LocalDateTime created = uniformDate(random, historyStart, referenceDate).atTime(10 + random.nextInt(8), random.nextInt(60));
+            rows.add(new Object[] {id, personName(random), "client" + id + "@example.com", phone(random),
+                    pick(CITIES, random), random.nextInt(10) == 0 ? "INACTIVE" : "ACTIVE", 0, null, created, created});
+        }
+        return rows;
+    }
+
+    List<Object[]> kanbanColumns() {
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < KANBAN.length; i++) {
+            rows.add(new Object[] {(long) i + 1, KANBAN[i][0], KANBAN[i][1], i});
+        }
+        return rows;
+    }
+
+    /* =====================================================
+       Cars and everything hanging off them
+       ===================================================== */
+
+    /**
+     * Rows for cars {@code [fromId, toId)} and their specs, features, inspections,
+     * transactions, sale, reservation and inquiries, keyed by table.
+     */
+    Map<TableSpec, List<Object[]>> carGraph(long fromId, long toId, SplittableRandom random) {
+        int size = (int) (toId - fromId);
+        Map<TableSpec, List<Object[]>> rows = new HashMap<>();
+        List<Object[]> cars = new ArrayList<>(size);
+        List<Object[]> specs = new ArrayList<>(size);
+        List<Object[]> features = new ArrayList<>(size * 3);
+        List<Object[]> inspections = new ArrayList<>(size);
+        List<Object[]> transactions = new ArrayList<>(size * 3);
+        List<Object[]> sales = new ArrayList<>(size / 2);
+        List<Object[]> reservations = new ArrayList<>(size / 5);
+        List<Object[]> inquiries = new ArrayList<>(size * 2);
+
+        double sold = properties.getSoldFraction();
+        double reservedOfUnsold = sold >= 1 ? 0 : properties.getReservedFraction() / (1 - sold);
+        LocalDate latestPurchase = referenceDate.minusDays(14);
+
+        for (long carId = fromId; carId < toId; carId++) {
+            int modelIndex = sample(modelCdf, random);
+            String[] model = models.get(modelIndex);
+            int year = historyStart.getYear() - random.nextInt(8);
+            LocalDate purchaseDate = uniformDate(random, historyStart, latestPurchase);
+            // Popular (cheap, mass-market) models sit at low ranks; price rises gently with rank
+            BigDecimal purchasePrice = money(300_000 + modelIndex * 25_000 + random.nextInt(400_000));
+            BigDecimal sellingPrice = money(purchasePrice.doubleValue() * (1.08 + random.nextDouble() * 0.12));
+            LocalDateTime created = purchaseDate.atTime(9 + random.nextInt(9), random.nextInt(60));
+
+            boolean isSold = random.nextDouble() < sold;
+            boolean isReserved = !isSold && random.nextDouble() < reservedOfUnsold;
+            boolean needsRepair = !isSold && !isReserved && random.nextInt(20) == 0;
+            CarStatus status = isSold ? CarStatus.SOLD
+                    : isReserved ? CarStatus.RESERVED
+                    : needsRepair ? CarStatus.NEEDS_REPAIR
+                    : CarStatus.AVAILABLE;
+            LocalDate saleDate = isSold ? seasonalDate(random, purchaseDate.plusDays(7), referenceDate,
+                    properties.getSeasonality(), properties.getPeakSalesMonth()) : null;
+            LocalDate lastChange = saleDate != null ? saleDate : purchaseDate;
+
+            cars.add(new Object[] {carId, String.format("WS%015d", carId), registration(random), modelIndex + 1,
+                    isSold ? null : 1L + random.nextInt(locations), year, pick(COLORS, random),
+                    money(5_000 + random.nextInt(120_000)), money(1.0 + random.nextInt(20) / 10.0), purchaseDate,
+                    purchasePrice, sellingPrice, status.getCode(), created, lastChange.atTime(created.toLocalTime())});
+
+            specs.add(new Object[] {carId, carId, random.nextInt(4) == 0 ? 3 : 5, random.nextInt(5) == 0 ? 7 : 5,
+                    money(250 + random.nextInt(450)), money(8 + random.nextInt(80) / 10.0), 150 + random.nextInt(80),
+                    created, created});
+            int featureCount = random.nextInt(6);
+            int featureOffset = random.nextInt(FEATURES.length);
+            for (int f = 0; f < featureCount; f++) {
+                features.add(new Object[] {carId, FEATURES[(featureOffset + f) % FEATURES.length], "Yes"});
+            }
+
+            int inspectionCount = needsRepair ? 1 + random.nextInt(MAX_INSPECTIONS_PER_CAR)
+                    : random.nextInt(MAX_INSPECTIONS_PER_CAR);
+            for (int k = 0; k < inspectionCount; k++) {
+                LocalDate date = uniformDate(random, purchaseDate, saleDate != null ? saleDate : referenceDate);
+                boolean pass = !(needsRepair && k == inspectionCount - 1) && random.nextInt(6) != 0;
+                inspections.add(new Object[] {(carId - 1) * MAX_INSPECTIONS_PER_CAR + k + 1, carId, date,
+                        personName(random), pass ? pick(CONDITIONS, random) : "Poor", pick(CONDITIONS, random),
+                        pick(CONDITIONS, random), pick(CONDITIONS, random), pick(CONDITIONS, random),
+                        random.nextInt(8) == 0 ? "Minor accident reported" : "None",
+                        pass ? null : "Brake pads, suspension bushes", pass ? null : money(5_000 + random.nextInt(60_000)),
+                        pass, date.atTime(11, 0)});
+            }
+
+            long transactionId = (carId - 1) * MAX_TRANSACTIONS_PER_CAR + 1;
+            transactions.add(new Object[] {transactionId++, carId, "PURCHASE", purchasePrice, purchaseDate,
+                    "Vehicle purchase", null, null, created});
+            int expenses = random.nextInt(MAX_TRANSACTIONS_PER_CAR - 2);
+            for (int k = 0; k < expenses; k++) {
+                LocalDate date = uniformDate(random, purchaseDate, saleDate != null ? saleDate : referenceDate);
+                String type = pick(REPAIR_TYPES, random);
+                transactions.add(new Object[] {transactionId++, carId, type, money(1_000 + random.nextInt(40_000)),
+                        date, type.charAt(0) + type.substring(1).toLowerCase() + " expense", pick(VENDORS, random),
+                        null, date.atTime(12, 0)});
+            }
+
+            if (isSold) {
+                long clientId = 1L + random.nextInt(clients);
+                BigDecimal salePrice = money(sellingPrice.doubleValue() * (0.95 + random.nextDouble() * 0.05));
+                BigDecimal commissionRate = money(1 + random.nextInt(4));
+                BigDecimal commission = salePrice.multiply(commissionRate).divide(BigDecimal.valueOf(100), 2, RoundingMode.HALF_UP);
+                LocalDateTime saleTime = saleDate.atTime(15, 0);
+                sales.add(new Object[] {carId, carId, clientId, 1L + sample(salesPersonCdf, random), saleDate,
+                        salePrice, commissionRate, commission, pick(PAYMENT_METHODS, random), null, saleTime});
+                transactions.add(new Object[] {transactionId, carId, "SALE", salePrice, saleDate, "Vehicle sale",
+                        null, null, saleTime});
+                if (random.nextInt(5) == 0) {
+                    LocalDateTime reserved = saleDate.minusDays(1 + random.nextInt(6)).atTime(11, 0);
+                    reservations.add(reservation(carId, clientId, reserved, "COMPLETED", random));
+                }
+            } else if (isReserved) {
+                LocalDateTime reserved = referenceDate.minusDays(random.nextInt(10)).atTime(10 + random.nextInt(8), 0);
+                reservations.add(reservation(carId, 1L + random.nextInt(clients), reserved, "ACTIVE", random));
+            } else if (random.nextInt(10) == 0) {
+                LocalDateTime reserved = uniformDate(random, purchaseDate, referenceDate).atTime(10, 0);
+                reservations.add(reservation(carId, 1L + random.nextInt(clients), reserved,
+                        pick(LAPSED_RESERVATION_STATUSES, random), random));
+            }
+
+            int inquiryCount = count(properties.getInquiriesPerCar(), MAX_INQUIRIES_PER_CAR, random);
+            for (int k = 0; k < inquiryCount; k++) {
+                LocalDateTime asked = uniformDate(random, purchaseDate, saleDate != null ? saleDate : referenceDate)
+                        .atTime(9 + random.nextInt(10), random.nextInt(60));
+                String inquiryStatus = pick(INQUIRY_STATUSES, random);
+                boolean answered = "RESPONDED".equals(inquiryStatus) || "CLOSED".equals(inquiryStatus);
+                LocalDateTime answeredAt = answered ? asked.plusHours(1 + random.nextInt(72)) : null;
+                inquiries.add(new Object[] {(carId - 1) * MAX_INQUIRIES_PER_CAR + k + 1, carId,
+                        1L + random.nextInt(clients),
+                        "PENDING".equals(inquiryStatus) ? null : 1L + sample(salesPersonCdf, random),
+                        pick(INQUIRY_TYPES, random), "Interested in the " + model[0] + " " + model[1] + ", please share details.",
+                        inquiryStatus, answered ? "Thank you for your interest, our team has shared the details." : null,
+                        answeredAt, asked, answeredAt != null ? answeredAt : asked});
+            }
+        }
+
+        rows.put(CARS, cars);
+        rows.put(CAR_DETAILED_SPECS, specs);
+        rows.put(CAR_ADDITIONAL_FEATURES, features);
+        rows.put(CAR_INSPECTIONS, inspections);
+        rows.put(FINANCIAL_TRANSACTIONS, transactions);
+        rows.put(SALES, sales);
+        rows.put(RESERVATIONS, reservations);
+        rows.put(INQUIRIES, inquiries);
+        return rows;
+    }
+
+    private Object[] reservation(long carId, long clientId, LocalDateTime reserved, String status, SplittableRandom random) {
+        boolean depositPaid = random.nextInt(3) != 0;
+        return new Object[] {carId, carId, clientId, reserved, reserved.plusDays(7), status,
+                depositPaid ? money(10_000 + random.nextInt(4) * 5_000) : null, depositPaid, null, reserved, reserved};
+    }
+
+    /* =====================================================
+       Calendar and Kanban board
+       ===================================================== */
+
+    List<Object[]> calendarEvents(long fromId, long toId, SplittableRandom random) {
+        EventType[] types = EventType.values();
+        List<Object[]> rows = new ArrayList<>((int) (toId - fromId));
+        for (long id = fromId; id < toId; id++) {
+            EventType type = pick(types, random);
+            String color = EVENT_COLORS.getOrDefault(type, "#607d8b");
+            LocalDateTime start = uniformDate(random, referenceDate.minusYears(1), referenceDate.plusMonths(2))
+                    .atTime(9 + random.nextInt(9), random.nextInt(4) * 15);
+            String[] model = models.get(sample(modelCdf, random));
+            String customer = personName(random);
+            rows.add(new Object[] {id, type.name().replace('_', ' ') + " - " + customer, start,
+                    start.plusMinutes(30 + random.nextInt(4) * 30), color, color, type.name(), customer,
+                    model[0] + " " + model[1] + " " + model[2], start.minusDays(3), start.minusDays(3), "datagen", "datagen"});
+        }
+        return rows;
+    }
+
+    Map<TableSpec, List<Object[]>> tasks(long fromId, long toId, SplittableRandom random) {
+        Task.Priority[] priorities = Task.Priority.values();
+        int size = (int) (toId - fromId);
+        List<Object[]> tasks = new ArrayList<>(size);
+        List<Object[]> positions = new ArrayList<>(size);
+        List<Object[]> tags = new ArrayList<>(size);
+        for (long id = fromId; id < toId; id++) {
+            long column = 1L + random.nextInt(KANBAN.length);
+            tasks.add(new Object[] {id, "task-" + id, pick(TASK_VERBS, random) + " " + personName(random),
+                    "Generated task " + id, personName(random),
+                    uniformDate(random, referenceDate.minusMonths(1), referenceDate.plusMonths(1)),
+                    pick(priorities, random).name(), column});
+            // Ids grow monotonically, so they double as the order within a column
+            positions.add(new Object[] {id, id, column, (int) id});
+            int tagCount = random.nextInt(3);
+            int tagOffset = random.nextInt(TAGS.length);
+            for (int t = 0; t < tagCount; t++) {
+                tags.add(new Object[] {id, TAGS[(tagOffset + t) % TAGS.length]});
+            }
+        }
+        Map<TableSpec, List<Object[]>> rows = new HashMap<>();
+        rows.put(TASKS, tasks);
+        rows.put(TASK_POSITIONS, positions);
+        rows.put(TASK_TAGS, tags);
+        return rows;
+    }
+
+    /* =====================================================
+       Post-load fix-ups
+       ===================================================== */
+
+    List<String> postLoadStatements() {
+        return List.of(
+                "UPDATE storage_locations SET current_vehicle_count = "
+                        + "(SELECT COUNT(*) FROM cars c WHERE c.location_id = storage_locations.id)",
+                "UPDATE clients SET total_purchases = (SELECT COUNT(*) FROM sales s WHERE s.client_id = clients.id), "
+                        + "last_purchase = (SELECT MAX(s.sale_date) FROM sales s WHERE s.client_id = clients.id)");
+    }
+
+    /* =====================================================
+       Value helpers
+       ===================================================== */
+
+    private static String personName(SplittableRandom random) {
+        return pick(FIRST_NAMES, random) + " " + pick(LAST_NAMES, random);
+    }
+
+    private static String phone(SplittableRandom random) {
+        return "+91" + (7 + random.nextInt(3)) + String.format("%09d", random.nextInt(1_000_000_000));
+    }
+
+    private static String registration(SplittableRandom random) {
+        return pick(STATE_CODES, random) + String.format("%02d", 1 + random.nextInt(50))
+                + (char) ('A' + random.nextInt(26)) + (char) ('A' + random.nextInt(26))
+                + String.format("%04d", random.nextInt(10_000));
+    }
+
+    private static BigDecimal money(double value) {
+        return BigDecimal.valueOf(value).setScale(2, RoundingMode.HALF_UP);
+    }
+}
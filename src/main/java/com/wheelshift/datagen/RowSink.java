@@ -0,0 +1,25 @@
+package com.wheelshift.datagen;
+
+import java.util.List;
+
+/**
+ * Destination for generated rows. Implementations must accept concurrent calls
+ * for different chunks.
+ */
+public interface RowSink extends AutoCloseable {
+
+    /**
+     * Writes one chunk of a table. {@code chunk} is unique per table and lets
+     * file based sinks name their output deterministically.
+     */
+    void write(TableSpec table, int chunk, List<Object[]> rows);
+
+    /**
+     * Statements that fix up denormalized counters once everything is loaded.
+     */
+    void finish(List<String> postLoadStatements);
+
+    @Override
+    default void close() {
+    }
+}
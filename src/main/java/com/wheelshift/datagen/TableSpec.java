@@ -0,0 +1,16 @@
+package com.wheelshift.datagen;
+
+/**
+ * A target table and the columns the generator fills, in row order.
+ */
+public record TableSpec(String name, String... columns) {
+
+    public String insertSql() {
+        StringBuilder sql = new StringBuilder("INSERT INTO ").append(name).append(" (")
+                .append(String.join(", ", columns)).append(") VALUES (");
+        for (int i = 0; i < columns.length; i++) {
+            sql.append(i == 0 ? "?" : ", ?");
+        }
+        return sql.append(')').toString();
+    }
+}
@@ -0,0 +1,33 @@
+package com.wheelshift.dto;
+
+import com.wheelshift.model.Car;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CarFacetResult {
+    private List<Car> content;
+    private int page;
+    private int size;
+    private long totalElements;
+    // Keyed by facet name (make, bodyType, ..., yearBucket). Each facet is counted with
+    // every filter applied except its own, so the counts show what selecting a value would return.
+    private Map<String, List<FacetValue>> facets;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class FacetValue {
+        private String value;
+        private String label;
+        private long count;
+        private boolean selected;
+    }
+}
@@ -14,6 +14,8 @@ public class FinancialStatistics {
     private BigDecimal totalRevenue;
     private Map<String, BigDecimal> purchasesByMonth;
     private Map<String, BigDecimal> salesByMonth;
+    private Map<String, BigDecimal> purchasesByYear;
+    private Map<String, BigDecimal> salesByYear;
     private Map<String, BigDecimal> spendByVendor;
     private Map<String, BigDecimal> maintenanceByMake;
 }
\ No newline at end of file
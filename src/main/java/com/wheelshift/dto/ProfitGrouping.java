@@ -0,0 +1,11 @@
+package com.wheelshift.dto;
+
+/**
+ * What a profit report groups the sold cars by.
+ */
+public enum ProfitGrouping {
+    MAKE,
+    MODEL,
+    MONTH,
+    EMPLOYEE
+}
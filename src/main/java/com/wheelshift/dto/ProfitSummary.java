@@ -0,0 +1,21 @@
+package com.wheelshift.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProfitSummary {
+    private String group;
+    private long carsSold;
+    private BigDecimal revenue;
+    private BigDecimal cost;
+    private BigDecimal profit;
+    private BigDecimal profitMargin;
+}
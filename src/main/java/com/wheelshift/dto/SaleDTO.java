@@ -3,6 +3,8 @@ package com.wheelshift.dto;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 
+import com.wheelshift.model.Money;
+
 import lombok.Data;
 
 /**
@@ -29,9 +31,9 @@ public class SaleDTO {
     private String employeeFullName;
     
     private LocalDate saleDate;
-    private BigDecimal salePrice;
+    private Money salePrice;
     private BigDecimal commissionRate;
-    private BigDecimal totalCommission;
+    private Money totalCommission;
     private String paymentMethod;
     private String saleDocumentsUrl;
 }
\ No newline at end of file
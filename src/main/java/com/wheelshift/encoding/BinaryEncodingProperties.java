@@ -0,0 +1,32 @@
+package com.wheelshift.encoding;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Binary encodings of the responses a client can ask for with its
+ * {@code Accept} header ({@code wheelshift.encoding.*}). JSON stays the
+ * default for clients accepting anything.
+ */
+@Data
+@ConfigurationProperties(prefix = "wheelshift.encoding")
+public class BinaryEncodingProperties {
+
+    /** {@code application/cbor}, for any response. */
+    private boolean cbor = true;
+
+    /**
+     * {@code application/x-jackson-smile}, for any response. Repeated field
+     * names are sent once and referred back to.
+     */
+    private boolean smile = true;
+
+    /**
+     * {@code application/x-protobuf}, for the types with a message in
+     * {@link #protobufSchema}.
+     */
+    private boolean protobuf = true;
+
+    /** Classpath location of the protobuf schema. */
+    private String protobufSchema = "proto/wheelshift.proto";
+}
@@ -0,0 +1,96 @@
+package com.wheelshift.encoding;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ser.std.ToStringSerializer;
+import com.fasterxml.jackson.dataformat.protobuf.ProtobufFactory;
+
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractGenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.util.StreamUtils;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Writes responses as protobuf, against the messages of
+ * {@link ProtobufSchemas} and with the same object mapper settings as the
+ * JSON. Types without a message cannot be written, so asking an endpoint
+ * returning one for protobuf gets a 406. Requests are not read.
+ */
+public class ProtobufSchemaHttpMessageConverter extends AbstractGenericHttpMessageConverter<Object> {
+
+    public static final MediaType APPLICATION_X_PROTOBUF = new MediaType("application", "x-protobuf");
+
+    private final ObjectMapper objectMapper;
+    private final ProtobufSchemas schemas;
+
+    public ProtobufSchemaHttpMessageConverter(ObjectMapper objectMapper, ProtobufSchemas schemas) {
+        super(APPLICATION_X_PROTOBUF);
+        this.objectMapper = objectMapper;
+        this.schemas = schemas;
+    }
+
+    /**
+     * The object mapper to write protobuf with. Decimals, amounts included,
+     * are written as their exact text; the protobuf generator would write
+     * them through a {@code double}.
+     */
+    public static ObjectMapper objectMapper(Jackson2ObjectMapperBuilder builder) {
+        return builder.factory(new ProtobufFactory())
+                .serializerByType(BigDecimal.class, ToStringSerializer.instance)
+                .build();
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return schemas.find(clazz) != null;
+    }
+
+    @Override
+    public boolean canRead(Class<?> clazz, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    public boolean canRead(Type type, Class<?> contextClass, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    public boolean canWrite(Type type, Class<?> clazz, MediaType mediaType) {
+        return canWrite(mediaType) && schemas.find(type != null ? type : clazz) != null;
+    }
+
+    @Override
+    public List<MediaType> getSupportedMediaTypes(Class<?> clazz) {
+        // Asked after canWrite with the declared type, which a list's class alone does not have
+        return getSupportedMediaTypes();
+    }
+
+    @Override
+    protected void writeInternal(Object value, Type type, HttpOutputMessage outputMessage) throws IOException {
+        ProtobufSchemas.Binding binding = schemas.find(type != null ? type : value.getClass());
+        if (binding == null) {
+            throw new HttpMessageNotWritableException("No protobuf message for " + type);
+        }
+        objectMapper.writer(binding.schema())
+                .writeValue(StreamUtils.nonClosing(outputMessage.getBody()), binding.shape().apply(value));
+    }
+
+    @Override
+    public Object read(Type type, Class<?> contextClass, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Protobuf request bodies are not read", inputMessage);
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Protobuf request bodies are not read", inputMessage);
+    }
+}
@@ -0,0 +1,103 @@
+package com.wheelshift.encoding;
+
+import com.fasterxml.jackson.dataformat.protobuf.schema.NativeProtobufSchema;
+import com.fasterxml.jackson.dataformat.protobuf.schema.ProtobufSchema;
+import com.fasterxml.jackson.dataformat.protobuf.schema.ProtobufSchemaLoader;
+
+import org.springframework.core.ResolvableType;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.domain.Page;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Type;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.UnaryOperator;
+
+/**
+ * The protobuf messages of the response types, found by the declared type of
+ * a response. A type is written as the message of its simple name, a list of
+ * it as the {@code <Type>List} message and a page of it as the
+ * {@code <Type>Page} message, when the schema has them.
+ */
+public class ProtobufSchemas {
+
+    /** A message, and how to turn a response into the object it describes. */
+    public record Binding(ProtobufSchema schema, UnaryOperator<Object> shape) {
+    }
+
+    private record Messages(ProtobufSchema single, ProtobufSchema list, ProtobufSchema page) {
+    }
+
+    private final Map<Class<?>, Messages> messages = new LinkedHashMap<>();
+
+    public ProtobufSchemas(NativeProtobufSchema schema, Collection<Class<?>> types) {
+        for (Class<?> type : types) {
+            String name = type.getSimpleName();
+            if (!schema.hasMessageType(name)) {
+                throw new IllegalStateException("The protobuf schema has no message " + name);
+            }
+            messages.put(type, new Messages(schema.forType(name), optional(schema, name + "List"),
+                    optional(schema, name + "Page")));
+        }
+    }
+
+    public static ProtobufSchemas load(String location, Collection<Class<?>> types) {
+        try {
+            return new ProtobufSchemas(ProtobufSchemaLoader.std.loadNative(new ClassPathResource(location).getURL()),
+                    types);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not load the protobuf schema " + location, e);
+        }
+    }
+
+    private static ProtobufSchema optional(NativeProtobufSchema schema, String name) {
+        return schema.hasMessageType(name) ? schema.forType(name) : null;
+    }
+
+    /** How to write a response of the given declared type, or null if it has no message. */
+    public Binding find(Type type) {
+        ResolvableType resolvable = ResolvableType.forType(type);
+        Class<?> raw = resolvable.resolve();
+        if (raw == null) {
+            return null;
+        }
+        if (Page.class.isAssignableFrom(raw)) {
+            Messages element = messagesOf(resolvable.as(Page.class).getGeneric(0).resolve());
+            return element == null || element.page() == null ? null
+                    : new Binding(element.page(), page -> pageFields((Page<?>) page));
+        }
+        if (Collection.class.isAssignableFrom(raw)) {
+            Messages element = messagesOf(resolvable.as(Collection.class).getGeneric(0).resolve());
+            return element == null || element.list() == null ? null
+                    : new Binding(element.list(), items -> Map.of("items", items));
+        }
+        Messages single = messagesOf(raw);
+        return single == null ? null : new Binding(single.single(), value -> value);
+    }
+
+    private Messages messagesOf(Class<?> type) {
+        if (type == null) {
+            return null;
+        }
+        // Projections are written as proxies implementing the interface
+        for (Map.Entry<Class<?>, Messages> entry : messages.entrySet()) {
+            if (entry.getKey().isAssignableFrom(type)) {
+                return entry.getValue();
+            }
+        }
+        return null;
+    }
+
+    private static Map<String, Object> pageFields(Page<?> page) {
+        Map<String, Object> fields = new LinkedHashMap<>();
+        fields.put("content", page.getContent());
+        fields.put("number", page.getNumber());
+        fields.put("size", page.getSize());
+        fields.put("totalElements", page.getTotalElements());
+        fields.put("totalPages", page.getTotalPages());
+        return fields;
+    }
+}
@@ -0,0 +1,18 @@
+package com.wheelshift.events;
+
+import com.wheelshift.model.CarStatus;
+import com.wheelshift.versioning.Aggregate;
+
+public record CarCreated(String tenantId, long carId, String vinNumber, Integer carModelId, CarStatus status)
+        implements DomainEvent {
+
+    @Override
+    public Aggregate aggregate() {
+        return Aggregate.CARS;
+    }
+
+    @Override
+    public String aggregateId() {
+        return String.valueOf(carId);
+    }
+}
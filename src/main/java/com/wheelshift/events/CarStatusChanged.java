@@ -0,0 +1,20 @@
+package com.wheelshift.events;
+
+import com.wheelshift.model.CarStatus;
+import com.wheelshift.versioning.Aggregate;
+
+/**
+ * Raised by the car itself on every transition, whichever service makes it.
+ */
+public record CarStatusChanged(String tenantId, long carId, CarStatus from, CarStatus to) implements DomainEvent {
+
+    @Override
+    public Aggregate aggregate() {
+        return Aggregate.CARS;
+    }
+
+    @Override
+    public String aggregateId() {
+        return String.valueOf(carId);
+    }
+}
@@ -0,0 +1,71 @@
+package com.wheelshift.events;
+
+import com.wheelshift.outbox.OutboxConsumer;
+import com.wheelshift.outbox.PublishedEvent;
+import com.wheelshift.versioning.Aggregate;
+import com.wheelshift.versioning.ChangeVersions;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Keeps a client's purchase count and last purchase date in step with their
+ * sales. They used to be adjusted inside every sale write, which locked the
+ * client row for the rest of the sale's transaction; recomputing them here
+ * from the sales takes that off the write and makes redelivered events
+ * harmless.
+ */
+@Component
+@RequiredArgsConstructor
+public class ClientPurchaseRollup implements OutboxConsumer {
+
+    private static final String UPDATE_CLIENT = "UPDATE clients SET "
+            + "total_purchases = (SELECT COUNT(*) FROM sales s WHERE s.client_id = ?), "
+            + "last_purchase = (SELECT MAX(s.sale_date) FROM sales s WHERE s.client_id = ?) WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ChangeVersions changeVersions;
+
+    @Override
+    public String getName() {
+        return "client-purchases";
+    }
+
+    @Override
+    public boolean accepts(DomainEvent event) {
+        return event instanceof SaleCreated || event instanceof SaleUpdated || event instanceof SaleDeleted;
+    }
+
+    @Override
+    public void consume(List<PublishedEvent> events) {
+        Set<Long> clientIds = new LinkedHashSet<>();
+        for (PublishedEvent published : events) {
+            DomainEvent event = published.event();
+            if (event instanceof SaleCreated created) {
+                clientIds.add(created.clientId());
+            } else if (event instanceof SaleUpdated updated) {
+                clientIds.add(updated.clientId());
+                if (updated.previousClientId() != null) {
+                    clientIds.add(updated.previousClientId());
+                }
+            } else if (event instanceof SaleDeleted deleted) {
+                clientIds.add(deleted.clientId());
+            }
+        }
+        if (clientIds.isEmpty()) {
+            return;
+        }
+        List<Object[]> args = new ArrayList<>(clientIds.size());
+        for (Long clientId : clientIds) {
+            args.add(new Object[] {clientId, clientId, clientId});
+        }
+        jdbcTemplate.batchUpdate(UPDATE_CLIENT, args);
+        changeVersions.changed(Aggregate.CLIENTS);
+    }
+}
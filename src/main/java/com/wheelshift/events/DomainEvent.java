@@ -0,0 +1,41 @@
+package com.wheelshift.events;
+
+import com.fasterxml.jackson.annotation.JsonSubTypes;
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+import com.wheelshift.versioning.Aggregate;
+
+/**
+ * Something that happened to an aggregate, published as a Spring application
+ * event inside the transaction that made it happen. The outbox stores it in
+ * that transaction and hands it to the outbox consumers once committed, see
+ * {@link com.wheelshift.outbox.OutboxDispatcher}.
+ *
+ * Events are stored as JSON under their simple class name, so a renamed or
+ * removed event type can no longer be read back; add new types instead.
+ */
+@JsonTypeInfo(use = JsonTypeInfo.Id.NAME, property = "type")
+@JsonSubTypes({
+    @JsonSubTypes.Type(CarCreated.class),
+    @JsonSubTypes.Type(CarStatusChanged.class),
+    @JsonSubTypes.Type(SaleCreated.class),
+    @JsonSubTypes.Type(SaleUpdated.class),
+    @JsonSubTypes.Type(SaleDeleted.class),
+    @JsonSubTypes.Type(ReservationExpired.class),
+    @JsonSubTypes.Type(TaskMoved.class),
+    @JsonSubTypes.Type(TaskCreated.class),
+    @JsonSubTypes.Type(TaskUpdated.class),
+    @JsonSubTypes.Type(TaskDeleted.class),
+    @JsonSubTypes.Type(RowChanged.class)
+})
+public interface DomainEvent {
+
+    /**
+     * Tenant the aggregate belongs to. Null means the tenant of the publishing
+     * request, which jobs running for every tenant do not have.
+     */
+    String tenantId();
+
+    Aggregate aggregate();
+
+    String aggregateId();
+}
@@ -0,0 +1,16 @@
+package com.wheelshift.events;
+
+import com.wheelshift.versioning.Aggregate;
+
+public record ReservationExpired(String tenantId, long reservationId, long carId) implements DomainEvent {
+
+    @Override
+    public Aggregate aggregate() {
+        return Aggregate.RESERVATIONS;
+    }
+
+    @Override
+    public String aggregateId() {
+        return String.valueOf(reservationId);
+    }
+}
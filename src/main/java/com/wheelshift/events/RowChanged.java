@@ -0,0 +1,21 @@
+package com.wheelshift.events;
+
+import com.wheelshift.changefeed.ChangeFeed;
+import com.wheelshift.versioning.Aggregate;
+
+/**
+ * Raised for every insert, update and delete of a row with a change feed, see
+ * {@link com.wheelshift.changefeed.ChangeFeedListener}.
+ */
+public record RowChanged(String tenantId, ChangeFeed feed, long rowId, boolean deleted) implements DomainEvent {
+
+    @Override
+    public Aggregate aggregate() {
+        return feed.getAggregate();
+    }
+
+    @Override
+    public String aggregateId() {
+        return String.valueOf(rowId);
+    }
+}
@@ -0,0 +1,20 @@
+package com.wheelshift.events;
+
+import com.wheelshift.model.Money;
+import com.wheelshift.versioning.Aggregate;
+
+import java.time.LocalDate;
+
+public record SaleCreated(String tenantId, long saleId, long carId, long clientId, long employeeId, Money salePrice,
+                          LocalDate saleDate) implements DomainEvent {
+
+    @Override
+    public Aggregate aggregate() {
+        return Aggregate.SALES;
+    }
+
+    @Override
+    public String aggregateId() {
+        return String.valueOf(saleId);
+    }
+}
@@ -0,0 +1,16 @@
+package com.wheelshift.events;
+
+import com.wheelshift.versioning.Aggregate;
+
+public record SaleDeleted(String tenantId, long saleId, long carId, long clientId) implements DomainEvent {
+
+    @Override
+    public Aggregate aggregate() {
+        return Aggregate.SALES;
+    }
+
+    @Override
+    public String aggregateId() {
+        return String.valueOf(saleId);
+    }
+}
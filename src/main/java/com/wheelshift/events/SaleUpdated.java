@@ -0,0 +1,20 @@
+package com.wheelshift.events;
+
+import com.wheelshift.versioning.Aggregate;
+
+/**
+ * {@code previousClientId} is set when the sale was moved to another client.
+ */
+public record SaleUpdated(String tenantId, long saleId, long carId, long clientId, Long previousClientId)
+        implements DomainEvent {
+
+    @Override
+    public Aggregate aggregate() {
+        return Aggregate.SALES;
+    }
+
+    @Override
+    public String aggregateId() {
+        return String.valueOf(saleId);
+    }
+}
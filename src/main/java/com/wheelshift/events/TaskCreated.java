@@ -0,0 +1,17 @@
+package com.wheelshift.events;
+
+import com.wheelshift.dto.TaskDTO;
+import com.wheelshift.versioning.Aggregate;
+
+public record TaskCreated(String tenantId, TaskDTO task, String columnId, int index) implements DomainEvent {
+
+    @Override
+    public Aggregate aggregate() {
+        return Aggregate.KANBAN;
+    }
+
+    @Override
+    public String aggregateId() {
+        return task.getId();
+    }
+}
@@ -0,0 +1,16 @@
+package com.wheelshift.events;
+
+import com.wheelshift.versioning.Aggregate;
+
+public record TaskDeleted(String tenantId, String taskId, String columnId) implements DomainEvent {
+
+    @Override
+    public Aggregate aggregate() {
+        return Aggregate.KANBAN;
+    }
+
+    @Override
+    public String aggregateId() {
+        return taskId;
+    }
+}
@@ -0,0 +1,17 @@
+package com.wheelshift.events;
+
+import com.wheelshift.versioning.Aggregate;
+
+public record TaskMoved(String tenantId, String taskId, String fromColumnId, String toColumnId, int toIndex)
+        implements DomainEvent {
+
+    @Override
+    public Aggregate aggregate() {
+        return Aggregate.KANBAN;
+    }
+
+    @Override
+    public String aggregateId() {
+        return taskId;
+    }
+}
@@ -0,0 +1,42 @@
+package com.wheelshift.graphql;
+
+import graphql.analysis.FieldComplexityCalculator;
+import graphql.analysis.FieldComplexityEnvironment;
+import graphql.schema.GraphQLTypeUtil;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Counts a field as 1 plus what its selections cost once per element it
+ * returns, so a query is priced by the rows it can touch rather than by its
+ * length. A list field's elements are the ids asked for, else its page size,
+ * else {@link QueryLimitsProperties#getAssumedListSize()}.
+ */
+public class ListSizeComplexityCalculator implements FieldComplexityCalculator {
+
+    private final QueryLimitsProperties properties;
+
+    public ListSizeComplexityCalculator(QueryLimitsProperties properties) {
+        this.properties = properties;
+    }
+
+    @Override
+    public int calculate(FieldComplexityEnvironment environment, int childComplexity) {
+        if (!GraphQLTypeUtil.isList(GraphQLTypeUtil.unwrapNonNull(environment.getFieldDefinition().getType()))) {
+            return 1 + childComplexity;
+        }
+        long elements = elements(environment.getArguments());
+        return (int) Math.min(Integer.MAX_VALUE, 1 + elements * Math.max(childComplexity, 1));
+    }
+
+    private long elements(Map<String, Object> arguments) {
+        if (arguments.get("ids") instanceof Collection<?> ids) {
+            return ids.size();
+        }
+        if (arguments.get("size") instanceof Number size) {
+            return Math.max(0, Math.min(size.longValue(), properties.getMaxPageSize()));
+        }
+        return properties.getAssumedListSize();
+    }
+}
@@ -0,0 +1,31 @@
+package com.wheelshift.graphql;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * What a single GraphQL query may cost ({@code wheelshift.graphql.*}).
+ * Queries over either limit are rejected before any field is resolved.
+ */
+@Data
+@ConfigurationProperties(prefix = "wheelshift.graphql")
+public class QueryLimitsProperties {
+
+    /** Deepest nesting of selections, counting the query's own fields as 1. */
+    private int maxDepth = 8;
+
+    /**
+     * Highest complexity, see {@link ListSizeComplexityCalculator}. The
+     * default admits a full page of cars with every relation selected.
+     */
+    private int maxComplexity = 25_000;
+
+    /** Largest page of a list query; larger sizes are cut to it. */
+    private int maxPageSize = 100;
+
+    /**
+     * Elements a list field without a size argument, such as a car's
+     * inspections, is counted as having.
+     */
+    private int assumedListSize = 5;
+}
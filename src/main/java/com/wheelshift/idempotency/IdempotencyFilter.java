@@ -0,0 +1,369 @@
+package com.wheelshift.idempotency;
+
+import com.wheelshift.tenancy.TenantContext;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.Part;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Runs a write carrying an {@code Idempotency-Key} header at most once per key.
+ * Retries get the stored response of the first request, marked with
+ * {@code Idempotent-Replayed: true}, without running it again. A retry that
+ * arrives while the first request is still running waits for it: on this node
+ * for its completion, on another by polling the store. It is answered 409 if
+ * that takes longer than {@code max-wait}.
+ *
+ * Only successful responses are stored. A request that fails has written
+ * nothing, so its key is released and the next retry runs normally. A
+ * successful one never gives its key up: a body over {@code max-body-bytes}, or
+ * one the store refuses, is left out and retries get the status alone. Should
+ * even that fail, the key stays claimed and retries are answered 409 until
+ * {@code in-progress-timeout}. A key is bound to the method, path, query and
+ * body of its first request, and reusing it for another request is answered
+ * 422. The body is read into memory up front to hash it; form and multipart
+ * bodies, which the container parses itself, are hashed from their parameters
+ * and parts. Keys are scoped to the tenant.
+ */
+@Slf4j
+public class IdempotencyFilter extends OncePerRequestFilter {
+
+    public static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+    public static final String IDEMPOTENT_REPLAYED = "Idempotent-Replayed";
+
+    private static final int MAX_KEY_LENGTH = 128;
+    private static final long POLL_INTERVAL_MILLIS = 100;
+    private static final Set<String> WRITES = Set.of(HttpMethod.POST.name(), HttpMethod.PUT.name(),
+            HttpMethod.PATCH.name(), HttpMethod.DELETE.name());
+
+    private final IdempotencyStore store;
+    private final IdempotencyProperties properties;
+    // Requests of this node running for a key, completed once their outcome is stored or released
+    private final ConcurrentHashMap<String, CompletableFuture<Void>> running = new ConcurrentHashMap<>();
+
+    public IdempotencyFilter(IdempotencyStore store, IdempotencyProperties properties) {
+        this.store = store;
+        this.properties = properties;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !WRITES.contains(request.getMethod()) || request.getHeader(IDEMPOTENCY_KEY) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String header = request.getHeader(IDEMPOTENCY_KEY);
+        if (header.isBlank() || header.length() > MAX_KEY_LENGTH) {
+            response.sendError(HttpStatus.BAD_REQUEST.value(),
+                    IDEMPOTENCY_KEY + " must be 1 to " + MAX_KEY_LENGTH + " characters");
+            return;
+        }
+        // Tenants pick their keys independently
+        String key = TenantContext.current() + ":" + header;
+        if (!isForm(request)) {
+            request = new BufferedRequest(request, request.getInputStream().readAllBytes());
+        }
+        String requestHash = requestHash(request);
+        long deadline = System.nanoTime() + properties.getMaxWait().toNanos();
+        while (true) {
+            CompletableFuture<Void> mine = new CompletableFuture<>();
+            CompletableFuture<Void> other = running.putIfAbsent(key, mine);
+            if (other != null) {
+                if (!await(other, deadline)) {
+                    stillRunning(response);
+                    return;
+                }
+                continue;
+            }
+            IdempotencyStore.Claim claim;
+            try {
+                claim = store.claim(key, requestHash);
+            } catch (RuntimeException e) {
+                finish(key, mine);
+                throw e;
+            }
+            switch (claim.state()) {
+                case ACQUIRED -> {
+                    try {
+                        run(key, request, response, chain);
+                    } finally {
+                        finish(key, mine);
+                    }
+                    return;
+                }
+                case COMPLETED -> {
+                    finish(key, mine);
+                    replay(claim.response(), response);
+                    return;
+                }
+                case MISMATCH -> {
+                    finish(key, mine);
+                    response.sendError(HttpStatus.UNPROCESSABLE_ENTITY.value(),
+                            IDEMPOTENCY_KEY + " was already used for a different request");
+                    return;
+                }
+                case IN_PROGRESS -> {
+                    // Running on another node
+                    finish(key, mine);
+                    if (System.nanoTime() >= deadline) {
+                        stillRunning(response);
+                        return;
+                    }
+                    sleep(Math.min(POLL_INTERVAL_MILLIS,
+                            TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime()) + 1));
+                }
+            }
+        }
+    }
+
+    private void run(String key, HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        boolean succeeded = false;
+        try {
+            chain.doFilter(request, wrapper);
+            succeeded = wrapper.getStatus() / 100 == 2 && !request.isAsyncStarted();
+            if (succeeded) {
+                store(key, wrapper);
+            }
+        } finally {
+            if (!succeeded) {
+                release(key);
+            }
+            wrapper.copyBodyToResponse();
+        }
+    }
+
+    /**
+     * Stores a successful response. The write went through, so a retry must
+     * not run it again whatever happens here.
+     */
+    private void store(String key, ContentCachingResponseWrapper wrapper) {
+        byte[] body = wrapper.getContentAsByteArray();
+        if (body.length > properties.getMaxBodyBytes()) {
+            log.debug("Storing only the status of the {} byte response for idempotency key {}", body.length, key);
+            storeStatus(key, wrapper.getStatus());
+            return;
+        }
+        try {
+            store.complete(key, new StoredResponse(wrapper.getStatus(), wrapper.getContentType(), body));
+        } catch (DataAccessException e) {
+            log.warn("Could not store the response for idempotency key {}, storing only its status: {}",
+                    key, e.getMessage());
+            storeStatus(key, wrapper.getStatus());
+        }
+    }
+
+    private void storeStatus(String key, int status) {
+        try {
+            store.complete(key, new StoredResponse(status, null, null));
+        } catch (DataAccessException e) {
+            // Left claimed, so retries are refused until in-progress-timeout rather than run again
+            log.error("Could not store the outcome for idempotency key {}: {}", key, e.getMessage());
+        }
+    }
+
+    private void release(String key) {
+        try {
+            store.release(key);
+        } catch (DataAccessException e) {
+            // The claim runs out after in-progress-timeout
+            log.warn("Could not release idempotency key {}: {}", key, e.getMessage());
+        }
+    }
+
+    private void finish(String key, CompletableFuture<Void> mine) {
+        running.remove(key, mine);
+        mine.complete(null);
+    }
+
+    private static void replay(StoredResponse stored, HttpServletResponse response) throws IOException {
+        response.setStatus(stored.status());
+        if (stored.contentType() != null) {
+            response.setContentType(stored.contentType());
+        }
+        response.setHeader(IDEMPOTENT_REPLAYED, "true");
+        byte[] body = stored.body() != null ? stored.body() : new byte[0];
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+
+    private static void stillRunning(HttpServletResponse response) throws IOException {
+        response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+        response.sendError(HttpStatus.CONFLICT.value(), "A request with this " + IDEMPOTENCY_KEY + " is still running");
+    }
+
+    private static boolean await(CompletableFuture<Void> future, long deadline) throws IOException {
+        try {
+            future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            return true;
+        } catch (TimeoutException e) {
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted waiting for a request with the same " + IDEMPOTENCY_KEY, e);
+        } catch (ExecutionException e) {
+            // Never completed exceptionally
+            return true;
+        }
+    }
+
+    private static void sleep(long millis) throws IOException {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted waiting for a request with the same " + IDEMPOTENCY_KEY, e);
+        }
+    }
+
+    /**
+     * Hash of the method, path, query and body. Reads the body from the request,
+     * so it is only called on one that can read it again.
+     */
+    static String requestHash(HttpServletRequest request) throws IOException, ServletException {
+        MessageDigest digest = sha256();
+        String target = request.getMethod() + " " + request.getRequestURI()
+                + (request.getQueryString() != null ? "?" + request.getQueryString() : "");
+        update(digest, target);
+        if (isMultipart(request)) {
+            for (Part part : request.getParts()) {
+                update(digest, part.getName() + "=" + part.getSubmittedFileName() + ":" + part.getSize());
+                try (InputStream in = new DigestInputStream(part.getInputStream(), digest)) {
+                    in.transferTo(OutputStream.nullOutputStream());
+                }
+            }
+        } else if (isForm(request)) {
+            // Sorted, since the order the container lists parameters in is unspecified
+            for (Map.Entry<String, String[]> parameter : new TreeMap<>(request.getParameterMap()).entrySet()) {
+                update(digest, parameter.getKey() + "=" + String.join(",", parameter.getValue()));
+            }
+        } else {
+            digest.update(request.getInputStream().readAllBytes());
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static boolean isForm(HttpServletRequest request) {
+        return isMultipart(request) || hasContentType(request, MediaType.APPLICATION_FORM_URLENCODED);
+    }
+
+    private static boolean isMultipart(HttpServletRequest request) {
+        return hasContentType(request, MediaType.MULTIPART_FORM_DATA);
+    }
+
+    private static boolean hasContentType(HttpServletRequest request, MediaType mediaType) {
+        return request.getContentType() != null && mediaType.includes(MediaType.parseMediaType(request.getContentType()));
+    }
+
+    // Each value ends with a separator, so no two sequences of values hash alike
+    private static void update(MessageDigest digest, String value) {
+        digest.update(value.getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * A request whose body was read up front, handing it out again from memory.
+     */
+    private static final class BufferedRequest extends HttpServletRequestWrapper {
+
+        private final byte[] body;
+
+        BufferedRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream in = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public int read() {
+                    return in.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return in.read(b, off, len);
+                }
+
+                @Override
+                public boolean isFinished() {
+                    return in.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    throw new UnsupportedOperationException("The body was already read");
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            Charset charset = getCharacterEncoding() != null ? Charset.forName(getCharacterEncoding())
+                    : StandardCharsets.ISO_8859_1;
+            return new BufferedReader(new InputStreamReader(getInputStream(), charset));
+        }
+
+        @Override
+        public int getContentLength() {
+            return body.length;
+        }
+
+        @Override
+        public long getContentLengthLong() {
+            return body.length;
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.wheelshift.idempotency;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Idempotency-Key handling for writes ({@code wheelshift.idempotency.*}).
+ */
+@Data
+@ConfigurationProperties(prefix = "wheelshift.idempotency")
+public class IdempotencyProperties {
+
+    private boolean enabled = true;
+
+    /** How long the outcome of a request is replayed to retries with its key. */
+    private Duration ttl = Duration.ofHours(24);
+
+    /** Stored outcomes kept at most; the oldest go first once there are more. */
+    private int maxEntries = 100_000;
+
+    /** Bodies larger than this are not stored; retries get the status of the response alone. */
+    private int maxBodyBytes = 256 * 1024;
+
+    /** How long a retry waits for the original request to finish before it is answered 409. */
+    private Duration maxWait = Duration.ofSeconds(10);
+
+    /**
+     * After this long a request still marked in progress is taken to have died
+     * with its node, and the key can be claimed again.
+     */
+    private Duration inProgressTimeout = Duration.ofMinutes(1);
+
+    /** How often expired and surplus outcomes are deleted. */
+    private long purgeIntervalMs = 60_000;
+}
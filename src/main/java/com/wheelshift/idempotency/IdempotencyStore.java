@@ -0,0 +1,123 @@
+package com.wheelshift.idempotency;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Idempotency keys and the outcome of the request that first used each one,
+ * in {@code idempotency_keys}. A key is claimed by inserting its row, so only
+ * one request across all nodes runs for it; the row then holds the response
+ * until it expires. Expired rows, and the oldest ones beyond
+ * {@code max-entries}, are deleted on a schedule.
+ */
+@Slf4j
+public class IdempotencyStore {
+
+    private static final String IN_PROGRESS = "IN_PROGRESS";
+    private static final String COMPLETED = "COMPLETED";
+
+    public enum State {
+        /** The caller holds the key and runs the request. */
+        ACQUIRED,
+        /** The request has finished; its response is to be replayed. */
+        COMPLETED,
+        /** Another request with the key is still running. */
+        IN_PROGRESS,
+        /** The key was used for a different request. */
+        MISMATCH
+    }
+
+    public record Claim(State state, StoredResponse response) {
+    }
+
+    private record Row(String requestHash, String state, Integer status, String contentType, byte[] body,
+                       LocalDateTime expiresAt) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final IdempotencyProperties properties;
+
+    public IdempotencyStore(JdbcTemplate jdbcTemplate, IdempotencyProperties properties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.properties = properties;
+    }
+
+    public Claim claim(String key, String requestHash) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime claimUntil = now.plus(properties.getInProgressTimeout());
+        try {
+            jdbcTemplate.update("INSERT INTO idempotency_keys (idempotency_key, request_hash, state, created_at, "
+                    + "expires_at) VALUES (?, ?, ?, ?, ?)", key, requestHash, IN_PROGRESS, now, claimUntil);
+            return new Claim(State.ACQUIRED, null);
+        } catch (DuplicateKeyException e) {
+            // Used before, look at how that went
+        }
+        List<Row> rows = jdbcTemplate.query("SELECT request_hash, state, response_status, content_type, "
+                + "response_body, expires_at FROM idempotency_keys WHERE idempotency_key = ?", (rs, i) -> new Row(
+                rs.getString(1), rs.getString(2), (Integer) rs.getObject(3), rs.getString(4), rs.getBytes(5),
+                rs.getTimestamp(6).toLocalDateTime()), key);
+        if (rows.isEmpty()) {
+            // Released just now; the caller tries again
+            return new Claim(State.IN_PROGRESS, null);
+        }
+        Row row = rows.get(0);
+        if (row.expiresAt().isBefore(now)) {
+            // Only one of several callers taking over an expired key gets to update it
+            int taken = jdbcTemplate.update("UPDATE idempotency_keys SET request_hash = ?, state = ?, "
+                    + "response_status = NULL, content_type = NULL, response_body = NULL, created_at = ?, "
+                    + "expires_at = ? WHERE idempotency_key = ? AND expires_at < ?",
+                    requestHash, IN_PROGRESS, now, claimUntil, key, now);
+            return new Claim(taken == 1 ? State.ACQUIRED : State.IN_PROGRESS, null);
+        }
+        if (!row.requestHash().equals(requestHash)) {
+            return new Claim(State.MISMATCH, null);
+        }
+        if (COMPLETED.equals(row.state())) {
+            return new Claim(State.COMPLETED, new StoredResponse(row.status(), row.contentType(), row.body()));
+        }
+        return new Claim(State.IN_PROGRESS, null);
+    }
+
+    /**
+     * Stores the response of a claimed key for retries to replay.
+     */
+    public void complete(String key, StoredResponse response) {
+        LocalDateTime now = LocalDateTime.now();
+        jdbcTemplate.update("UPDATE idempotency_keys SET state = ?, response_status = ?, content_type = ?, "
+                + "response_body = ?, created_at = ?, expires_at = ? WHERE idempotency_key = ? AND state = ?",
+                COMPLETED, response.status(), response.contentType(), response.body(), now,
+                now.plus(properties.getTtl()), key, IN_PROGRESS);
+    }
+
+    /**
+     * Gives up a claimed key without an outcome, so the next request with it
+     * runs again.
+     */
+    public void release(String key) {
+        jdbcTemplate.update("DELETE FROM idempotency_keys WHERE idempotency_key = ? AND state = ?", key, IN_PROGRESS);
+    }
+
+    @Scheduled(fixedDelayString = "${wheelshift.idempotency.purge-interval-ms:60000}")
+    public void purge() {
+        try {
+            int expired = jdbcTemplate.update("DELETE FROM idempotency_keys WHERE expires_at < ?", LocalDateTime.now());
+            // Everything from the first row past the newest max-entries goes
+            List<Timestamp> cutoff = jdbcTemplate.queryForList("SELECT created_at FROM idempotency_keys "
+                    + "ORDER BY created_at DESC LIMIT 1 OFFSET ?", Timestamp.class, properties.getMaxEntries());
+            int surplus = cutoff.isEmpty() ? 0 : jdbcTemplate.update(
+                    "DELETE FROM idempotency_keys WHERE created_at <= ? AND state = ?", cutoff.get(0), COMPLETED);
+            if (expired + surplus > 0) {
+                log.debug("Purged {} expired and {} surplus idempotency keys", expired, surplus);
+            }
+        } catch (DataAccessException e) {
+            log.warn("Could not purge idempotency keys: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package com.wheelshift.idempotency;
+
+/**
+ * What a request answered, as replayed to its retries. The body is null when
+ * only the status was kept.
+ */
+public record StoredResponse(int status, String contentType, byte[] body) {
+}
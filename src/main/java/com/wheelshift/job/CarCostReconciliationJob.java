@@ -0,0 +1,78 @@
+package com.wheelshift.job;
+
+import com.wheelshift.costing.CarCostSummaries;
+import com.wheelshift.versioning.Aggregate;
+import com.wheelshift.versioning.ChangeVersions;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Hourly rewrite of the car cost summaries, which are refreshed per car after
+ * JPA writes and miss whatever bypasses JPA or failed to refresh. Also fills
+ * the table on the first startup that finds it empty. The summaries feed the
+ * car and sales responses, so a partition that corrected any bumps their
+ * versions.
+ */
+@Component
+@RequiredArgsConstructor
+public class CarCostReconciliationJob implements PartitionedJob {
+
+    private final JobCoordinator jobCoordinator;
+    private final CarCostSummaries carCostSummaries;
+    private final ChangeVersions changeVersions;
+
+    @Value("${wheelshift.jobs.cost-reconciliation.partitions:2}")
+    private int partitions;
+
+    @Scheduled(cron = "${wheelshift.jobs.cost-reconciliation.cron:0 20 * * * *}")
+    public void run() {
+        jobCoordinator.run(this, LocalDateTime.now().truncatedTo(ChronoUnit.HOURS).toString());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        if (carCostSummaries.isEmpty()) {
+            jobCoordinator.run(this, "backfill-" + LocalDateTime.now().truncatedTo(ChronoUnit.HOURS));
+        }
+    }
+
+    @Override
+    public String getName() {
+        return "cost-reconciliation";
+    }
+
+    @Override
+    public int getPartitionCount() {
+        return partitions;
+    }
+
+    @Override
+    public KeyRange getKeySpace() {
+        long[] bounds = carCostSummaries.idBounds();
+        return bounds == null ? KeyRange.EMPTY : KeyRange.ofMinMax(bounds[0], bounds[1]);
+    }
+
+    @Override
+    public long processRange(KeyRange range, PartitionLease lease) {
+        long[] bounds = carCostSummaries.idBounds();
+        if (bounds == null) {
+            return 0;
+        }
+        // The last partition is open ended
+        long changed = carCostSummaries.reconcile(range.fromInclusive(),
+                Math.min(range.upperBoundOrMax(), bounds[1] + 1));
+        if (changed > 0) {
+            // Written past the entity listeners
+            changeVersions.changed(Aggregate.SALES, Aggregate.CARS);
+        }
+        return changed;
+    }
+}
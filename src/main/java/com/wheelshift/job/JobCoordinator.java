@@ -0,0 +1,231 @@
+package com.wheelshift.job;
+
+import com.wheelshift.model.JobLease;
+import com.wheelshift.repository.JobLeaseRepository;
+import com.wheelshift.tenancy.TenantContext;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.net.InetAddress;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Runs {@link PartitionedJob}s so that every node can fire the same schedule
+ * but each partition of a run is processed by exactly one of them.
+ *
+ * A run is identified by a caller-chosen key (e.g. the date for a daily job).
+ * The first node to see a new run key plans the key ranges for all partitions
+ * under a row lock; afterwards nodes claim partitions with a conditional update
+ * on {@code job_leases}. If a node dies its lease expires and the partition is
+ * picked up again on another node's next tick for the same run key. Jobs that
+ * renew the lease while they work keep it as long as they run; a node whose
+ * lease was taken over anyway stops and leaves the partition to the new owner.
+ */
+@Component
+@Slf4j
+public class JobCoordinator {
+
+    private final JobLeaseRepository jobLeaseRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final String nodeId;
+
+    public JobCoordinator(JobLeaseRepository jobLeaseRepository, PlatformTransactionManager transactionManager) {
+        this.jobLeaseRepository = jobLeaseRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.nodeId = resolveNodeId();
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public List<JobLease> getLeases() {
+        return jobLeaseRepository.findAllByOrderByJobNameAscPartitionNoAsc();
+    }
+
+    /**
+     * Runs for every tenant at once: partitions are key ranges over the whole
+     * table, whoever's rows are in them.
+     */
+    public JobRunSummary run(PartitionedJob job, String runKey) {
+        return TenantContext.callAs(TenantContext.ROOT, () -> runPartitions(job, runKey));
+    }
+
+    private JobRunSummary runPartitions(PartitionedJob job, String runKey) {
+        long started = System.currentTimeMillis();
+        ensureLeaseRows(job);
+        int partitionCount = plan(job, runKey);
+
+        List<Integer> partitions = new ArrayList<>();
+        for (int i = 0; i < partitionCount; i++) {
+            partitions.add(i);
+        }
+        // Different start points on each node so they don't all contend for partition 0
+        Collections.shuffle(partitions);
+
+        int processed = 0;
+        int failed = 0;
+        long rows = 0;
+        for (Integer partition : partitions) {
+            if (!claim(job, partition, runKey)) {
+                continue;
+            }
+            JobLease lease = jobLeaseRepository.findByJobNameAndPartitionNo(job.getName(), partition).orElseThrow();
+            KeyRange range = new KeyRange(lease.getRangeStart(), lease.getRangeEnd());
+            long partitionStarted = System.currentTimeMillis();
+            try {
+                long partitionRows = job.processRange(range, new HeldLease(job, partition));
+                long duration = System.currentTimeMillis() - partitionStarted;
+                Integer completed = transactionTemplate.execute(status -> jobLeaseRepository.complete(
+                        job.getName(), partition, runKey, nodeId, LocalDateTime.now(), duration, partitionRows));
+                if (completed == null || completed == 0) {
+                    log.warn("Job {} run {} partition {} {} processed {} rows in {} ms, but another node took it "
+                            + "over meanwhile and will run it again", job.getName(), runKey, partition, range,
+                            partitionRows, duration);
+                    continue;
+                }
+                log.info("Job {} run {} partition {} {} processed {} rows in {} ms",
+                        job.getName(), runKey, partition, range, partitionRows, duration);
+                processed++;
+                rows += partitionRows;
+            } catch (LeaseLostException e) {
+                log.warn("Job {} run {} partition {} {} stopped after {} ms: {}", job.getName(), runKey, partition,
+                        range, System.currentTimeMillis() - partitionStarted, e.getMessage());
+            } catch (RuntimeException e) {
+                log.error("Job {} run {} partition {} {} failed: {}", job.getName(), runKey, partition, range, e.getMessage(), e);
+                String error = e.getClass().getSimpleName() + ": " + e.getMessage();
+                String truncated = error.length() > 512 ? error.substring(0, 512) : error;
+                Integer released = transactionTemplate.execute(status -> jobLeaseRepository.release(
+                        job.getName(), partition, nodeId, LocalDateTime.now(), truncated));
+                if (released == null || released == 0) {
+                    log.warn("Job {} run {} partition {} was taken over by another node before its failure "
+                            + "was recorded", job.getName(), runKey, partition);
+                }
+                failed++;
+            }
+        }
+
+        JobRunSummary summary = new JobRunSummary(job.getName(), runKey, processed, failed, rows,
+                System.currentTimeMillis() - started);
+        if (processed > 0 || failed > 0) {
+            log.info("Job {} run {} finished on {}: {} partitions, {} failed, {} rows, {} ms", job.getName(), runKey,
+                    nodeId, processed, failed, rows, summary.durationMs());
+        }
+        return summary;
+    }
+
+    private void ensureLeaseRows(PartitionedJob job) {
+        List<JobLease> existing = jobLeaseRepository.findByJobNameOrderByPartitionNo(job.getName());
+        if (existing.size() >= job.getPartitionCount()) {
+            return;
+        }
+        for (int partition = existing.size(); partition < job.getPartitionCount(); partition++) {
+            JobLease lease = new JobLease();
+            lease.setJobName(job.getName());
+            lease.setPartitionNo(partition);
+            try {
+                transactionTemplate.executeWithoutResult(status -> jobLeaseRepository.save(lease));
+            } catch (DataIntegrityViolationException e) {
+                // Another node created it first
+                log.debug("Lease row {}#{} already exists", job.getName(), partition);
+            }
+        }
+    }
+
+    /**
+     * Also deletes the rows of partitions the job no longer has, once nobody
+     * holds them, so lowering the partition count takes effect with the next
+     * run key.
+     */
+    private int plan(PartitionedJob job, String runKey) {
+        return transactionTemplate.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            List<JobLease> leases = new ArrayList<>();
+            List<JobLease> retired = new ArrayList<>();
+            for (JobLease lease : jobLeaseRepository.lockByJobName(job.getName())) {
+                if (lease.getPartitionNo() < job.getPartitionCount()) {
+                    leases.add(lease);
+                } else if (lease.getLeaseUntil() == null || lease.getLeaseUntil().isBefore(now)) {
+                    retired.add(lease);
+                }
+            }
+            if (!retired.isEmpty()) {
+                jobLeaseRepository.deleteAll(retired);
+                log.info("Deleted {} lease rows of job {} above its {} partitions", retired.size(), job.getName(),
+                        job.getPartitionCount());
+            }
+            if (leases.stream().allMatch(lease -> runKey.equals(lease.getPlannedRunKey()))) {
+                return leases.size();
+            }
+            List<KeyRange> ranges = job.getKeySpace().split(leases.size());
+            for (int i = 0; i < leases.size(); i++) {
+                JobLease lease = leases.get(i);
+                lease.setPlannedRunKey(runKey);
+                lease.setRangeStart(ranges.get(i).fromInclusive());
+                lease.setRangeEnd(ranges.get(i).toExclusive());
+            }
+            jobLeaseRepository.saveAll(leases);
+            log.debug("Planned job {} run {} over {} partitions: {}", job.getName(), runKey, leases.size(), ranges);
+            return leases.size();
+        });
+    }
+
+    private boolean claim(PartitionedJob job, int partition, String runKey) {
+        LocalDateTime now = LocalDateTime.now();
+        Integer updated = transactionTemplate.execute(status -> jobLeaseRepository.claim(
+                job.getName(), partition, runKey, nodeId, now, now.plus(job.getLeaseDuration())));
+        return updated != null && updated == 1;
+    }
+
+    /**
+     * Renews at most once per tenth of the lease duration, so jobs can call
+     * it after every chunk.
+     */
+    private final class HeldLease implements PartitionLease {
+
+        private final PartitionedJob job;
+        private final int partition;
+        private long renewedAt = System.currentTimeMillis();
+
+        private HeldLease(PartitionedJob job, int partition) {
+            this.job = job;
+            this.partition = partition;
+        }
+
+        @Override
+        public void renew() {
+            long now = System.currentTimeMillis();
+            if (now - renewedAt < job.getLeaseDuration().toMillis() / 10) {
+                return;
+            }
+            LocalDateTime leaseUntil = LocalDateTime.now().plus(job.getLeaseDuration());
+            Integer renewed = transactionTemplate.execute(status -> jobLeaseRepository.renew(
+                    job.getName(), partition, nodeId, leaseUntil));
+            if (renewed == null || renewed == 0) {
+                throw new LeaseLostException("Partition " + partition + " of job " + job.getName()
+                        + " was taken over by another node");
+            }
+            renewedAt = now;
+        }
+    }
+
+    private static String resolveNodeId() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            host = "unknown";
+        }
+        return host + ":" + ProcessHandle.current().pid() + ":" + UUID.randomUUID().toString().substring(0, 8);
+    }
+}
@@ -0,0 +1,8 @@
+package com.wheelshift.job;
+
+/**
+ * What this node did for one invocation of a job.
+ */
+public record JobRunSummary(String jobName, String runKey, int partitionsProcessed,
+                            int partitionsFailed, long rowsProcessed, long durationMs) {
+}
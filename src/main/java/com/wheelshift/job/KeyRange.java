@@ -0,0 +1,54 @@
+package com.wheelshift.job;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Half-open range of primary keys {@code [fromInclusive, toExclusive)}.
+ * A null {@code toExclusive} means the range is unbounded above.
+ */
+public record KeyRange(long fromInclusive, Long toExclusive) {
+
+    public static final KeyRange EMPTY = new KeyRange(0, 0L);
+
+    /**
+     * Key space covering {@code min..max}, or {@link #EMPTY} when the table has no rows.
+     */
+    public static KeyRange ofMinMax(Long min, Long max) {
+        if (min == null || max == null) {
+            return EMPTY;
+        }
+        return new KeyRange(min, max + 1);
+    }
+
+    public long upperBoundOrMax() {
+        return toExclusive == null ? Long.MAX_VALUE : toExclusive;
+    }
+
+    public boolean isEmpty() {
+        return toExclusive != null && toExclusive <= fromInclusive;
+    }
+
+    /**
+     * Splits into {@code parts} contiguous ranges of roughly equal width. The first
+     * range starts at 0 and the last one is unbounded, so rows inserted after
+     * planning are still picked up by some partition.
+     */
+    public List<KeyRange> split(int parts) {
+        List<KeyRange> ranges = new ArrayList<>(parts);
+        long start = isEmpty() ? 0 : fromInclusive;
+        long end = isEmpty() ? 0 : upperBoundOrMax();
+        long width = Math.max(1, (end - start + parts - 1) / parts);
+        for (int i = 0; i < parts; i++) {
+            long from = (i == 0) ? 0 : start + i * width;
+            Long to = (i == parts - 1) ? null : start + (i + 1) * width;
+            ranges.add(new KeyRange(from, to));
+        }
+        return ranges;
+    }
+
+    @Override
+    public String toString() {
+        return "[" + fromInclusive + ", " + (toExclusive == null ? "+inf" : toExclusive) + ")";
+    }
+}
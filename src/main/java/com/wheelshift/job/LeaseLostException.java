@@ -0,0 +1,12 @@
+package com.wheelshift.job;
+
+/**
+ * The partition being processed was claimed by another node after this
+ * node's lease ran out.
+ */
+public class LeaseLostException extends IllegalStateException {
+
+    public LeaseLostException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,55 @@
+package com.wheelshift.job;
+
+import com.wheelshift.repository.StorageLocationRepository;
+import com.wheelshift.service.StorageLocationService;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+/**
+ * Hourly correction of StorageLocation.currentVehicleCount, which is maintained
+ * incrementally by CarService and drifts whenever a write path forgets it.
+ */
+@Component
+@RequiredArgsConstructor
+public class LocationStatisticsReconciliationJob implements PartitionedJob {
+
+    private final JobCoordinator jobCoordinator;
+    private final StorageLocationService storageLocationService;
+    private final StorageLocationRepository storageLocationRepository;
+
+    @Value("${wheelshift.jobs.location-reconciliation.partitions:2}")
+    private int partitions;
+
+    @Scheduled(cron = "${wheelshift.jobs.location-reconciliation.cron:0 */10 * * * *}")
+    public void run() {
+        jobCoordinator.run(this, LocalDateTime.now().truncatedTo(ChronoUnit.HOURS).toString());
+    }
+
+    @Override
+    public String getName() {
+        return "location-reconciliation";
+    }
+
+    @Override
+    public int getPartitionCount() {
+        return partitions;
+    }
+
+    @Override
+    public KeyRange getKeySpace() {
+        List<Object[]> bounds = storageLocationRepository.findIdBounds();
+        return bounds.isEmpty() ? KeyRange.EMPTY : KeyRange.ofMinMax((Long) bounds.get(0)[0], (Long) bounds.get(0)[1]);
+    }
+
+    @Override
+    public long processRange(KeyRange range, PartitionLease lease) {
+        return storageLocationService.reconcileVehicleCounts(range.fromInclusive(), range.upperBoundOrMax());
+    }
+}
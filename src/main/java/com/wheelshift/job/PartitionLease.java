@@ -0,0 +1,18 @@
+package com.wheelshift.job;
+
+/**
+ * The lease a node holds on the partition it is processing. Jobs that work
+ * through their range in chunks call {@link #renew()} between them, so a
+ * partition taking longer than the lease duration is not claimed by another
+ * node while it still runs.
+ */
+public interface PartitionLease {
+
+    /**
+     * Extends the lease by the job's lease duration.
+     *
+     * @throws LeaseLostException once another node has taken the partition;
+     *         the job must stop working on it
+     */
+    void renew();
+}
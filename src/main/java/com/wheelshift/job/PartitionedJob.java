@@ -0,0 +1,35 @@
+package com.wheelshift.job;
+
+import java.time.Duration;
+
+/**
+ * A recurring job whose work can be split by primary-key range. Implementations
+ * must be idempotent per range: a partition whose node died is re-run from the start
+ * by whichever node claims it next.
+ */
+public interface PartitionedJob {
+
+    String getName();
+
+    int getPartitionCount();
+
+    /**
+     * How long a node may hold a partition before others assume it is dead.
+     * Must comfortably exceed the time needed to process one partition, or
+     * one chunk of it for jobs that renew the lease between chunks.
+     */
+    default Duration getLeaseDuration() {
+        return Duration.ofMinutes(10);
+    }
+
+    /**
+     * The key range that needs covering for this run, usually MIN(id)..MAX(id).
+     */
+    KeyRange getKeySpace();
+
+    /**
+     * Processes one partition and returns the number of rows it changed.
+     * Long-running jobs renew the lease between chunks of the range.
+     */
+    long processRange(KeyRange range, PartitionLease lease);
+}
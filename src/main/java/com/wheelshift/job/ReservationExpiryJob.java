@@ -0,0 +1,55 @@
+package com.wheelshift.job;
+
+import com.wheelshift.repository.ReservationRepository;
+import com.wheelshift.service.ReservationService;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Expires overdue reservations once a day. The schedule fires every few minutes
+ * on every node; the run key is the date, so only the first tick of the day does
+ * the work and later ticks pick up partitions left behind by a dead node.
+ */
+@Component
+@RequiredArgsConstructor
+public class ReservationExpiryJob implements PartitionedJob {
+
+    private final JobCoordinator jobCoordinator;
+    private final ReservationService reservationService;
+    private final ReservationRepository reservationRepository;
+
+    @Value("${wheelshift.jobs.reservation-expiry.partitions:4}")
+    private int partitions;
+
+    @Scheduled(cron = "${wheelshift.jobs.reservation-expiry.cron:0 */5 * * * *}")
+    public void run() {
+        jobCoordinator.run(this, LocalDate.now().toString());
+    }
+
+    @Override
+    public String getName() {
+        return "reservation-expiry";
+    }
+
+    @Override
+    public int getPartitionCount() {
+        return partitions;
+    }
+
+    @Override
+    public KeyRange getKeySpace() {
+        List<Object[]> bounds = reservationRepository.findIdBounds();
+        return bounds.isEmpty() ? KeyRange.EMPTY : KeyRange.ofMinMax((Long) bounds.get(0)[0], (Long) bounds.get(0)[1]);
+    }
+
+    @Override
+    public long processRange(KeyRange range, PartitionLease lease) {
+        return reservationService.expireReservations(range.fromInclusive(), range.upperBoundOrMax());
+    }
+}
@@ -0,0 +1,40 @@
+package com.wheelshift.kanban;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.wheelshift.dto.TaskDTO;
+
+/**
+ * One change to a board, applied by the client to the board it fetched.
+ * {@code create} puts {@code task} at {@code index} of {@code columnId},
+ * {@code update} replaces the task's contents, {@code move} takes the task out
+ * of {@code fromColumnId} and puts it at {@code index} of {@code columnId},
+ * and {@code delete} takes it out of {@code columnId}.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record BoardDelta(String op, String taskId, String fromColumnId, String columnId, Integer index, TaskDTO task) {
+
+    public static final String CREATE = "create";
+    public static final String UPDATE = "update";
+    public static final String MOVE = "move";
+    public static final String DELETE = "delete";
+
+    static BoardDelta create(TaskDTO task, String columnId, int index) {
+        return new BoardDelta(CREATE, task.getId(), null, columnId, index, task);
+    }
+
+    static BoardDelta update(TaskDTO task) {
+        return new BoardDelta(UPDATE, task.getId(), null, null, null, task);
+    }
+
+    static BoardDelta move(String taskId, String fromColumnId, String columnId, int index) {
+        return new BoardDelta(MOVE, taskId, fromColumnId, columnId, index, null);
+    }
+
+    static BoardDelta delete(String taskId, String columnId) {
+        return new BoardDelta(DELETE, taskId, null, columnId, null, null);
+    }
+
+    boolean is(String op, String taskId) {
+        return this.op.equals(op) && this.taskId.equals(taskId);
+    }
+}
@@ -0,0 +1,11 @@
+package com.wheelshift.kanban;
+
+import java.util.List;
+
+/**
+ * The deltas of one board that arrived within a coalescing window, numbered
+ * consecutively per board. A client that sees a number skipped has missed a
+ * message and fetches the board again.
+ */
+public record BoardMessage(long seq, List<BoardDelta> deltas) {
+}
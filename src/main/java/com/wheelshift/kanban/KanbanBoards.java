@@ -0,0 +1,256 @@
+package com.wheelshift.kanban;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wheelshift.tenancy.TenantContext;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The open kanban streams of this node, one board per tenant. Deltas offered
+ * for a board are buffered and sent to its subscribers as one
+ * {@link BoardMessage} per coalescing window, so a burst of moves costs each
+ * client one message rather than one per move, and every subscriber gets the
+ * message serialized once for all of them.
+ *
+ * Event ids are {@code <epoch>.<seq>}, the epoch changing with every start of
+ * the node. A client reconnecting with the id of the last message it got is
+ * sent the messages it missed if this node still has them, and a
+ * {@code reset} event otherwise, after which it fetches the board again.
+ */
+@Slf4j
+public class KanbanBoards {
+
+    static final String READY = "ready";
+    static final String DELTAS = "deltas";
+    static final String RESET = "reset";
+
+    private final ObjectMapper objectMapper;
+    private final KanbanPushProperties properties;
+    private final String epoch = UUID.randomUUID().toString().substring(0, 8);
+    private final Map<String, Board> boards = new ConcurrentHashMap<>();
+    private final AtomicInteger subscribers = new AtomicInteger();
+
+    public KanbanBoards(ObjectMapper objectMapper, KanbanPushProperties properties) {
+        this.objectMapper = objectMapper;
+        this.properties = properties;
+    }
+
+    /**
+     * Opens a stream of the current tenant's board, or returns null when this
+     * node has as many open as it takes.
+     *
+     * @param lastEventId the {@code Last-Event-ID} the client reconnects with, if any
+     */
+    public SseEmitter subscribe(String lastEventId) {
+        if (TenantContext.isRoot()) {
+            throw new IllegalStateException("Kanban boards are streamed for one tenant");
+        }
+        if (subscribers.incrementAndGet() > properties.getMaxSubscribers()) {
+            subscribers.decrementAndGet();
+            return null;
+        }
+        Board board = board(TenantContext.current());
+        SseEmitter emitter = new SseEmitter(properties.getStreamTimeout().toMillis());
+        Runnable remove = () -> {
+            if (board.subscribers.remove(emitter)) {
+                subscribers.decrementAndGet();
+            }
+        };
+        emitter.onCompletion(remove);
+        emitter.onTimeout(remove);
+        emitter.onError(failure -> remove.run());
+        try {
+            // Under the board's lock, so no message is sent between the catch-up and joining
+            synchronized (board) {
+                catchUp(board, emitter, lastEventId);
+                board.subscribers.add(emitter);
+            }
+        } catch (IOException e) {
+            subscribers.decrementAndGet();
+            emitter.completeWithError(e);
+        }
+        return emitter;
+    }
+
+    private void catchUp(Board board, SseEmitter emitter, String lastEventId) throws IOException {
+        if (lastEventId == null) {
+            emitter.send(SseEmitter.event().name(READY).id(eventId(board.seq)).data(board.seq));
+            return;
+        }
+        long last = resumePoint(lastEventId);
+        BoardMessage oldest = board.recent.peekFirst();
+        long oldestKept = oldest != null ? oldest.seq() : board.seq + 1;
+        if (last < 0 || last > board.seq || last + 1 < oldestKept) {
+            emitter.send(SseEmitter.event().name(RESET).id(eventId(board.seq)).data(board.seq));
+            return;
+        }
+        for (BoardMessage message : board.recent) {
+            if (message.seq() > last) {
+                emitter.send(event(message, toJson(message)));
+            }
+        }
+    }
+
+    /**
+     * Sequence number of an event id this node handed out, or -1.
+     */
+    private long resumePoint(String lastEventId) {
+        int dot = lastEventId.indexOf('.');
+        if (dot < 0 || !lastEventId.substring(0, dot).equals(epoch)) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(lastEventId.substring(dot + 1));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Buffers a delta for the tenant's board until the next flush.
+     */
+    public void offer(String tenantId, BoardDelta delta) {
+        Board board = board(tenantId);
+        synchronized (board) {
+            board.coalesce(delta);
+        }
+    }
+
+    /**
+     * Sends every board's buffered deltas as one message to its subscribers.
+     * Boards nobody has open still number and keep their messages, for the
+     * clients about to reconnect.
+     */
+    @Scheduled(fixedDelayString = "${wheelshift.kanban-push.coalesce-window-ms:200}")
+    public void flush() {
+        for (Board board : boards.values()) {
+            BoardMessage message;
+            List<SseEmitter> recipients;
+            synchronized (board) {
+                if (board.pending.isEmpty()) {
+                    continue;
+                }
+                message = new BoardMessage(++board.seq, List.copyOf(board.pending));
+                board.pending.clear();
+                board.recent.addLast(message);
+                while (board.recent.size() > properties.getReplay()) {
+                    board.recent.removeFirst();
+                }
+                recipients = new ArrayList<>(board.subscribers);
+            }
+            if (!recipients.isEmpty()) {
+                String json = toJson(message);
+                for (SseEmitter emitter : recipients) {
+                    send(board, emitter, event(message, json));
+                }
+            }
+        }
+    }
+
+    /**
+     * Keeps idle streams from being closed by proxies, and finds the ones
+     * whose client went away.
+     */
+    @Scheduled(fixedDelayString = "${wheelshift.kanban-push.heartbeat-ms:15000}")
+    public void heartbeat() {
+        for (Board board : boards.values()) {
+            for (SseEmitter emitter : board.subscribers) {
+                send(board, emitter, SseEmitter.event().comment(""));
+            }
+        }
+    }
+
+    public int getSubscribers() {
+        return subscribers.get();
+    }
+
+    private void send(Board board, SseEmitter emitter, SseEmitter.SseEventBuilder event) {
+        try {
+            emitter.send(event);
+        } catch (IOException | IllegalStateException e) {
+            log.debug("Dropping a kanban stream: {}", e.toString());
+            if (board.subscribers.remove(emitter)) {
+                subscribers.decrementAndGet();
+            }
+            emitter.completeWithError(e);
+        }
+    }
+
+    private SseEmitter.SseEventBuilder event(BoardMessage message, String json) {
+        return SseEmitter.event().name(DELTAS).id(eventId(message.seq())).data(json, MediaType.APPLICATION_JSON);
+    }
+
+    private String eventId(long seq) {
+        return epoch + "." + seq;
+    }
+
+    private String toJson(BoardMessage message) {
+        try {
+            return objectMapper.writeValueAsString(message);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot write board message " + message.seq(), e);
+        }
+    }
+
+    private Board board(String tenantId) {
+        return boards.computeIfAbsent(tenantId, id -> new Board());
+    }
+
+    /**
+     * Guarded by its own lock, except the subscribers, which are sent to
+     * outside it.
+     */
+    private static final class Board {
+
+        private final List<SseEmitter> subscribers = new CopyOnWriteArrayList<>();
+        private final List<BoardDelta> pending = new ArrayList<>();
+        private final Deque<BoardMessage> recent = new ArrayDeque<>();
+        private long seq;
+
+        /**
+         * Adds a delta to the buffer, folding it into an earlier one where
+         * applying both comes to the same board as applying the merged one.
+         */
+        void coalesce(BoardDelta delta) {
+            if (BoardDelta.UPDATE.equals(delta.op())) {
+                // Contents do not depend on position, so only the newest matter
+                for (int i = 0; i < pending.size(); i++) {
+                    BoardDelta earlier = pending.get(i);
+                    if (earlier.is(BoardDelta.CREATE, delta.taskId())) {
+                        pending.set(i, BoardDelta.create(delta.task(), earlier.columnId(), earlier.index()));
+                        return;
+                    }
+                    if (earlier.is(BoardDelta.UPDATE, delta.taskId())) {
+                        pending.remove(i);
+                        break;
+                    }
+                }
+            } else if (BoardDelta.MOVE.equals(delta.op()) && !pending.isEmpty()) {
+                // Moving a task twice in a row is one move from where it started
+                int last = pending.size() - 1;
+                BoardDelta previous = pending.get(last);
+                if (previous.is(BoardDelta.MOVE, delta.taskId())) {
+                    pending.set(last, BoardDelta.move(delta.taskId(), previous.fromColumnId(), delta.columnId(),
+                            delta.index()));
+                    return;
+                }
+            }
+            pending.add(delta);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.wheelshift.kanban;
+
+import com.wheelshift.events.DomainEvent;
+import com.wheelshift.events.TaskCreated;
+import com.wheelshift.events.TaskDeleted;
+import com.wheelshift.events.TaskMoved;
+import com.wheelshift.events.TaskUpdated;
+import com.wheelshift.outbox.OutboxConsumer;
+import com.wheelshift.outbox.PublishedEvent;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+/**
+ * Turns the committed task events into deltas for the boards open on this
+ * node. Every node needs every event, so each runs its own consumer, named
+ * after the node, that starts at the events raised after the node came up;
+ * clients fetch the board when they connect anyway. The consumer's outbox
+ * rows are removed when the node shuts down, or by the outbox cleanup of the
+ * other nodes once a node that died has left them unclaimed long enough.
+ */
+public class KanbanBroadcaster implements OutboxConsumer {
+
+    private static final String PREFIX = "kanban-push@";
+    /** Length of {@code outbox_consumers.consumer_name}. */
+    private static final int MAX_NAME_LENGTH = 64;
+    private static final String DELETE_CONSUMER = "DELETE FROM outbox_consumers WHERE consumer_name = ?";
+    private static final String DELETE_GAPS = "DELETE FROM outbox_gaps WHERE consumer_name = ?";
+
+    private final KanbanBoards boards;
+    private final JdbcTemplate jdbcTemplate;
+    private final String name;
+
+    public KanbanBroadcaster(KanbanBoards boards, JdbcTemplate jdbcTemplate, String nodeId) {
+        this.boards = boards;
+        this.jdbcTemplate = jdbcTemplate;
+        // Node ids end in their random part, so a long one keeps its tail
+        int keep = MAX_NAME_LENGTH - PREFIX.length();
+        this.name = PREFIX + (nodeId.length() > keep ? nodeId.substring(nodeId.length() - keep) : nodeId);
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public boolean accepts(DomainEvent event) {
+        return event instanceof TaskCreated || event instanceof TaskUpdated || event instanceof TaskMoved
+                || event instanceof TaskDeleted;
+    }
+
+    @Override
+    public void consume(List<PublishedEvent> events) {
+        for (PublishedEvent published : events) {
+            boards.offer(published.tenantId(), toDelta(published.event()));
+        }
+    }
+
+    private static BoardDelta toDelta(DomainEvent event) {
+        if (event instanceof TaskCreated created) {
+            return BoardDelta.create(created.task(), created.columnId(), created.index());
+        }
+        if (event instanceof TaskUpdated updated) {
+            return BoardDelta.update(updated.task());
+        }
+        if (event instanceof TaskMoved moved) {
+            return BoardDelta.move(moved.taskId(), moved.fromColumnId(), moved.toColumnId(), moved.toIndex());
+        }
+        TaskDeleted deleted = (TaskDeleted) event;
+        return BoardDelta.delete(deleted.taskId(), deleted.columnId());
+    }
+
+    public void close() {
+        jdbcTemplate.update(DELETE_GAPS, name);
+        jdbcTemplate.update(DELETE_CONSUMER, name);
+    }
+}
@@ -0,0 +1,30 @@
+package com.wheelshift.kanban;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Board changes pushed to the clients that have the board open
+ * ({@code wheelshift.kanban-push.*}).
+ */
+@Data
+@ConfigurationProperties(prefix = "wheelshift.kanban-push")
+public class KanbanPushProperties {
+
+    /**
+     * Messages kept per board for clients that reconnect with the id of the
+     * last one they got. One further behind is told to fetch the board again.
+     */
+    private int replay = 256;
+
+    /**
+     * How long a stream stays open. The browser reconnects on its own and
+     * resumes from the last message it got.
+     */
+    private Duration streamTimeout = Duration.ofMinutes(10);
+
+    /** Open streams per node, beyond which new ones are refused. */
+    private int maxSubscribers = 2000;
+}
@@ -0,0 +1,145 @@
+package com.wheelshift.ledger;
+
+import java.util.Arrays;
+
+/**
+ * Totals of one transaction type and tenant, one slot per day from
+ * {@link #firstDay} on. Next to the daily amounts (in hundredths) and counts
+ * it keeps their running sums, {@code prefix[i]} being the total of the days
+ * before slot {@code i}, so the total of any range of days is the difference
+ * of two slots. A change to a day rewrites the running sums after it, which
+ * for a few thousand days is far cheaper than the queries it saves.
+ *
+ * Not thread safe; {@link FinancialLedger} guards it.
+ */
+final class DailySeries {
+
+    // Room added on either side when a series grows, so a run of new days doesn't reallocate every time
+    private static final int GROWTH_DAYS = 366;
+
+    private long firstDay;
+    private long[] amounts = new long[0];
+    private long[] counts = new long[0];
+    private long[] amountPrefix = new long[1];
+    private long[] countPrefix = new long[1];
+
+    DailySeries() {
+    }
+
+    /**
+     * Series of the given days, each with its amount and count, in any order.
+     */
+    DailySeries(long[] days, long[] dayAmounts, long[] dayCounts, int size) {
+        if (size == 0) {
+            return;
+        }
+        long first = Long.MAX_VALUE;
+        long last = Long.MIN_VALUE;
+        for (int i = 0; i < size; i++) {
+            first = Math.min(first, days[i]);
+            last = Math.max(last, days[i]);
+        }
+        firstDay = first;
+        int length = Math.toIntExact(last - first + 1);
+        amounts = new long[length];
+        counts = new long[length];
+        for (int i = 0; i < size; i++) {
+            amounts[(int) (days[i] - first)] += dayAmounts[i];
+            counts[(int) (days[i] - first)] += dayCounts[i];
+        }
+        amountPrefix = new long[length + 1];
+        countPrefix = new long[length + 1];
+        for (int i = 0; i < length; i++) {
+            amountPrefix[i + 1] = amountPrefix[i] + amounts[i];
+            countPrefix[i + 1] = countPrefix[i] + counts[i];
+        }
+    }
+
+    long firstDay() {
+        return firstDay;
+    }
+
+    long lastDay() {
+        return firstDay + amounts.length - 1;
+    }
+
+    boolean isEmpty() {
+        return countPrefix[counts.length] == 0;
+    }
+
+    void add(long epochDay, long amount, long count) {
+        ensureCovers(epochDay);
+        int slot = (int) (epochDay - firstDay);
+        amounts[slot] += amount;
+        counts[slot] += count;
+        for (int i = slot + 1; i < amountPrefix.length; i++) {
+            amountPrefix[i] += amount;
+            countPrefix[i] += count;
+        }
+    }
+
+    /**
+     * Replaces whatever the day held with the given totals.
+     */
+    void set(long epochDay, long amount, long count) {
+        add(epochDay, amount - amount(epochDay, epochDay), count - count(epochDay, epochDay));
+    }
+
+    /**
+     * Total amount in hundredths of the days from {@code fromDay} to
+     * {@code toDay}, both inclusive.
+     */
+    long amount(long fromDay, long toDay) {
+        return between(amountPrefix, fromDay, toDay);
+    }
+
+    long count(long fromDay, long toDay) {
+        return between(countPrefix, fromDay, toDay);
+    }
+
+    private long between(long[] prefix, long fromDay, long toDay) {
+        int from = clamp(fromDay);
+        int to = clamp(toDay + 1);
+        return from >= to ? 0 : prefix[to] - prefix[from];
+    }
+
+    private int clamp(long epochDay) {
+        return (int) Math.max(0, Math.min(amounts.length, epochDay - firstDay));
+    }
+
+    private void ensureCovers(long epochDay) {
+        if (amounts.length == 0) {
+            firstDay = epochDay;
+            resize(0, 1);
+        } else if (epochDay < firstDay) {
+            long newFirstDay = epochDay - GROWTH_DAYS;
+            resize((int) (firstDay - newFirstDay), (int) (lastDay() - newFirstDay + 1));
+            firstDay = newFirstDay;
+        } else if (epochDay > lastDay()) {
+            resize(0, (int) (epochDay - firstDay + 1 + GROWTH_DAYS));
+        }
+    }
+
+    /**
+     * Moves the days to start at slot {@code shift} of arrays of {@code length}
+     * slots, the new slots being empty.
+     */
+    private void resize(int shift, int length) {
+        long[] newAmounts = new long[length];
+        long[] newCounts = new long[length];
+        System.arraycopy(amounts, 0, newAmounts, shift, amounts.length);
+        System.arraycopy(counts, 0, newCounts, shift, counts.length);
+        long[] newAmountPrefix = new long[length + 1];
+        long[] newCountPrefix = new long[length + 1];
+        // Empty days before the old first one leave the running sums at zero
+        System.arraycopy(amountPrefix, 0, newAmountPrefix, shift, amountPrefix.length);
+        System.arraycopy(countPrefix, 0, newCountPrefix, shift, countPrefix.length);
+        // and empty days after the old last one carry the final sums along
+        Arrays.fill(newAmountPrefix, shift + amountPrefix.length, length + 1, amountPrefix[amounts.length]);
+        Arrays.fill(newCountPrefix, shift + countPrefix.length, length + 1, countPrefix[counts.length]);
+        amounts = newAmounts;
+        counts = newCounts;
+        amountPrefix = newAmountPrefix;
+        countPrefix = newCountPrefix;
+    }
+}
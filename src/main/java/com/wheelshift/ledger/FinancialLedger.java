@@ -0,0 +1,384 @@
+package com.wheelshift.ledger;
+
+import com.wheelshift.tenancy.TenantContext;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * In-memory totals of the financial transactions, per tenant, transaction
+ * type and day, each series carrying its running sums (see
+ * {@link DailySeries}). The total of any date range and type is two array
+ * reads, and monthly and yearly totals are a walk over the periods, so none
+ * of the statistics below queries the database.
+ *
+ * The ledger is loaded from the transaction table and its archive when the
+ * application is ready, or by the first read if that comes sooner. Archival
+ * moves rows between those two tables and leaves the totals as they are.
+ * JPA writes reach the ledger through {@link LedgerListener} once they commit;
+ * writes made by other nodes or past JPA are picked up by the scheduled
+ * rebuild. Changes committed while a rebuild loads may or may not be in what
+ * it read, so they are not replayed as deltas: the days they touched are read
+ * again once the load is done and overwrite the loaded totals. That re-read
+ * runs under the write lock, so no change lands between it and the switch to
+ * the new ledger.
+ */
+@Component
+@Slf4j
+public class FinancialLedger {
+
+    // Archived rows are in the totals too, as they were before archival moved them
+    private static final String SELECT_DAILY_TOTALS =
+            "SELECT tenant_id, transaction_type, transaction_date, SUM(amount), COUNT(*) FROM ("
+            + "SELECT tenant_id, transaction_type, transaction_date, amount FROM financial_transactions "
+            + "UNION ALL "
+            + "SELECT tenant_id, transaction_type, transaction_date, amount FROM financial_transactions_archive"
+            + ") t GROUP BY tenant_id, transaction_type, transaction_date";
+
+    // The same for a few days, each IN filled with their placeholders
+    private static final String SELECT_TOTALS_OF_DAYS =
+            "SELECT tenant_id, transaction_type, transaction_date, SUM(amount), COUNT(*) FROM ("
+            + "SELECT tenant_id, transaction_type, transaction_date, amount FROM financial_transactions "
+            + "WHERE transaction_date IN (%1$s) "
+            + "UNION ALL "
+            + "SELECT tenant_id, transaction_type, transaction_date, amount FROM financial_transactions_archive "
+            + "WHERE transaction_date IN (%1$s)"
+            + ") t GROUP BY tenant_id, transaction_type, transaction_date";
+
+    private record DayKey(String tenantId, String type, long epochDay) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Object rebuildMonitor = new Object();
+
+    // Tenant to transaction type to series, only ever touched while holding the lock
+    private volatile Map<String, Map<String, DailySeries>> series;
+    // Days changed since the running rebuild started loading, null when none runs
+    private Set<DayKey> changedDuringRebuild;
+
+    public FinancialLedger(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /* ===== Queries ===== */
+
+    /**
+     * Total of the current tenant's transactions of a type between two dates,
+     * both inclusive, or null if there are none, as SQL's {@code SUM} would
+     * answer.
+     *
+     * @param type transaction type, or {@code null} for all of them
+     * @param from first day, or {@code null} for no lower bound
+     * @param to   last day, or {@code null} for no upper bound
+     */
+    public BigDecimal total(String type, LocalDate from, LocalDate to) {
+        long fromDay = from == null ? Long.MIN_VALUE / 2 : from.toEpochDay();
+        long toDay = to == null ? Long.MAX_VALUE / 2 : to.toEpochDay();
+        return read(current -> {
+            long amount = 0;
+            long count = 0;
+            for (DailySeries daily : seriesOf(current, type)) {
+                amount += daily.amount(fromDay, toDay);
+                count += daily.count(fromDay, toDay);
+            }
+            return count == 0 ? null : LedgerEntry.fromHundredths(amount);
+        });
+    }
+
+    /**
+     * All-time total of each transaction type the current tenant has.
+     */
+    public Map<String, BigDecimal> totalsByType() {
+        return read(current -> {
+            Map<String, long[]> totals = new HashMap<>();
+            for (Map<String, DailySeries> byType : tenantsOf(current)) {
+                byType.forEach((type, daily) -> {
+                    if (!daily.isEmpty()) {
+                        long[] total = totals.computeIfAbsent(type, t -> new long[1]);
+                        total[0] += daily.amount(daily.firstDay(), daily.lastDay());
+                    }
+                });
+            }
+            Map<String, BigDecimal> result = new HashMap<>();
+            totals.forEach((type, total) -> result.put(type, LedgerEntry.fromHundredths(total[0])));
+            return result;
+        });
+    }
+
+    /**
+     * Total of a transaction type per month, for the months that have any.
+     */
+    public Map<YearMonth, BigDecimal> monthlyTotals(String type) {
+        return read(current -> {
+            Map<YearMonth, BigDecimal> totals = new TreeMap<>();
+            List<DailySeries> selected = seriesOf(current, type);
+            LocalDate[] bounds = bounds(selected);
+            if (bounds == null) {
+                return totals;
+            }
+            for (YearMonth month = YearMonth.from(bounds[0]); !month.isAfter(YearMonth.from(bounds[1]));
+                    month = month.plusMonths(1)) {
+                putTotal(totals, month, selected, month.atDay(1), month.atEndOfMonth());
+            }
+            return totals;
+        });
+    }
+
+    /**
+     * Total of a transaction type per year, for the years that have any.
+     */
+    public Map<Integer, BigDecimal> yearlyTotals(String type) {
+        return read(current -> {
+            Map<Integer, BigDecimal> totals = new TreeMap<>();
+            List<DailySeries> selected = seriesOf(current, type);
+            LocalDate[] bounds = bounds(selected);
+            if (bounds == null) {
+                return totals;
+            }
+            for (int year = bounds[0].getYear(); year <= bounds[1].getYear(); year++) {
+                putTotal(totals, year, selected, LocalDate.of(year, 1, 1), LocalDate.of(year, 12, 31));
+            }
+            return totals;
+        });
+    }
+
+    private static <K> void putTotal(Map<K, BigDecimal> totals, K period, List<DailySeries> selected,
+                                     LocalDate from, LocalDate to) {
+        long amount = 0;
+        long count = 0;
+        for (DailySeries daily : selected) {
+            amount += daily.amount(from.toEpochDay(), to.toEpochDay());
+            count += daily.count(from.toEpochDay(), to.toEpochDay());
+        }
+        if (count > 0) {
+            totals.put(period, LedgerEntry.fromHundredths(amount));
+        }
+    }
+
+    private static LocalDate[] bounds(List<DailySeries> selected) {
+        long first = Long.MAX_VALUE;
+        long last = Long.MIN_VALUE;
+        for (DailySeries daily : selected) {
+            if (!daily.isEmpty()) {
+                first = Math.min(first, daily.firstDay());
+                last = Math.max(last, daily.lastDay());
+            }
+        }
+        return first > last ? null : new LocalDate[] {LocalDate.ofEpochDay(first), LocalDate.ofEpochDay(last)};
+    }
+
+    private static List<Map<String, DailySeries>> tenantsOf(Map<String, Map<String, DailySeries>> current) {
+        if (TenantContext.isRoot()) {
+            return List.copyOf(current.values());
+        }
+        Map<String, DailySeries> byType = current.get(TenantContext.current());
+        return byType == null ? List.of() : List.of(byType);
+    }
+
+    private static List<DailySeries> seriesOf(Map<String, Map<String, DailySeries>> current, String type) {
+        List<DailySeries> selected = new ArrayList<>();
+        for (Map<String, DailySeries> byType : tenantsOf(current)) {
+            if (type == null) {
+                selected.addAll(byType.values());
+            } else if (byType.containsKey(type)) {
+                selected.add(byType.get(type));
+            }
+        }
+        return selected;
+    }
+
+    /* ===== Maintenance ===== */
+
+    /**
+     * Replaces what a transaction contributed; either side is null for an
+     * insert or a delete.
+     */
+    void replace(LedgerEntry removed, LedgerEntry added) {
+        if (removed != null && removed.equals(added)) {
+            return;
+        }
+        apply(current -> {
+            if (removed != null) {
+                seriesFor(current, removed.tenantId(), removed.type()).add(removed.epochDay(), -removed.amount(), -1);
+            }
+            if (added != null) {
+                seriesFor(current, added.tenantId(), added.type()).add(added.epochDay(), added.amount(), 1);
+            }
+        }, removed, added);
+    }
+
+    private static DailySeries seriesFor(Map<String, Map<String, DailySeries>> current, String tenantId,
+                                         String type) {
+        return current.computeIfAbsent(tenantId, tenant -> new HashMap<>())
+                .computeIfAbsent(type, t -> new DailySeries());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        ensureLoaded();
+    }
+
+    /**
+     * Picks up writes made by other nodes and writes that bypassed JPA.
+     */
+    @Scheduled(cron = "${wheelshift.ledger.rebuild-cron:0 30 * * * *}")
+    public void scheduledRebuild() {
+        if (series != null) {
+            rebuild();
+        }
+    }
+
+    public void rebuild() {
+        synchronized (rebuildMonitor) {
+            long started = System.currentTimeMillis();
+            lock.writeLock().lock();
+            try {
+                changedDuringRebuild = new HashSet<>();
+            } finally {
+                lock.writeLock().unlock();
+            }
+
+            Map<String, Map<String, DailySeries>> loaded = null;
+            int reread = 0;
+            try {
+                loaded = load();
+            } finally {
+                lock.writeLock().lock();
+                try {
+                    if (loaded != null) {
+                        reread = reread(loaded, changedDuringRebuild);
+                        series = loaded;
+                    }
+                } finally {
+                    changedDuringRebuild = null;
+                    lock.writeLock().unlock();
+                }
+            }
+            log.info("Rebuilt the financial ledger with {} series in {} ms ({} changed days re-read)",
+                    loaded.values().stream().mapToInt(Map::size).sum(), System.currentTimeMillis() - started,
+                    reread);
+        }
+    }
+
+    private Map<String, Map<String, DailySeries>> load() {
+        Map<String, Map<String, SeriesBuilder>> builders = new HashMap<>();
+        jdbcTemplate.query(SELECT_DAILY_TOTALS, rs -> {
+            builders.computeIfAbsent(rs.getString(1), tenant -> new HashMap<>())
+                    .computeIfAbsent(rs.getString(2), type -> new SeriesBuilder())
+                    .add(rs.getObject(3, LocalDate.class).toEpochDay(), LedgerEntry.hundredths(rs.getBigDecimal(4)),
+                            rs.getLong(5));
+        });
+        Map<String, Map<String, DailySeries>> loaded = new HashMap<>();
+        builders.forEach((tenant, byType) -> {
+            Map<String, DailySeries> built = new HashMap<>();
+            byType.forEach((type, builder) -> built.put(type, builder.build()));
+            loaded.put(tenant, built);
+        });
+        return loaded;
+    }
+
+    /**
+     * Overwrites the totals of the given days with what the tables hold now.
+     */
+    private int reread(Map<String, Map<String, DailySeries>> loaded, Set<DayKey> changed) {
+        if (changed.isEmpty()) {
+            return 0;
+        }
+        List<LocalDate> days = changed.stream().map(DayKey::epochDay).distinct().map(LocalDate::ofEpochDay).toList();
+        List<Object> args = new ArrayList<>(days);
+        args.addAll(days);
+        String placeholders = String.join(",", Collections.nCopies(days.size(), "?"));
+        Map<DayKey, long[]> totals = new HashMap<>();
+        jdbcTemplate.query(String.format(SELECT_TOTALS_OF_DAYS, placeholders), rs -> {
+            totals.put(new DayKey(rs.getString(1), rs.getString(2), rs.getObject(3, LocalDate.class).toEpochDay()),
+                    new long[] {LedgerEntry.hundredths(rs.getBigDecimal(4)), rs.getLong(5)});
+        }, args.toArray());
+        for (DayKey key : changed) {
+            long[] total = totals.getOrDefault(key, new long[2]);
+            seriesFor(loaded, key.tenantId(), key.type()).set(key.epochDay(), total[0], total[1]);
+        }
+        return changed.size();
+    }
+
+    private <R> R read(Function<Map<String, Map<String, DailySeries>>, R> query) {
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            return query.apply(series);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void apply(Consumer<Map<String, Map<String, DailySeries>>> change, LedgerEntry... touched) {
+        lock.writeLock().lock();
+        try {
+            if (series != null) {
+                change.accept(series);
+            }
+            if (changedDuringRebuild != null) {
+                for (LedgerEntry entry : touched) {
+                    if (entry != null) {
+                        changedDuringRebuild.add(new DayKey(entry.tenantId(), entry.type(), entry.epochDay()));
+                    }
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void ensureLoaded() {
+        if (series == null) {
+            synchronized (rebuildMonitor) {
+                if (series == null) {
+                    rebuild();
+                }
+            }
+        }
+    }
+
+    private static final class SeriesBuilder {
+
+        private long[] days = new long[64];
+        private long[] amounts = new long[64];
+        private long[] counts = new long[64];
+        private int size;
+
+        void add(long epochDay, long amount, long count) {
+            if (size == days.length) {
+                days = Arrays.copyOf(days, size * 2);
+                amounts = Arrays.copyOf(amounts, size * 2);
+                counts = Arrays.copyOf(counts, size * 2);
+            }
+            days[size] = epochDay;
+            amounts[size] = amount;
+            counts[size++] = count;
+        }
+
+        DailySeries build() {
+            return new DailySeries(days, amounts, counts, size);
+        }
+    }
+}
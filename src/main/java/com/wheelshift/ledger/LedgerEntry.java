@@ -0,0 +1,34 @@
+package com.wheelshift.ledger;
+
+import com.wheelshift.model.FinancialTransaction;
+import com.wheelshift.model.Money;
+
+import java.math.BigDecimal;
+
+/**
+ * What one financial transaction contributes to the ledger: its amount in
+ * {@link Money} minor units, the scale of the {@code amount} column, on its day.
+ */
+record LedgerEntry(String tenantId, String type, long epochDay, long amount) {
+
+    /**
+     * Entry of a transaction, or null if it lacks something the ledger is
+     * keyed by, as a transaction about to fail its NOT NULL checks does.
+     */
+    static LedgerEntry of(FinancialTransaction transaction) {
+        if (transaction.getTenantId() == null || transaction.getTransactionType() == null
+                || transaction.getTransactionDate() == null || transaction.getAmount() == null) {
+            return null;
+        }
+        return new LedgerEntry(transaction.getTenantId(), transaction.getTransactionType(),
+                transaction.getTransactionDate().toEpochDay(), hundredths(transaction.getAmount()));
+    }
+
+    static long hundredths(BigDecimal amount) {
+        return Money.of(amount).minorUnits();
+    }
+
+    static BigDecimal fromHundredths(long amount) {
+        return Money.ofMinor(amount).toBigDecimal();
+    }
+}
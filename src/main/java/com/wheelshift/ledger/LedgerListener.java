@@ -0,0 +1,111 @@
+package com.wheelshift.ledger;
+
+import com.wheelshift.model.FinancialTransaction;
+
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Entity listener on {@link FinancialTransaction} that keeps the
+ * {@link FinancialLedger} in step with JPA writes. An update has to take back
+ * what the transaction contributed before, so the entry of every transaction
+ * loaded by a read-write transaction is remembered until that transaction
+ * ends. Changes are applied only after the transaction commits, so rolled
+ * back writes never reach the ledger.
+ */
+@Slf4j
+public class LedgerListener {
+
+    private final FinancialLedger ledger;
+
+    public LedgerListener(FinancialLedger ledger) {
+        this.ledger = ledger;
+    }
+
+    @PostLoad
+    public void loaded(FinancialTransaction transaction) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()
+                && !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            loadedEntries().put(transaction, LedgerEntry.of(transaction));
+        }
+    }
+
+    @PostPersist
+    public void persisted(FinancialTransaction transaction) {
+        LedgerEntry added = LedgerEntry.of(transaction);
+        remember(transaction, added);
+        afterCommit(() -> ledger.replace(null, added));
+    }
+
+    @PostUpdate
+    public void updated(FinancialTransaction transaction) {
+        LedgerEntry added = LedgerEntry.of(transaction);
+        Map<FinancialTransaction, LedgerEntry> loaded =
+                TransactionSynchronizationManager.isSynchronizationActive() ? loadedEntries() : null;
+        if (loaded == null || !loaded.containsKey(transaction)) {
+            log.warn("Financial transaction {} was updated without its previous state, the ledger picks it up "
+                    + "at the next rebuild", transaction.getId());
+            return;
+        }
+        LedgerEntry removed = loaded.put(transaction, added);
+        afterCommit(() -> ledger.replace(removed, added));
+    }
+
+    @PostRemove
+    public void removed(FinancialTransaction transaction) {
+        // What the database holds, should the entity have been changed before it was removed
+        Map<FinancialTransaction, LedgerEntry> loaded =
+                TransactionSynchronizationManager.isSynchronizationActive() ? loadedEntries() : null;
+        LedgerEntry removed = loaded != null && loaded.containsKey(transaction)
+                ? loaded.remove(transaction)
+                : LedgerEntry.of(transaction);
+        afterCommit(() -> ledger.replace(removed, null));
+    }
+
+    private static void remember(FinancialTransaction transaction, LedgerEntry entry) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            loadedEntries().put(transaction, entry);
+        }
+    }
+
+    private static Map<FinancialTransaction, LedgerEntry> loadedEntries() {
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            if (synchronization instanceof LoadedEntries loaded) {
+                return loaded.entries;
+            }
+        }
+        LoadedEntries loaded = new LoadedEntries();
+        TransactionSynchronizationManager.registerSynchronization(loaded);
+        return loaded.entries;
+    }
+
+    private static void afterCommit(Runnable change) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            change.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                change.run();
+            }
+        });
+    }
+
+    /**
+     * Entries of the transactions a database transaction has loaded or
+     * written, by entity identity, as they stand in the database.
+     */
+    private static final class LoadedEntries implements TransactionSynchronization {
+
+        private final Map<FinancialTransaction, LedgerEntry> entries = new IdentityHashMap<>();
+    }
+}
@@ -0,0 +1,30 @@
+package com.wheelshift.model;
+
+import com.wheelshift.versioning.Aggregate;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * Change counter of one {@link Aggregate}, read and bumped by
+ * {@link com.wheelshift.versioning.ChangeVersions} through plain SQL. Mapped so
+ * that ddl-auto creates the table outside the prod profile.
+ */
+@Entity
+@Table(name = "aggregate_versions")
+@Data
+public class AggregateVersion {
+
+    @Id
+    @Enumerated(EnumType.STRING)
+    @Column(length = 32)
+    private Aggregate aggregate;
+
+    @Column(nullable = false)
+    private Long version;
+
+    @Column(name = "modified_at", nullable = false)
+    private LocalDateTime modifiedAt;
+}
@@ -0,0 +1,59 @@
+package com.wheelshift.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * A calendar event moved out of {@code calendar_events} by
+ * {@link com.wheelshift.archive.ArchivalJob}, read through plain SQL by
+ * {@link com.wheelshift.archive.ArchiveReader}. Mapped so that ddl-auto
+ * creates the table outside the prod profile.
+ */
+@Entity
+@Table(name = "calendar_events_archive", indexes = {
+    @Index(name = "idx_calendar_event_archive_start", columnList = "tenant_id, start_time")
+})
+@Data
+public class ArchivedCalendarEvent {
+
+    @Id
+    private Long id;
+
+    @Column(name = "tenant_id", nullable = false, length = 32)
+    private String tenantId;
+
+    @Column(nullable = false)
+    private String title;
+
+    @Column(name = "start_time", nullable = false)
+    private LocalDateTime startTime;
+
+    @Column(name = "end_time", nullable = false)
+    private LocalDateTime endTime;
+
+    @Column(nullable = false)
+    private String backgroundColor;
+
+    @Column(nullable = false)
+    private String borderColor;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private EventType eventType;
+
+    @Column(nullable = false)
+    private String customerName;
+
+    @Column(nullable = false)
+    private String carDetails;
+
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+    private String createdBy;
+    private String updatedBy;
+
+    @Column(name = "archived_at", nullable = false)
+    private LocalDateTime archivedAt;
+}
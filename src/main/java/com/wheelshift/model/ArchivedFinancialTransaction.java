@@ -0,0 +1,54 @@
+package com.wheelshift.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * A financial transaction moved out of {@code financial_transactions} by
+ * {@link com.wheelshift.archive.ArchivalJob}, read through plain SQL by
+ * {@link com.wheelshift.archive.ArchiveReader}. The car is kept by id only,
+ * without a foreign key. Mapped so that ddl-auto creates the table outside
+ * the prod profile.
+ */
+@Entity
+@Table(name = "financial_transactions_archive", indexes = {
+    @Index(name = "idx_transaction_archive_date", columnList = "tenant_id, transaction_date"),
+    @Index(name = "idx_transaction_archive_car", columnList = "car_id")
+})
+@Data
+public class ArchivedFinancialTransaction {
+
+    @Id
+    private Long id;
+
+    @Column(name = "tenant_id", nullable = false, length = 32)
+    private String tenantId;
+
+    @Column(name = "car_id", nullable = false)
+    private Long carId;
+
+    @Column(nullable = false)
+    private String transactionType;
+
+    @Column(nullable = false)
+    private BigDecimal amount;
+
+    @Column(name = "transaction_date", nullable = false)
+    private LocalDate transactionDate;
+
+    @Column(columnDefinition = "TEXT")
+    private String description;
+
+    private String vendorName;
+
+    private String receiptUrl;
+
+    private LocalDateTime createdAt;
+
+    @Column(name = "archived_at", nullable = false)
+    private LocalDateTime archivedAt;
+}
@@ -0,0 +1,58 @@
+package com.wheelshift.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * A closed inquiry moved out of {@code inquiries} by
+ * {@link com.wheelshift.archive.ArchivalJob}, read through plain SQL by
+ * {@link com.wheelshift.archive.ArchiveReader}. The car, client and employee
+ * are kept by id only, without foreign keys. Mapped so that ddl-auto creates
+ * the table outside the prod profile.
+ */
+@Entity
+@Table(name = "inquiries_archive", indexes = {
+    @Index(name = "idx_inquiry_archive_created_at", columnList = "tenant_id, created_at")
+})
+@Data
+public class ArchivedInquiry {
+
+    @Id
+    private Long id;
+
+    @Column(name = "tenant_id", nullable = false, length = 32)
+    private String tenantId;
+
+    @Column(name = "car_id")
+    private Long carId;
+
+    @Column(name = "client_id", nullable = false)
+    private Long clientId;
+
+    @Column(name = "assigned_employee_id")
+    private Long assignedEmployeeId;
+
+    @Column(nullable = false)
+    private String inquiryType;
+
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String message;
+
+    @Column(nullable = false)
+    private String status;
+
+    @Column(columnDefinition = "TEXT")
+    private String response;
+
+    private LocalDateTime responseDate;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
+    private LocalDateTime updatedAt;
+
+    @Column(name = "archived_at", nullable = false)
+    private LocalDateTime archivedAt;
+}
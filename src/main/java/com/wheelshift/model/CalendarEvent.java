@@ -2,31 +2,49 @@ package com.wheelshift.model;
 
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.Table;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.TenantId;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.wheelshift.versioning.Aggregate;
+import com.wheelshift.versioning.ChangeTracked;
+import com.wheelshift.versioning.ChangeVersionListener;
 
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "calendar_events")
+@Table(name = "calendar_events", indexes = {
+    @Index(name = "idx_calendar_event_start", columnList = "tenant_id, startTime")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
+@EntityListeners(ChangeVersionListener.class)
+@ChangeTracked(Aggregate.CALENDAR)
 public class CalendarEvent {
 
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    @TenantId
+    @Column(name = "tenant_id", nullable = false, updatable = false, length = 32)
+    @ColumnDefault("'default'")
+    @JsonIgnore
+    private String tenantId;
+
     @Column(nullable = false)
     private String title;
 
@@ -1,11 +1,30 @@
 package com.wheelshift.model;
 
 import jakarta.persistence.*;
+import lombok.AccessLevel;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+import org.hibernate.annotations.ColumnDefault;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.TenantId;
 import org.hibernate.annotations.UpdateTimestamp;
+import org.springframework.data.domain.AfterDomainEventPublication;
+import org.springframework.data.domain.DomainEvents;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonManagedReference;
+import com.wheelshift.changefeed.ChangeFeedListener;
+import com.wheelshift.costing.CarCostListener;
+import com.wheelshift.events.CarStatusChanged;
+import com.wheelshift.events.DomainEvent;
+import com.wheelshift.model.converter.CarStatusConverter;
+import com.wheelshift.search.CarIndexListener;
+import com.wheelshift.versioning.Aggregate;
+import com.wheelshift.versioning.ChangeTracked;
+import com.wheelshift.versioning.ChangeVersionListener;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
@@ -15,25 +34,43 @@ import java.util.List;
 
 @Entity
 @Table(name = "cars", indexes = {
-    @Index(name = "idx_car_vin", columnList = "vinNumber", unique = true),
-    @Index(name = "idx_car_registration", columnList = "registrationNumber"),
-    @Index(name = "idx_car_status", columnList = "currentStatus"),
+    @Index(name = "idx_car_vin", columnList = "tenant_id, vinNumber", unique = true),
+    @Index(name = "idx_car_registration", columnList = "tenant_id, registrationNumber"),
+    @Index(name = "idx_car_status", columnList = "tenant_id, status_code"),
     @Index(name = "idx_car_model", columnList = "model_id"),
     @Index(name = "idx_car_location", columnList = "location_id"),
-    @Index(name = "idx_car_year", columnList = "year")
+    @Index(name = "idx_car_year", columnList = "tenant_id, year")
 })
+// The inverse one-to-ones cannot be proxied, so list queries join them in up front instead of
+// issuing one select per car for each of them (see CarRepository)
+@NamedEntityGraph(name = "Car.listing", attributeNodes = {
+    @NamedAttributeNode("carModel"),
+    @NamedAttributeNode("storageLocation"),
+    @NamedAttributeNode("detailedSpecs"),
+    @NamedAttributeNode("sale"),
+    @NamedAttributeNode("reservation")
+})
+@EntityListeners({CarIndexListener.class, CarCostListener.class, ChangeVersionListener.class,
+    ChangeFeedListener.class})
+@ChangeTracked(Aggregate.CARS)
 @Data
 public class Car {
     
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
+
+    @TenantId
+    @Column(name = "tenant_id", nullable = false, updatable = false, length = 32)
+    @ColumnDefault("'default'")
+    @JsonIgnore
+    private String tenantId;
     
     @ManyToOne
     @JoinColumn(name = "model_id", nullable = false)
     private CarModel carModel;
     
-    @Column(nullable = false, unique = true, length = 17)
+    @Column(nullable = false, length = 17)
     private String vinNumber;
     
     private String registrationNumber;
@@ -47,8 +84,9 @@ public class Car {
     
     private BigDecimal engineCapacity;
     
-    @Column(nullable = false)
-    private String currentStatus;
+    @Convert(converter = CarStatusConverter.class)
+    @Column(name = "status_code", nullable = false, columnDefinition = "TINYINT")
+    private CarStatus currentStatus;
     
     private LocalDate purchaseDate;
     
@@ -89,4 +127,43 @@ public class Car {
     
     @UpdateTimestamp
     private LocalDateTime updatedAt;
+    
+    /**
+     * Events raised since the car was last saved, published by the
+     * repository's save.
+     */
+    @Transient
+    @JsonIgnore
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private List<DomainEvent> domainEvents = new ArrayList<>();
+    
+    /**
+     * Every status change goes through here so the transition table in
+     * {@link CarStatus} is enforced regardless of which service makes it.
+     * Setting the first status (new or deserialized cars) is always allowed.
+     */
+    public void setCurrentStatus(CarStatus currentStatus) {
+        if (this.currentStatus != null && currentStatus != null
+                && !this.currentStatus.canTransitionTo(currentStatus)) {
+            throw new IllegalStateException("Car " + id + " cannot change status from "
+                    + this.currentStatus + " to " + currentStatus);
+        }
+        if (id != null && this.currentStatus != null && currentStatus != this.currentStatus) {
+            domainEvents.add(new CarStatusChanged(tenantId, id, this.currentStatus, currentStatus));
+        }
+        this.currentStatus = currentStatus;
+    }
+
+    @DomainEvents
+    List<DomainEvent> domainEvents() {
+        return List.copyOf(domainEvents);
+    }
+
+    @AfterDomainEventPublication
+    void clearDomainEvents() {
+        domainEvents.clear();
+    }
 }
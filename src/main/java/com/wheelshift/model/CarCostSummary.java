@@ -0,0 +1,72 @@
+package com.wheelshift.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.TenantId;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * What one car cost and earned, kept up to date by
+ * {@link com.wheelshift.costing.CarCostSummaries} from the car, its financial
+ * transactions (archived ones included), its sale and its inspections, so
+ * profit reports read one row per car instead of joining those tables. Cars
+ * and models are referenced by id only, without foreign keys, as the summary
+ * goes with the car.
+ */
+@Entity
+@Table(name = "car_cost_summaries", indexes = {
+    @Index(name = "idx_cost_summary_sale_date", columnList = "tenant_id, sale_date"),
+    @Index(name = "idx_cost_summary_model", columnList = "model_id")
+})
+@Data
+public class CarCostSummary {
+
+    @Id
+    @Column(name = "car_id")
+    private Long carId;
+
+    @TenantId
+    @Column(name = "tenant_id", nullable = false, updatable = false, length = 32)
+    @ColumnDefault("'default'")
+    private String tenantId;
+
+    @Column(name = "model_id", nullable = false)
+    private Integer carModelId;
+
+    @Column(name = "purchase_price", nullable = false)
+    private BigDecimal purchasePrice;
+
+    /** Repair, maintenance and service transactions. */
+    @Column(name = "repair_cost", nullable = false)
+    private BigDecimal repairCost;
+
+    /** Estimate of the latest inspection, counted as the repair cost until repairs are booked. */
+    @Column(name = "estimated_repair_cost")
+    private BigDecimal estimatedRepairCost;
+
+    /** Every other transaction that is not the purchase or the sale itself. */
+    @Column(name = "other_cost", nullable = false)
+    private BigDecimal otherCost;
+
+    @Column(name = "total_cost", nullable = false)
+    private BigDecimal totalCost;
+
+    @Column(name = "sale_price")
+    private BigDecimal salePrice;
+
+    @Column(name = "sale_date")
+    private LocalDate saleDate;
+
+    @Column(name = "sold_by_id")
+    private Long soldById;
+
+    /** Sale price less the total cost, null while the car is unsold. */
+    private BigDecimal profit;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
@@ -2,10 +2,16 @@ package com.wheelshift.model;
 
 import jakarta.persistence.*;
 import lombok.Data;
+import org.hibernate.annotations.ColumnDefault;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.TenantId;
 import org.hibernate.annotations.UpdateTimestamp;
 
 import com.fasterxml.jackson.annotation.JsonBackReference;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.wheelshift.versioning.Aggregate;
+import com.wheelshift.versioning.ChangeTracked;
+import com.wheelshift.versioning.ChangeVersionListener;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -13,13 +19,23 @@ import java.util.HashMap;
 import java.util.Map;
 
 @Entity
-@Table(name = "car_detailed_specs")
+@Table(name = "car_detailed_specs", indexes = {
+    @Index(name = "idx_car_detailed_specs_tenant", columnList = "tenant_id")
+})
 @Data
+@EntityListeners(ChangeVersionListener.class)
+@ChangeTracked(Aggregate.CARS)
 public class CarDetailedSpecs {
     
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
+
+    @TenantId
+    @Column(name = "tenant_id", nullable = false, updatable = false, length = 32)
+    @ColumnDefault("'default'")
+    @JsonIgnore
+    private String tenantId;
     
     @OneToOne
     @JoinColumn(name = "car_id", unique = true)
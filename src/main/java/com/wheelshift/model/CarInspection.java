@@ -2,25 +2,41 @@ package com.wheelshift.model;
 
 import jakarta.persistence.*;
 import lombok.Data;
+import org.hibernate.annotations.ColumnDefault;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.TenantId;
 import com.fasterxml.jackson.annotation.JsonBackReference;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.wheelshift.changefeed.ChangeFeedListener;
+import com.wheelshift.costing.CarCostListener;
+import com.wheelshift.model.converter.MoneyConverter;
+import com.wheelshift.versioning.Aggregate;
+import com.wheelshift.versioning.ChangeTracked;
+import com.wheelshift.versioning.ChangeVersionListener;
 
-import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "car_inspections", indexes = {
     @Index(name = "idx_inspection_car", columnList = "car_id"),
-    @Index(name = "idx_inspection_date", columnList = "inspectionDate"),
-    @Index(name = "idx_inspection_pass", columnList = "inspectionPass")
+    @Index(name = "idx_inspection_date", columnList = "tenant_id, inspectionDate"),
+    @Index(name = "idx_inspection_pass", columnList = "tenant_id, inspectionPass")
 })
 @Data
+@EntityListeners({CarCostListener.class, ChangeVersionListener.class, ChangeFeedListener.class})
+@ChangeTracked(Aggregate.CARS)
 public class CarInspection {
     
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
+
+    @TenantId
+    @Column(name = "tenant_id", nullable = false, updatable = false, length = 32)
+    @ColumnDefault("'default'")
+    @JsonIgnore
+    private String tenantId;
     
     @ManyToOne
     @JoinColumn(name = "car_id", nullable = false)
@@ -52,7 +68,8 @@ public class CarInspection {
     @Column(columnDefinition = "TEXT")
     private String requiredRepairs;
     
-    private BigDecimal estimatedRepairCost;
+    @Convert(converter = MoneyConverter.class)
+    private Money estimatedRepairCost;
     
     private Boolean inspectionPass = false;
     
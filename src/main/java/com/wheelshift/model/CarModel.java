@@ -2,18 +2,36 @@ package com.wheelshift.model;
 
 import jakarta.persistence.*;
 import lombok.Data;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.TenantId;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.wheelshift.search.CarIndexListener;
+import com.wheelshift.versioning.Aggregate;
+import com.wheelshift.versioning.ChangeTracked;
+import com.wheelshift.versioning.ChangeVersionListener;
 
 @Entity
 @Table(name = "car_models", uniqueConstraints = {
-    @UniqueConstraint(columnNames = {"make", "model", "variant"}, 
+    @UniqueConstraint(columnNames = {"tenant_id", "make", "model", "variant"}, 
     		name = "uk_car_model_make_model_variant")
+}, indexes = {
+    @Index(name = "idx_car_model_tenant", columnList = "tenant_id")
 })
+@EntityListeners({CarIndexListener.class, ChangeVersionListener.class})
+@ChangeTracked(Aggregate.CARS)
 @Data
 public class CarModel {
     
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Integer id;
+
+    @TenantId
+    @Column(name = "tenant_id", nullable = false, updatable = false, length = 32)
+    @ColumnDefault("'default'")
+    @JsonIgnore
+    private String tenantId;
     
     @Column(nullable = false)
     private String make;
@@ -0,0 +1,80 @@
+package com.wheelshift.model;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Lifecycle state of a car in the inventory.
+ *
+ * Each constant carries a stable numeric code which is what gets persisted
+ * (see {@link com.wheelshift.model.converter.CarStatusConverter}), so codes must
+ * never be reused or renumbered. The allowed transitions between states are
+ * defined here and checked by {@link Car#setCurrentStatus(CarStatus)}.
+ */
+public enum CarStatus {
+    AVAILABLE(0),
+    RESERVED(1),
+    NEEDS_REPAIR(2),
+    SOLD(3);
+
+    private static final Map<CarStatus, Set<CarStatus>> TRANSITIONS = new EnumMap<>(CarStatus.class);
+
+    static {
+        TRANSITIONS.put(AVAILABLE, EnumSet.of(RESERVED, NEEDS_REPAIR, SOLD));
+        TRANSITIONS.put(RESERVED, EnumSet.of(AVAILABLE, NEEDS_REPAIR, SOLD));
+        TRANSITIONS.put(NEEDS_REPAIR, EnumSet.of(AVAILABLE, RESERVED, SOLD));
+        // A sold car only comes back into stock when its sale is reversed
+        TRANSITIONS.put(SOLD, EnumSet.of(AVAILABLE));
+    }
+
+    private final int code;
+
+    CarStatus(int code) {
+        this.code = code;
+    }
+
+    public int getCode() {
+        return code;
+    }
+
+    public Set<CarStatus> allowedTransitions() {
+        return Collections.unmodifiableSet(TRANSITIONS.get(this));
+    }
+
+    public boolean canTransitionTo(CarStatus target) {
+        return this == target || TRANSITIONS.get(this).contains(target);
+    }
+
+    public static CarStatus fromCode(int code) {
+        for (CarStatus status : CarStatus.values()) {
+            if (status.code == code) {
+                return status;
+            }
+        }
+        throw new IllegalArgumentException("No car status with code " + code);
+    }
+
+    /**
+     * Lenient parsing for request parameters and JSON bodies. Accepts any
+     * casing and spaces or hyphens in place of underscores, so the legacy
+     * values ("Available", "Sold", "needs repair") keep working.
+     */
+    @JsonCreator
+    public static CarStatus fromString(String text) {
+        if (text == null || text.trim().isEmpty()) {
+            throw new IllegalArgumentException("Car status must not be empty");
+        }
+        String normalized = text.trim().replace(' ', '_').replace('-', '_');
+        for (CarStatus status : CarStatus.values()) {
+            if (status.name().equalsIgnoreCase(normalized)) {
+                return status;
+            }
+        }
+        throw new IllegalArgumentException("No car status with value " + text + " found");
+    }
+}
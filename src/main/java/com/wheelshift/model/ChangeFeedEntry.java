@@ -0,0 +1,39 @@
+package com.wheelshift.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * The latest change of one row with a change feed, numbered by {@code seq}.
+ * Written and read by {@link com.wheelshift.changefeed} through JDBC. Mapped
+ * so that ddl-auto creates the table outside the prod profile.
+ */
+@Entity
+@Table(name = "change_feed", indexes = {
+    @Index(name = "idx_change_feed_row", columnList = "tenant_id, feed, row_id", unique = true),
+    @Index(name = "idx_change_feed_seq", columnList = "tenant_id, feed, seq")
+})
+@Data
+public class ChangeFeedEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long seq;
+
+    @Column(name = "tenant_id", nullable = false, length = 32)
+    private String tenantId;
+
+    @Column(nullable = false, length = 16)
+    private String feed;
+
+    @Column(name = "row_id", nullable = false)
+    private Long rowId;
+
+    @Column(nullable = false)
+    private Boolean deleted;
+
+    @Column(name = "changed_at", nullable = false)
+    private LocalDateTime changedAt;
+}
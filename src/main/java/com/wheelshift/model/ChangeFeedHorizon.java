@@ -0,0 +1,22 @@
+package com.wheelshift.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+/**
+ * Highest sequence number of a delete compacted out of a change feed; resume
+ * tokens below it can no longer be served. Mapped so that ddl-auto creates
+ * the table outside the prod profile.
+ */
+@Entity
+@Table(name = "change_feed_horizons")
+@Data
+public class ChangeFeedHorizon {
+
+    @Id
+    @Column(length = 16)
+    private String feed;
+
+    @Column(name = "purged_through", nullable = false)
+    private Long purgedThrough;
+}
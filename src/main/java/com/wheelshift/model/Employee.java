@@ -2,9 +2,15 @@ package com.wheelshift.model;
 
 import jakarta.persistence.*;
 import lombok.Data;
+import org.hibernate.annotations.ColumnDefault;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.TenantId;
 import org.hibernate.annotations.UpdateTimestamp;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonManagedReference;
+import com.wheelshift.versioning.Aggregate;
+import com.wheelshift.versioning.ChangeTracked;
+import com.wheelshift.versioning.ChangeVersionListener;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -13,22 +19,30 @@ import java.util.List;
 
 @Entity
 @Table(name = "employees", indexes = {
-    @Index(name = "idx_employee_email", columnList = "email", unique = true),
-    @Index(name = "idx_employee_position", columnList = "position"),
-    @Index(name = "idx_employee_department", columnList = "department"),
-    @Index(name = "idx_employee_status", columnList = "status")
+    @Index(name = "idx_employee_email", columnList = "tenant_id, email", unique = true),
+    @Index(name = "idx_employee_position", columnList = "tenant_id, position"),
+    @Index(name = "idx_employee_department", columnList = "tenant_id, department"),
+    @Index(name = "idx_employee_status", columnList = "tenant_id, status")
 })
 @Data
+@EntityListeners(ChangeVersionListener.class)
+@ChangeTracked(Aggregate.EMPLOYEES)
 public class Employee {
     
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
+
+    @TenantId
+    @Column(name = "tenant_id", nullable = false, updatable = false, length = 32)
+    @ColumnDefault("'default'")
+    @JsonIgnore
+    private String tenantId;
     
     @Column(nullable = false)
     private String name;
     
-    @Column(nullable = false, unique = true)
+    @Column(nullable = false)
     private String email;
     
     @Column(nullable = false)
@@ -2,9 +2,17 @@ package com.wheelshift.model;
 
 import jakarta.persistence.*;
 import lombok.Data;
+import org.hibernate.annotations.ColumnDefault;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.TenantId;
 
 import com.fasterxml.jackson.annotation.JsonBackReference;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.wheelshift.costing.CarCostListener;
+import com.wheelshift.ledger.LedgerListener;
+import com.wheelshift.versioning.Aggregate;
+import com.wheelshift.versioning.ChangeTracked;
+import com.wheelshift.versioning.ChangeVersionListener;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
@@ -13,15 +21,23 @@ import java.time.LocalDateTime;
 @Entity
 @Table(name = "financial_transactions", indexes = {
     @Index(name = "idx_transaction_car", columnList = "car_id"),
-    @Index(name = "idx_transaction_type", columnList = "transactionType"),
-    @Index(name = "idx_transaction_date", columnList = "transactionDate")
+    @Index(name = "idx_transaction_type", columnList = "tenant_id, transactionType"),
+    @Index(name = "idx_transaction_date", columnList = "tenant_id, transactionDate")
 })
 @Data
+@EntityListeners({LedgerListener.class, CarCostListener.class, ChangeVersionListener.class})
+@ChangeTracked(Aggregate.CARS)
 public class FinancialTransaction {
     
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
+
+    @TenantId
+    @Column(name = "tenant_id", nullable = false, updatable = false, length = 32)
+    @ColumnDefault("'default'")
+    @JsonIgnore
+    private String tenantId;
     
     @ManyToOne
     @JoinColumn(name = "car_id", nullable = false)
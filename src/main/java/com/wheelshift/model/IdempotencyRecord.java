@@ -0,0 +1,50 @@
+package com.wheelshift.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * An idempotency key and the response of the request that first used it,
+ * read and written by {@link com.wheelshift.idempotency.IdempotencyStore}
+ * through plain SQL. Mapped so that ddl-auto creates the table outside the
+ * prod profile.
+ */
+@Entity
+@Table(name = "idempotency_keys", indexes = {
+    @Index(name = "idx_idempotency_keys_expires_at", columnList = "expires_at"),
+    @Index(name = "idx_idempotency_keys_created_at", columnList = "created_at")
+})
+@Data
+public class IdempotencyRecord {
+
+    // The tenant, a colon and the key the client sent
+    @Id
+    @Column(name = "idempotency_key", length = 161)
+    private String idempotencyKey;
+
+    // SHA-256 of the method, path and query the key was first used for
+    @Column(name = "request_hash", nullable = false, length = 64)
+    private String requestHash;
+
+    // IN_PROGRESS or COMPLETED
+    @Column(nullable = false, length = 16)
+    private String state;
+
+    @Column(name = "response_status")
+    private Integer responseStatus;
+
+    @Column(name = "content_type", length = 128)
+    private String contentType;
+
+    @Lob
+    @Column(name = "response_body", length = 16_777_215)
+    private byte[] responseBody;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+}
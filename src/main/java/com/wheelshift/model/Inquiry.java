@@ -2,26 +2,40 @@ package com.wheelshift.model;
 
 import jakarta.persistence.*;
 import lombok.Data;
+import org.hibernate.annotations.ColumnDefault;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.TenantId;
 import org.hibernate.annotations.UpdateTimestamp;
 import com.fasterxml.jackson.annotation.JsonBackReference;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.wheelshift.versioning.Aggregate;
+import com.wheelshift.versioning.ChangeTracked;
+import com.wheelshift.versioning.ChangeVersionListener;
 
 import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "inquiries", indexes = {
-    @Index(name = "idx_inquiry_status", columnList = "status"),
+    @Index(name = "idx_inquiry_status", columnList = "tenant_id, status"),
     @Index(name = "idx_inquiry_car", columnList = "car_id"),
     @Index(name = "idx_inquiry_client", columnList = "client_id"),
     @Index(name = "idx_inquiry_employee", columnList = "assigned_employee_id"),
-    @Index(name = "idx_inquiry_created_at", columnList = "created_at")
+    @Index(name = "idx_inquiry_created_at", columnList = "tenant_id, created_at")
 })
 @Data
+@EntityListeners(ChangeVersionListener.class)
+@ChangeTracked(Aggregate.CARS)
 public class Inquiry {
     
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
+
+    @TenantId
+    @Column(name = "tenant_id", nullable = false, updatable = false, length = 32)
+    @ColumnDefault("'default'")
+    @JsonIgnore
+    private String tenantId;
     
     @ManyToOne
     @JoinColumn(name = "car_id")
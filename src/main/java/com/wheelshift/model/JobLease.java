@@ -0,0 +1,57 @@
+package com.wheelshift.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * One row per (job, partition). A node owns a partition while {@code leaseUntil}
+ * is in the future; a partition is done for a run once {@code completedRunKey}
+ * equals that run's key. Also records how the last run of the partition went.
+ */
+@Entity
+@Table(name = "job_leases", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_job_lease_partition", columnNames = {"job_name", "partition_no"})
+})
+@Data
+public class JobLease {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "job_name", nullable = false, length = 64)
+    private String jobName;
+
+    @Column(name = "partition_no", nullable = false)
+    private Integer partitionNo;
+
+    @Column(length = 128)
+    private String owner;
+
+    private LocalDateTime leaseUntil;
+
+    // Run the key ranges below were planned for
+    @Column(length = 64)
+    private String plannedRunKey;
+
+    @Column(length = 64)
+    private String completedRunKey;
+
+    private Long rangeStart;
+
+    // Exclusive, null means unbounded
+    private Long rangeEnd;
+
+    private LocalDateTime lastStartedAt;
+
+    private LocalDateTime lastFinishedAt;
+
+    private Long lastDurationMs;
+
+    private Long lastRowsProcessed;
+
+    @Column(length = 512)
+    private String lastError;
+}
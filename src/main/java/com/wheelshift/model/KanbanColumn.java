@@ -2,16 +2,32 @@ package com.wheelshift.model;
 
 import jakarta.persistence.*;
 import lombok.Data;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.TenantId;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.wheelshift.versioning.Aggregate;
+import com.wheelshift.versioning.ChangeTracked;
+import com.wheelshift.versioning.ChangeVersionListener;
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
 @Data
-@Table(name = "kanban_columns")
+@Table(name = "kanban_columns", indexes = {
+    @Index(name = "idx_kanban_column_tenant", columnList = "tenant_id")
+})
+@EntityListeners(ChangeVersionListener.class)
+@ChangeTracked(Aggregate.KANBAN)
 public class KanbanColumn {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
+
+    @TenantId
+    @Column(name = "tenant_id", nullable = false, updatable = false, length = 32)
+    @ColumnDefault("'default'")
+    @JsonIgnore
+    private String tenantId;
     
     private String columnId; // Unique client-side ID (e.g., 'column-1')
     private String title;
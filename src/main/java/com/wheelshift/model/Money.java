@@ -0,0 +1,141 @@
+package com.wheelshift.model;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.function.Function;
+
+/**
+ * An amount of money held as a {@code long} of minor units, hundredths, the
+ * scale of the DECIMAL(38,2) money columns. Sums and differences are exact and
+ * throw {@link ArithmeticException} on overflow rather than wrap. Results that
+ * have more digits than a hundredth, products and quotients, are rounded
+ * HALF_UP, the way the database rounds a longer scale when it stores one.
+ *
+ * Stored through {@link com.wheelshift.model.converter.MoneyConverter} and
+ * written to JSON as the decimal amount, so neither the schema nor the API
+ * notice it is not a {@link BigDecimal}.
+ */
+public record Money(long minorUnits) implements Comparable<Money>, Serializable {
+
+    public static final int SCALE = 2;
+    public static final Money ZERO = new Money(0);
+
+    private static final long[] POWERS_OF_TEN = {
+        1L, 10L, 100L, 1_000L, 10_000L, 100_000L, 1_000_000L, 10_000_000L, 100_000_000L, 1_000_000_000L,
+        10_000_000_000L, 100_000_000_000L, 1_000_000_000_000L, 10_000_000_000_000L, 100_000_000_000_000L,
+        1_000_000_000_000_000L, 10_000_000_000_000_000L, 100_000_000_000_000_000L, 1_000_000_000_000_000_000L
+    };
+
+    public static Money ofMinor(long minorUnits) {
+        return minorUnits == 0 ? ZERO : new Money(minorUnits);
+    }
+
+    /**
+     * The amount rounded to hundredths, or null for null.
+     *
+     * @throws ArithmeticException if it does not fit a long of hundredths
+     */
+    @JsonCreator(mode = JsonCreator.Mode.DELEGATING)
+    public static Money of(BigDecimal amount) {
+        if (amount == null) {
+            return null;
+        }
+        return ofMinor(amount.setScale(SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact());
+    }
+
+    @JsonValue
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(minorUnits, SCALE);
+    }
+
+    public Money plus(Money other) {
+        return ofMinor(Math.addExact(minorUnits, other.minorUnits));
+    }
+
+    public Money minus(Money other) {
+        return ofMinor(Math.subtractExact(minorUnits, other.minorUnits));
+    }
+
+    /**
+     * The amount times a factor such as a rate, rounded to hundredths. Stays
+     * in long arithmetic unless the exact product would not fit.
+     */
+    public Money times(BigDecimal factor) {
+        return times(factor, 0);
+    }
+
+    /**
+     * The given percentage of the amount, rounded to hundredths, as a
+     * commission is of a sale price.
+     */
+    public Money percent(BigDecimal rate) {
+        return times(rate, 2);
+    }
+
+    private Money times(BigDecimal factor, int shift) {
+        int scale = factor.scale() + shift;
+        if (factor.precision() < 19 && scale >= 0 && scale < POWERS_OF_TEN.length) {
+            long unscaled = factor.unscaledValue().longValue();
+            long high = Math.multiplyHigh(minorUnits, unscaled);
+            long product = minorUnits * unscaled;
+            // The product fits a long when the high word is only its sign extension
+            if ((high == 0 && product >= 0) || (high == -1 && product < 0)) {
+                return ofMinor(divideHalfUp(product, POWERS_OF_TEN[scale]));
+            }
+        }
+        return of(toBigDecimal().multiply(factor).movePointLeft(shift));
+    }
+
+    /**
+     * The amount divided into {@code parts} equal shares, rounded to hundredths.
+     */
+    public Money dividedBy(long parts) {
+        return ofMinor(divideHalfUp(minorUnits, parts));
+    }
+
+    public int signum() {
+        return Long.signum(minorUnits);
+    }
+
+    /**
+     * Total of the amounts of the items, skipping items without one. Adds
+     * minor units on a long, so nothing is allocated per item.
+     */
+    public static <T> Money sum(Iterable<? extends T> items, Function<? super T, Money> amount) {
+        long total = 0;
+        for (T item : items) {
+            Money value = amount.apply(item);
+            if (value != null) {
+                total = Math.addExact(total, value.minorUnits);
+            }
+        }
+        return ofMinor(total);
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        return Long.compare(minorUnits, other.minorUnits);
+    }
+
+    @Override
+    public String toString() {
+        return toBigDecimal().toPlainString();
+    }
+
+    /**
+     * Integer division rounding half away from zero, without overflowing on
+     * the remainder comparison.
+     */
+    private static long divideHalfUp(long dividend, long divisor) {
+        long quotient = dividend / divisor;
+        long remainder = Math.abs(dividend % divisor);
+        if (remainder >= Math.abs(divisor) - remainder) {
+            quotient += (dividend < 0) == (divisor < 0) ? 1 : -1;
+        }
+        return quotient;
+    }
+}
@@ -0,0 +1,49 @@
+package com.wheelshift.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * How far one outbox consumer got: every event up to {@code position} has
+ * been delivered to it, given up on, or is still waited for as an
+ * {@link OutboxGap}. A node delivers to the consumer while it holds the
+ * lease, so events reach each consumer from one node at a time. Mapped so that ddl-auto creates the table outside the prod
+ * profile.
+ */
+@Entity
+@Table(name = "outbox_consumers")
+@Data
+public class OutboxConsumerState {
+
+    @Id
+    @Column(name = "consumer_name", length = 64)
+    private String consumerName;
+
+    @Column(nullable = false)
+    private Long position;
+
+    @Column(length = 128)
+    private String owner;
+
+    private LocalDateTime leaseUntil;
+
+    // Failed deliveries of the event after position, reset once it goes through
+    @Column(nullable = false)
+    private Integer attempts;
+
+    private LocalDateTime nextAttemptAt;
+
+    @Column(length = 512)
+    private String lastError;
+
+    @Column(nullable = false)
+    private Long delivered;
+
+    // Events given up on after the last attempt
+    @Column(nullable = false)
+    private Long skipped;
+
+    private LocalDateTime lastDeliveredAt;
+}
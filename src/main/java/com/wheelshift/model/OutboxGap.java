@@ -0,0 +1,36 @@
+package com.wheelshift.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * An event id below an outbox consumer's position that was not there when
+ * the consumer moved past it. Ids are taken when a transaction writes its
+ * events, not when it commits, so a long transaction commits its events after
+ * ones with higher ids; the consumer receives them once they appear, or gives
+ * up on them once they have been missing for the gap timeout, as with a
+ * transaction that rolled back. Mapped so that ddl-auto creates the table
+ * outside the prod profile.
+ */
+@Entity
+@Table(name = "outbox_gaps", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_outbox_gap_event", columnNames = {"consumer_name", "event_id"})
+})
+@Data
+public class OutboxGap {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "consumer_name", nullable = false, length = 64)
+    private String consumerName;
+
+    @Column(name = "event_id", nullable = false)
+    private Long eventId;
+
+    @Column(nullable = false)
+    private LocalDateTime noticedAt;
+}
@@ -2,27 +2,42 @@ package com.wheelshift.model;
 
 import jakarta.persistence.*;
 import lombok.Data;
+import org.hibernate.annotations.ColumnDefault;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.TenantId;
 import org.hibernate.annotations.UpdateTimestamp;
 import com.fasterxml.jackson.annotation.JsonBackReference;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.wheelshift.changefeed.ChangeFeedListener;
+import com.wheelshift.model.converter.MoneyConverter;
+import com.wheelshift.versioning.Aggregate;
+import com.wheelshift.versioning.ChangeTracked;
+import com.wheelshift.versioning.ChangeVersionListener;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "reservations", indexes = {
-    @Index(name = "idx_reservation_status", columnList = "status"),
+    @Index(name = "idx_reservation_status", columnList = "tenant_id, status"),
     @Index(name = "idx_reservation_car", columnList = "car_id"),
     @Index(name = "idx_reservation_client", columnList = "client_id"),
-    @Index(name = "idx_reservation_expiry_date", columnList = "expiry_date"),
-    @Index(name = "idx_reservation_deposit_paid", columnList = "deposit_paid")
+    @Index(name = "idx_reservation_expiry_date", columnList = "tenant_id, expiry_date"),
+    @Index(name = "idx_reservation_deposit_paid", columnList = "tenant_id, deposit_paid")
 })
 @Data
+@EntityListeners({ChangeVersionListener.class, ChangeFeedListener.class})
+@ChangeTracked({Aggregate.RESERVATIONS, Aggregate.CARS})
 public class Reservation {
     
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
+
+    @TenantId
+    @Column(name = "tenant_id", nullable = false, updatable = false, length = 32)
+    @ColumnDefault("'default'")
+    @JsonIgnore
+    private String tenantId;
     
     @OneToOne
     @JoinColumn(name = "car_id", nullable = false)
@@ -43,7 +58,8 @@ public class Reservation {
     @Column(nullable = false)
     private String status;
     
-    private BigDecimal depositAmount;
+    @Convert(converter = MoneyConverter.class)
+    private Money depositAmount;
     
     private Boolean depositPaid = false;
     
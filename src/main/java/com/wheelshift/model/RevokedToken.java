@@ -0,0 +1,24 @@
+package com.wheelshift.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * An access token revoked before its expiry, read and written by
+ * {@link com.wheelshift.auth.TokenRevocations} through plain SQL. Mapped so
+ * that ddl-auto creates the table outside the prod profile.
+ */
+@Entity
+@Table(name = "revoked_tokens")
+@Data
+public class RevokedToken {
+
+    @Id
+    @Column(name = "token_id", length = 32)
+    private String tokenId;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+}
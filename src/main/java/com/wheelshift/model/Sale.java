@@ -2,9 +2,17 @@ package com.wheelshift.model;
 
 import jakarta.persistence.*;
 import lombok.Data;
+import org.hibernate.annotations.ColumnDefault;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.TenantId;
 
 import com.fasterxml.jackson.annotation.JsonBackReference;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.wheelshift.costing.CarCostListener;
+import com.wheelshift.model.converter.MoneyConverter;
+import com.wheelshift.versioning.Aggregate;
+import com.wheelshift.versioning.ChangeTracked;
+import com.wheelshift.versioning.ChangeVersionListener;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
@@ -15,15 +23,23 @@ import java.time.LocalDateTime;
     @Index(name = "idx_sale_car", columnList = "car_id"),
     @Index(name = "idx_sale_client", columnList = "client_id"),
     @Index(name = "idx_sale_employee", columnList = "handled_by_id"),
-    @Index(name = "idx_sale_date", columnList = "sale_date"),
-    @Index(name = "idx_sale_payment_method", columnList = "payment_method")
+    @Index(name = "idx_sale_date", columnList = "tenant_id, sale_date"),
+    @Index(name = "idx_sale_payment_method", columnList = "tenant_id, payment_method")
 })
 @Data
+@EntityListeners({CarCostListener.class, ChangeVersionListener.class})
+@ChangeTracked({Aggregate.SALES, Aggregate.CARS})
 public class Sale {
     
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
+
+    @TenantId
+    @Column(name = "tenant_id", nullable = false, updatable = false, length = 32)
+    @ColumnDefault("'default'")
+    @JsonIgnore
+    private String tenantId;
     
     @OneToOne
     @JoinColumn(name = "car_id", nullable = false, unique = true)
@@ -43,12 +59,14 @@ public class Sale {
     @Column(nullable = false)
     private LocalDate saleDate;
     
+    @Convert(converter = MoneyConverter.class)
     @Column(nullable = false)
-    private BigDecimal salePrice;
+    private Money salePrice;
     
     private BigDecimal commissionRate;
     
-    private BigDecimal totalCommission;
+    @Convert(converter = MoneyConverter.class)
+    private Money totalCommission;
     
     private String paymentMethod;
     
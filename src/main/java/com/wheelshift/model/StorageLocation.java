@@ -2,20 +2,36 @@ package com.wheelshift.model;
 
 import jakarta.persistence.*;
 import lombok.Data;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.TenantId;
 
 import java.util.ArrayList;
 import java.util.List;
 
 import com.fasterxml.jackson.annotation.JsonBackReference;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.wheelshift.versioning.Aggregate;
+import com.wheelshift.versioning.ChangeTracked;
+import com.wheelshift.versioning.ChangeVersionListener;
 
 @Entity
-@Table(name = "storage_locations")
+@Table(name = "storage_locations", indexes = {
+    @Index(name = "idx_storage_location_tenant", columnList = "tenant_id")
+})
 @Data
+@EntityListeners(ChangeVersionListener.class)
+@ChangeTracked({Aggregate.LOCATIONS, Aggregate.CARS})
 public class StorageLocation {
     
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
+
+    @TenantId
+    @Column(name = "tenant_id", nullable = false, updatable = false, length = 32)
+    @ColumnDefault("'default'")
+    @JsonIgnore
+    private String tenantId;
     
     @Column(nullable = false)
     private String name;
@@ -2,14 +2,30 @@ package com.wheelshift.model;
 
 import jakarta.persistence.*;
 import lombok.Data;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.TenantId;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.wheelshift.versioning.Aggregate;
+import com.wheelshift.versioning.ChangeTracked;
+import com.wheelshift.versioning.ChangeVersionListener;
 
 @Entity
 @Data
-@Table(name = "task_positions")
+@Table(name = "task_positions", indexes = {
+    @Index(name = "idx_task_position_tenant", columnList = "tenant_id")
+})
+@EntityListeners(ChangeVersionListener.class)
+@ChangeTracked(Aggregate.KANBAN)
 public class TaskPosition {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
+
+    @TenantId
+    @Column(name = "tenant_id", nullable = false, updatable = false, length = 32)
+    @ColumnDefault("'default'")
+    @JsonIgnore
+    private String tenantId;
     
     @ManyToOne
     @JoinColumn(name = "task_id")
@@ -0,0 +1,23 @@
+package com.wheelshift.model.converter;
+
+import com.wheelshift.model.CarStatus;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+/**
+ * Stores {@link CarStatus} as its one-byte code instead of the enum name.
+ */
+@Converter
+public class CarStatusConverter implements AttributeConverter<CarStatus, Integer> {
+
+    @Override
+    public Integer convertToDatabaseColumn(CarStatus status) {
+        return status == null ? null : status.getCode();
+    }
+
+    @Override
+    public CarStatus convertToEntityAttribute(Integer code) {
+        return code == null ? null : CarStatus.fromCode(code);
+    }
+}
@@ -0,0 +1,56 @@
+package com.wheelshift.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wheelshift.events.DomainEvent;
+import com.wheelshift.tenancy.TenantContext;
+
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+/**
+ * Stores every published {@link DomainEvent} in {@code outbox_events} as part
+ * of the transaction publishing it, so an event exists exactly when what it
+ * describes was committed. This single insert is all the publishing
+ * transaction pays, however many consumers there are.
+ */
+public class DomainEventOutbox {
+
+    private static final String INSERT_EVENT = "INSERT INTO outbox_events "
+            + "(tenant_id, event_type, aggregate_type, aggregate_id, payload, created_at) VALUES (?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    public DomainEventOutbox(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+    }
+
+    @EventListener
+    public void append(DomainEvent event) {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException(event.getClass().getSimpleName()
+                    + " published outside a transaction, it would not be committed with what it describes");
+        }
+        String tenantId = event.tenantId() != null ? event.tenantId() : TenantContext.current();
+        if (TenantContext.ROOT.equals(tenantId)) {
+            throw new IllegalStateException(event.getClass().getSimpleName() + " needs the tenant of "
+                    + event.aggregate() + " " + event.aggregateId() + " when published for every tenant");
+        }
+        jdbcTemplate.update(INSERT_EVENT, tenantId, event.getClass().getSimpleName(), event.aggregate().name(),
+                event.aggregateId(), toJson(event), Timestamp.valueOf(LocalDateTime.now()));
+    }
+
+    private String toJson(DomainEvent event) {
+        try {
+            return objectMapper.writeValueAsString(event);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Cannot serialize " + event, e);
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.wheelshift.outbox;
+
+import com.wheelshift.events.DomainEvent;
+
+import java.util.List;
+
+/**
+ * Receives the committed domain events in the order they were raised, in
+ * batches of one tenant's events run as that tenant. An event whose
+ * transaction commits after later events were delivered arrives late, after
+ * them; transactions changing the same row wait on its lock, so this only
+ * reorders events of unrelated changes. Delivery is at least
+ * once: a batch that throws is delivered again, one event at a time and with
+ * backoff, and a node that dies mid-batch leaves it to be delivered again by
+ * the next one. Consumers therefore have to be idempotent. Every Spring bean
+ * implementing this is a consumer; one added to a running system starts with
+ * the events raised after it first ran.
+ */
+public interface OutboxConsumer {
+
+    /**
+     * Unique and stable: the consumer's position in the outbox is kept under it.
+     */
+    String getName();
+
+    /**
+     * Events not accepted are skipped without being delivered.
+     */
+    default boolean accepts(DomainEvent event) {
+        return true;
+    }
+
+    void consume(List<PublishedEvent> events);
+}
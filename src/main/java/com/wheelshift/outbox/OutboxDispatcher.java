@@ -0,0 +1,458 @@
+package com.wheelshift.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wheelshift.events.DomainEvent;
+import com.wheelshift.tenancy.TenantContext;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Delivers the events in {@code outbox_events} to the {@link OutboxConsumer}s.
+ *
+ * Every consumer has its own position in {@code outbox_consumers}, so a slow
+ * or failing consumer holds up only itself. Each poll, a node takes the lease
+ * of every consumer nobody else holds and delivers it batches of the events
+ * after its position, moving the position past each batch the consumer
+ * accepts and renewing the lease as it goes; once another node has taken the
+ * consumer over, the position no longer moves and this node stops. A batch
+ * that throws is retried one event at a time with exponential backoff, and an
+ * event that still fails after the last attempt is logged and skipped.
+ *
+ * Ids are taken when a transaction writes its events, not when it commits, so
+ * an event may appear after the consumer moved past its id. The ids a batch
+ * jumps over are kept in {@code outbox_gaps} and read again with every batch,
+ * until the event appears and is delivered, or has been missing for the gap
+ * timeout, as when the transaction rolled back.
+ *
+ * Events the consumers have all moved past are deleted once older than the
+ * retention.
+ */
+@Slf4j
+public class OutboxDispatcher {
+
+    private static final String SELECT_HEAD = "SELECT MAX(id) FROM outbox_events";
+    private static final String INSERT_CONSUMER = "INSERT INTO outbox_consumers "
+            + "(consumer_name, position, attempts, delivered, skipped) VALUES (?, ?, 0, 0, 0)";
+    private static final String COUNT_CONSUMER = "SELECT COUNT(*) FROM outbox_consumers WHERE consumer_name = ?";
+    private static final String CLAIM_CONSUMER = "UPDATE outbox_consumers SET owner = ?, lease_until = ? "
+            + "WHERE consumer_name = ? AND (owner IS NULL OR owner = ? OR lease_until < ?) "
+            + "AND (next_attempt_at IS NULL OR next_attempt_at <= ?)";
+    private static final String SELECT_CONSUMER = "SELECT position, attempts FROM outbox_consumers "
+            + "WHERE consumer_name = ?";
+    private static final String SELECT_EVENTS = "SELECT id, tenant_id, payload, created_at FROM outbox_events "
+            + "WHERE id > ? ORDER BY id LIMIT ?";
+    private static final String SELECT_LATE_EVENTS = "SELECT id, tenant_id, payload, created_at "
+            + "FROM outbox_events WHERE id IN (%s) ORDER BY id";
+    private static final String SELECT_GAPS = "SELECT event_id, noticed_at FROM outbox_gaps "
+            + "WHERE consumer_name = ? ORDER BY event_id";
+    private static final String INSERT_GAP = "INSERT INTO outbox_gaps (consumer_name, event_id, noticed_at) "
+            + "VALUES (?, ?, ?)";
+    private static final String DELETE_GAP = "DELETE FROM outbox_gaps WHERE consumer_name = ? AND event_id = ?";
+    private static final String ADVANCE = "UPDATE outbox_consumers SET position = ?, lease_until = ?, attempts = 0, "
+            + "next_attempt_at = NULL, last_error = NULL, delivered = delivered + ?, last_delivered_at = ? "
+            + "WHERE consumer_name = ? AND owner = ?";
+    private static final String SKIP = "UPDATE outbox_consumers SET position = ?, lease_until = ?, attempts = 0, "
+            + "next_attempt_at = NULL, last_error = ?, skipped = skipped + 1 WHERE consumer_name = ? AND owner = ?";
+    private static final String RENEW = "UPDATE outbox_consumers SET lease_until = ? "
+            + "WHERE consumer_name = ? AND owner = ?";
+    private static final String RETRY_LATER = "UPDATE outbox_consumers SET attempts = ?, next_attempt_at = ?, "
+            + "last_error = ? WHERE consumer_name = ? AND owner = ?";
+    private static final String SELECT_LAG = "SELECT c.consumer_name, c.position, c.attempts, c.next_attempt_at, "
+            + "c.last_error, c.delivered, c.skipped, c.last_delivered_at, c.owner, "
+            + "(SELECT COUNT(*) FROM outbox_events e WHERE e.id > c.position), "
+            + "(SELECT MIN(e.created_at) FROM outbox_events e WHERE e.id > c.position), "
+            + "(SELECT COUNT(*) FROM outbox_gaps g WHERE g.consumer_name = c.consumer_name) "
+            + "FROM outbox_consumers c ORDER BY c.consumer_name";
+    private static final String SELECT_POSITIONS = "SELECT c.consumer_name, c.position, "
+            + "(SELECT MIN(g.event_id) FROM outbox_gaps g WHERE g.consumer_name = c.consumer_name) "
+            + "FROM outbox_consumers c";
+    private static final String DELETE_DELIVERED = "DELETE FROM outbox_events WHERE id <= ? AND created_at < ?";
+    private static final String SELECT_ABANDONED = "SELECT consumer_name FROM outbox_consumers WHERE lease_until < ?";
+    private static final String DELETE_ABANDONED_GAPS = "DELETE FROM outbox_gaps WHERE consumer_name = ?";
+    private static final String DELETE_ABANDONED = "DELETE FROM outbox_consumers "
+            + "WHERE consumer_name = ? AND lease_until < ?";
+
+    /**
+     * Delivery state of one consumer. {@code pending} counts the events after
+     * its position, {@code lag} is how long the oldest of them has waited;
+     * {@code gaps} counts the ids below it still waited for.
+     */
+    public record ConsumerLag(String consumer, long position, long pending, Duration lag, long gaps,
+                              long delivered, long skipped, int attempts, LocalDateTime nextAttemptAt,
+                              String lastError, LocalDateTime lastDeliveredAt, String owner) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate separateTransaction;
+    private final List<OutboxConsumer> consumers;
+    private final OutboxProperties properties;
+    private final String nodeId;
+    private final Set<String> registered = ConcurrentHashMap.newKeySet();
+
+    public OutboxDispatcher(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper,
+                            PlatformTransactionManager transactionManager, List<OutboxConsumer> consumers,
+                            OutboxProperties properties, String nodeId) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.separateTransaction = new TransactionTemplate(transactionManager);
+        this.separateTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.consumers = List.copyOf(consumers);
+        this.properties = properties;
+        this.nodeId = nodeId;
+    }
+
+    public List<OutboxConsumer> getConsumers() {
+        return consumers;
+    }
+
+    /* ===== Delivery ===== */
+
+    @Scheduled(fixedDelayString = "${wheelshift.outbox.poll-interval-ms:500}",
+            initialDelayString = "${wheelshift.outbox.poll-interval-ms:500}")
+    public void dispatch() {
+        TenantContext.runAs(TenantContext.ROOT, () -> {
+            for (OutboxConsumer consumer : consumers) {
+                try {
+                    deliver(consumer);
+                } catch (RuntimeException e) {
+                    log.warn("Delivering outbox events to {} failed: {}", consumer.getName(), e.toString());
+                }
+            }
+        });
+    }
+
+    /**
+     * Delivers the pending batches to one consumer, if this node gets its
+     * lease, and returns the number of events delivered or skipped.
+     */
+    public long deliver(OutboxConsumer consumer) {
+        if (!claim(consumer)) {
+            return 0;
+        }
+        long handled = 0;
+        for (int batch = 0; batch < properties.getMaxBatchesPerPoll(); batch++) {
+            Long[] state = jdbcTemplate.queryForObject(SELECT_CONSUMER, (rs, rowNum) ->
+                    new Long[] {rs.getLong(1), rs.getLong(2)}, consumer.getName());
+            long position = state[0];
+            int attempts = state[1].intValue();
+            // After a failure the batch is retried one event at a time, to find the one failing
+            int limit = attempts > 0 ? 1 : properties.getBatchSize();
+            Map<Long, LocalDateTime> gaps = gaps(consumer);
+            List<PublishedEvent> late = readLate(gaps.keySet());
+            List<PublishedEvent> events = new ArrayList<>(late.subList(0, Math.min(limit, late.size())));
+            if (events.size() < limit) {
+                events.addAll(read(position, limit - events.size()));
+            }
+            List<Long> expired = expired(consumer, gaps, late);
+            if (events.isEmpty()) {
+                if (!expired.isEmpty()) {
+                    advance(consumer, position, events, expired, null);
+                }
+                break;
+            }
+            try {
+                deliver(consumer, events);
+            } catch (RuntimeException e) {
+                fail(consumer, position, events, expired, attempts + 1, e);
+                return handled;
+            }
+            if (!advance(consumer, position, events, expired, null)) {
+                log.warn("Outbox consumer {} was taken over by another node after events {}-{}", consumer.getName(),
+                        events.get(0).sequence(), events.get(events.size() - 1).sequence());
+                return handled;
+            }
+            handled += events.size();
+            if (events.size() < limit) {
+                break;
+            }
+        }
+        return handled;
+    }
+
+    private boolean claim(OutboxConsumer consumer) {
+        if (!registered.contains(consumer.getName())) {
+            register(consumer);
+        }
+        LocalDateTime now = LocalDateTime.now();
+        Integer claimed = separateTransaction.execute(status -> jdbcTemplate.update(CLAIM_CONSUMER, nodeId,
+                Timestamp.valueOf(now.plus(properties.getLease())), consumer.getName(), nodeId,
+                Timestamp.valueOf(now), Timestamp.valueOf(now)));
+        return claimed != null && claimed == 1;
+    }
+
+    /**
+     * Gives a consumer seen for the first time a row, starting at the events
+     * raised from now on.
+     */
+    private void register(OutboxConsumer consumer) {
+        Integer existing = jdbcTemplate.queryForObject(COUNT_CONSUMER, Integer.class, consumer.getName());
+        if (existing == null || existing == 0) {
+            Long head = jdbcTemplate.queryForObject(SELECT_HEAD, Long.class);
+            try {
+                jdbcTemplate.update(INSERT_CONSUMER, consumer.getName(), head == null ? 0L : head);
+                log.info("Outbox consumer {} starts after event {}", consumer.getName(), head);
+            } catch (DuplicateKeyException e) {
+                // Another node registered it first
+            }
+        }
+        registered.add(consumer.getName());
+    }
+
+    private List<PublishedEvent> read(long position, int limit) {
+        return jdbcTemplate.query(SELECT_EVENTS, this::toPublishedEvent, position, limit);
+    }
+
+    private Map<Long, LocalDateTime> gaps(OutboxConsumer consumer) {
+        Map<Long, LocalDateTime> gaps = new LinkedHashMap<>();
+        jdbcTemplate.query(SELECT_GAPS, rs -> {
+            gaps.put(rs.getLong(1), rs.getTimestamp(2).toLocalDateTime());
+        }, consumer.getName());
+        return gaps;
+    }
+
+    /** The events of the gaps that have been committed since. */
+    private List<PublishedEvent> readLate(Collection<Long> gaps) {
+        if (gaps.isEmpty()) {
+            return List.of();
+        }
+        String placeholders = String.join(", ", Collections.nCopies(gaps.size(), "?"));
+        return jdbcTemplate.query(String.format(SELECT_LATE_EVENTS, placeholders), this::toPublishedEvent,
+                gaps.toArray());
+    }
+
+    /** The gaps still empty after the gap timeout, which the consumer stops waiting for. */
+    private List<Long> expired(OutboxConsumer consumer, Map<Long, LocalDateTime> gaps, List<PublishedEvent> late) {
+        if (gaps.size() == late.size()) {
+            return List.of();
+        }
+        Set<Long> filled = new HashSet<>();
+        late.forEach(event -> filled.add(event.sequence()));
+        LocalDateTime cutoff = LocalDateTime.now().minus(properties.getGapTimeout());
+        List<Long> expired = new ArrayList<>();
+        gaps.forEach((id, noticedAt) -> {
+            if (!filled.contains(id) && noticedAt.isBefore(cutoff)) {
+                log.info("Outbox consumer {} stops waiting for event {}, missing since {}", consumer.getName(), id,
+                        noticedAt);
+                expired.add(id);
+            }
+        });
+        return expired;
+    }
+
+    private PublishedEvent toPublishedEvent(ResultSet rs, int rowNum) throws SQLException {
+        return new PublishedEvent(rs.getLong(1), rs.getString(2), rs.getTimestamp(4).toLocalDateTime(),
+                fromJson(rs.getString(3)));
+    }
+
+    /**
+     * Hands the accepted events to the consumer in runs of the same tenant,
+     * each run as that tenant.
+     */
+    private static void deliver(OutboxConsumer consumer, List<PublishedEvent> events) {
+        List<PublishedEvent> run = new ArrayList<>();
+        for (PublishedEvent event : events) {
+            if (!consumer.accepts(event.event())) {
+                continue;
+            }
+            if (!run.isEmpty() && !run.get(0).tenantId().equals(event.tenantId())) {
+                consume(consumer, run);
+                run = new ArrayList<>();
+            }
+            run.add(event);
+        }
+        if (!run.isEmpty()) {
+            consume(consumer, run);
+        }
+    }
+
+    private static void consume(OutboxConsumer consumer, List<PublishedEvent> run) {
+        TenantContext.runAs(run.get(0).tenantId(), () -> consumer.consume(run));
+    }
+
+    /**
+     * Moves the consumer past the events it was handed, or the one skipped
+     * when {@code skipError} is set: late events leave the gaps, the ids
+     * jumped over become gaps, and the expired gaps are dropped. All of it
+     * only while this node still owns the consumer, whose lease is renewed.
+     * Returns false once another node has taken the consumer over.
+     */
+    private boolean advance(OutboxConsumer consumer, long position, List<PublishedEvent> events, List<Long> expired,
+                            String skipError) {
+        long next = position;
+        List<Long> closed = new ArrayList<>(expired);
+        List<Long> opened = new ArrayList<>();
+        for (PublishedEvent event : events) {
+            if (event.sequence() <= position) {
+                closed.add(event.sequence());
+                continue;
+            }
+            for (long missing = next + 1; missing < event.sequence(); missing++) {
+                opened.add(missing);
+            }
+            next = event.sequence();
+        }
+        LocalDateTime now = LocalDateTime.now();
+        Timestamp leaseUntil = Timestamp.valueOf(now.plus(properties.getLease()));
+        long advanceTo = next;
+        Boolean advanced = separateTransaction.execute(status -> {
+            int updated;
+            if (skipError != null) {
+                updated = jdbcTemplate.update(SKIP, advanceTo, leaseUntil, skipError, consumer.getName(), nodeId);
+            } else if (events.isEmpty()) {
+                updated = jdbcTemplate.update(RENEW, leaseUntil, consumer.getName(), nodeId);
+            } else {
+                updated = jdbcTemplate.update(ADVANCE, advanceTo, leaseUntil, events.size(), Timestamp.valueOf(now),
+                        consumer.getName(), nodeId);
+            }
+            if (updated == 0) {
+                return false;
+            }
+            if (!opened.isEmpty()) {
+                jdbcTemplate.batchUpdate(INSERT_GAP, opened, opened.size(), (ps, id) -> {
+                    ps.setString(1, consumer.getName());
+                    ps.setLong(2, id);
+                    ps.setTimestamp(3, Timestamp.valueOf(now));
+                });
+            }
+            if (!closed.isEmpty()) {
+                jdbcTemplate.batchUpdate(DELETE_GAP, closed, closed.size(), (ps, id) -> {
+                    ps.setString(1, consumer.getName());
+                    ps.setLong(2, id);
+                });
+            }
+            return true;
+        });
+        return Boolean.TRUE.equals(advanced);
+    }
+
+    private void fail(OutboxConsumer consumer, long position, List<PublishedEvent> events, List<Long> expired,
+                      int attempts, RuntimeException e) {
+        String error = e.getClass().getSimpleName() + ": " + e.getMessage();
+        String truncated = error.length() > 512 ? error.substring(0, 512) : error;
+        if (events.size() == 1 && attempts >= properties.getMaxAttempts()) {
+            PublishedEvent event = events.get(0);
+            log.error("Outbox consumer {} skips event {} {} after {} attempts", consumer.getName(), event.sequence(),
+                    event.event(), attempts, e);
+            advance(consumer, position, events, expired, truncated);
+            return;
+        }
+        Duration backoff = properties.getRetryBackoff().multipliedBy(1L << Math.min(attempts - 1, 20));
+        if (backoff.compareTo(properties.getMaxRetryBackoff()) > 0) {
+            backoff = properties.getMaxRetryBackoff();
+        }
+        log.warn("Outbox consumer {} failed on events {}-{} (attempt {}), retrying in {}: {}", consumer.getName(),
+                events.get(0).sequence(), events.get(events.size() - 1).sequence(), attempts, backoff, error);
+        jdbcTemplate.update(RETRY_LATER, attempts, Timestamp.valueOf(LocalDateTime.now().plus(backoff)), truncated,
+                consumer.getName(), nodeId);
+    }
+
+    private DomainEvent fromJson(String payload) {
+        try {
+            return objectMapper.readValue(payload, DomainEvent.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot read outbox event " + payload, e);
+        }
+    }
+
+    /* ===== Monitoring ===== */
+
+    public List<ConsumerLag> lag() {
+        LocalDateTime now = LocalDateTime.now();
+        return jdbcTemplate.query(SELECT_LAG, (rs, rowNum) -> {
+            Timestamp oldestPending = rs.getTimestamp(11);
+            return new ConsumerLag(rs.getString(1), rs.getLong(2), rs.getLong(10),
+                    oldestPending == null ? Duration.ZERO : Duration.between(oldestPending.toLocalDateTime(), now),
+                    rs.getLong(12), rs.getLong(6), rs.getLong(7), rs.getInt(3), toLocalDateTime(rs.getTimestamp(4)), rs.getString(5),
+                    toLocalDateTime(rs.getTimestamp(8)), rs.getString(9));
+        });
+    }
+
+    /* ===== Retention ===== */
+
+    /**
+     * Events a consumer still waits for hold the deletion back like those
+     * after its position. Rows of consumers this build no longer has do not
+     * hold events back, and are deleted once no node has held them for the
+     * abandon timeout.
+     */
+    @Scheduled(cron = "${wheelshift.outbox.cleanup-cron:0 40 * * * *}")
+    public void deleteDelivered() {
+        deleteAbandoned();
+        Set<String> names = new HashSet<>();
+        consumers.forEach(consumer -> names.add(consumer.getName()));
+        Long delivered = null;
+        for (Object[] row : jdbcTemplate.query(SELECT_POSITIONS, (rs, rowNum) -> {
+            long position = rs.getLong(2);
+            long firstGap = rs.getLong(3);
+            return new Object[] {rs.getString(1), rs.wasNull() ? position : Math.min(position, firstGap - 1)};
+        })) {
+            if (names.remove((String) row[0])) {
+                delivered = delivered == null ? (Long) row[1] : Math.min(delivered, (Long) row[1]);
+            }
+        }
+        if (delivered == null) {
+            return;
+        }
+        Timestamp cutoff = Timestamp.valueOf(LocalDateTime.now().minus(properties.getRetention()));
+        int deleted = jdbcTemplate.update(DELETE_DELIVERED, delivered, cutoff);
+        if (deleted > 0) {
+            log.info("Deleted {} delivered outbox events", deleted);
+        }
+    }
+
+    /**
+     * Rows left by consumers of nodes that died without removing them, such
+     * as their {@code KanbanBroadcaster}s, or of consumers since removed. A
+     * live node renews its consumers' leases every poll, including the ones
+     * it has nothing to deliver to.
+     */
+    private void deleteAbandoned() {
+        Set<String> names = new HashSet<>();
+        consumers.forEach(consumer -> names.add(consumer.getName()));
+        Timestamp cutoff = Timestamp.valueOf(LocalDateTime.now().minus(properties.getAbandonAfter()));
+        for (String name : jdbcTemplate.queryForList(SELECT_ABANDONED, String.class, cutoff)) {
+            if (names.contains(name)) {
+                continue;
+            }
+            Boolean deleted = separateTransaction.execute(status -> {
+                jdbcTemplate.update(DELETE_ABANDONED_GAPS, name);
+                if (jdbcTemplate.update(DELETE_ABANDONED, name, cutoff) == 0) {
+                    status.setRollbackOnly();
+                    return false;
+                }
+                return true;
+            });
+            if (Boolean.TRUE.equals(deleted)) {
+                log.info("Deleted outbox consumer {}, not held by any node for {}", name,
+                        properties.getAbandonAfter());
+            }
+        }
+    }
+
+    private static LocalDateTime toLocalDateTime(Timestamp timestamp) {
+        return timestamp == null ? null : timestamp.toLocalDateTime();
+    }
+}
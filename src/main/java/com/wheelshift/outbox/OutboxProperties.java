@@ -0,0 +1,48 @@
+package com.wheelshift.outbox;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Delivery of the domain events in the outbox ({@code wheelshift.outbox.*}).
+ */
+@Data
+@ConfigurationProperties(prefix = "wheelshift.outbox")
+public class OutboxProperties {
+
+    /** Events handed to a consumer at once. */
+    private int batchSize = 200;
+
+    /** Batches delivered to one consumer per poll before moving on to the next. */
+    private int maxBatchesPerPoll = 10;
+
+    /**
+     * How long a consumer keeps reading an id it moved past before its event
+     * was committed. Ids are taken when a transaction inserts its events, not
+     * when it commits, so this bounds how long a transaction may run after
+     * writing events; a rolled back one leaves its ids missing for good.
+     */
+    private Duration gapTimeout = Duration.ofMinutes(10);
+
+    /** How long a node delivers to a consumer before another node may take over. */
+    private Duration lease = Duration.ofSeconds(30);
+
+    /** Deliveries of one event before it is skipped. */
+    private int maxAttempts = 8;
+
+    /** Wait after the first failed delivery, doubled after each further one. */
+    private Duration retryBackoff = Duration.ofSeconds(1);
+
+    private Duration maxRetryBackoff = Duration.ofMinutes(5);
+
+    /** Delivered events are deleted this long after they were raised. */
+    private Duration retention = Duration.ofDays(7);
+
+    /**
+     * The rows of consumers no running node has, such as the broadcasters of
+     * nodes that died, are deleted once their lease has run out this long.
+     */
+    private Duration abandonAfter = Duration.ofDays(1);
+}
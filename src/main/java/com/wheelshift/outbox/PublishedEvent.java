@@ -0,0 +1,11 @@
+package com.wheelshift.outbox;
+
+import com.wheelshift.events.DomainEvent;
+
+import java.time.LocalDateTime;
+
+/**
+ * A domain event as read back from the outbox, with its position in it.
+ */
+public record PublishedEvent(long sequence, String tenantId, LocalDateTime raisedAt, DomainEvent event) {
+}
@@ -1,5 +1,7 @@
 package com.wheelshift.projection;
 
+import com.wheelshift.model.CarStatus;
+
 import java.math.BigDecimal;
 
 public interface CarBasicDetails {
@@ -8,7 +10,7 @@ public interface CarBasicDetails {
     String getRegistrationNumber();
     String getColor();
     Integer getYear();
-    String getCurrentStatus();
+    CarStatus getCurrentStatus();
     BigDecimal getMileage();
     BigDecimal getEngineCapacity();
     CarModelInfo getCarModel();
@@ -0,0 +1,51 @@
+package com.wheelshift.repository;
+
+import com.wheelshift.model.CarCostSummary;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Profit reports over the cars sold in a date range. Every group query
+ * returns the group, the number of cars, revenue, total cost and profit.
+ */
+@Repository
+public interface CarCostSummaryRepository extends JpaRepository<CarCostSummary, Long> {
+
+    @Query("SELECT SUM(s.salePrice), SUM(s.totalCost) FROM CarCostSummary s " +
+           "WHERE s.saleDate BETWEEN :startDate AND :endDate")
+    List<Object[]> getRevenueAndCost(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+
+    @Query("SELECT CAST(AVG(s.profit) AS BigDecimal) FROM CarCostSummary s WHERE s.profit IS NOT NULL")
+    BigDecimal getAverageProfit();
+
+    @Query("SELECT m.make, COUNT(s), SUM(s.salePrice), SUM(s.totalCost), SUM(s.profit) " +
+           "FROM CarCostSummary s JOIN CarModel m ON m.id = s.carModelId " +
+           "WHERE s.saleDate BETWEEN :startDate AND :endDate " +
+           "GROUP BY m.make")
+    List<Object[]> getProfitByMake(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+
+    @Query("SELECT CONCAT(m.make, ' ', m.model), COUNT(s), SUM(s.salePrice), SUM(s.totalCost), SUM(s.profit) " +
+           "FROM CarCostSummary s JOIN CarModel m ON m.id = s.carModelId " +
+           "WHERE s.saleDate BETWEEN :startDate AND :endDate " +
+           "GROUP BY m.make, m.model")
+    List<Object[]> getProfitByModel(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+
+    @Query("SELECT YEAR(s.saleDate) * 100 + MONTH(s.saleDate), " +
+           "COUNT(s), SUM(s.salePrice), SUM(s.totalCost), SUM(s.profit) " +
+           "FROM CarCostSummary s " +
+           "WHERE s.saleDate BETWEEN :startDate AND :endDate " +
+           "GROUP BY YEAR(s.saleDate) * 100 + MONTH(s.saleDate)")
+    List<Object[]> getProfitByMonth(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+
+    @Query("SELECT e.name, COUNT(s), SUM(s.salePrice), SUM(s.totalCost), SUM(s.profit) " +
+           "FROM CarCostSummary s JOIN Employee e ON e.id = s.soldById " +
+           "WHERE s.saleDate BETWEEN :startDate AND :endDate " +
+           "GROUP BY e.id, e.name")
+    List<Object[]> getProfitByEmployee(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+}
@@ -7,6 +7,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -14,6 +15,8 @@ public interface CarInspectionRepository extends JpaRepository<CarInspection, Lo
     
     List<CarInspection> findByCar(Car car);
     
+    List<CarInspection> findByCar_IdInOrderByInspectionDateDescIdDesc(Collection<Long> carIds);
+    
     List<CarInspection> findByCarVinNumber(String vinNumber);
     
     List<CarInspection> findByInspectionDateBetween(LocalDate startDate, LocalDate endDate);
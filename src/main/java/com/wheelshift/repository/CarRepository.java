@@ -1,10 +1,13 @@
 package com.wheelshift.repository;
 
 import com.wheelshift.model.Car;
+import com.wheelshift.model.CarStatus;
 import com.wheelshift.projection.CarBasicDetails;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
@@ -13,69 +16,116 @@ import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface CarRepository extends JpaRepository<Car, Long>, JpaSpecificationExecutor<Car> {
+public interface CarRepository extends JpaRepository<Car, Long>, JpaSpecificationExecutor<Car>, CarRepositoryCustom {
+
+    // Every query that returns a list of cars uses the Car.listing graph so the per-car
+    // one-to-ones come back in the same select
+    String LISTING = "Car.listing";
+
+    @Override
+    @EntityGraph(LISTING)
+    List<Car> findAll();
+
+    @Override
+    @EntityGraph(LISTING)
+    Page<Car> findAll(Pageable pageable);
+
+    @Override
+    @EntityGraph(LISTING)
+    Page<Car> findAll(Specification<Car> spec, Pageable pageable);
+
+    @EntityGraph(LISTING)
+    List<Car> findByIdIn(Collection<Long> ids);
 
     // Basic queries by car properties
     Optional<Car> findByVinNumber(String vinNumber);
     
     Optional<Car> findByRegistrationNumber(String registrationNumber);
     
+    @EntityGraph(LISTING)
     List<Car> findByYear(Integer year);
     
+    @EntityGraph(LISTING)
     List<Car> findByColor(String color);
     
-    List<Car> findByCurrentStatus(String status);
+    @EntityGraph(LISTING)
+    List<Car> findByCurrentStatus(CarStatus status);
+
+    @EntityGraph(LISTING)
+    List<Car> findByCurrentStatus(CarStatus status, Pageable pageable);
+
+    // A page without the count query of findAll(Pageable)
+    @EntityGraph(LISTING)
+    List<Car> findAllBy(Pageable pageable);
     
+    @EntityGraph(LISTING)
     @Query("SELECT c FROM Car c")
     List<CarBasicDetails> findAllCarBasicDetails();
     
+    @EntityGraph(LISTING)
     @Query("SELECT c FROM Car c")
     Page<CarBasicDetails> findAllCarBasicDetails(Pageable pageable);
     
     // Queries by model properties
+    @EntityGraph(LISTING)
     List<Car> findByCarModel_Make(String make);
     
+    @EntityGraph(LISTING)
     List<Car> findByCarModel_Model(String model);
     
+    @EntityGraph(LISTING)
     List<Car> findByCarModel_MakeAndCarModel_Model(String make, String model);
     
+    @EntityGraph(LISTING)
     List<Car> findByCarModel_Variant(String variant);
     
+    @EntityGraph(LISTING)
     List<Car> findByCarModel_FuelType(String fuelType);
     
+    @EntityGraph(LISTING)
     List<Car> findByCarModel_BodyType(String bodyType);
     
+    @EntityGraph(LISTING)
     List<Car> findByCarModel_TransmissionType(String transmissionType);
     
     // Combined property queries
+    @EntityGraph(LISTING)
     List<Car> findByCarModel_MakeAndYear(String make, Integer year);
     
+    @EntityGraph(LISTING)
     List<Car> findByCarModel_MakeAndCarModel_ModelAndYear(String make, String model, Integer year);
     
     // Range queries
+    @EntityGraph(LISTING)
     List<Car> findByMileageBetween(BigDecimal minMileage, BigDecimal maxMileage);
     
+    @EntityGraph(LISTING)
     List<Car> findByPurchasePriceBetween(BigDecimal minPrice, BigDecimal maxPrice);
     
+    @EntityGraph(LISTING)
     List<Car> findBySellingPriceBetween(BigDecimal minPrice, BigDecimal maxPrice);
     
+    @EntityGraph(LISTING)
     List<Car> findByPurchaseDateBetween(LocalDate startDate, LocalDate endDate);
     
     // Location queries
+    @EntityGraph(LISTING)
     List<Car> findByStorageLocation_Id(Long locationId);
     
+    @EntityGraph(LISTING)
     List<Car> findByStorageLocation_Name(String locationName);
     
     // Advanced statistics queries
     @Query("SELECT COUNT(c) FROM Car c WHERE c.currentStatus = :status")
-    Long countByStatus(@Param("status") String status);
+    Long countByStatus(@Param("status") CarStatus status);
     
-    @Query("SELECT AVG(c.sellingPrice - c.purchasePrice) FROM Car c JOIN c.sale s")
-    BigDecimal getAverageProfitMargin();
+    @Query("SELECT c.currentStatus, COUNT(c) FROM Car c GROUP BY c.currentStatus")
+    List<Object[]> getCountByStatus();
     
     @Query("SELECT c.carModel.make, COUNT(c) FROM Car c GROUP BY c.carModel.make ORDER BY COUNT(c) DESC")
     List<Object[]> getInventoryByMake();
@@ -89,13 +139,14 @@ public interface CarRepository extends JpaRepository<Car, Long>, JpaSpecificatio
     @Query("SELECT MONTH(c.purchaseDate), COUNT(c) FROM Car c WHERE YEAR(c.purchaseDate) = :year GROUP BY MONTH(c.purchaseDate) ORDER BY MONTH(c.purchaseDate)")
     List<Object[]> getCarPurchaseCountByMonth(@Param("year") Integer year);
     
-    @Query("SELECT AVG(c.mileage) FROM Car c WHERE c.currentStatus = 'available'")
-    BigDecimal getAverageMileageOfAvailableCars();
+    @Query("SELECT CAST(AVG(c.mileage) AS BigDecimal) FROM Car c WHERE c.currentStatus = :status")
+    BigDecimal getAverageMileageByStatus(@Param("status") CarStatus status);
     
-    @Query("SELECT c.carModel.make, c.carModel.model, AVG(c.mileage) FROM Car c GROUP BY c.carModel.make, c.carModel.model")
+    @Query("SELECT c.carModel.make, c.carModel.model, CAST(AVG(c.mileage) AS BigDecimal) FROM Car c GROUP BY c.carModel.make, c.carModel.model")
     List<Object[]> getAverageMileageByModel();
     
     // Full text search
+    @EntityGraph(LISTING)
     @Query("SELECT c FROM Car c WHERE " +
            "LOWER(c.vinNumber) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
            "LOWER(c.registrationNumber) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
@@ -106,9 +157,9 @@ public interface CarRepository extends JpaRepository<Car, Long>, JpaSpecificatio
     Page<Car> searchCars(@Param("searchTerm") String searchTerm, Pageable pageable);
     
     // Inventory turnover queries
-    @Query("SELECT AVG(DATEDIFF(s.saleDate, c.purchaseDate)) FROM Car c JOIN c.sale s")
+    @Query("SELECT AVG((s.saleDate - c.purchaseDate) by day) FROM Car c JOIN c.sale s")
     Double getAverageDaysToSell();
     
-    @Query("SELECT c.carModel.make, AVG(DATEDIFF(s.saleDate, c.purchaseDate)) FROM Car c JOIN c.sale s GROUP BY c.carModel.make")
+    @Query("SELECT c.carModel.make, AVG((s.saleDate - c.purchaseDate) by day) FROM Car c JOIN c.sale s GROUP BY c.carModel.make")
     List<Object[]> getAverageDaysToSellByMake();
 }
\ No newline at end of file
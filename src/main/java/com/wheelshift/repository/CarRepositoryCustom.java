@@ -0,0 +1,13 @@
+package com.wheelshift.repository;
+
+import com.wheelshift.model.Car;
+
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+
+public interface CarRepositoryCustom {
+
+    // Ids only, for narrowing down in-memory indexes without loading the cars
+    List<Long> findIdsBy(Specification<Car> spec);
+}
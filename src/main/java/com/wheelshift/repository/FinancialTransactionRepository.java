@@ -56,30 +56,6 @@ public interface FinancialTransactionRepository extends JpaRepository<FinancialT
             Pageable pageable);
     
     // Statistics queries
-    @Query("SELECT SUM(t.amount) FROM FinancialTransaction t WHERE t.transactionType = :transactionType")
-    BigDecimal getTotalAmountByType(@Param("transactionType") String transactionType);
-    
-    @Query("SELECT SUM(t.amount) FROM FinancialTransaction t " +
-           "WHERE t.transactionDate BETWEEN :startDate AND :endDate")
-    BigDecimal getTotalAmountInDateRange(
-            @Param("startDate") LocalDate startDate, 
-            @Param("endDate") LocalDate endDate);
-    
-    @Query("SELECT t.transactionType, SUM(t.amount) " +
-           "FROM FinancialTransaction t " +
-           "GROUP BY t.transactionType " +
-           "ORDER BY SUM(t.amount) DESC")
-    List<Object[]> getTotalAmountByTransactionType();
-    
-    @Query("SELECT FUNCTION('YEAR', t.transactionDate) as year, " +
-           "FUNCTION('MONTH', t.transactionDate) as month, " +
-           "SUM(t.amount) as total " +
-           "FROM FinancialTransaction t " +
-           "WHERE t.transactionType = :transactionType " +
-           "GROUP BY FUNCTION('YEAR', t.transactionDate), FUNCTION('MONTH', t.transactionDate) " +
-           "ORDER BY year, month")
-    List<Object[]> getMonthlyTotalByType(@Param("transactionType") String transactionType);
-    
     @Query("SELECT t.vendorName, COUNT(t), SUM(t.amount) " +
            "FROM FinancialTransaction t " +
            "WHERE t.vendorName IS NOT NULL " +
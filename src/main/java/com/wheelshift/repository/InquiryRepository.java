@@ -9,6 +9,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -16,12 +17,16 @@ public interface InquiryRepository extends JpaRepository<Inquiry, Long> {
     
     List<Inquiry> findByCar(Car car);
     
+    List<Inquiry> findByCar_IdIn(Collection<Long> carIds);
+    
     List<Inquiry> findByStatus(String status);
     
     List<Inquiry> findByAssignedEmployee(Employee employee);
     
     List<Inquiry> findByClient(Client client);
     
+    List<Inquiry> findByClient_IdIn(Collection<Long> clientIds);
+    
     List<Inquiry> findByClientEmailContainingIgnoreCase(String email);
     
     List<Inquiry> findByClientNameContainingIgnoreCase(String name);
@@ -0,0 +1,66 @@
+package com.wheelshift.repository;
+
+import com.wheelshift.model.JobLease;
+
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface JobLeaseRepository extends JpaRepository<JobLease, Long> {
+
+    List<JobLease> findByJobNameOrderByPartitionNo(String jobName);
+
+    List<JobLease> findAllByOrderByJobNameAscPartitionNoAsc();
+
+    Optional<JobLease> findByJobNameAndPartitionNo(String jobName, Integer partitionNo);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT l FROM JobLease l WHERE l.jobName = :jobName ORDER BY l.partitionNo")
+    List<JobLease> lockByJobName(@Param("jobName") String jobName);
+
+    /**
+     * Atomically takes a partition for the given run. Succeeds (returns 1) only if the
+     * partition was planned for this run, has not completed it, and nobody holds a live lease.
+     */
+    @Modifying
+    @Query("UPDATE JobLease l SET l.owner = :owner, l.leaseUntil = :leaseUntil, l.lastStartedAt = :now " +
+           "WHERE l.jobName = :jobName AND l.partitionNo = :partitionNo " +
+           "AND l.plannedRunKey = :runKey " +
+           "AND (l.completedRunKey IS NULL OR l.completedRunKey <> :runKey) " +
+           "AND (l.leaseUntil IS NULL OR l.leaseUntil < :now)")
+    int claim(@Param("jobName") String jobName, @Param("partitionNo") Integer partitionNo,
+              @Param("runKey") String runKey, @Param("owner") String owner,
+              @Param("now") LocalDateTime now, @Param("leaseUntil") LocalDateTime leaseUntil);
+
+    /**
+     * Extends a lease the owner still holds; returns 0 once another node has taken it.
+     */
+    @Modifying
+    @Query("UPDATE JobLease l SET l.leaseUntil = :leaseUntil " +
+           "WHERE l.jobName = :jobName AND l.partitionNo = :partitionNo AND l.owner = :owner")
+    int renew(@Param("jobName") String jobName, @Param("partitionNo") Integer partitionNo,
+              @Param("owner") String owner, @Param("leaseUntil") LocalDateTime leaseUntil);
+
+    @Modifying
+    @Query("UPDATE JobLease l SET l.completedRunKey = :runKey, l.owner = NULL, l.leaseUntil = NULL, " +
+           "l.lastFinishedAt = :now, l.lastDurationMs = :durationMs, l.lastRowsProcessed = :rows, l.lastError = NULL " +
+           "WHERE l.jobName = :jobName AND l.partitionNo = :partitionNo AND l.owner = :owner")
+    int complete(@Param("jobName") String jobName, @Param("partitionNo") Integer partitionNo,
+                 @Param("runKey") String runKey, @Param("owner") String owner, @Param("now") LocalDateTime now,
+                 @Param("durationMs") Long durationMs, @Param("rows") Long rows);
+
+    @Modifying
+    @Query("UPDATE JobLease l SET l.owner = NULL, l.leaseUntil = NULL, l.lastFinishedAt = :now, l.lastError = :error " +
+           "WHERE l.jobName = :jobName AND l.partitionNo = :partitionNo AND l.owner = :owner")
+    int release(@Param("jobName") String jobName, @Param("partitionNo") Integer partitionNo,
+                @Param("owner") String owner, @Param("now") LocalDateTime now, @Param("error") String error);
+}
@@ -5,6 +5,7 @@ import com.wheelshift.model.Client;
 import com.wheelshift.model.Reservation;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
@@ -33,6 +34,16 @@ public interface ReservationRepository extends JpaRepository<Reservation, Long>
     
     List<Reservation> findByCarIdAndStatus(Long carId, String status);
     
+    @Query("SELECT r FROM Reservation r WHERE r.status = :status AND r.expiryDate < :cutoffDate " +
+           "AND r.id >= :fromId AND r.id < :toId")
+    List<Reservation> findByStatusAndExpiryDateBeforeInIdRange(@Param("status") String status,
+                                                               @Param("cutoffDate") LocalDateTime cutoffDate,
+                                                               @Param("fromId") Long fromId,
+                                                               @Param("toId") Long toId);
+    
+    @Query("SELECT MIN(r.id), MAX(r.id) FROM Reservation r")
+    List<Object[]> findIdBounds();
+    
     @Query("SELECT r FROM Reservation r WHERE r.car.id = :carId AND r.status = 'ACTIVE'")
     List<Reservation> findActiveReservationsByCar(Long carId);
     
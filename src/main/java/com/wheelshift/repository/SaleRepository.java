@@ -1,5 +1,6 @@
 package com.wheelshift.repository;
 
+import com.wheelshift.model.Money;
 import com.wheelshift.model.Sale;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -9,6 +10,7 @@ import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -19,10 +21,12 @@ public interface SaleRepository extends JpaRepository<Sale, Long> {
     List<Sale> findBySaleDateBetween(LocalDate startDate, LocalDate endDate);
     
     List<Sale> findByClientId(Long clientId);
+
+    List<Sale> findByClient_IdIn(Collection<Long> clientIds);
     
     List<Sale> findByHandledById(Long employeeId);
     
-    List<Sale> findBySalePriceBetween(BigDecimal minPrice, BigDecimal maxPrice);
+    List<Sale> findBySalePriceBetween(Money minPrice, Money maxPrice);
     
     @Query("SELECT s FROM Sale s ORDER BY s.salePrice DESC")
     List<Sale> findTopSalesByPrice(Pageable pageable);
@@ -83,7 +87,7 @@ public interface SaleRepository extends JpaRepository<Sale, Long> {
     List<Object[]> findTopSellingCarModels(Pageable pageable);
     
     // Query for finding average time from car purchase to sale
-    @Query("SELECT AVG(DATEDIFF(s.saleDate, s.car.purchaseDate)) " +
+    @Query("SELECT AVG((s.saleDate - s.car.purchaseDate) by day) " +
            "FROM Sale s " +
            "WHERE s.car.purchaseDate IS NOT NULL")
     Double findAverageDaysFromPurchaseToSale();
@@ -2,7 +2,9 @@ package com.wheelshift.repository;
 
 import com.wheelshift.model.StorageLocation;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -22,6 +24,17 @@ public interface StorageLocationRepository extends JpaRepository<StorageLocation
     @Query("SELECT s FROM StorageLocation s WHERE (s.totalCapacity - s.currentVehicleCount) >= :requiredSpace")
     List<StorageLocation> findLocationsWithCapacityAtLeast(Integer requiredSpace);
     
+    // Reconciliation of the denormalized vehicle count
+    @Modifying
+    @Query("UPDATE StorageLocation s SET s.currentVehicleCount = " +
+           "(SELECT COUNT(c) FROM Car c WHERE c.storageLocation.id = s.id) " +
+           "WHERE s.id >= :fromId AND s.id < :toId AND (s.currentVehicleCount IS NULL OR s.currentVehicleCount <> " +
+           "(SELECT COUNT(c2) FROM Car c2 WHERE c2.storageLocation.id = s.id))")
+    int reconcileVehicleCounts(@Param("fromId") Long fromId, @Param("toId") Long toId);
+    
+    @Query("SELECT MIN(s.id), MAX(s.id) FROM StorageLocation s")
+    List<Object[]> findIdBounds();
+    
     // Statistics queries
     @Query("SELECT COUNT(s) FROM StorageLocation s WHERE s.currentVehicleCount = 0")
     Long countEmptyLocations();
@@ -1,6 +1,7 @@
 package com.wheelshift.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
@@ -18,4 +19,8 @@ public interface TaskPositionRepository extends JpaRepository<TaskPosition, Long
     
     @Query("SELECT MAX(tp.position) FROM TaskPosition tp WHERE tp.column = ?1")
     Integer findMaxPositionInColumn(KanbanColumn column);
+
+    @Modifying
+    @Query("UPDATE TaskPosition tp SET tp.position = tp.position - 1 WHERE tp.column = ?1 AND tp.position > ?2")
+    int closeGapAfter(KanbanColumn column, int position);
 }
\ No newline at end of file
@@ -2,6 +2,7 @@ package com.wheelshift.repository.spec;
 
 import com.wheelshift.model.Car;
 import com.wheelshift.model.CarModel;
+import com.wheelshift.model.CarStatus;
 import jakarta.persistence.criteria.Join;
 import jakarta.persistence.criteria.JoinType;
 import jakarta.persistence.criteria.Root;
@@ -27,7 +28,8 @@ public class CarSpecification {
             if (status == null || status.trim().isEmpty()) {
                 return null;
             }
-            return cb.equal(cb.lower(root.get("currentStatus")), status.toLowerCase());
+            // Plain equality on the stored code so idx_car_status can be used
+            return cb.equal(root.get("currentStatus"), CarStatus.fromString(status));
         };
     }
     
@@ -0,0 +1,62 @@
+package com.wheelshift.routing;
+
+import com.wheelshift.versioning.Aggregate;
+import com.wheelshift.versioning.ConditionalGet;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+/**
+ * Records the aggregates a handler's response is tagged with, from its
+ * {@link ConditionalGet}, while the handler runs. {@link ReplicaRouter} only
+ * reads those from a replica that has all of their versions, so the body
+ * matches the tag; the rest of the handler's reads may lag by the configured
+ * maximum. Outside such a handler nothing is recorded.
+ */
+public class ReadDependencies implements AsyncHandlerInterceptor {
+
+    private static final ThreadLocal<Aggregate[]> CURRENT = new ThreadLocal<>();
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (handler instanceof HandlerMethod handlerMethod) {
+            ConditionalGet conditionalGet = handlerMethod.getMethodAnnotation(ConditionalGet.class);
+            if (conditionalGet == null) {
+                conditionalGet = AnnotatedElementUtils.findMergedAnnotation(handlerMethod.getBeanType(),
+                        ConditionalGet.class);
+            }
+            if (conditionalGet != null && conditionalGet.value().length > 0) {
+                CURRENT.set(conditionalGet.value());
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response,
+                                               Object handler) {
+        end();
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        end();
+    }
+
+    static void begin(Aggregate... aggregates) {
+        CURRENT.set(aggregates);
+    }
+
+    static void end() {
+        CURRENT.remove();
+    }
+
+    /** The aggregates the current handler's response depends on, or null when not known. */
+    static Aggregate[] current() {
+        return CURRENT.get();
+    }
+}
@@ -0,0 +1,51 @@
+package com.wheelshift.routing;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Keeps a request on the primary once it has run a read-write transaction, so
+ * it reads back what it wrote however far the replicas lag. Outside a request
+ * nothing is tracked and every read-only transaction may use a replica.
+ */
+public class ReadYourWrites extends OncePerRequestFilter {
+
+    // Present while a request is being handled, true once it has written
+    private static final ThreadLocal<boolean[]> WROTE = new ThreadLocal<>();
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        begin();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            end();
+        }
+    }
+
+    static void begin() {
+        WROTE.set(new boolean[1]);
+    }
+
+    static void end() {
+        WROTE.remove();
+    }
+
+    static void markWritten() {
+        boolean[] wrote = WROTE.get();
+        if (wrote != null) {
+            wrote[0] = true;
+        }
+    }
+
+    static boolean hasWritten() {
+        boolean[] wrote = WROTE.get();
+        return wrote != null && wrote[0];
+    }
+}
@@ -0,0 +1,270 @@
+package com.wheelshift.routing;
+
+import com.wheelshift.versioning.Aggregate;
+import com.wheelshift.versioning.ChangeVersions;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Sends read-only transactions to a read replica and everything else to the
+ * primary.
+ *
+ * A replica only gets reads while it is close enough behind this node,
+ * judged by the change versions (see {@link ChangeVersions}) replicated to its
+ * {@code aggregate_versions}. Replication applies transactions in commit
+ * order, so a replica at a version also has the data written before it.
+ * <ul>
+ *   <li>The aggregates a conditional GET is tagged with ({@link ReadDependencies})
+ *   must be at the version this node knows of, so a fresh ETag is never paired
+ *   with a stale body.</li>
+ *   <li>Every other aggregate may lag by up to the configured maximum: the
+ *   replica must have reached a version this node knew of no longer than that
+ *   ago, or the one it knows now.</li>
+ * </ul>
+ * The replica's versions are read on a schedule, while the node's move forward
+ * with every commit, so the maximum lag should be a few check intervals for
+ * replicas to stay in use under a steady stream of writes; zero sends every
+ * read to the primary from a write until a later check finds it on the replica.
+ *
+ * Reads outside a transaction, and read-only transactions in a request that
+ * has already run a read-write one ({@link ReadYourWrites}), go to the primary
+ * as well. A replica that refuses a connection is skipped until its next
+ * successful check.
+ */
+@Slf4j
+public class ReplicaRouter implements DisposableBean {
+
+    private static final String SELECT_VERSIONS = "SELECT aggregate, version FROM aggregate_versions";
+    private static final Aggregate[] AGGREGATES = Aggregate.values();
+
+    private final DataSource primary;
+    private final List<Replica> replicas = new ArrayList<>();
+    private final Supplier<ChangeVersions> changeVersions;
+    private final long maxLagMillis;
+    private final AtomicInteger nextReplica = new AtomicInteger();
+
+    /**
+     * The change versions are looked up on first use, as they are read through
+     * the data source this router provides.
+     */
+    public ReplicaRouter(DataSource primary, Map<String, DataSource> replicas, Supplier<ChangeVersions> changeVersions,
+                         Duration maxLag) {
+        this.primary = primary;
+        replicas.forEach((name, dataSource) -> this.replicas.add(new Replica(name, dataSource)));
+        this.changeVersions = changeVersions;
+        this.maxLagMillis = maxLag.toMillis();
+    }
+
+    /**
+     * The routing data source. Connections are only obtained on the first
+     * statement, once the transaction's read-only flag is known.
+     */
+    public DataSource dataSource() {
+        return new LazyConnectionDataSourceProxy(new RoutingDataSource());
+    }
+
+    /* ===== Routing ===== */
+
+    /**
+     * The replica the current transaction should read from, or null for the
+     * primary.
+     */
+    Replica route() {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            return null;
+        }
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            ReadYourWrites.markWritten();
+            return null;
+        }
+        if (ReadYourWrites.hasWritten() || replicas.isEmpty()) {
+            return null;
+        }
+        ChangeVersions versions = changeVersions.get();
+        Aggregate[] dependencies = ReadDependencies.current();
+        long reachedSince = System.currentTimeMillis() - maxLagMillis;
+        int first = nextReplica.getAndIncrement();
+        for (int i = 0; i < replicas.size(); i++) {
+            Replica replica = replicas.get(Math.floorMod(first + i, replicas.size()));
+            if (replica.canServe(versions, dependencies, reachedSince)) {
+                return replica;
+            }
+        }
+        return null;
+    }
+
+    /* ===== Replica checks ===== */
+
+    @Scheduled(fixedDelayString = "${wheelshift.datasource.routing.check-interval-ms:1000}")
+    public void checkReplicas() {
+        replicas.forEach(Replica::check);
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        for (Replica replica : replicas) {
+            close(replica.dataSource);
+        }
+        close(primary);
+    }
+
+    private static void close(DataSource dataSource) throws Exception {
+        if (dataSource instanceof AutoCloseable closeable) {
+            closeable.close();
+        }
+    }
+
+    final class Replica {
+
+        private final String name;
+        private final DataSource dataSource;
+        private final JdbcTemplate jdbcTemplate;
+        // Indexed by ordinal, -1 for a missing row, null while unreachable or not yet checked
+        private volatile long[] versions;
+        // Indexed by ordinal, when this node knew of the latest version the replica has reached
+        private volatile long[] reachedAt = new long[AGGREGATES.length];
+        // This node's versions as of the previous check, for replicas that catch up in between
+        private long[] previousKnown;
+        private long previousCheckAt;
+
+        Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+            this.jdbcTemplate = new JdbcTemplate(dataSource);
+            this.jdbcTemplate.setQueryTimeout(2);
+        }
+
+        String name() {
+            return name;
+        }
+
+        /**
+         * Whether the replica has the versions of the given aggregates this
+         * node knows of, and has reached versions of the others this node knew
+         * of at {@code reachedSince} or later. Without dependencies every
+         * aggregate may lag.
+         */
+        boolean canServe(ChangeVersions changeVersions, Aggregate[] dependencies, long reachedSince) {
+            long[] seen = versions;
+            if (seen == null) {
+                return false;
+            }
+            long[] reached = reachedAt;
+            for (Aggregate aggregate : AGGREGATES) {
+                ChangeVersions.Version known = changeVersions.current(aggregate);
+                if (known == null) {
+                    return false;
+                }
+                if (seen[aggregate.ordinal()] >= known.version()) {
+                    continue;
+                }
+                if (contains(dependencies, aggregate) || reached[aggregate.ordinal()] < reachedSince) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        synchronized void check() {
+            long checkedAt = System.currentTimeMillis();
+            // Taken before the replica is read, so anything it has reached was known at checkedAt
+            long[] known = knownVersions(changeVersions.get());
+            long[] seen = new long[AGGREGATES.length];
+            Arrays.fill(seen, -1);
+            try {
+                jdbcTemplate.query(SELECT_VERSIONS, rs -> {
+                    try {
+                        seen[Aggregate.valueOf(rs.getString(1)).ordinal()] = rs.getLong(2);
+                    } catch (IllegalArgumentException e) {
+                        // Written by a newer build
+                    }
+                });
+            } catch (DataAccessException e) {
+                markDown(e);
+                return;
+            }
+            long[] reached = reachedAt.clone();
+            for (int i = 0; i < seen.length; i++) {
+                if (known[i] >= 0 && seen[i] >= known[i]) {
+                    reached[i] = checkedAt;
+                } else if (previousKnown != null && previousKnown[i] >= 0 && seen[i] >= previousKnown[i]) {
+                    reached[i] = Math.max(reached[i], previousCheckAt);
+                }
+            }
+            previousKnown = known;
+            previousCheckAt = checkedAt;
+            if (versions == null) {
+                log.info("Replica {} is available for reads once it has caught up", name);
+            }
+            reachedAt = reached;
+            versions = seen;
+        }
+
+        void markDown(Exception cause) {
+            if (versions != null) {
+                log.warn("Replica {} is unavailable, reading from the primary: {}", name, cause.toString());
+            }
+            versions = null;
+        }
+    }
+
+    private static long[] knownVersions(ChangeVersions changeVersions) {
+        long[] known = new long[AGGREGATES.length];
+        for (Aggregate aggregate : AGGREGATES) {
+            ChangeVersions.Version version = changeVersions.current(aggregate);
+            known[aggregate.ordinal()] = version == null ? -1 : version.version();
+        }
+        return known;
+    }
+
+    private static boolean contains(Aggregate[] aggregates, Aggregate aggregate) {
+        if (aggregates == null) {
+            return false;
+        }
+        for (Aggregate candidate : aggregates) {
+            if (candidate == aggregate) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private final class RoutingDataSource extends AbstractDataSource {
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            Replica replica = route();
+            if (replica != null) {
+                try {
+                    return replica.dataSource.getConnection();
+                } catch (SQLException e) {
+                    replica.markDown(e);
+                }
+            }
+            return primary.getConnection();
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            throw new SQLException("Credentials are configured per database, not per connection");
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.wheelshift.routing;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Read replicas ({@code wheelshift.datasource.routing.*}). Routing is only set
+ * up when at least one replica is configured; the primary stays the one in
+ * {@code spring.datasource.*}. Replica pools take the primary's driver and
+ * {@code spring.datasource.hikari.*} settings.
+ */
+@Data
+@ConfigurationProperties(prefix = "wheelshift.datasource.routing")
+public class ReplicaRoutingProperties {
+
+    private List<Replica> replicas = new ArrayList<>();
+
+    /** How often each replica's change versions are read to decide whether it has caught up. */
+    private long checkIntervalMs = 1000;
+
+    /**
+     * How far behind this node a replica may be for reads that do not back an
+     * ETag. Zero keeps every read on the primary from a write until a check
+     * finds it on the replica.
+     */
+    private Duration maxLag = Duration.ofSeconds(5);
+
+    @Data
+    public static class Replica {
+
+        private String url;
+
+        private String username;
+
+        private String password;
+    }
+}
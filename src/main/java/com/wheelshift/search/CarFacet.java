@@ -0,0 +1,52 @@
+package com.wheelshift.search;
+
+import java.util.Locale;
+
+/**
+ * Car attributes kept in the {@link CarFacetIndex}. The field name is what the
+ * facet is called in responses and matches the {@code CarSearchCriteria} property
+ * that filters on it, except for the year which is filtered by range and counted
+ * in buckets.
+ */
+public enum CarFacet {
+    MAKE("make", true),
+    MODEL("model", true),
+    BODY_TYPE("bodyType", true),
+    FUEL_TYPE("fuelType", true),
+    TRANSMISSION_TYPE("transmissionType", true),
+    COLOR("color", true),
+    STATUS("status", false),
+    LOCATION("location", false),
+    YEAR("yearBucket", false);
+
+    private final String field;
+    private final boolean caseInsensitive;
+
+    CarFacet(String field, boolean caseInsensitive) {
+        this.field = field;
+        this.caseInsensitive = caseInsensitive;
+    }
+
+    public String getField() {
+        return field;
+    }
+
+    /**
+     * Whether the value comes from the car's model rather than the car itself,
+     * so it changes for every car of a model when the model is edited.
+     */
+    public boolean isModelAttribute() {
+        return ordinal() <= TRANSMISSION_TYPE.ordinal();
+    }
+
+    /**
+     * Key the value is indexed under. String attributes are matched ignoring
+     * case, the same way {@code CarSpecification} compares them.
+     */
+    String key(String value) {
+        if (value == null) {
+            return null;
+        }
+        return caseInsensitive ? value.toLowerCase(Locale.ROOT) : value;
+    }
+}
@@ -0,0 +1,61 @@
+package com.wheelshift.search;
+
+import com.wheelshift.model.Car;
+import com.wheelshift.model.CarModel;
+import com.wheelshift.model.CarStatus;
+
+/**
+ * The attributes of one car that the facet index needs, captured when the car
+ * is written so they can be applied once the transaction has committed.
+ */
+record CarFacetEntry(long id, String tenantId, Integer modelId, String make, String model, String bodyType, String fuelType,
+        String transmissionType, String color, CarStatus status, Long locationId, String locationName,
+        Integer year) {
+
+    static CarFacetEntry of(Car car) {
+        CarModel carModel = car.getCarModel();
+        CarFacetEntry modelEntry = carModel == null ? ofModel(new CarModel()) : ofModel(carModel);
+        return new CarFacetEntry(car.getId(), car.getTenantId(), modelEntry.modelId(), modelEntry.make(), modelEntry.model(),
+                modelEntry.bodyType(), modelEntry.fuelType(), modelEntry.transmissionType(), car.getColor(),
+                car.getCurrentStatus(),
+                car.getStorageLocation() == null ? null : car.getStorageLocation().getId(),
+                car.getStorageLocation() == null ? null : car.getStorageLocation().getName(),
+                car.getYear());
+    }
+
+    /**
+     * Entry carrying only the model attributes, used to re-index every car of an
+     * edited model.
+     */
+    static CarFacetEntry ofModel(CarModel carModel) {
+        return new CarFacetEntry(0, null, carModel.getId(), carModel.getMake(), carModel.getModel(), carModel.getBodyType(),
+                carModel.getFuelType(), carModel.getTransmissionType(), null, null, null, null, null);
+    }
+
+    CarFacetEntry withModel(CarFacetEntry modelEntry) {
+        return new CarFacetEntry(id, tenantId, modelEntry.modelId(), modelEntry.make(), modelEntry.model(), modelEntry.bodyType(),
+                modelEntry.fuelType(), modelEntry.transmissionType(), color, status, locationId, locationName, year);
+    }
+
+    String value(CarFacet facet) {
+        return switch (facet) {
+            case MAKE -> make;
+            case MODEL -> model;
+            case BODY_TYPE -> bodyType;
+            case FUEL_TYPE -> fuelType;
+            case TRANSMISSION_TYPE -> transmissionType;
+            case COLOR -> color;
+            case STATUS -> status == null ? null : status.name();
+            case LOCATION -> locationId == null ? null : locationId.toString();
+            case YEAR -> year == null ? null : year.toString();
+        };
+    }
+
+    /**
+     * Display name of the value, or {@code null} if it is not known here (a car
+     * saved with a location reference that only carries the id).
+     */
+    String label(CarFacet facet) {
+        return facet == CarFacet.LOCATION ? locationName : value(facet);
+    }
+}
@@ -0,0 +1,528 @@
+package com.wheelshift.search;
+
+import com.wheelshift.dto.CarFacetResult.FacetValue;
+import com.wheelshift.dto.CarSearchCriteria;
+import com.wheelshift.model.CarStatus;
+import com.wheelshift.tenancy.TenantContext;
+
+import org.roaringbitmap.BatchIterator;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * In-memory bitmap index over the car attributes offered as filters on the
+ * inventory page. Every distinct value of a {@link CarFacet} has a compressed
+ * bitmap of the ids of the cars that have it, so the facet part of a
+ * {@link CarSearchCriteria} resolves to a handful of bitmap ORs and ANDs, and the
+ * counts for every facet come out of the same intersections instead of one
+ * GROUP BY per filter.
+ *
+ * The index is loaded from the database on first use and rebuilt on a schedule.
+ * In between it follows car and car model writes made through JPA, which
+ * {@link CarIndexListener} applies once their transaction has committed.
+ * Writes that bypass JPA (bulk SQL, the dataset generator) only show up after
+ * the next rebuild.
+ *
+ * Searches only see the cars of the current tenant (see {@link TenantContext}),
+ * which each keep a bitmap of their own to start the intersections from.
+ */
+@Component
+public class CarFacetIndex extends RebuildableCarIndex<CarFacetIndex.Segment> {
+
+    private static final String SELECT_CARS = "SELECT c.id, c.model_id, m.make, m.model, m.body_type, m.fuel_type, "
+            + "m.transmission_type, c.color, c.status_code, c.location_id, l.name, c.year, c.tenant_id FROM cars c "
+            + "JOIN car_models m ON m.id = c.model_id LEFT JOIN storage_locations l ON l.id = c.location_id "
+            + "WHERE c.id >= ? AND c.id <= ?";
+    private static final String SELECT_MODEL =
+            "SELECT make, model, body_type, fuel_type, transmission_type FROM car_models WHERE id = ?";
+    // Rough number of ids that can be walked in the time it takes to intersect one
+    // 65536-id container, used to pick between counting strategies
+    private static final long IDS_PER_CONTAINER_INTERSECTION = 512;
+    private static final int WALK_BATCH = 256;
+    private static final CarFacet[] FACETS = CarFacet.values();
+    private static final Comparator<FacetValue> BY_COUNT = Comparator.comparingLong(FacetValue::getCount).reversed()
+            .thenComparing(FacetValue::getLabel);
+
+    private final int yearBucketSize;
+
+    public CarFacetIndex(JdbcTemplate jdbcTemplate,
+                         @Value("${wheelshift.search.facets.year-bucket-size:5}") int yearBucketSize) {
+        super(jdbcTemplate);
+        if (yearBucketSize < 1) {
+            throw new IllegalArgumentException("Year bucket size must be at least 1");
+        }
+        this.yearBucketSize = yearBucketSize;
+    }
+
+    /**
+     * Page of matching car ids plus the counts for every facet.
+     */
+    public record Result(List<Long> ids, long total, Map<String, List<FacetValue>> facets) {
+    }
+
+    /* ===== Queries ===== */
+
+    /**
+     * Applies the facet criteria (make, model, body type, fuel type, transmission,
+     * color, status, location and year range) and counts every facet in the same
+     * pass. Each facet is counted with all filters but its own applied, so the
+     * counts next to a filter show what choosing one of its values would return.
+     *
+     * @param restrictTo ids matching the criteria this index cannot answer (price,
+     *                   mileage and purchase date ranges, free text), or {@code null} if there are none
+     */
+    public Result search(CarSearchCriteria criteria, RoaringBitmap restrictTo, long offset, int limit,
+                         boolean descending) {
+        return read(current -> {
+            RoaringBitmap base = base(current, restrictTo);
+
+            String[] selectedKeys = new String[FACETS.length];
+            RoaringBitmap[] filters = filters(current, criteria, selectedKeys, true);
+
+            RoaringBitmap matches = intersect(base, filters, null, current.all);
+            long[][] counts = new long[FACETS.length][];
+            // Facets without a filter of their own are all counted over the matches, so facets that
+            // share a scope are walked together
+            Map<RoaringBitmap, List<CarFacet>> walks = new IdentityHashMap<>();
+            for (CarFacet facet : FACETS) {
+                RoaringBitmap scope = filters[facet.ordinal()] == null ? matches : intersect(base, filters, facet, current.all);
+                counts[facet.ordinal()] = current.countByIntersection(facet, scope, scope == current.all);
+                if (counts[facet.ordinal()] == null) {
+                    walks.computeIfAbsent(scope, key -> new ArrayList<>()).add(facet);
+                }
+            }
+            walks.forEach((scope, walked) -> current.countByWalking(scope, walked, counts));
+
+            Map<String, List<FacetValue>> facets = new LinkedHashMap<>();
+            for (CarFacet facet : FACETS) {
+                Dictionary dictionary = current.dictionaries[facet.ordinal()];
+                facets.put(facet.getField(), facet == CarFacet.YEAR
+                        ? yearBuckets(dictionary, counts[facet.ordinal()], criteria)
+                        : values(dictionary, counts[facet.ordinal()], selectedKeys[facet.ordinal()]));
+            }
+            return new Result(page(matches, offset, limit, descending), matches.getLongCardinality(), facets);
+        });
+    }
+
+    /**
+     * Applies the facet criteria other than the year range, without counting.
+     * The year is left to {@code restrictTo}, which the {@link CarRangeIndex}
+     * answers more cheaply than a union of year bitmaps.
+     */
+    public Result match(CarSearchCriteria criteria, RoaringBitmap restrictTo, long offset, int limit,
+                        boolean descending) {
+        return read(current -> {
+            RoaringBitmap base = base(current, restrictTo);
+            RoaringBitmap[] filters = filters(current, criteria, new String[FACETS.length], false);
+            RoaringBitmap matches = intersect(base, filters, null, current.all);
+            return new Result(page(matches, offset, limit, descending), matches.getLongCardinality(), Map.of());
+        });
+    }
+
+    public static RoaringBitmap toBitmap(List<Long> carIds) {
+        RoaringBitmap bitmap = new RoaringBitmap();
+        for (Long carId : carIds) {
+            bitmap.add(toPosition(carId));
+        }
+        return bitmap;
+    }
+
+    private static RoaringBitmap base(Segment current, RoaringBitmap restrictTo) {
+        RoaringBitmap tenantCars = current.carsOf(TenantContext.current());
+        return restrictTo == null ? tenantCars : RoaringBitmap.and(tenantCars, restrictTo);
+    }
+
+    private static RoaringBitmap[] filters(Segment current, CarSearchCriteria criteria, String[] selectedKeys,
+                                           boolean includeYear) {
+        RoaringBitmap[] filters = new RoaringBitmap[FACETS.length];
+        for (CarFacet facet : FACETS) {
+            if (facet == CarFacet.YEAR) {
+                if (includeYear) {
+                    filters[facet.ordinal()] = current.yearFilter(criteria.getYearFrom(), criteria.getYearTo());
+                }
+            } else {
+                selectedKeys[facet.ordinal()] = facet.key(criterion(facet, criteria));
+                filters[facet.ordinal()] = current.valueFilter(facet, selectedKeys[facet.ordinal()]);
+            }
+        }
+        return filters;
+    }
+
+    private static String criterion(CarFacet facet, CarSearchCriteria criteria) {
+        String value = switch (facet) {
+            case MAKE -> criteria.getMake();
+            case MODEL -> criteria.getModel();
+            case BODY_TYPE -> criteria.getBodyType();
+            case FUEL_TYPE -> criteria.getFuelType();
+            case TRANSMISSION_TYPE -> criteria.getTransmissionType();
+            case COLOR -> criteria.getColor();
+            case STATUS -> criteria.getStatus();
+            case LOCATION -> criteria.getLocationId() == null ? null : criteria.getLocationId().toString();
+            case YEAR -> null;
+        };
+        if (value == null || value.trim().isEmpty()) {
+            return null;
+        }
+        return facet == CarFacet.STATUS ? CarStatus.fromString(value).name() : value;
+    }
+
+    private static RoaringBitmap intersect(RoaringBitmap base, RoaringBitmap[] filters, CarFacet except,
+                                           RoaringBitmap everything) {
+        RoaringBitmap result = base;
+        for (int i = 0; i < filters.length; i++) {
+            if (filters[i] != null && (except == null || i != except.ordinal())) {
+                // Value bitmaps are subsets of all cars, so the first one needs no copy
+                result = result == everything ? filters[i] : RoaringBitmap.and(result, filters[i]);
+            }
+        }
+        return result;
+    }
+
+    private static List<FacetValue> values(Dictionary dictionary, long[] counts, String selectedKey) {
+        List<FacetValue> values = new ArrayList<>();
+        for (int i = 0; i < counts.length; i++) {
+            boolean selected = dictionary.keys.get(i).equals(selectedKey);
+            if (counts[i] > 0 || selected) {
+                values.add(new FacetValue(dictionary.values.get(i), dictionary.labels.get(i), counts[i], selected));
+            }
+        }
+        values.sort(BY_COUNT);
+        return values;
+    }
+
+    private List<FacetValue> yearBuckets(Dictionary dictionary, long[] counts, CarSearchCriteria criteria) {
+        Map<Integer, Long> buckets = new TreeMap<>(Comparator.reverseOrder());
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] > 0) {
+                int year = Integer.parseInt(dictionary.keys.get(i));
+                buckets.merge(year - Math.floorMod(year, yearBucketSize), counts[i], Long::sum);
+            }
+        }
+        Integer from = criteria.getYearFrom();
+        Integer to = criteria.getYearTo();
+        List<FacetValue> values = new ArrayList<>();
+        buckets.forEach((start, count) -> {
+            int end = start + yearBucketSize - 1;
+            String label = yearBucketSize == 1 ? String.valueOf(start) : start + "-" + end;
+            boolean selected = (from != null || to != null) && (from == null || end >= from) && (to == null || start <= to);
+            values.add(new FacetValue(label, label, count, selected));
+        });
+        return values;
+    }
+
+    private static List<Long> page(RoaringBitmap matches, long offset, int limit, boolean descending) {
+        long total = matches.getLongCardinality();
+        long end = Math.min(total, offset + limit);
+        List<Long> ids = new ArrayList<>();
+        for (long i = offset; i < end; i++) {
+            long rank = descending ? total - 1 - i : i;
+            ids.add(Integer.toUnsignedLong(matches.select((int) rank)));
+        }
+        return ids;
+    }
+
+    /* ===== Maintenance ===== */
+
+    void upsert(CarFacetEntry entry) {
+        // A car created with a model reference that only carries the id
+        CarFacetEntry complete = entry.make() == null && entry.modelId() != null ? withModel(entry) : entry;
+        apply(current -> current.upsert(complete));
+    }
+
+    void remove(long carId) {
+        apply(current -> current.remove(toPosition(carId)));
+    }
+
+    void updateModel(CarFacetEntry modelEntry) {
+        apply(current -> current.updateModel(modelEntry));
+    }
+
+    /**
+     * Picks up writes that bypassed JPA.
+     */
+    @Scheduled(cron = "${wheelshift.search.facets.rebuild-cron:0 0 * * * *}")
+    public void scheduledRebuild() {
+        rebuildIfLoaded();
+    }
+
+    @Override
+    protected Segment load() {
+        Segment loaded = new Segment();
+        queryInIdChunks(SELECT_CARS, rs -> loaded.upsert(mapRow(rs)));
+        loaded.optimize();
+        return loaded;
+    }
+
+    @Override
+    protected long size(Segment snapshot) {
+        return snapshot.all.getLongCardinality();
+    }
+
+    private CarFacetEntry withModel(CarFacetEntry entry) {
+        List<CarFacetEntry> models = jdbcTemplate.query(SELECT_MODEL, (rs, rowNum) -> new CarFacetEntry(0, null,
+                entry.modelId(), rs.getString(1), rs.getString(2), rs.getString(3), rs.getString(4), rs.getString(5),
+                null, null, null, null, null), entry.modelId());
+        return models.isEmpty() ? entry : entry.withModel(models.get(0));
+    }
+
+    private static CarFacetEntry mapRow(ResultSet rs) throws SQLException {
+        long locationId = rs.getLong(10);
+        return new CarFacetEntry(rs.getLong(1), rs.getString(13), rs.getInt(2), rs.getString(3), rs.getString(4), rs.getString(5),
+                rs.getString(6), rs.getString(7), rs.getString(8), CarStatus.fromCode(rs.getInt(9)),
+                rs.wasNull() ? null : locationId, rs.getString(11), rs.getInt(12));
+    }
+
+    /* ===== Storage ===== */
+
+    /**
+     * One facet's distinct values, each with its bitmap of car ids. Ordinals are
+     * never reused; a value that no car has any more keeps an empty bitmap until
+     * the next rebuild.
+     */
+    private static final class Dictionary {
+
+        private final Map<String, Integer> ordinalsByKey = new HashMap<>();
+        private final List<String> keys = new ArrayList<>();
+        private final List<String> values = new ArrayList<>();
+        private final List<String> labels = new ArrayList<>();
+        private final List<RoaringBitmap> bitmaps = new ArrayList<>();
+
+        int ordinal(String key, String value, String label) {
+            Integer ordinal = ordinalsByKey.get(key);
+            if (ordinal == null) {
+                ordinal = keys.size();
+                ordinalsByKey.put(key, ordinal);
+                keys.add(key);
+                values.add(value);
+                labels.add(label == null ? value : label);
+                bitmaps.add(new RoaringBitmap());
+            } else if (label != null) {
+                // Keeps up with renamed locations
+                labels.set(ordinal, label);
+            }
+            return ordinal;
+        }
+
+        RoaringBitmap bitmap(String key) {
+            Integer ordinal = ordinalsByKey.get(key);
+            return ordinal == null ? new RoaringBitmap() : bitmaps.get(ordinal);
+        }
+
+        int size() {
+            return keys.size();
+        }
+    }
+
+    static final class Segment {
+
+        private final Dictionary[] dictionaries = new Dictionary[FACETS.length];
+        private final RoaringBitmap all = new RoaringBitmap();
+        private final Map<Integer, RoaringBitmap> carsByModel = new HashMap<>();
+        private final Map<String, RoaringBitmap> carsByTenant = new HashMap<>();
+        // Per facet, the value ordinal of every car indexed by car id (-1 for none)
+        private final int[][] ordinals = new int[FACETS.length][0];
+        private int[] models = new int[0];
+        private String[] tenants = new String[0];
+
+        Segment() {
+            for (int i = 0; i < dictionaries.length; i++) {
+                dictionaries[i] = new Dictionary();
+            }
+        }
+
+        /**
+         * Every car for the root tenant, otherwise the tenant's own.
+         */
+        RoaringBitmap carsOf(String tenant) {
+            if (TenantContext.ROOT.equals(tenant)) {
+                return all;
+            }
+            RoaringBitmap cars = carsByTenant.get(tenant);
+            return cars == null ? new RoaringBitmap() : cars;
+        }
+
+        RoaringBitmap valueFilter(CarFacet facet, String key) {
+            return key == null ? null : dictionaries[facet.ordinal()].bitmap(key);
+        }
+
+        RoaringBitmap yearFilter(Integer from, Integer to) {
+            if (from == null && to == null) {
+                return null;
+            }
+            Dictionary years = dictionaries[CarFacet.YEAR.ordinal()];
+            List<RoaringBitmap> inRange = new ArrayList<>();
+            for (int i = 0; i < years.size(); i++) {
+                int year = Integer.parseInt(years.keys.get(i));
+                if ((from == null || year >= from) && (to == null || year <= to)) {
+                    inRange.add(years.bitmaps.get(i));
+                }
+            }
+            return RoaringBitmap.or(inRange.iterator());
+        }
+
+        /**
+         * Counts a facet straight from its value bitmaps, or returns {@code null}
+         * when walking the scope is expected to be cheaper.
+         */
+        long[] countByIntersection(CarFacet facet, RoaringBitmap scope, boolean everything) {
+            Dictionary dictionary = dictionaries[facet.ordinal()];
+            long[] counts = new long[dictionary.size()];
+            if (everything) {
+                for (int i = 0; i < counts.length; i++) {
+                    counts[i] = dictionary.bitmaps.get(i).getLongCardinality();
+                }
+                return counts;
+            }
+            if (scope.isEmpty()) {
+                return counts;
+            }
+            // Intersecting costs about one container operation per value per 65536 ids spanned by the
+            // scope, walking the scope costs one array read per id; small scopes are cheaper to walk
+            long containers = (Integer.toUnsignedLong(scope.last()) >>> 16) - (Integer.toUnsignedLong(scope.first()) >>> 16) + 1;
+            if (scope.getLongCardinality() <= containers * counts.length * IDS_PER_CONTAINER_INTERSECTION) {
+                return null;
+            }
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] = RoaringBitmap.andCardinality(scope, dictionary.bitmaps.get(i));
+            }
+            return counts;
+        }
+
+        /**
+         * Counts several facets that share a scope in one walk over it, reading
+         * each car's value ordinals a batch of ids at a time.
+         */
+        void countByWalking(RoaringBitmap scope, List<CarFacet> facets, long[][] counts) {
+            int[][] columns = new int[facets.size()][];
+            long[][] targets = new long[facets.size()][];
+            for (int c = 0; c < columns.length; c++) {
+                CarFacet facet = facets.get(c);
+                columns[c] = ordinals[facet.ordinal()];
+                targets[c] = new long[dictionaries[facet.ordinal()].size()];
+                counts[facet.ordinal()] = targets[c];
+            }
+            int[] batch = new int[WALK_BATCH];
+            BatchIterator ids = scope.getBatchIterator();
+            while (ids.hasNext()) {
+                int size = ids.nextBatch(batch);
+                for (int c = 0; c < columns.length; c++) {
+                    int[] column = columns[c];
+                    long[] target = targets[c];
+                    for (int i = 0; i < size; i++) {
+                        int ordinal = column[batch[i]];
+                        if (ordinal >= 0) {
+                            target[ordinal]++;
+                        }
+                    }
+                }
+            }
+        }
+
+        void upsert(CarFacetEntry entry) {
+            int id = toPosition(entry.id());
+            ensureCapacity(id);
+            if (all.contains(id)) {
+                carsByModel.get(models[id]).remove(id);
+                leaveTenant(id);
+            }
+            all.add(id);
+            models[id] = entry.modelId() == null ? 0 : entry.modelId();
+            carsByModel.computeIfAbsent(models[id], modelId -> new RoaringBitmap()).add(id);
+            tenants[id] = entry.tenantId();
+            if (tenants[id] != null) {
+                carsByTenant.computeIfAbsent(tenants[id], tenant -> new RoaringBitmap()).add(id);
+            }
+            for (CarFacet facet : FACETS) {
+                assign(facet, id, entry.value(facet), entry.label(facet));
+            }
+        }
+
+        void remove(int id) {
+            if (!all.contains(id)) {
+                return;
+            }
+            for (CarFacet facet : FACETS) {
+                assign(facet, id, null, null);
+            }
+            carsByModel.get(models[id]).remove(id);
+            leaveTenant(id);
+            all.remove(id);
+        }
+
+        void updateModel(CarFacetEntry modelEntry) {
+            RoaringBitmap cars = carsByModel.get(modelEntry.modelId());
+            if (cars == null) {
+                return;
+            }
+            for (int id : cars) {
+                for (CarFacet facet : FACETS) {
+                    if (facet.isModelAttribute()) {
+                        assign(facet, id, modelEntry.value(facet), modelEntry.label(facet));
+                    }
+                }
+            }
+        }
+
+        void optimize() {
+            all.runOptimize();
+            carsByModel.values().forEach(RoaringBitmap::runOptimize);
+            carsByTenant.values().forEach(RoaringBitmap::runOptimize);
+            for (Dictionary dictionary : dictionaries) {
+                dictionary.bitmaps.forEach(RoaringBitmap::runOptimize);
+            }
+        }
+
+        private void leaveTenant(int id) {
+            if (tenants[id] != null) {
+                carsByTenant.get(tenants[id]).remove(id);
+                tenants[id] = null;
+            }
+        }
+
+        private void assign(CarFacet facet, int id, String value, String label) {
+            Dictionary dictionary = dictionaries[facet.ordinal()];
+            int[] column = ordinals[facet.ordinal()];
+            int previous = column[id];
+            int next = value == null ? -1 : dictionary.ordinal(facet.key(value), value, label);
+            if (previous == next) {
+                return;
+            }
+            if (previous >= 0) {
+                dictionary.bitmaps.get(previous).remove(id);
+            }
+            if (next >= 0) {
+                dictionary.bitmaps.get(next).add(id);
+            }
+            column[id] = next;
+        }
+
+        private void ensureCapacity(int id) {
+            if (id < models.length) {
+                return;
+            }
+            int capacity = (int) Math.min(MAX_CAR_ID + 1, Math.max(id + 1L, models.length * 3L / 2));
+            for (int i = 0; i < ordinals.length; i++) {
+                int previousLength = ordinals[i].length;
+                ordinals[i] = Arrays.copyOf(ordinals[i], capacity);
+                Arrays.fill(ordinals[i], previousLength, capacity, -1);
+            }
+            models = Arrays.copyOf(models, capacity);
+            tenants = Arrays.copyOf(tenants, capacity);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.wheelshift.search;
+
+import com.wheelshift.model.Car;
+import com.wheelshift.model.CarModel;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Entity listener on {@link Car} and {@link CarModel} that keeps the
+ * {@link CarFacetIndex} and {@link CarRangeIndex} in step with JPA writes.
+ * Hibernate obtains it from the Spring bean factory, which supplies the indexes.
+ * The car's attributes are captured when the event fires and applied only after
+ * the surrounding transaction commits, so rolled back writes never reach the
+ * indexes.
+ */
+public class CarIndexListener {
+
+    private final CarFacetIndex carFacetIndex;
+    private final CarRangeIndex carRangeIndex;
+
+    public CarIndexListener(CarFacetIndex carFacetIndex, CarRangeIndex carRangeIndex) {
+        this.carFacetIndex = carFacetIndex;
+        this.carRangeIndex = carRangeIndex;
+    }
+
+    @PostPersist
+    @PostUpdate
+    public void saved(Object entity) {
+        if (entity instanceof Car car) {
+            CarFacetEntry facetEntry = CarFacetEntry.of(car);
+            CarRangeEntry rangeEntry = CarRangeEntry.of(car);
+            afterCommit(() -> {
+                carFacetIndex.upsert(facetEntry);
+                carRangeIndex.upsert(rangeEntry);
+            });
+        } else if (entity instanceof CarModel carModel) {
+            CarFacetEntry modelEntry = CarFacetEntry.ofModel(carModel);
+            afterCommit(() -> carFacetIndex.updateModel(modelEntry));
+        }
+    }
+
+    @PostRemove
+    public void removed(Object entity) {
+        if (entity instanceof Car car) {
+            long carId = car.getId();
+            afterCommit(() -> {
+                carFacetIndex.remove(carId);
+                carRangeIndex.remove(carId);
+            });
+        }
+    }
+
+    private static void afterCommit(Runnable change) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            change.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                change.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,52 @@
+package com.wheelshift.search;
+
+import com.wheelshift.model.Car;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+
+/**
+ * The numeric attributes of one car that the range index needs, already in
+ * the index's representation: selling price and mileage in hundredths, the
+ * purchase date as an epoch day. {@code null} means the car has no value.
+ */
+record CarRangeEntry(long id, Long sellingPrice, Long mileage, Long year, Long purchaseDate) {
+
+    private static final BigDecimal MIN_FIXED_POINT = BigDecimal.valueOf(Long.MIN_VALUE);
+    private static final BigDecimal MAX_FIXED_POINT = BigDecimal.valueOf(Long.MAX_VALUE);
+
+    static CarRangeEntry of(Car car) {
+        return new CarRangeEntry(car.getId(), stored(car.getSellingPrice()), stored(car.getMileage()),
+                car.getYear() == null ? null : car.getYear().longValue(), epochDay(car.getPurchaseDate()));
+    }
+
+    Long value(CarRangeIndex.Column column) {
+        return switch (column) {
+            case SELLING_PRICE -> sellingPrice;
+            case MILEAGE -> mileage;
+            case YEAR -> year;
+            case PURCHASE_DATE -> purchaseDate;
+        };
+    }
+
+    /**
+     * A DECIMAL(38,2) value the way the database stores it, in hundredths.
+     */
+    static Long stored(BigDecimal value) {
+        return value == null ? null : fixedPoint(value, RoundingMode.HALF_UP);
+    }
+
+    static Long epochDay(LocalDate date) {
+        return date == null ? null : date.toEpochDay();
+    }
+
+    /**
+     * Scales a decimal to hundredths. Values beyond the range of a long saturate,
+     * which only matters for amounts no car will ever have.
+     */
+    static long fixedPoint(BigDecimal value, RoundingMode rounding) {
+        BigDecimal scaled = value.movePointRight(2).setScale(0, rounding);
+        return scaled.max(MIN_FIXED_POINT).min(MAX_FIXED_POINT).longValue();
+    }
+}
@@ -0,0 +1,423 @@
+package com.wheelshift.search;
+
+import com.wheelshift.dto.CarSearchCriteria;
+
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * In-memory columnar index over the numeric range criteria of a car search:
+ * selling price, mileage, year and purchase date. Each column is a pair of
+ * primitive arrays, the values in ascending order and the car ids in the same
+ * order, so a range resolves to two binary searches and a slice of ids. Prices
+ * and mileage are held as fixed-point hundredths, the scale of their DECIMAL
+ * columns, and purchase dates as epoch days. Several ranges are intersected as
+ * bitmaps, narrowest first.
+ *
+ * Writes leave the sorted arrays alone: the car's old entry is marked stale and
+ * its new value kept in a small per-column overlay that queries consult
+ * alongside the slice. Once the overlay outgrows a fraction of the column it is
+ * merged back into the arrays. Like {@link CarFacetIndex}, the index follows
+ * JPA writes through {@link CarIndexListener} and picks up anything else at
+ * the next scheduled rebuild.
+ */
+@Component
+public class CarRangeIndex extends RebuildableCarIndex<CarRangeIndex.Columns> {
+
+    private static final String SELECT_CARS =
+            "SELECT id, selling_price, mileage, year, purchase_date FROM cars WHERE id >= ? AND id <= ?";
+    private static final Column[] COLUMNS = Column.values();
+    // The overlay of a column is merged once it holds more than this many cars, or more
+    // than 1/MERGE_FRACTION of the column if that is larger
+    private static final int MIN_MERGE_THRESHOLD = 1024;
+    private static final int MERGE_FRACTION = 256;
+
+    enum Column {
+        SELLING_PRICE, MILEAGE, YEAR, PURCHASE_DATE
+    }
+
+    public CarRangeIndex(JdbcTemplate jdbcTemplate) {
+        super(jdbcTemplate);
+    }
+
+    /* ===== Queries ===== */
+
+    /**
+     * Ids of the cars matching every range criterion that is set, or
+     * {@code null} if none is. Bounds are inclusive, as in the SQL search.
+     *
+     * @param includeYear whether to apply the year range too; the facet index
+     *                    answers it on its own
+     */
+    public RoaringBitmap filter(CarSearchCriteria criteria, boolean includeYear) {
+        long[][] bounds = new long[COLUMNS.length][];
+        bounds[Column.SELLING_PRICE.ordinal()] = decimalBounds(criteria.getMinPrice(), criteria.getMaxPrice());
+        bounds[Column.MILEAGE.ordinal()] = decimalBounds(criteria.getMinMileage(), criteria.getMaxMileage());
+        if (includeYear) {
+            bounds[Column.YEAR.ordinal()] = bounds(toLong(criteria.getYearFrom()), toLong(criteria.getYearTo()));
+        }
+        bounds[Column.PURCHASE_DATE.ordinal()] = bounds(CarRangeEntry.epochDay(criteria.getPurchaseDateFrom()),
+                CarRangeEntry.epochDay(criteria.getPurchaseDateTo()));
+        if (Arrays.stream(bounds).allMatch(range -> range == null)) {
+            return null;
+        }
+
+        return read(current -> {
+            Integer[] order = new Integer[COLUMNS.length];
+            long[] estimates = new long[COLUMNS.length];
+            int ranges = 0;
+            for (int c = 0; c < COLUMNS.length; c++) {
+                if (bounds[c] != null) {
+                    estimates[c] = current.columns[c].estimate(bounds[c][0], bounds[c][1]);
+                    order[ranges++] = c;
+                }
+            }
+            Arrays.sort(order, 0, ranges, Comparator.comparingLong(c -> estimates[c]));
+
+            RoaringBitmap result = null;
+            for (int i = 0; i < ranges && (result == null || !result.isEmpty()); i++) {
+                SortedColumn column = current.columns[order[i]];
+                RoaringBitmap matches = column.range(bounds[order[i]][0], bounds[order[i]][1]);
+                result = result == null ? matches : RoaringBitmap.and(result, matches);
+            }
+            return result;
+        });
+    }
+
+    private static long[] decimalBounds(BigDecimal min, BigDecimal max) {
+        return bounds(min == null ? null : CarRangeEntry.fixedPoint(min, RoundingMode.CEILING),
+                max == null ? null : CarRangeEntry.fixedPoint(max, RoundingMode.FLOOR));
+    }
+
+    private static long[] bounds(Long from, Long to) {
+        if (from == null && to == null) {
+            return null;
+        }
+        return new long[] {from == null ? Long.MIN_VALUE : from, to == null ? Long.MAX_VALUE : to};
+    }
+
+    private static Long toLong(Integer value) {
+        return value == null ? null : value.longValue();
+    }
+
+    /* ===== Maintenance ===== */
+
+    void upsert(CarRangeEntry entry) {
+        apply(current -> current.upsert(entry));
+    }
+
+    void remove(long carId) {
+        apply(current -> current.remove(toPosition(carId)));
+    }
+
+    /**
+     * Picks up writes that bypassed JPA.
+     */
+    @Scheduled(cron = "${wheelshift.search.ranges.rebuild-cron:0 0 * * * *}")
+    public void scheduledRebuild() {
+        rebuildIfLoaded();
+    }
+
+    @Override
+    protected Columns load() {
+        ColumnBuilder[] builders = new ColumnBuilder[COLUMNS.length];
+        for (int c = 0; c < builders.length; c++) {
+            builders[c] = new ColumnBuilder();
+        }
+        RoaringBitmap all = new RoaringBitmap();
+        queryInIdChunks(SELECT_CARS, rs -> {
+            CarRangeEntry entry = mapRow(rs);
+            int id = toPosition(entry.id());
+            all.add(id);
+            for (Column column : COLUMNS) {
+                builders[column.ordinal()].add(entry.value(column), id);
+            }
+        });
+        all.runOptimize();
+        return new Columns(all, builders);
+    }
+
+    @Override
+    protected long size(Columns snapshot) {
+        return snapshot.all.getLongCardinality();
+    }
+
+    private static CarRangeEntry mapRow(ResultSet rs) throws SQLException {
+        int year = rs.getInt(4);
+        Long storedYear = rs.wasNull() ? null : (long) year;
+        return new CarRangeEntry(rs.getLong(1), CarRangeEntry.stored(rs.getBigDecimal(2)),
+                CarRangeEntry.stored(rs.getBigDecimal(3)), storedYear,
+                CarRangeEntry.epochDay(rs.getObject(5, LocalDate.class)));
+    }
+
+    /* ===== Storage ===== */
+
+    static final class Columns {
+
+        private final RoaringBitmap all;
+        private final SortedColumn[] columns = new SortedColumn[COLUMNS.length];
+
+        Columns(RoaringBitmap all, ColumnBuilder[] builders) {
+            this.all = all;
+            for (int c = 0; c < columns.length; c++) {
+                columns[c] = builders[c].build();
+            }
+        }
+
+        void upsert(CarRangeEntry entry) {
+            int id = toPosition(entry.id());
+            all.add(id);
+            for (Column column : COLUMNS) {
+                columns[column.ordinal()].put(id, entry.value(column));
+            }
+        }
+
+        void remove(int id) {
+            if (!all.contains(id)) {
+                return;
+            }
+            all.remove(id);
+            for (SortedColumn column : columns) {
+                column.put(id, null);
+            }
+        }
+    }
+
+    private static final class ColumnBuilder {
+
+        private long[] values = new long[1024];
+        private int[] ids = new int[1024];
+        private int size;
+
+        void add(Long value, int id) {
+            if (value == null) {
+                return;
+            }
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            values[size] = value;
+            ids[size++] = id;
+        }
+
+        SortedColumn build() {
+            return new SortedColumn(values, ids, size);
+        }
+    }
+
+    /**
+     * One column: values ascending with ties in id order, the car ids alongside,
+     * and the overlay of changes not merged in yet.
+     */
+    static final class SortedColumn {
+
+        private long[] values;
+        private int[] ids;
+        private int size;
+        // Cars with an entry in the arrays, whether or not it is still current
+        private RoaringBitmap present;
+        // Cars whose entry in the arrays is out of date; their value is in the overlay
+        private final RoaringBitmap stale = new RoaringBitmap();
+        // Current value of stale cars and of cars added since the last merge, null for none
+        private final Map<Integer, Long> overlay = new HashMap<>();
+
+        SortedColumn(long[] values, int[] ids, int size) {
+            // Ids arrive in ascending order, so a stable sort leaves ties in id order
+            sortByValue(values, ids, size);
+            this.values = values;
+            this.ids = ids;
+            this.size = size;
+            this.present = RoaringBitmap.bitmapOfUnordered(Arrays.copyOf(ids, size));
+            this.present.runOptimize();
+        }
+
+        /**
+         * Upper bound on the number of cars in the range, for ordering intersections.
+         */
+        long estimate(long from, long to) {
+            return Math.max(0, upperBound(to) - lowerBound(from)) + overlay.size();
+        }
+
+        RoaringBitmap range(long from, long to) {
+            if (from > to) {
+                return new RoaringBitmap();
+            }
+            int start = lowerBound(from);
+            int end = upperBound(to);
+            RoaringBitmap result;
+            if (end - start <= size / 2) {
+                result = RoaringBitmap.bitmapOfUnordered(Arrays.copyOfRange(ids, start, end));
+            } else {
+                // A wide range is cheaper to build from the ids outside it
+                int[] outside = new int[size - (end - start)];
+                System.arraycopy(ids, 0, outside, 0, start);
+                System.arraycopy(ids, end, outside, start, size - end);
+                result = RoaringBitmap.andNot(present, RoaringBitmap.bitmapOfUnordered(outside));
+            }
+            if (!overlay.isEmpty()) {
+                result.andNot(stale);
+                overlay.forEach((id, value) -> {
+                    if (value != null && value >= from && value <= to) {
+                        result.add(id);
+                    }
+                });
+            }
+            return result;
+        }
+
+        void put(int id, Long value) {
+            if (present.contains(id)) {
+                if (!stale.contains(id)) {
+                    if (value != null && holds(id, value)) {
+                        return;
+                    }
+                    stale.add(id);
+                }
+                overlay.put(id, value);
+            } else if (value == null) {
+                overlay.remove(id);
+            } else {
+                overlay.put(id, value);
+            }
+            if (overlay.size() > Math.max(MIN_MERGE_THRESHOLD, size / MERGE_FRACTION)) {
+                merge();
+            }
+        }
+
+        private boolean holds(int id, long value) {
+            return Arrays.binarySearch(ids, lowerBound(value), upperBound(value), id) >= 0;
+        }
+
+        /**
+         * Folds the overlay into the sorted arrays, dropping stale entries.
+         */
+        void merge() {
+            int[] addedIds = overlay.entrySet().stream()
+                    .filter(entry -> entry.getValue() != null)
+                    .mapToInt(Map.Entry::getKey)
+                    .sorted()
+                    .toArray();
+            long[] addedValues = new long[addedIds.length];
+            for (int i = 0; i < addedIds.length; i++) {
+                addedValues[i] = overlay.get(addedIds[i]);
+            }
+            sortByValue(addedValues, addedIds, addedIds.length);
+
+            int mergedSize = size - stale.getCardinality() + addedIds.length;
+            long[] mergedValues = new long[mergedSize];
+            int[] mergedIds = new int[mergedSize];
+            int i = 0;
+            int j = 0;
+            int k = 0;
+            while (i < size || j < addedIds.length) {
+                if (i < size && stale.contains(ids[i])) {
+                    i++;
+                } else if (j == addedIds.length || (i < size && (values[i] < addedValues[j]
+                        || (values[i] == addedValues[j] && ids[i] < addedIds[j])))) {
+                    mergedValues[k] = values[i];
+                    mergedIds[k++] = ids[i++];
+                } else {
+                    mergedValues[k] = addedValues[j];
+                    mergedIds[k++] = addedIds[j++];
+                }
+            }
+
+            present.andNot(stale);
+            present.add(addedIds);
+            present.runOptimize();
+            values = mergedValues;
+            ids = mergedIds;
+            size = mergedSize;
+            stale.clear();
+            overlay.clear();
+        }
+
+        // First position holding a value >= from
+        private int lowerBound(long from) {
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (values[mid] < from) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        // First position holding a value > to
+        private int upperBound(long to) {
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (values[mid] <= to) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        /**
+         * Stable bottom-up merge sort of the first {@code size} values, carrying
+         * the ids along.
+         */
+        private static void sortByValue(long[] values, int[] ids, int size) {
+            boolean sorted = true;
+            for (int i = 1; i < size && sorted; i++) {
+                sorted = values[i - 1] <= values[i];
+            }
+            if (sorted) {
+                return;
+            }
+            long[] fromValues = values;
+            int[] fromIds = ids;
+            long[] toValues = new long[size];
+            int[] toIds = new int[size];
+            for (int width = 1; width < size; width <<= 1) {
+                for (int low = 0; low < size; low += width << 1) {
+                    int mid = Math.min(low + width, size);
+                    int high = Math.min(low + (width << 1), size);
+                    int i = low;
+                    int j = mid;
+                    for (int k = low; k < high; k++) {
+                        if (i < mid && (j == high || fromValues[i] <= fromValues[j])) {
+                            toValues[k] = fromValues[i];
+                            toIds[k] = fromIds[i++];
+                        } else {
+                            toValues[k] = fromValues[j];
+                            toIds[k] = fromIds[j++];
+                        }
+                    }
+                }
+                long[] swapValues = fromValues;
+                fromValues = toValues;
+                toValues = swapValues;
+                int[] swapIds = fromIds;
+                fromIds = toIds;
+                toIds = swapIds;
+            }
+            if (fromValues != values) {
+                System.arraycopy(fromValues, 0, values, 0, size);
+                System.arraycopy(fromIds, 0, ids, 0, size);
+            }
+        }
+    }
+}
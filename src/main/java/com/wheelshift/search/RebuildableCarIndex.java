@@ -0,0 +1,165 @@
+package com.wheelshift.search;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Common lifecycle of the in-memory car indexes. The index contents live in a
+ * snapshot that is loaded from the database on first use and replaced by
+ * {@link #rebuild()}. Incremental changes are applied under a write lock and
+ * queries run under the read lock. Changes committed while a rebuild is
+ * loading are recorded and replayed onto the new snapshot before it is
+ * swapped in, so they are not lost whichever side of the load they landed on.
+ *
+ * @param <S> the snapshot type, only ever touched while holding the lock
+ */
+@Slf4j
+abstract class RebuildableCarIndex<S> {
+
+    private static final String SELECT_ID_BOUNDS = "SELECT MIN(id), MAX(id) FROM cars";
+    private static final long LOAD_CHUNK = 50_000;
+    // Car ids are stored as bitmap positions and array indexes
+    static final long MAX_CAR_ID = Integer.MAX_VALUE - 8;
+
+    protected final JdbcTemplate jdbcTemplate;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Object rebuildMonitor = new Object();
+
+    private volatile S snapshot;
+    private List<Consumer<S>> pendingDuringRebuild;
+
+    protected RebuildableCarIndex(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Reads the whole index from the database, without holding any lock.
+     */
+    protected abstract S load();
+
+    protected abstract long size(S snapshot);
+
+    public long size() {
+        S current = snapshot;
+        return current == null ? 0 : size(current);
+    }
+
+    public boolean isLoaded() {
+        return snapshot != null;
+    }
+
+    protected <R> R read(Function<S, R> query) {
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            return query.apply(snapshot);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Applies a change to the current snapshot, if there is one yet. Changes
+     * must be idempotent and carry the full new state, since they may be
+     * replayed onto a snapshot that already contains them.
+     */
+    protected void apply(Consumer<S> change) {
+        lock.writeLock().lock();
+        try {
+            if (snapshot != null) {
+                change.accept(snapshot);
+            }
+            if (pendingDuringRebuild != null) {
+                pendingDuringRebuild.add(change);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Scheduled rebuilds go through here, so that nodes which never served an
+     * indexed query don't load an index nobody asked for.
+     */
+    protected void rebuildIfLoaded() {
+        if (snapshot != null) {
+            rebuild();
+        }
+    }
+
+    public void rebuild() {
+        synchronized (rebuildMonitor) {
+            long started = System.currentTimeMillis();
+            lock.writeLock().lock();
+            try {
+                pendingDuringRebuild = new ArrayList<>();
+            } finally {
+                lock.writeLock().unlock();
+            }
+
+            S loaded = null;
+            int replayed = 0;
+            try {
+                loaded = load();
+            } finally {
+                lock.writeLock().lock();
+                try {
+                    if (loaded != null) {
+                        for (Consumer<S> change : pendingDuringRebuild) {
+                            change.accept(loaded);
+                        }
+                        replayed = pendingDuringRebuild.size();
+                        snapshot = loaded;
+                    }
+                    pendingDuringRebuild = null;
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            }
+            log.info("Rebuilt {} with {} cars in {} ms ({} writes replayed)", getClass().getSimpleName(),
+                    size(loaded), System.currentTimeMillis() - started, replayed);
+        }
+    }
+
+    private void ensureLoaded() {
+        if (snapshot == null) {
+            synchronized (rebuildMonitor) {
+                if (snapshot == null) {
+                    rebuild();
+                }
+            }
+        }
+    }
+
+    /**
+     * Runs a query with two id parameters ({@code id >= ? AND id <= ?}) over the
+     * car id range in chunks, rather than as one big result set which the MySQL
+     * driver would buffer whole.
+     */
+    protected void queryInIdChunks(String sql, RowCallbackHandler handler) {
+        long[] bounds = jdbcTemplate.queryForObject(SELECT_ID_BOUNDS, (rs, rowNum) -> {
+            long min = rs.getLong(1);
+            return rs.wasNull() ? null : new long[] {min, rs.getLong(2)};
+        });
+        if (bounds == null) {
+            return;
+        }
+        for (long from = bounds[0]; from <= bounds[1]; from += LOAD_CHUNK) {
+            jdbcTemplate.query(sql, handler, from, Math.min(from + LOAD_CHUNK - 1, bounds[1]));
+        }
+    }
+
+    static int toPosition(long carId) {
+        if (carId < 0 || carId > MAX_CAR_ID) {
+            throw new IllegalStateException("Car id " + carId + " is outside the range the car indexes support");
+        }
+        return (int) carId;
+    }
+}
@@ -5,6 +5,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.wheelshift.archive.ArchiveReader;
 import com.wheelshift.dto.CalendarEventDTO;
 import com.wheelshift.dto.EventSummaryDTO;
 import com.wheelshift.model.CalendarEvent;
@@ -13,6 +14,8 @@ import com.wheelshift.repository.CalendarEventRepository;
 
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -25,6 +28,7 @@ import java.util.Optional;
 public class CalendarEventService {
 
     private final CalendarEventRepository eventRepository;
+    private final ArchiveReader archiveReader;
     private static final DateTimeFormatter ISO_FORMATTER = DateTimeFormatter.ISO_DATE_TIME;
 
     /**
@@ -104,7 +108,8 @@ public class CalendarEventService {
     }
 
     /**
-     * Get all events within a date range (for month view)
+     * Get all events within a date range (for month view), including archived
+     * ones when the range reaches back that far
      *
      * @param start the start date
      * @param end the end date
@@ -114,8 +119,14 @@ public class CalendarEventService {
     public List<CalendarEventDTO> getEventsByDateRange(LocalDateTime start, LocalDateTime end) {
         log.info("Fetching calendar events between {} and {}", start, end);
         
-        return eventRepository.findByStartTimeBetweenOrderByStartTimeAsc(start, end)
-                .stream()
+        List<CalendarEvent> events = eventRepository.findByStartTimeBetweenOrderByStartTimeAsc(start, end);
+        List<CalendarEvent> archived = archiveReader.calendarEvents(start, end);
+        if (!archived.isEmpty()) {
+            events = new ArrayList<>(events);
+            events.addAll(archived);
+            events.sort(Comparator.comparing(CalendarEvent::getStartTime));
+        }
+        return events.stream()
                 .map(this::mapToDTO)
                 .toList();
     }
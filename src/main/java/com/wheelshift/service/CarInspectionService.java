@@ -1,7 +1,10 @@
 package com.wheelshift.service;
 
+import com.wheelshift.cache.CoalescedCache;
 import com.wheelshift.model.Car;
 import com.wheelshift.model.CarInspection;
+import com.wheelshift.model.CarStatus;
+import com.wheelshift.model.Money;
 import com.wheelshift.repository.CarInspectionRepository;
 import com.wheelshift.repository.CarRepository;
 
@@ -11,6 +14,7 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -46,10 +50,13 @@ public class CarInspectionService {
     public CarInspection saveInspection(CarInspection inspection) {
         // Check if this car requires updates based on inspection results
         if (!inspection.getInspectionPass()) {
-            // If inspection failed, update the car status
-            Car car = inspection.getCar();
-            car.setCurrentStatus("NEEDS_REPAIR");
-            carRepository.save(car);
+            // If inspection failed, flag the car for repair (a sold car keeps its status)
+            Car car = carRepository.findById(inspection.getCar().getId())
+                    .orElseThrow(() -> new IllegalArgumentException("Car not found with ID: " + inspection.getCar().getId()));
+            if (car.getCurrentStatus().canTransitionTo(CarStatus.NEEDS_REPAIR)) {
+                car.setCurrentStatus(CarStatus.NEEDS_REPAIR);
+                carRepository.save(car);
+            }
         }
         
         return carInspectionRepository.save(inspection);
@@ -76,8 +83,10 @@ public class CarInspectionService {
                     // Update car status if inspection pass status changes
                     if (!inspection.getInspectionPass()) {
                         Car car = inspection.getCar();
-                        car.setCurrentStatus("NEEDS_REPAIR");
-                        carRepository.save(car);
+                        if (car.getCurrentStatus().canTransitionTo(CarStatus.NEEDS_REPAIR)) {
+                            car.setCurrentStatus(CarStatus.NEEDS_REPAIR);
+                            carRepository.save(car);
+                        }
                     }
                     
                     return carInspectionRepository.save(inspection);
@@ -106,6 +115,13 @@ public class CarInspectionService {
         return car.map(carInspectionRepository::findByCar).orElse(List.of());
     }
     
+    /**
+     * Inspections of all the given cars, latest first.
+     */
+    public List<CarInspection> getInspectionsByCars(Collection<Long> carIds) {
+        return carInspectionRepository.findByCar_IdInOrderByInspectionDateDescIdDesc(carIds);
+    }
+    
     public List<CarInspection> getInspectionsByVin(String vinNumber) {
         return carInspectionRepository.findByCarVinNumber(vinNumber);
     }
@@ -137,6 +153,8 @@ public class CarInspectionService {
 	 *				STATISTICS AND ANALYTICS
      */
     
+    @CoalescedCache("inspection-statistics")
+    @Transactional(readOnly = true)
     public Map<String, Object> getInspectionStatistics() {
         Map<String, Object> statistics = new HashMap<>();
         
@@ -163,10 +181,7 @@ public class CarInspectionService {
     
     public BigDecimal getTotalEstimatedRepairCosts() {
         List<CarInspection> failedInspections = carInspectionRepository.findByInspectionPass(false);
-        return failedInspections.stream()
-                .map(CarInspection::getEstimatedRepairCost)
-                .filter(cost -> cost != null)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        return Money.sum(failedInspections, CarInspection::getEstimatedRepairCost).toBigDecimal();
     }
     
     private double calculatePassRate(Long passed, Long failed) {
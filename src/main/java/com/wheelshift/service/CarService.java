@@ -1,31 +1,45 @@
 package com.wheelshift.service;
 
+import com.wheelshift.cache.CoalescedCache;
+import com.wheelshift.dto.CarFacetResult;
 import com.wheelshift.dto.CarSearchCriteria;
 import com.wheelshift.dto.CarStatistics;
+import com.wheelshift.events.CarCreated;
 import com.wheelshift.model.Car;
 import com.wheelshift.model.CarDetailedSpecs;
+import com.wheelshift.model.CarStatus;
 import com.wheelshift.model.FinancialTransaction;
 import com.wheelshift.model.Sale;
 import com.wheelshift.model.StorageLocation;
 import com.wheelshift.projection.CarBasicDetails;
+import com.wheelshift.repository.CarCostSummaryRepository;
 import com.wheelshift.repository.CarDetailedSpecsRepository;
 import com.wheelshift.repository.CarModelRepository;
 import com.wheelshift.repository.CarRepository;
 import com.wheelshift.repository.FinancialTransactionRepository;
 import com.wheelshift.repository.StorageLocationRepository;
 import com.wheelshift.repository.spec.CarSpecification;
+import com.wheelshift.search.CarFacetIndex;
+import com.wheelshift.search.CarRangeIndex;
+import com.wheelshift.versioning.Aggregate;
 import jakarta.persistence.EntityNotFoundException;
-import jakarta.transaction.Transactional;
+import org.springframework.transaction.annotation.Transactional;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -38,10 +52,17 @@ import java.util.stream.Collectors;
 public class CarService {
 
     private final CarRepository carRepository;
+    private final CarCostSummaryRepository carCostSummaryRepository;
     private final CarModelRepository carModelRepository;
     private final CarDetailedSpecsRepository carDetailedSpecsRepository;
     private final FinancialTransactionRepository financialTransactionRepository;
     private final StorageLocationRepository storageLocationRepository;
+    private final CarFacetIndex carFacetIndex;
+    private final CarRangeIndex carRangeIndex;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${wheelshift.search.indexed-advanced-search:true}")
+    private boolean indexedAdvancedSearch;
     
     /**
 	 *	   _____ _____  _    _ _____  
@@ -70,6 +91,14 @@ public class CarService {
         return carRepository.findAllCarBasicDetails(pageable);
     }
     
+    public List<Car> getCarsByIds(Collection<Long> ids) {
+        return carRepository.findByIdIn(ids);
+    }
+    
+    public List<Car> getCarsPage(CarStatus status, Pageable pageable) {
+        return status != null ? carRepository.findByCurrentStatus(status, pageable) : carRepository.findAllBy(pageable);
+    }
+    
     public Car getCarById(Long id) {
         return carRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException("Car not found with id: " + id));
@@ -91,13 +120,13 @@ public class CarService {
         if (car.getCarModel() == null || car.getCarModel().getId() == null) {
             throw new IllegalArgumentException("Valid car model is required");
         }
-        if (!carModelRepository.existsById(car.getCarModel().getId())) {
-            throw new EntityNotFoundException("Car model not found with id: " + car.getCarModel().getId());
-        }
+        Integer carModelId = car.getCarModel().getId();
+        car.setCarModel(carModelRepository.findById(carModelId)
+                .orElseThrow(() -> new EntityNotFoundException("Car model not found with id: " + carModelId)));
 
         // Set default status if not provided
         if (car.getCurrentStatus() == null) {
-            car.setCurrentStatus("Available");
+            car.setCurrentStatus(CarStatus.AVAILABLE);
         }
 
         log.debug("Validations completed. Proceeding with storage location handling...");
@@ -124,6 +153,8 @@ public class CarService {
         log.debug("Saving car entity...");
         Car savedCar = carRepository.save(car);
         log.debug("Car object saved in database with ID: {}", savedCar.getId());
+        eventPublisher.publishEvent(new CarCreated(savedCar.getTenantId(), savedCar.getId(),
+                savedCar.getVinNumber(), carModelId, savedCar.getCurrentStatus()));
 
         // Update storage location count and link
         if (location != null) {
@@ -174,10 +205,9 @@ public class CarService {
         
         // Validate car model if provided
         if (carDetails.getCarModel() != null && carDetails.getCarModel().getId() != null) {
-            if (!carModelRepository.existsById(carDetails.getCarModel().getId())) {
-                throw new EntityNotFoundException("Car model not found with id: " + carDetails.getCarModel().getId());
-            }
-            existingCar.setCarModel(carDetails.getCarModel());
+            Integer carModelId = carDetails.getCarModel().getId();
+            existingCar.setCarModel(carModelRepository.findById(carModelId)
+                    .orElseThrow(() -> new EntityNotFoundException("Car model not found with id: " + carModelId)));
         }
         
         // Handle storage location change
@@ -276,15 +306,15 @@ public class CarService {
         // Set new sale
         sale.setCar(car); car.setSale(sale);
         
-        // Update car status to "Sold"
-        car.setCurrentStatus("Sold");
+        // Update car status to sold
+        car.setCurrentStatus(CarStatus.SOLD);
         return carRepository.save(car);
     }
     
     @Transactional
     public Car changeStatus(Long carId, String newStatus) {
         Car car = getCarById(carId);
-        car.setCurrentStatus(newStatus);
+        car.setCurrentStatus(CarStatus.fromString(newStatus));
         return carRepository.save(car);
     }
     
@@ -379,6 +409,9 @@ public class CarService {
     
     public Page<Car> searchCarsAdvanced(CarSearchCriteria criteria, Pageable pageable) {
         log.debug("Searching cars with criteria: {}", criteria);
+        if (indexedAdvancedSearch && !hasText(criteria.getSearchText()) && isSortedByIdOnly(pageable)) {
+            return searchCarsIndexed(criteria, pageable);
+        }
         
         // Create an empty specification
         Specification<Car> spec = Specification.where(null);
@@ -474,6 +507,67 @@ public class CarService {
         }
     }
     
+    /**
+     * The advanced search answered from the in-memory indexes: range criteria
+     * from the {@link CarRangeIndex}, everything else from the facet index. Only
+     * taken when there is no text criterion and the page is ordered by id (or not
+     * at all), which the indexes return in id order.
+     */
+    private Page<Car> searchCarsIndexed(CarSearchCriteria criteria, Pageable pageable) {
+        RoaringBitmap ranges = carRangeIndex.filter(criteria, true);
+        CarFacetIndex.Result result = carFacetIndex.match(criteria, ranges, pageable.getOffset(),
+                pageable.getPageSize(), isDescending(pageable));
+        return new PageImpl<>(findInOrder(result.ids()), pageable, result.total());
+    }
+
+    /**
+     * Same criteria as {@link #searchCarsAdvanced}, answered from the in-memory
+     * indexes together with the counts for every facet. Text criteria still go
+     * to the database as an id query. Results are ordered by id; the only sort
+     * accepted is on "id".
+     */
+    public CarFacetResult searchCarsFaceted(CarSearchCriteria criteria, Pageable pageable) {
+        if (!isSortedByIdOnly(pageable)) {
+            throw new IllegalArgumentException("Faceted search can only be sorted by id");
+        }
+
+        // The year range is left to the facet index, which counts it in buckets
+        RoaringBitmap restrictTo = carRangeIndex.filter(criteria, false);
+        if (hasText(criteria.getSearchText())) {
+            RoaringBitmap textMatches = CarFacetIndex.toBitmap(
+                    carRepository.findIdsBy(CarSpecification.containsText(criteria.getSearchText())));
+            restrictTo = restrictTo == null ? textMatches : RoaringBitmap.and(restrictTo, textMatches);
+        }
+        CarFacetIndex.Result result = carFacetIndex.search(criteria, restrictTo, pageable.getOffset(),
+                pageable.getPageSize(), isDescending(pageable));
+
+        return new CarFacetResult(findInOrder(result.ids()), pageable.getPageNumber(), pageable.getPageSize(),
+                result.total(), result.facets());
+    }
+
+    private List<Car> findInOrder(List<Long> ids) {
+        Map<Long, Car> carsById = carRepository.findByIdIn(ids).stream()
+                .collect(Collectors.toMap(Car::getId, car -> car));
+        // A car deleted since the index saw it is left out of the page
+        return ids.stream()
+                .map(carsById::get)
+                .filter(car -> car != null)
+                .collect(Collectors.toList());
+    }
+
+    private static boolean isSortedByIdOnly(Pageable pageable) {
+        return pageable.getSort().stream().allMatch(order -> "id".equals(order.getProperty()));
+    }
+
+    private static boolean isDescending(Pageable pageable) {
+        Sort.Order order = pageable.getSort().getOrderFor("id");
+        return order != null && order.isDescending();
+    }
+
+    private static boolean hasText(String value) {
+        return value != null && !value.trim().isEmpty();
+    }
+    
     public Optional<Car> findByVinNumber(String vinNumber) {
         return carRepository.findByVinNumber(vinNumber);
     }
@@ -495,7 +589,7 @@ public class CarService {
     }
     
     public List<Car> findByStatus(String status) {
-        return carRepository.findByCurrentStatus(status);
+        return carRepository.findByCurrentStatus(CarStatus.fromString(status));
     }
     
     public List<Car> findByYear(Integer year) {
@@ -533,18 +627,24 @@ public class CarService {
 	 *				STATISTICS AND ANALYTICS
      */
     
+    @CoalescedCache(value = "car-statistics", dependsOn = Aggregate.CARS)
+    @Transactional(readOnly = true)
     public CarStatistics getCarStatistics() {
         CarStatistics statistics = new CarStatistics();
         
         // Basic counts
         statistics.setTotalCars(carRepository.count());
-        statistics.setAvailableCars(carRepository.countByStatus("available"));
-        statistics.setReservedCars(carRepository.countByStatus("reserved"));
-        statistics.setSoldCars(carRepository.countByStatus("sold"));
+        Map<CarStatus, Long> countByStatus = new HashMap<>();
+        for (Object[] row : carRepository.getCountByStatus()) {
+            countByStatus.put((CarStatus) row[0], (Long) row[1]);
+        }
+        statistics.setAvailableCars(countByStatus.getOrDefault(CarStatus.AVAILABLE, 0L));
+        statistics.setReservedCars(countByStatus.getOrDefault(CarStatus.RESERVED, 0L));
+        statistics.setSoldCars(countByStatus.getOrDefault(CarStatus.SOLD, 0L));
         
         // Financial statistics
-        statistics.setAverageProfitMargin(carRepository.getAverageProfitMargin());
-        statistics.setAverageMileage(carRepository.getAverageMileageOfAvailableCars());
+        statistics.setAverageProfitMargin(carCostSummaryRepository.getAverageProfit());
+        statistics.setAverageMileage(carRepository.getAverageMileageByStatus(CarStatus.AVAILABLE));
         statistics.setAverageDaysToSell(carRepository.getAverageDaysToSell());
         
         // Inventory by make
@@ -16,7 +16,7 @@ import com.wheelshift.model.Client;
 import com.wheelshift.repository.ClientRepository;
 import com.wheelshift.repository.spec.ClientSpecification;
 
-import jakarta.transaction.Transactional;
+import org.springframework.transaction.annotation.Transactional;
 
 @Service
 public class ClientService {
@@ -156,22 +156,26 @@ public class ClientService {
 	 *				STATISTICS AND ANALYTICS
      */
 
+    @Transactional(readOnly = true)
     public List<Client> getTopBuyers(int limit) {
         return clientRepository.findTopBuyers().stream()
                 .limit(limit)
                 .toList();
     }
 
+    @Transactional(readOnly = true)
     public long getTotalClientCount() {
         return clientRepository.count();
     }
 
+    @Transactional(readOnly = true)
     public long getNewClientsInPeriod(LocalDate startDate, LocalDate endDate) {
         long totalBefore = clientRepository.countNewClientsAfter(startDate.minusDays(1));
         long totalAfter = clientRepository.countNewClientsAfter(endDate);
         return totalBefore - totalAfter;
     }
 
+    @Transactional(readOnly = true)
     public Map<String, Long> getClientsByStatus() {
         Map<String, Long> statusMap = new HashMap<>();
         statusMap.put("ACTIVE", clientRepository.countByStatus("ACTIVE"));
@@ -181,6 +185,7 @@ public class ClientService {
         return statusMap;
     }
     
+    @Transactional(readOnly = true)
     public Map<String, Long> getClientsByLocation() {
         Map<String, Long> locationMap = new HashMap<>();
         List<Client> clients = clientRepository.findAll();
@@ -193,6 +198,7 @@ public class ClientService {
         return locationMap;
     }
     
+    @Transactional(readOnly = true)
     public double getAveragePurchasesPerClient() {
         List<Client> clients = clientRepository.findAll();
         if (clients.isEmpty()) {
@@ -206,6 +212,7 @@ public class ClientService {
         return (double) totalPurchases / clients.size();
     }
 
+    @Transactional(readOnly = true)
     public LocalDate getLastClientActivity() {
         return clientRepository.findAll().stream()
                 .filter(client -> client.getLastPurchase() != null)
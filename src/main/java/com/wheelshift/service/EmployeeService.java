@@ -4,16 +4,20 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.wheelshift.auth.LastLoginRecorder;
 import com.wheelshift.model.Employee;
+import com.wheelshift.model.Money;
 import com.wheelshift.model.Sale;
 import com.wheelshift.repository.EmployeeRepository;
 
+import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.UUID;
 import java.util.stream.Collectors;
 
 @Service
@@ -21,10 +25,15 @@ public class EmployeeService {
     
     private final EmployeeRepository employeeRepository;
     private final PasswordEncoder passwordEncoder;
+    private final LastLoginRecorder lastLoginRecorder;
+    // Created on first use, encoding takes as long as checking
+    private volatile String unknownEmployeeHash;
 
-    public EmployeeService(EmployeeRepository employeeRepository, PasswordEncoder passwordEncoder) {
+    public EmployeeService(EmployeeRepository employeeRepository, PasswordEncoder passwordEncoder,
+                           LastLoginRecorder lastLoginRecorder) {
         this.employeeRepository = employeeRepository;
         this.passwordEncoder = passwordEncoder;
+        this.lastLoginRecorder = lastLoginRecorder;
     }
     
     /**
@@ -140,25 +149,45 @@ public class EmployeeService {
         }
     }
     
-    @Transactional
+    /**
+     * Recorded like the logins of {@code /api/v1/auth/token}, and written with
+     * the next batch of {@link LastLoginRecorder}.
+     */
     public void updateLastLogin(Long id, LocalDateTime loginTime) {
-        Optional<Employee> employeeOpt = employeeRepository.findById(id);
-        if (employeeOpt.isPresent()) {
-            Employee employee = employeeOpt.get();
-            employee.setLastLogin(loginTime);
-            employeeRepository.save(employee);
-        } else {
+        if (!employeeRepository.existsById(id)) {
             throw new RuntimeException("Employee not found with id: " + id);
         }
+        lastLoginRecorder.record(id, loginTime);
     }
     
     public boolean authenticateEmployee(String email, String password) {
+        return authenticate(email, password).isPresent();
+    }
+    
+    /**
+     * The active employee with these credentials, if any. Unknown emails are
+     * checked against a dummy hash so they take as long as wrong passwords.
+     */
+    public Optional<Employee> authenticate(String email, String password) {
         Optional<Employee> employeeOpt = employeeRepository.findByEmail(email);
-        if (employeeOpt.isPresent()) {
-            Employee employee = employeeOpt.get();
-            return passwordEncoder.matches(password, employee.getPassword());
+        if (employeeOpt.isEmpty()) {
+            passwordEncoder.matches(password, unknownEmployeeHash());
+            return Optional.empty();
+        }
+        Employee employee = employeeOpt.get();
+        if (!passwordEncoder.matches(password, employee.getPassword()) || "INACTIVE".equals(employee.getStatus())) {
+            return Optional.empty();
         }
-        return false;
+        return employeeOpt;
+    }
+    
+    private String unknownEmployeeHash() {
+        String hash = unknownEmployeeHash;
+        if (hash == null) {
+            hash = passwordEncoder.encode(UUID.randomUUID().toString());
+            unknownEmployeeHash = hash;
+        }
+        return hash;
     }
     
     /**
@@ -243,21 +272,13 @@ public class EmployeeService {
         return salesCount;
     }
     
-    public Map<Long, Double> getEmployeeCommissionTotals() {
-        Map<Long, Double> commissionTotals = new HashMap<>();
+    public Map<Long, BigDecimal> getEmployeeCommissionTotals() {
+        Map<Long, BigDecimal> commissionTotals = new HashMap<>();
         List<Employee> employees = employeeRepository.findAll();
         
         for (Employee employee : employees) {
-            double totalCommission = 0.0;
-            List<Sale> sales = employee.getHandledSales();
-            
-            for (Sale sale : sales) {
-                if (sale.getTotalCommission() != null) {
-                    totalCommission += sale.getTotalCommission().doubleValue();
-                }
-            }
-            
-            commissionTotals.put(employee.getId(), totalCommission);
+            Money totalCommission = Money.sum(employee.getHandledSales(), Sale::getTotalCommission);
+            commissionTotals.put(employee.getId(), totalCommission.toBigDecimal());
         }
         
         return commissionTotals;
@@ -1,7 +1,10 @@
 package com.wheelshift.service;
 
+import com.wheelshift.archive.ArchiveReader;
+import com.wheelshift.cache.CoalescedCache;
 import com.wheelshift.dto.FinancialStatistics;
 import com.wheelshift.dto.TransactionSearchCriteria;
+import com.wheelshift.ledger.FinancialLedger;
 import com.wheelshift.model.FinancialTransaction;
 import com.wheelshift.repository.FinancialTransactionRepository;
 import jakarta.persistence.EntityNotFoundException;
@@ -9,9 +12,12 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -22,6 +28,8 @@ import java.util.stream.Collectors;
 public class FinancialTransactionService {
 
     private final FinancialTransactionRepository transactionRepository;
+    private final ArchiveReader archiveReader;
+    private final FinancialLedger ledger;
 
     /**
 	 *	   _____ _____  _    _ _____  
@@ -90,12 +98,15 @@ public class FinancialTransactionService {
     }
     
     public List<FinancialTransaction> getTransactionsInDateRange(LocalDate startDate, LocalDate endDate) {
-        return transactionRepository.findByTransactionDateBetween(startDate, endDate);
+        return withArchived(transactionRepository.findByTransactionDateBetween(startDate, endDate),
+                archiveReader.transactions(startDate, endDate, null));
     }
     
     public List<FinancialTransaction> getTransactionsByTypeInDateRange(
             String type, LocalDate startDate, LocalDate endDate) {
-        return transactionRepository.findByTransactionTypeAndTransactionDateBetween(type, startDate, endDate);
+        List<FinancialTransaction> transactions =
+                transactionRepository.findByTransactionTypeAndTransactionDateBetween(type, startDate, endDate);
+        return withArchived(transactions, archiveReader.transactions(startDate, endDate, type));
     }
     
     public Page<FinancialTransaction> searchTransactions(TransactionSearchCriteria criteria, Pageable pageable) {
@@ -123,23 +134,20 @@ public class FinancialTransactionService {
      */
 
     public BigDecimal getTotalByTransactionType(String type) {
-        return transactionRepository.getTotalAmountByType(type);
+        return ledger.total(type, null, null);
     }
     
     public BigDecimal getTotalInDateRange(LocalDate startDate, LocalDate endDate) {
-        return transactionRepository.getTotalAmountInDateRange(startDate, endDate);
+        return ledger.total(null, startDate, endDate);
     }
     
+    @CoalescedCache("financial-statistics")
+    @Transactional(readOnly = true)
     public FinancialStatistics getFinancialStatistics() {
         FinancialStatistics statistics = new FinancialStatistics();
         
         // Total amounts by transaction type
-        List<Object[]> totalsByType = transactionRepository.getTotalAmountByTransactionType();
-        Map<String, BigDecimal> totalByType = totalsByType.stream()
-                .collect(Collectors.toMap(
-                    obj -> (String) obj[0],      // transaction type
-                    obj -> (BigDecimal) obj[1]   // total amount
-                ));
+        Map<String, BigDecimal> totalByType = ledger.totalsByType();
         statistics.setTotalByTransactionType(totalByType);
         
         // Calculate some common metrics if purchase and sale data exists
@@ -155,33 +163,11 @@ public class FinancialTransactionService {
         BigDecimal revenue = totalSales.subtract(totalPurchases).subtract(totalMaintenance);
         statistics.setTotalRevenue(revenue);
         
-        // Monthly totals for purchases
-        List<Object[]> monthlyPurchases = transactionRepository.getMonthlyTotalByType("Purchase");
-        Map<String, BigDecimal> purchasesByMonth = new HashMap<>();
-        
-        for (Object[] result : monthlyPurchases) {
-            Integer year = (Integer) result[0];
-            Integer month = (Integer) result[1];
-            BigDecimal total = (BigDecimal) result[2];
-            
-            String yearMonth = year + "-" + (month < 10 ? "0" + month : month);
-            purchasesByMonth.put(yearMonth, total);
-        }
-        statistics.setPurchasesByMonth(purchasesByMonth);
-        
-        // Monthly totals for sales
-        List<Object[]> monthlySales = transactionRepository.getMonthlyTotalByType("Sale");
-        Map<String, BigDecimal> salesByMonth = new HashMap<>();
-        
-        for (Object[] result : monthlySales) {
-            Integer year = (Integer) result[0];
-            Integer month = (Integer) result[1];
-            BigDecimal total = (BigDecimal) result[2];
-            
-            String yearMonth = year + "-" + (month < 10 ? "0" + month : month);
-            salesByMonth.put(yearMonth, total);
-        }
-        statistics.setSalesByMonth(salesByMonth);
+        // Monthly and yearly totals for purchases and sales
+        statistics.setPurchasesByMonth(byMonth(ledger.monthlyTotals("Purchase")));
+        statistics.setSalesByMonth(byMonth(ledger.monthlyTotals("Sale")));
+        statistics.setPurchasesByYear(byYear(ledger.yearlyTotals("Purchase")));
+        statistics.setSalesByYear(byYear(ledger.yearlyTotals("Sale")));
         
         // Vendor spend analysis
         List<Object[]> vendorSpend = transactionRepository.getTotalSpendByVendor();
@@ -203,4 +189,26 @@ public class FinancialTransactionService {
         
         return statistics;
     }
-}
\ No newline at end of file
+
+    private static Map<String, BigDecimal> byMonth(Map<YearMonth, BigDecimal> totals) {
+        Map<String, BigDecimal> byMonth = new HashMap<>();
+        totals.forEach((month, total) -> byMonth.put(month.toString(), total));
+        return byMonth;
+    }
+
+    private static Map<String, BigDecimal> byYear(Map<Integer, BigDecimal> totals) {
+        Map<String, BigDecimal> byYear = new HashMap<>();
+        totals.forEach((year, total) -> byYear.put(year.toString(), total));
+        return byYear;
+    }
+
+    private static List<FinancialTransaction> withArchived(List<FinancialTransaction> transactions,
+                                                           List<FinancialTransaction> archived) {
+        if (archived.isEmpty()) {
+            return transactions;
+        }
+        List<FinancialTransaction> all = new ArrayList<>(transactions);
+        all.addAll(archived);
+        return all;
+    }
+}
@@ -1,5 +1,7 @@
 package com.wheelshift.service;
 
+import com.wheelshift.archive.ArchiveReader;
+import com.wheelshift.cache.CoalescedCache;
 import com.wheelshift.model.Car;
 import com.wheelshift.model.Client;
 import com.wheelshift.model.Employee;
@@ -14,6 +16,8 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -28,6 +32,7 @@ public class InquiryService {
     private final CarRepository carRepository;
     private final ClientRepository clientRepository;
     private final EmployeeRepository employeeRepository;
+    private final ArchiveReader archiveReader;
     
     /**
 	 *	   _____ _____  _    _ _____  
@@ -97,6 +102,10 @@ public class InquiryService {
         return car.map(inquiryRepository::findByCar).orElse(List.of());
     }
     
+    public List<Inquiry> getInquiriesByCars(Collection<Long> carIds) {
+        return inquiryRepository.findByCar_IdIn(carIds);
+    }
+    
     public List<Inquiry> getInquiriesByStatus(String status) {
         return inquiryRepository.findByStatus(status);
     }
@@ -111,6 +120,10 @@ public class InquiryService {
         return client.map(inquiryRepository::findByClient).orElse(List.of());
     }
     
+    public List<Inquiry> getInquiriesByClients(Collection<Long> clientIds) {
+        return inquiryRepository.findByClient_IdIn(clientIds);
+    }
+    
     public List<Inquiry> getInquiriesByClientEmail(String email) {
         return inquiryRepository.findByClientEmailContainingIgnoreCase(email);
     }
@@ -124,7 +137,14 @@ public class InquiryService {
     }
     
     public List<Inquiry> getInquiriesByDateRange(LocalDateTime startDate, LocalDateTime endDate) {
-        return inquiryRepository.findByCreatedAtBetween(startDate, endDate);
+        List<Inquiry> inquiries = inquiryRepository.findByCreatedAtBetween(startDate, endDate);
+        List<Inquiry> archived = archiveReader.inquiries(startDate, endDate);
+        if (archived.isEmpty()) {
+            return inquiries;
+        }
+        List<Inquiry> all = new ArrayList<>(inquiries);
+        all.addAll(archived);
+        return all;
     }
     
     /**
@@ -186,6 +206,8 @@ public class InquiryService {
 	 *				STATISTICS AND ANALYTICS
      */
     
+    @CoalescedCache("inquiry-statistics")
+    @Transactional(readOnly = true)
     public Map<String, Object> getInquiryStatistics() {
         Map<String, Object> statistics = new HashMap<>();
         
@@ -4,6 +4,10 @@ import com.wheelshift.dto.ColumnDTO;
 import com.wheelshift.dto.KanbanBoardDTO;
 import com.wheelshift.dto.TaskDTO;
 import com.wheelshift.dto.TaskMoveDTO;
+import com.wheelshift.events.TaskCreated;
+import com.wheelshift.events.TaskDeleted;
+import com.wheelshift.events.TaskMoved;
+import com.wheelshift.events.TaskUpdated;
 import com.wheelshift.model.KanbanColumn;
 import com.wheelshift.model.Task;
 import com.wheelshift.model.TaskPosition;
@@ -11,8 +15,9 @@ import com.wheelshift.repository.KanbanColumnRepository;
 import com.wheelshift.repository.TaskPositionRepository;
 import com.wheelshift.repository.TaskRepository;
 
-import jakarta.transaction.Transactional;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import java.util.*;
@@ -29,6 +34,9 @@ public class KanbanService {
     
     @Autowired
     private TaskPositionRepository taskPositionRepository;
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
 
     /**
      * Get the entire kanban board data
@@ -123,6 +131,9 @@ public class KanbanService {
             task.setColumn(destColumn);
             taskRepository.save(task);
         }
+        
+        eventPublisher.publishEvent(new TaskMoved(task.getTenantId(), task.getTaskId(),
+                moveDTO.getSourceColumnId(), moveDTO.getDestinationColumnId(), moveDTO.getDestinationIndex()));
     }
     
     /**
@@ -182,22 +193,40 @@ public class KanbanService {
         taskPosition.setPosition(newPosition);
         taskPositionRepository.save(taskPosition);
         
+        eventPublisher.publishEvent(new TaskCreated(task.getTenantId(), convertToTaskDTO(task), columnId, newPosition));
+        
         taskDTO.setId(newTaskId);
         return taskDTO;
     }
 
     /**
-     * Update an existing task
+     * Get a single task
+     */
+    @Transactional(readOnly = true)
+    public TaskDTO getTask(String taskId) {
+        Task task = taskRepository.findByTaskId(taskId)
+                .orElseThrow(() -> new RuntimeException("Task not found"));
+        return convertToTaskDTO(task);
+    }
+
+    /**
+     * Update an existing task; the open boards only hear of it when
+     * something changed
      */
     @Transactional
     public TaskDTO updateTask(String taskId, TaskDTO taskDTO) {
         Task task = taskRepository.findByTaskId(taskId)
                 .orElseThrow(() -> new RuntimeException("Task not found"));
         
+        TaskDTO before = convertToTaskDTO(task);
         updateTaskFromDTO(task, taskDTO);
         taskRepository.save(task);
         
-        return convertToTaskDTO(task);
+        TaskDTO updated = convertToTaskDTO(task);
+        if (!updated.equals(before)) {
+            eventPublisher.publishEvent(new TaskUpdated(task.getTenantId(), updated));
+        }
+        return updated;
     }
 
     /**
@@ -217,17 +246,14 @@ public class KanbanService {
         int deletedPosition = taskPosition.getPosition();
         taskPositionRepository.delete(taskPosition);
         
-        // Update positions for tasks after the deleted one
-        List<TaskPosition> positions = taskPositionRepository.findByColumnOrderByPositionAsc(column);
-        for (TaskPosition tp : positions) {
-            if (tp.getPosition() > deletedPosition) {
-                tp.setPosition(tp.getPosition() - 1);
-                taskPositionRepository.save(tp);
-            }
-        }
+        // Update positions for tasks after the deleted one in a single statement
+        taskPositionRepository.flush();
+        taskPositionRepository.closeGapAfter(column, deletedPosition);
         
         // Finally delete the task
         taskRepository.delete(task);
+        
+        eventPublisher.publishEvent(new TaskDeleted(task.getTenantId(), taskId, column.getColumnId()));
     }
 
     /**
@@ -1,14 +1,19 @@
 package com.wheelshift.service;
 
+import com.wheelshift.cache.CoalescedCache;
+import com.wheelshift.events.ReservationExpired;
 import com.wheelshift.model.Car;
+import com.wheelshift.model.CarStatus;
 import com.wheelshift.model.Client;
+import com.wheelshift.model.Money;
 import com.wheelshift.model.Reservation;
 import com.wheelshift.repository.CarRepository;
 import com.wheelshift.repository.ClientRepository;
 import com.wheelshift.repository.ReservationRepository;
+import com.wheelshift.versioning.Aggregate;
 
 import lombok.RequiredArgsConstructor;
-import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -27,6 +32,7 @@ public class ReservationService {
     private final ReservationRepository reservationRepository;
     private final CarRepository carRepository;
     private final ClientRepository clientRepository;
+    private final ApplicationEventPublisher eventPublisher;
     
     /**
      *     _____ _____  _    _ _____  
@@ -55,10 +61,12 @@ public class ReservationService {
             reservation.setStatus("ACTIVE");
             
             // Update car status
-            Car car = reservation.getCar();
-            car.setCurrentStatus("RESERVED");
+            Car car = carRepository.findById(reservation.getCar().getId())
+                    .orElseThrow(() -> new IllegalArgumentException("Car not found with ID: " + reservation.getCar().getId()));
+            car.setCurrentStatus(CarStatus.RESERVED);
             carRepository.save(car);
             
+            reservation.setCar(car);
             return reservationRepository.save(reservation);
         }
         
@@ -88,9 +96,7 @@ public class ReservationService {
         reservationRepository.findById(id).ifPresent(reservation -> {
             // Update car status back to available if the reservation was active
             if ("ACTIVE".equals(reservation.getStatus())) {
-                Car car = reservation.getCar();
-                car.setCurrentStatus("AVAILABLE");
-                carRepository.save(car);
+                releaseCar(reservation.getCar());
             }
             
             reservationRepository.deleteById(id);
@@ -153,7 +159,7 @@ public class ReservationService {
     public Reservation markDepositPaid(Long reservationId, BigDecimal amount) {
         return reservationRepository.findById(reservationId)
                 .map(reservation -> {
-                    reservation.setDepositAmount(amount);
+                    reservation.setDepositAmount(Money.of(amount));
                     reservation.setDepositPaid(true);
                     return reservationRepository.save(reservation);
                 })
@@ -169,9 +175,7 @@ public class ReservationService {
             reservation.setStatus("CANCELLED");
             
             // Update car status
-            Car car = reservation.getCar();
-            car.setCurrentStatus("AVAILABLE");
-            carRepository.save(car);
+            releaseCar(reservation.getCar());
             
             return reservationRepository.save(reservation);
         }
@@ -189,22 +193,30 @@ public class ReservationService {
                 .orElse(null);
     }
     
-    @Scheduled(cron = "0 0 0 * * ?") // Run daily at midnight
+    /**
+     * Expires active reservations past their expiry date whose id falls in
+     * {@code [fromId, toId)}. Scheduled through ReservationExpiryJob so each
+     * id range is handled by one node only.
+     */
     @Transactional
-    public void updateExpiredReservations() {
+    public int expireReservations(Long fromId, Long toId) {
         LocalDateTime now = LocalDateTime.now();
-        List<Reservation> expiredReservations = reservationRepository.findByStatusAndExpiryDateBefore("ACTIVE", now);
+        List<Reservation> expiredReservations = reservationRepository
+                .findByStatusAndExpiryDateBeforeInIdRange("ACTIVE", now, fromId, toId);
         
         for (Reservation reservation : expiredReservations) {
             reservation.setStatus("EXPIRED");
             
             // Update car status back to available
-            Car car = reservation.getCar();
-            car.setCurrentStatus("AVAILABLE");
-            carRepository.save(car);
+            releaseCar(reservation.getCar());
             
             reservationRepository.save(reservation);
+            // Runs for every tenant, so the event names the reservation's own
+            eventPublisher.publishEvent(new ReservationExpired(reservation.getTenantId(), reservation.getId(),
+                    reservation.getCar().getId()));
         }
+        
+        return expiredReservations.size();
     }
     
     /**
@@ -218,6 +230,8 @@ public class ReservationService {
      *              STATISTICS AND ANALYTICS
      */
     
+    @CoalescedCache(value = "reservation-statistics", dependsOn = {Aggregate.RESERVATIONS, Aggregate.CARS, Aggregate.CLIENTS})
+    @Transactional(readOnly = true)
     public Map<String, Object> getReservationStatistics() {
         Map<String, Object> statistics = new HashMap<>();
         
@@ -238,12 +252,9 @@ public class ReservationService {
         
         // Deposit statistics
         List<Reservation> activeReservations = reservationRepository.findByStatus("ACTIVE");
-        BigDecimal totalDeposits = activeReservations.stream()
-                .filter(r -> r.getDepositPaid() && r.getDepositAmount() != null)
-                .map(Reservation::getDepositAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        Money totalDeposits = Money.sum(activeReservations, r -> r.getDepositPaid() ? r.getDepositAmount() : null);
         
-        statistics.put("totalDeposits", totalDeposits);
+        statistics.put("totalDeposits", totalDeposits.toBigDecimal());
         statistics.put("depositPaidCount", activeReservations.stream().filter(Reservation::getDepositPaid).count());
         statistics.put("depositPendingCount", activeReservations.stream().filter(r -> !r.getDepositPaid()).count());
         
@@ -281,10 +292,19 @@ public class ReservationService {
         // Check if car status allows reservation
         Optional<Car> carOpt = carRepository.findById(carId);
         if (carOpt.isPresent()) {
-            String status = carOpt.get().getCurrentStatus();
-            return !"SOLD".equals(status) && !"RESERVED".equals(status);
+            CarStatus status = carOpt.get().getCurrentStatus();
+            return status != CarStatus.RESERVED && status.canTransitionTo(CarStatus.RESERVED);
         }
         
         return false;
     }
-}
\ No newline at end of file
+    
+    // Only a car still held by the reservation goes back to stock; a car sold in
+    // the meantime must keep its status.
+    private void releaseCar(Car car) {
+        if (car != null && car.getCurrentStatus() == CarStatus.RESERVED) {
+            car.setCurrentStatus(CarStatus.AVAILABLE);
+            carRepository.save(car);
+        }
+    }
+}
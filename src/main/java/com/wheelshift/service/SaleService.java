@@ -1,13 +1,22 @@
 package com.wheelshift.service;
 
+import com.wheelshift.dto.ProfitGrouping;
+import com.wheelshift.dto.ProfitSummary;
+import com.wheelshift.events.SaleCreated;
+import com.wheelshift.events.SaleDeleted;
+import com.wheelshift.events.SaleUpdated;
 import com.wheelshift.model.Car;
+import com.wheelshift.model.CarStatus;
 import com.wheelshift.model.Client;
 import com.wheelshift.model.Employee;
+import com.wheelshift.model.Money;
 import com.wheelshift.model.Sale;
+import com.wheelshift.repository.CarCostSummaryRepository;
 import com.wheelshift.repository.CarRepository;
 import com.wheelshift.repository.ClientRepository;
 import com.wheelshift.repository.EmployeeRepository;
 import com.wheelshift.repository.SaleRepository;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.PageRequest;
@@ -17,6 +26,10 @@ import org.springframework.transaction.annotation.Transactional;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -29,13 +42,19 @@ public class SaleService {
     private final CarRepository carRepository;
     private final ClientRepository clientRepository;
     private final EmployeeRepository employeeRepository;
+    private final CarCostSummaryRepository carCostSummaryRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     public SaleService(SaleRepository saleRepository, CarRepository carRepository,
-                       ClientRepository clientRepository, EmployeeRepository employeeRepository) {
+                       ClientRepository clientRepository, EmployeeRepository employeeRepository,
+                       CarCostSummaryRepository carCostSummaryRepository,
+                       ApplicationEventPublisher eventPublisher) {
         this.saleRepository = saleRepository;
         this.carRepository = carRepository;
         this.clientRepository = clientRepository;
         this.employeeRepository = employeeRepository;
+        this.carCostSummaryRepository = carCostSummaryRepository;
+        this.eventPublisher = eventPublisher;
     }
     
     /**
@@ -72,27 +91,28 @@ public class SaleService {
                 .orElseThrow(() -> new IllegalArgumentException("Client not found with ID: " + sale.getClient().getId()));
         
         // Validate employee exists
-        @SuppressWarnings("unused")
 		Employee employee = employeeRepository.findById(sale.getHandledBy().getId())
                 .orElseThrow(() -> new IllegalArgumentException("Employee not found with ID: " + sale.getHandledBy().getId()));
         
+        // The request only carries ids; link the managed entities so the response can be mapped
+        sale.setCar(car);
+        sale.setClient(client);
+        sale.setHandledBy(employee);
+        
         // Calculate commission if not set
         if (sale.getCommissionRate() != null && sale.getTotalCommission() == null) {
-            BigDecimal commissionAmount = sale.getSalePrice()
-                    .multiply(sale.getCommissionRate().divide(new BigDecimal("100"), 2, RoundingMode.HALF_UP));
-            sale.setTotalCommission(commissionAmount);
+            sale.setTotalCommission(commission(sale));
         }
         
         // Update car status to sold
-        car.setCurrentStatus("SOLD");
+        car.setCurrentStatus(CarStatus.SOLD);
         carRepository.save(car);
         
-        // Update client's purchase information
-        client.setTotalPurchases(client.getTotalPurchases() + 1);
-        client.setLastPurchase(sale.getSaleDate());
-        clientRepository.save(client);
-        
-        return saleRepository.save(sale);
+        // The client's purchase counters follow from the event, see ClientPurchaseRollup
+        Sale savedSale = saleRepository.save(sale);
+        eventPublisher.publishEvent(new SaleCreated(car.getTenantId(), savedSale.getId(), car.getId(),
+                client.getId(), employee.getId(), savedSale.getSalePrice(), savedSale.getSaleDate()));
+        return savedSale;
     }
     
     @Transactional
@@ -111,20 +131,11 @@ public class SaleService {
         }
         
         // Update client if changed
+        Long previousClientId = null;
         if (saleDetails.getClient() != null && !saleDetails.getClient().getId().equals(sale.getClient().getId())) {
             Client newClient = clientRepository.findById(saleDetails.getClient().getId())
                     .orElseThrow(() -> new IllegalArgumentException("Client not found with ID: " + saleDetails.getClient().getId()));
-            
-            // Update old client's purchase information
-            Client oldClient = sale.getClient();
-            oldClient.setTotalPurchases(oldClient.getTotalPurchases() - 1);
-            clientRepository.save(oldClient);
-            
-            // Update new client's purchase information
-            newClient.setTotalPurchases(newClient.getTotalPurchases() + 1);
-            newClient.setLastPurchase(sale.getSaleDate());
-            clientRepository.save(newClient);
-            
+            previousClientId = sale.getClient().getId();
             sale.setClient(newClient);
         }
         
@@ -138,12 +149,13 @@ public class SaleService {
         // Recalculate commission if needed
         if (saleDetails.getCommissionRate() != null) {
             sale.setCommissionRate(saleDetails.getCommissionRate());
-            BigDecimal commissionAmount = sale.getSalePrice()
-                    .multiply(sale.getCommissionRate().divide(new BigDecimal("100"), 2, RoundingMode.HALF_UP));
-            sale.setTotalCommission(commissionAmount);
+            sale.setTotalCommission(commission(sale));
         }
         
-        return saleRepository.save(sale);
+        Sale savedSale = saleRepository.save(sale);
+        eventPublisher.publishEvent(new SaleUpdated(savedSale.getCar().getTenantId(), savedSale.getId(),
+                savedSale.getCar().getId(), savedSale.getClient().getId(), previousClientId));
+        return savedSale;
     }
 
     @Transactional
@@ -153,23 +165,14 @@ public class SaleService {
         
         // Update car status back to available
         Car car = sale.getCar();
-        car.setCurrentStatus("AVAILABLE");
+        car.setCurrentStatus(CarStatus.AVAILABLE);
+        // The car cascades to its sale, so it would otherwise persist the sale again on flush
+        car.setSale(null);
         carRepository.save(car);
         
-        // Update client's purchase information
-        Client client = sale.getClient();
-        client.setTotalPurchases(client.getTotalPurchases() - 1);
-        
-        // Update last purchase date if needed
-        if (client.getLastPurchase() != null && client.getLastPurchase().equals(sale.getSaleDate())) {
-            // Find the next most recent purchase
-            Optional<Sale> latestSale = saleRepository.findTopByClientIdAndIdNotOrderBySaleDateDesc(client.getId(), id);
-            client.setLastPurchase(latestSale.map(Sale::getSaleDate).orElse(null));
-        }
-        
-        clientRepository.save(client);
-        
         saleRepository.delete(sale);
+        eventPublisher.publishEvent(new SaleDeleted(car.getTenantId(), sale.getId(), car.getId(),
+                sale.getClient().getId()));
     }
     
     /**
@@ -195,12 +198,16 @@ public class SaleService {
         return saleRepository.findByClientId(clientId);
     }
     
+    public List<Sale> findSalesByClients(Collection<Long> clientIds) {
+        return saleRepository.findByClient_IdIn(clientIds);
+    }
+    
     public List<Sale> findSalesByEmployee(Long employeeId) {
         return saleRepository.findByHandledById(employeeId);
     }
 
     public List<Sale> findSalesByPriceRange(BigDecimal minPrice, BigDecimal maxPrice) {
-        return saleRepository.findBySalePriceBetween(minPrice, maxPrice);
+        return saleRepository.findBySalePriceBetween(Money.of(minPrice), Money.of(maxPrice));
     }
 
     public List<Sale> findTopSalesByPrice(int limit) {
@@ -218,16 +225,19 @@ public class SaleService {
      *              STATISTICS AND ANALYTICS
      */
 
+    @SalesStatistics
     public BigDecimal calculateTotalSalesAmount(LocalDate startDate, LocalDate endDate) {
         BigDecimal total = saleRepository.calculateTotalSalesAmount(startDate, endDate);
         return total != null ? total : BigDecimal.ZERO;
     }
 
+    @SalesStatistics
     public BigDecimal calculateTotalCommission(LocalDate startDate, LocalDate endDate) {
         BigDecimal total = saleRepository.calculateTotalCommission(startDate, endDate);
         return total != null ? total : BigDecimal.ZERO;
     }
 
+    @SalesStatistics
     public Map<String, Long> getSalesByPaymentMethod() {
         List<Object[]> results = saleRepository.countSalesByPaymentMethod();
         Map<String, Long> distribution = new HashMap<>();
@@ -241,6 +251,7 @@ public class SaleService {
         return distribution;
     }
 
+    @SalesStatistics
     public List<Map<String, Object>> getMonthlySalesStatistics() {
         List<Object[]> results = saleRepository.findMonthlySalesStatistics();
         return results.stream().map(row -> {
@@ -253,38 +264,25 @@ public class SaleService {
         }).toList();
     }
     
+    @SalesStatistics
     public BigDecimal calculateAverageSalePrice() {
         List<Sale> sales = saleRepository.findAll();
         if (sales.isEmpty()) {
             return BigDecimal.ZERO;
         }
         
-        BigDecimal total = sales.stream()
-                .map(Sale::getSalePrice)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-                
-        return total.divide(new BigDecimal(sales.size()), 2, RoundingMode.HALF_UP);
+        return Money.sum(sales, Sale::getSalePrice).dividedBy(sales.size()).toBigDecimal();
     }
     
+    @SalesStatistics
     public Map<String, BigDecimal> calculateProfitMargin(LocalDate startDate, LocalDate endDate) {
-        List<Sale> sales = saleRepository.findBySaleDateBetween(startDate, endDate);
-        
-        BigDecimal totalRevenue = BigDecimal.ZERO;
-        BigDecimal totalCost = BigDecimal.ZERO;
-        
-        for (Sale sale : sales) {
-            totalRevenue = totalRevenue.add(sale.getSalePrice());
-            totalCost = totalCost.add(sale.getCar().getPurchasePrice() != null ? 
-                    sale.getCar().getPurchasePrice() : BigDecimal.ZERO);
-        }
+        // Costs include repairs and other expenses, not just the purchase price
+        Object[] totals = carCostSummaryRepository.getRevenueAndCost(startDate, endDate).get(0);
+        BigDecimal totalRevenue = totals[0] != null ? (BigDecimal) totals[0] : BigDecimal.ZERO;
+        BigDecimal totalCost = totals[1] != null ? (BigDecimal) totals[1] : BigDecimal.ZERO;
         
         BigDecimal profit = totalRevenue.subtract(totalCost);
-        BigDecimal profitMargin = BigDecimal.ZERO;
-        
-        if (totalRevenue.compareTo(BigDecimal.ZERO) > 0) {
-            profitMargin = profit.divide(totalRevenue, 4, RoundingMode.HALF_UP)
-                    .multiply(new BigDecimal("100"));
-        }
+        BigDecimal profitMargin = margin(profit, totalRevenue);
         
         Map<String, BigDecimal> result = new HashMap<>();
         result.put("totalRevenue", totalRevenue);
@@ -295,21 +293,71 @@ public class SaleService {
         return result;
     }
     
+    /**
+     * Revenue, cost and profit of the cars sold between two dates, grouped by
+     * make, model, month of sale or the employee who sold them.
+     */
+    @SalesStatistics
+    public List<ProfitSummary> getProfitReport(ProfitGrouping groupBy, LocalDate startDate, LocalDate endDate) {
+        List<Object[]> rows = switch (groupBy) {
+            case MAKE -> carCostSummaryRepository.getProfitByMake(startDate, endDate);
+            case MODEL -> carCostSummaryRepository.getProfitByModel(startDate, endDate);
+            case MONTH -> carCostSummaryRepository.getProfitByMonth(startDate, endDate);
+            case EMPLOYEE -> carCostSummaryRepository.getProfitByEmployee(startDate, endDate);
+        };
+        
+        List<ProfitSummary> report = new ArrayList<>();
+        for (Object[] row : rows) {
+            String group = String.valueOf(row[0]);
+            if (groupBy == ProfitGrouping.MONTH) {
+                int yearMonth = ((Number) row[0]).intValue();
+                group = YearMonth.of(yearMonth / 100, yearMonth % 100).toString();
+            }
+            BigDecimal revenue = (BigDecimal) row[2];
+            BigDecimal profit = (BigDecimal) row[4];
+            report.add(ProfitSummary.builder()
+                    .group(group)
+                    .carsSold((Long) row[1])
+                    .revenue(revenue)
+                    .cost((BigDecimal) row[3])
+                    .profit(profit)
+                    .profitMargin(margin(profit, revenue))
+                    .build());
+        }
+        report.sort(Comparator.comparing(ProfitSummary::getGroup));
+        return report;
+    }
+    
+    /**
+     * The commission rate is a percentage. The product is rounded once, to
+     * cents, as the generated sales are.
+     */
+    private static Money commission(Sale sale) {
+        return sale.getSalePrice().percent(sale.getCommissionRate());
+    }
+    
+    private static BigDecimal margin(BigDecimal profit, BigDecimal revenue) {
+        if (revenue.compareTo(BigDecimal.ZERO) <= 0) {
+            return BigDecimal.ZERO;
+        }
+        return profit.divide(revenue, 4, RoundingMode.HALF_UP).multiply(new BigDecimal("100"));
+    }
+    
+    @SalesStatistics
     public Map<Integer, BigDecimal> getYearlySalesPerformance() {
         List<Sale> sales = saleRepository.findAll();
-        Map<Integer, BigDecimal> yearlyPerformance = new HashMap<>();
+        Map<Integer, Money> yearlyTotals = new HashMap<>();
         
         for (Sale sale : sales) {
-            int year = sale.getSaleDate().getYear();
-            BigDecimal saleAmount = sale.getSalePrice();
-            
-            yearlyPerformance.put(year, 
-                    yearlyPerformance.getOrDefault(year, BigDecimal.ZERO).add(saleAmount));
+            yearlyTotals.merge(sale.getSaleDate().getYear(), sale.getSalePrice(), Money::plus);
         }
         
+        Map<Integer, BigDecimal> yearlyPerformance = new HashMap<>();
+        yearlyTotals.forEach((year, total) -> yearlyPerformance.put(year, total.toBigDecimal()));
         return yearlyPerformance;
     }
     
+    @SalesStatistics
     public Map<Long, Integer> getTopSalespersons(int limit) {
         List<Object[]> results = saleRepository.findTopSellingEmployees(PageRequest.of(0, limit));
         Map<Long, Integer> topSalespersons = new HashMap<>();
@@ -323,6 +371,7 @@ public class SaleService {
         return topSalespersons;
     }
     
+    @SalesStatistics
     public Map<Long, BigDecimal> getTopClients(int limit) {
         List<Object[]> results = saleRepository.findTopClients(PageRequest.of(0, limit));
         Map<Long, BigDecimal> topClients = new HashMap<>();
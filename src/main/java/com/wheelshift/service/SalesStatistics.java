@@ -0,0 +1,26 @@
+package com.wheelshift.service;
+
+import com.wheelshift.cache.CoalescedCache;
+import com.wheelshift.versioning.Aggregate;
+
+import org.springframework.transaction.annotation.Transactional;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * A read-only sales statistic, cached in {@code sales-statistics}. The
+ * statistics join sales with their cars, clients and employees, so a change
+ * to any of those makes them stale.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@CoalescedCache(value = "sales-statistics",
+        dependsOn = {Aggregate.SALES, Aggregate.CARS, Aggregate.CLIENTS, Aggregate.EMPLOYEES})
+@Transactional(readOnly = true)
+public @interface SalesStatistics {
+}
@@ -1,10 +1,13 @@
 package com.wheelshift.service;
 
+import com.wheelshift.cache.CoalescedCache;
 import com.wheelshift.dto.LocationStatistics;
 import com.wheelshift.model.StorageLocation;
 import com.wheelshift.repository.StorageLocationRepository;
+import com.wheelshift.versioning.Aggregate;
+import com.wheelshift.versioning.ChangeVersions;
 import jakarta.persistence.EntityNotFoundException;
-import jakarta.transaction.Transactional;
+import org.springframework.transaction.annotation.Transactional;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
@@ -18,6 +21,7 @@ import java.util.stream.Collectors;
 public class StorageLocationService {
 
     private final StorageLocationRepository storageLocationRepository;
+    private final ChangeVersions changeVersions;
 
     /**
 	 *	   _____ _____  _    _ _____  
@@ -105,6 +109,20 @@ public class StorageLocationService {
         return storageLocationRepository.save(location);
     }
     
+    /**
+     * Recomputes currentVehicleCount from the cars actually stored at each location
+     * with id in {@code [fromId, toId)}. Returns the number of locations corrected.
+     */
+    @Transactional
+    public int reconcileVehicleCounts(Long fromId, Long toId) {
+        int corrected = storageLocationRepository.reconcileVehicleCounts(fromId, toId);
+        if (corrected > 0) {
+            // Bulk update, the entity listeners don't see it
+            changeVersions.changed(Aggregate.LOCATIONS, Aggregate.CARS);
+        }
+        return corrected;
+    }
+    
     /**
 	 *	   _____ ______          _____   _____ _    _ 
 	 *	  / ____|  ____|   /\   |  __ \ / ____| |  | |
@@ -146,6 +164,8 @@ public class StorageLocationService {
 	 *				STATISTICS AND ANALYTICS
      */
     
+    @CoalescedCache(value = "location-statistics", dependsOn = {Aggregate.LOCATIONS, Aggregate.CARS})
+    @Transactional(readOnly = true)
     public LocationStatistics getLocationStatistics() {
         LocationStatistics statistics = new LocationStatistics();
         
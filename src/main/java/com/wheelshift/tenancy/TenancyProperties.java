@@ -0,0 +1,32 @@
+package com.wheelshift.tenancy;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tenant resolution ({@code wheelshift.tenancy.*}).
+ */
+@Data
+@ConfigurationProperties(prefix = "wheelshift.tenancy")
+public class TenancyProperties {
+
+    /** Request header naming the tenant; requests without it belong to the default tenant. */
+    private String header = "X-Tenant-Id";
+
+    /**
+     * Addresses or CIDR ranges of callers whose tenant header is taken without
+     * an access token, e.g. the edge proxies. Everyone else needs a token to
+     * reach a tenant other than the default one.
+     */
+    private List<String> headerTrustedFrom = new ArrayList<>();
+
+    /**
+     * Tenants this deployment serves, empty for any. Tenants that have been
+     * moved to a deployment with a database of their own are left out here,
+     * and requests for them are answered 421 so the edge can route them there.
+     */
+    private List<String> served = new ArrayList<>();
+}
@@ -0,0 +1,75 @@
+package com.wheelshift.tenancy;
+
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+/**
+ * The dealership the current thread works for. Requests are bound to one by
+ * {@link TenantFilter}; anything else runs for {@link #DEFAULT_TENANT}
+ * unless it binds one itself. {@link #ROOT} sees the rows of every tenant and
+ * is meant for maintenance that spans all of them, such as scheduled jobs.
+ */
+public final class TenantContext {
+
+    /** Tenant of rows written before tenancy, and of requests that name none. */
+    public static final String DEFAULT_TENANT = "default";
+
+    public static final String ROOT = "*";
+
+    private static final Pattern TENANT_ID = Pattern.compile("[a-z0-9][a-z0-9-]{0,31}");
+    private static final ThreadLocal<String> CURRENT = new ThreadLocal<>();
+
+    private TenantContext() {
+    }
+
+    public static String current() {
+        String tenant = CURRENT.get();
+        return tenant != null ? tenant : DEFAULT_TENANT;
+    }
+
+    public static boolean isRoot() {
+        return ROOT.equals(current());
+    }
+
+    public static boolean isValid(String tenantId) {
+        return tenantId != null && TENANT_ID.matcher(tenantId).matches();
+    }
+
+    /**
+     * Runs {@code work} for {@code tenantId}, restoring the previous tenant
+     * afterwards.
+     */
+    public static <T> T callAs(String tenantId, Supplier<T> work) {
+        String previous = bind(tenantId);
+        try {
+            return work.get();
+        } finally {
+            restore(previous);
+        }
+    }
+
+    public static void runAs(String tenantId, Runnable work) {
+        callAs(tenantId, () -> {
+            work.run();
+            return null;
+        });
+    }
+
+    /**
+     * Binds {@code tenantId} to the thread and returns the tenant it replaces,
+     * to be handed to {@link #restore(String)}.
+     */
+    static String bind(String tenantId) {
+        String previous = CURRENT.get();
+        CURRENT.set(tenantId);
+        return previous;
+    }
+
+    static void restore(String previous) {
+        if (previous != null) {
+            CURRENT.set(previous);
+        } else {
+            CURRENT.remove();
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.wheelshift.tenancy;
+
+import com.wheelshift.auth.TokenClaims;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.util.matcher.IpAddressMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Binds each request to its tenant. An access token decides the tenant, and a
+ * tenant header that disagrees with it is answered 403. Without a token the
+ * header is only taken from callers in {@code header-trusted-from}, such as an
+ * edge that has authenticated the client itself; anyone else naming a tenant
+ * other than the default one is answered 401. Without either the request
+ * belongs to the default tenant. Runs after the security filters so the token
+ * is known.
+ */
+public class TenantFilter extends OncePerRequestFilter {
+
+    // Not in HttpStatus: the request reached a server that cannot answer for its tenant
+    private static final int SC_MISDIRECTED_REQUEST = 421;
+
+    private final TenancyProperties properties;
+    private final List<IpAddressMatcher> trustedCallers;
+
+    public TenantFilter(TenancyProperties properties) {
+        this.properties = properties;
+        this.trustedCallers = properties.getHeaderTrustedFrom().stream().map(IpAddressMatcher::new).toList();
+    }
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    @Override
+    protected boolean shouldNotFilterErrorDispatch() {
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String requested = request.getHeader(properties.getHeader());
+        String authenticated = authenticatedTenant();
+        if (requested != null && !TenantContext.isValid(requested)) {
+            response.sendError(HttpStatus.BAD_REQUEST.value(), "Invalid " + properties.getHeader());
+            return;
+        }
+        if (authenticated != null && requested != null && !authenticated.equals(requested)) {
+            response.sendError(HttpStatus.FORBIDDEN.value(), "The access token belongs to another tenant");
+            return;
+        }
+        if (authenticated == null && requested != null && !TenantContext.DEFAULT_TENANT.equals(requested)
+                && !isTrusted(request)) {
+            response.sendError(HttpStatus.UNAUTHORIZED.value(), "An access token is needed to pick the tenant");
+            return;
+        }
+        String tenant = authenticated != null ? authenticated
+                : requested != null ? requested : TenantContext.DEFAULT_TENANT;
+        if (!properties.getServed().isEmpty() && !properties.getServed().contains(tenant)) {
+            response.sendError(SC_MISDIRECTED_REQUEST, "Tenant " + tenant + " is not served here");
+            return;
+        }
+        String previous = TenantContext.bind(tenant);
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            TenantContext.restore(previous);
+        }
+    }
+
+    private boolean isTrusted(HttpServletRequest request) {
+        for (IpAddressMatcher matcher : trustedCallers) {
+            if (matcher.matches(request)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String authenticatedTenant() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null && authentication.getPrincipal() instanceof TokenClaims claims
+                ? claims.tenantId() : null;
+    }
+}
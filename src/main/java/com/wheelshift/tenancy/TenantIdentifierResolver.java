@@ -0,0 +1,26 @@
+package com.wheelshift.tenancy;
+
+import org.hibernate.context.spi.CurrentTenantIdentifierResolver;
+
+/**
+ * Hands the {@link TenantContext} to Hibernate, which stamps it on every
+ * {@code @TenantId} entity it inserts and adds it as a restriction to every
+ * query, so repositories and Specifications only ever see one tenant's rows.
+ */
+public class TenantIdentifierResolver implements CurrentTenantIdentifierResolver<String> {
+
+    @Override
+    public String resolveCurrentTenantIdentifier() {
+        return TenantContext.current();
+    }
+
+    @Override
+    public boolean validateExistingCurrentSessions() {
+        return false;
+    }
+
+    @Override
+    public boolean isRoot(String tenantId) {
+        return TenantContext.ROOT.equals(tenantId);
+    }
+}
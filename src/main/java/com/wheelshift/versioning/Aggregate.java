@@ -0,0 +1,17 @@
+package com.wheelshift.versioning;
+
+/**
+ * Groups of tables whose reads are cached by clients as a unit. Each has one
+ * version in {@code aggregate_versions} that goes up whenever a committed write
+ * touches any of its tables, see {@link ChangeTracked}.
+ */
+public enum Aggregate {
+    CARS,
+    SALES,
+    RESERVATIONS,
+    KANBAN,
+    CALENDAR,
+    LOCATIONS,
+    CLIENTS,
+    EMPLOYEES
+}
@@ -0,0 +1,21 @@
+package com.wheelshift.versioning;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Names the aggregates whose version a committed insert, update or delete of
+ * this entity bumps. An entity that is serialized as part of another one (an
+ * inspection inside a car) lists that aggregate too. Needs
+ * {@link ChangeVersionListener} among the entity's listeners.
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface ChangeTracked {
+
+    Aggregate[] value();
+}
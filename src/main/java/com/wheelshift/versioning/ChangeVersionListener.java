@@ -0,0 +1,39 @@
+package com.wheelshift.versioning;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.core.annotation.AnnotationUtils;
+
+/**
+ * Entity listener that reports every insert, update and delete of a
+ * {@link ChangeTracked} entity to {@link ChangeVersions}, which bumps the listed
+ * aggregates once the transaction commits. Writes that bypass JPA report their
+ * aggregates to {@link ChangeVersions} themselves.
+ */
+public class ChangeVersionListener {
+
+    private static final ClassValue<Aggregate[]> TRACKED = new ClassValue<>() {
+        @Override
+        protected Aggregate[] computeValue(Class<?> type) {
+            ChangeTracked tracked = AnnotationUtils.findAnnotation(type, ChangeTracked.class);
+            return tracked == null ? new Aggregate[0] : tracked.value();
+        }
+    };
+
+    private final ChangeVersions changeVersions;
+
+    public ChangeVersionListener(ChangeVersions changeVersions) {
+        this.changeVersions = changeVersions;
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void changed(Object entity) {
+        Aggregate[] aggregates = TRACKED.get(entity.getClass());
+        if (aggregates.length > 0) {
+            changeVersions.changed(aggregates);
+        }
+    }
+}
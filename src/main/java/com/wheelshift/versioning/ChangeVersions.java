@@ -0,0 +1,272 @@
+package com.wheelshift.versioning;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Keeps one change counter per {@link Aggregate} in {@code aggregate_versions}
+ * and an in-memory copy of all of them, so a conditional GET is answered
+ * without a query.
+ *
+ * Writes report the aggregates they touch through {@link #changed}; the
+ * counters are bumped once the surrounding transaction has committed, at most
+ * once per aggregate and transaction. Bumps made by other nodes are picked up
+ * by polling the table. Until the first poll, and while a bump that failed is
+ * being retried, an aggregate's version is unknown and requests depending on it
+ * are answered normally.
+ */
+@Component
+@Slf4j
+public class ChangeVersions {
+
+    private static final String SELECT_VERSIONS = "SELECT aggregate, version, modified_at FROM aggregate_versions";
+    private static final String BUMP_VERSION =
+            "UPDATE aggregate_versions SET version = version + 1, modified_at = ? WHERE aggregate = ?";
+    private static final String INSERT_VERSION =
+            "INSERT INTO aggregate_versions (aggregate, version, modified_at) VALUES (?, ?, ?)";
+    private static final Aggregate[] AGGREGATES = Aggregate.values();
+
+    /**
+     * Version of an aggregate and when it was last bumped.
+     */
+    public record Version(long version, Instant modifiedAt) {
+    }
+
+    private record Row(Aggregate aggregate, Version version) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectProvider<PlatformTransactionManager> transactionManager;
+    private volatile TransactionTemplate separateTransaction;
+    // Indexed by ordinal, null while unknown
+    private final AtomicReferenceArray<Version> versions = new AtomicReferenceArray<>(AGGREGATES.length);
+    // Committed changes whose bump failed, retried by the next poll
+    private final Set<Aggregate> failedBumps = Collections.synchronizedSet(EnumSet.noneOf(Aggregate.class));
+    private volatile boolean seeded;
+
+    /**
+     * The transaction manager is looked up on first use, because the entity
+     * manager factory behind it creates the {@link ChangeVersionListener} that
+     * depends on this bean.
+     */
+    public ChangeVersions(JdbcTemplate jdbcTemplate, ObjectProvider<PlatformTransactionManager> transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionManager = transactionManager;
+    }
+
+    /* ===== Reads ===== */
+
+    public Version current(Aggregate aggregate) {
+        return versions.get(aggregate.ordinal());
+    }
+
+    /**
+     * Strong entity tag made of the versions of the given aggregates, or null
+     * when one of them is unknown.
+     */
+    public String etag(Aggregate... aggregates) {
+        StringJoiner tag = new StringJoiner(".", "\"", "\"");
+        for (Aggregate aggregate : aggregates) {
+            Version version = current(aggregate);
+            if (version == null) {
+                return null;
+            }
+            tag.add(Long.toString(version.version()));
+        }
+        return tag.toString();
+    }
+
+    /**
+     * Current version numbers of the given aggregates, with null for unknown
+     * ones. Meant for cache keys that must change with the data.
+     */
+    public List<Long> versionsOf(Aggregate... aggregates) {
+        List<Long> numbers = new ArrayList<>(aggregates.length);
+        for (Aggregate aggregate : aggregates) {
+            Version version = current(aggregate);
+            numbers.add(version == null ? null : version.version());
+        }
+        return numbers;
+    }
+
+    /* ===== Writes ===== */
+
+    /**
+     * Records that the current transaction changed the given aggregates. Without
+     * a transaction their versions are bumped right away.
+     */
+    public void changed(Aggregate... aggregates) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            bump(toSet(aggregates));
+            return;
+        }
+        pendingChanges().aggregates.addAll(toSet(aggregates));
+    }
+
+    private PendingChanges pendingChanges() {
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            if (synchronization instanceof PendingChanges pending && pending.owner() == this) {
+                return pending;
+            }
+        }
+        PendingChanges pending = new PendingChanges();
+        TransactionSynchronizationManager.registerSynchronization(pending);
+        return pending;
+    }
+
+    /**
+     * Bumps the versions in a transaction of their own and reads them back. The
+     * updates run in enum order so concurrent bumps lock the rows in the same
+     * order. A failed bump leaves the aggregates unknown until a retry succeeds,
+     * rather than serving 304s for data that has changed.
+     */
+    private void bump(Set<Aggregate> aggregates) {
+        if (aggregates.isEmpty()) {
+            return;
+        }
+        Timestamp now = Timestamp.from(Instant.now());
+        try {
+            List<Row> rows = separateTransaction().execute(status -> {
+                for (Aggregate aggregate : aggregates) {
+                    if (jdbcTemplate.update(BUMP_VERSION, now, aggregate.name()) == 0) {
+                        jdbcTemplate.update(INSERT_VERSION, aggregate.name(), 1L, now);
+                    }
+                }
+                return selectVersions();
+            });
+            failedBumps.removeAll(aggregates);
+            apply(rows);
+        } catch (RuntimeException e) {
+            log.warn("Bumping the versions of {} failed, retrying on the next poll: {}", aggregates, e.toString());
+            failedBumps.addAll(aggregates);
+            for (Aggregate aggregate : aggregates) {
+                versions.set(aggregate.ordinal(), null);
+            }
+        }
+    }
+
+    /* ===== Polling ===== */
+
+    /**
+     * Picks up bumps made by other nodes, and retries failed ones. The first run
+     * also inserts the rows of aggregates the table does not have yet.
+     */
+    @Scheduled(fixedDelayString = "${wheelshift.versions.poll-interval-ms:1000}")
+    public void refresh() {
+        try {
+            if (!seeded) {
+                seed();
+            }
+            Set<Aggregate> retries;
+            synchronized (failedBumps) {
+                retries = failedBumps.isEmpty() ? EnumSet.noneOf(Aggregate.class) : EnumSet.copyOf(failedBumps);
+            }
+            if (!retries.isEmpty()) {
+                bump(retries);
+                return;
+            }
+            apply(selectVersions());
+        } catch (RuntimeException e) {
+            log.warn("Reading aggregate versions failed: {}", e.toString());
+        }
+    }
+
+    private void seed() {
+        Set<Aggregate> missing = EnumSet.allOf(Aggregate.class);
+        for (Row row : selectVersions()) {
+            missing.remove(row.aggregate());
+        }
+        for (Aggregate aggregate : missing) {
+            try {
+                jdbcTemplate.update(INSERT_VERSION, aggregate.name(), 0L, Timestamp.from(Instant.now()));
+            } catch (DuplicateKeyException e) {
+                // Another node inserted it first
+            }
+        }
+        seeded = true;
+    }
+
+    private List<Row> selectVersions() {
+        return jdbcTemplate.query(SELECT_VERSIONS, (rs, rowNum) -> {
+            Aggregate aggregate;
+            try {
+                aggregate = Aggregate.valueOf(rs.getString(1));
+            } catch (IllegalArgumentException e) {
+                // Written by a newer build
+                aggregate = null;
+            }
+            return new Row(aggregate, new Version(rs.getLong(2), rs.getTimestamp(3).toInstant()));
+        });
+    }
+
+    /**
+     * Takes over the versions read from the table, never going back to an older
+     * one, and skipping aggregates whose failed bump is still pending.
+     */
+    private void apply(List<Row> rows) {
+        for (Row row : rows) {
+            if (row.aggregate() == null || failedBumps.contains(row.aggregate())) {
+                continue;
+            }
+            versions.accumulateAndGet(row.aggregate().ordinal(), row.version(),
+                    (current, candidate) -> current == null || candidate.version() >= current.version() ? candidate : current);
+        }
+    }
+
+    /* ===== Helpers ===== */
+
+    private TransactionTemplate separateTransaction() {
+        if (separateTransaction == null) {
+            TransactionTemplate template = new TransactionTemplate(transactionManager.getObject());
+            template.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+            separateTransaction = template;
+        }
+        return separateTransaction;
+    }
+
+    private static Set<Aggregate> toSet(Aggregate[] aggregates) {
+        Set<Aggregate> set = EnumSet.noneOf(Aggregate.class);
+        Collections.addAll(set, aggregates);
+        return set;
+    }
+
+    /**
+     * Aggregates changed by one transaction. Bumped after completion rather than
+     * after commit, so that the in-memory indexes, which follow commits in
+     * {@code afterCommit}, are up to date before the new version can be seen.
+     */
+    private final class PendingChanges implements TransactionSynchronization {
+
+        private final Set<Aggregate> aggregates = EnumSet.noneOf(Aggregate.class);
+
+        ChangeVersions owner() {
+            return ChangeVersions.this;
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            if (status == STATUS_COMMITTED) {
+                bump(aggregates);
+            }
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.wheelshift.versioning;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Answers GET and HEAD requests to a controller method, or to every method of a
+ * controller, with an {@code ETag} taken from the versions of the listed
+ * aggregates, and with 304 Not Modified when the client already has that tag,
+ * before the handler runs. See {@link ConditionalGetInterceptor}.
+ *
+ * Only suitable for responses that are fully determined by the request and the
+ * listed aggregates. An annotation on the method replaces the one on the class,
+ * and an empty list turns conditional requests off for that method, e.g. for
+ * results relative to the current time.
+ */
+@Target({ElementType.TYPE, ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface ConditionalGet {
+
+    Aggregate[] value();
+}
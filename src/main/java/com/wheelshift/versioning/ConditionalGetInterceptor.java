@@ -0,0 +1,94 @@
+package com.wheelshift.versioning;
+
+import com.wheelshift.tenancy.TenantContext;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Handles {@link ConditionalGet} before the controller method runs. The tag is
+ * taken before the handler reads anything, so a write that commits in between
+ * can only make the tag older than the body, which costs the client one more
+ * full response but never a stale one. The tag is weak: it names the data,
+ * and every encoding of it negotiated from {@code Accept} gets the same one.
+ */
+public class ConditionalGetInterceptor implements HandlerInterceptor {
+
+    // Revalidate on every use, but keep the body for the 304s
+    private static final String CACHE_CONTROL = "private, no-cache";
+
+    private final ChangeVersions changeVersions;
+
+    public ConditionalGetInterceptor(ChangeVersions changeVersions) {
+        this.changeVersions = changeVersions;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!(handler instanceof HandlerMethod handlerMethod) || !isGetOrHead(request)) {
+            return true;
+        }
+        ConditionalGet conditionalGet = handlerMethod.getMethodAnnotation(ConditionalGet.class);
+        if (conditionalGet == null) {
+            conditionalGet = AnnotatedElementUtils.findMergedAnnotation(handlerMethod.getBeanType(), ConditionalGet.class);
+        }
+        if (conditionalGet == null || conditionalGet.value().length == 0) {
+            return true;
+        }
+        String etag = changeVersions.etag(conditionalGet.value());
+        if (etag == null) {
+            return true;
+        }
+        // Versions are shared by all tenants, so each gets tags of its own
+        String tenant = TenantContext.current();
+        if (!TenantContext.DEFAULT_TENANT.equals(tenant)) {
+            etag = "\"" + tenant + ":" + etag.substring(1);
+        }
+        // Weak, since the JSON, CBOR, Smile and protobuf bodies all share it
+        etag = "W/" + etag;
+        // Set before Spring Security's default headers, which would forbid storing the body
+        response.setHeader(HttpHeaders.CACHE_CONTROL, CACHE_CONTROL);
+        // A cached body only answers its own Accept
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        // No Last-Modified: it is shared by all tenants, and two writes in the same second would look unchanged
+        return !new ServletWebRequest(request, response).checkNotModified(etag);
+    }
+
+    /**
+     * Called when the body of the current response is built from a value
+     * computed at older versions than the ones its tag was taken from. The tag
+     * is replaced by one that names those versions and that no current version
+     * produces, so the client's next request gets a full response. Does nothing
+     * outside a request or when the response has no tag.
+     */
+    public static void retagAsBehind(List<Long> versions) {
+        if (!(RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes)) {
+            return;
+        }
+        HttpServletResponse response = attributes.getResponse();
+        if (response == null || response.isCommitted()) {
+            return;
+        }
+        String etag = response.getHeader(HttpHeaders.ETAG);
+        if (etag == null) {
+            return;
+        }
+        String behind = versions.stream().map(String::valueOf).collect(Collectors.joining("."));
+        response.setHeader(HttpHeaders.ETAG, etag.substring(0, etag.length() - 1) + "~" + behind + "\"");
+    }
+
+    private static boolean isGetOrHead(HttpServletRequest request) {
+        return HttpMethod.GET.matches(request.getMethod()) || HttpMethod.HEAD.matches(request.getMethod());
+    }
+}
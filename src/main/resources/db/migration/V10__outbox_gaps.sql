@@ -0,0 +1,13 @@
+-- Events an outbox consumer moved past before they were committed, which it
+-- still reads until they appear or it stops waiting for them.
+
+create table outbox_gaps (
+    id bigint not null auto_increment,
+    consumer_name varchar(64) not null,
+    event_id bigint not null,
+    noticed_at datetime(6) not null,
+    primary key (id)
+) engine=InnoDB;
+
+create unique index uk_outbox_gap_event
+    on outbox_gaps (consumer_name, event_id);
@@ -0,0 +1,457 @@
+-- Baseline schema, equivalent to what ddl-auto=update produced for the
+-- entities at the time versioned migrations were introduced (including the
+-- CarStatus status_code column and job_leases).
+--
+-- Existing databases are baselined at version 1 (spring.flyway.baseline-on-migrate)
+-- and skip this script, so they must have been started once by the last build
+-- running ddl-auto=update (and had db/scripts/car_status_codes.sql applied).
+-- Fresh databases are created from it. Every later schema change needs its own
+-- V<n>__*.sql script next to this one.
+
+create table calendar_events (
+    created_at datetime(6),
+    end_time datetime(6) not null,
+    id bigint not null auto_increment,
+    start_time datetime(6) not null,
+    updated_at datetime(6),
+    background_color varchar(255) not null,
+    border_color varchar(255) not null,
+    car_details varchar(255) not null,
+    created_by varchar(255),
+    customer_name varchar(255) not null,
+    title varchar(255) not null,
+    updated_by varchar(255),
+    event_type enum ('DELIVERY','INSPECTION','MAINTENANCE','NEGOTIATION','TEST_DRIVE') not null,
+    primary key (id)
+) engine=InnoDB;
+
+create table car_additional_features (
+    car_specs_id bigint not null,
+    feature_name varchar(255) not null,
+    feature_value varchar(255),
+    primary key (car_specs_id, feature_name)
+) engine=InnoDB;
+
+create table car_detailed_specs (
+    acceleration0to100 decimal(38,2),
+    cargo_capacity_liters decimal(38,2),
+    doors integer,
+    seats integer,
+    top_speed integer,
+    car_id bigint,
+    created_at datetime(6),
+    id bigint not null auto_increment,
+    updated_at datetime(6),
+    primary key (id)
+) engine=InnoDB;
+
+create table car_inspections (
+    estimated_repair_cost decimal(38,2),
+    inspection_date date not null,
+    inspection_pass bit,
+    car_id bigint not null,
+    created_at datetime(6),
+    id bigint not null auto_increment,
+    accident_history TEXT,
+    electrical_condition TEXT,
+    exterior_condition TEXT,
+    inspection_report_filename varchar(255),
+    inspector_name varchar(255),
+    interior_condition TEXT,
+    mechanical_condition TEXT,
+    overall_condition varchar(255),
+    required_repairs TEXT,
+    inspection_report_pdf longblob,
+    primary key (id)
+) engine=InnoDB;
+
+create table car_models (
+    gears integer,
+    id integer not null auto_increment,
+    body_type varchar(255),
+    emission_norm varchar(255),
+    fuel_tank_capacity varchar(255),
+    fuel_type varchar(255),
+    make varchar(255) not null,
+    model varchar(255) not null,
+    transmission_type varchar(255),
+    variant varchar(255),
+    primary key (id)
+) engine=InnoDB;
+
+create table cars (
+    engine_capacity decimal(38,2),
+    mileage decimal(38,2),
+    model_id integer not null,
+    purchase_date date,
+    purchase_price decimal(38,2),
+    selling_price decimal(38,2),
+    status_code TINYINT not null,
+    year integer not null,
+    created_at datetime(6),
+    id bigint not null auto_increment,
+    location_id bigint,
+    updated_at datetime(6),
+    vin_number varchar(17) not null,
+    color varchar(255),
+    registration_number varchar(255),
+    primary key (id)
+) engine=InnoDB;
+
+create table clients (
+    last_purchase date,
+    total_purchases integer,
+    created_at datetime(6),
+    id bigint not null auto_increment,
+    updated_at datetime(6),
+    email varchar(255) not null,
+    location varchar(255),
+    name varchar(255) not null,
+    phone varchar(255) not null,
+    status varchar(255) not null,
+    primary key (id)
+) engine=InnoDB;
+
+create table employees (
+    join_date date not null,
+    created_at datetime(6),
+    id bigint not null auto_increment,
+    last_login datetime(6),
+    updated_at datetime(6),
+    department varchar(255) not null,
+    email varchar(255) not null,
+    name varchar(255) not null,
+    password varchar(255) not null,
+    performance varchar(255),
+    phone varchar(255) not null,
+    position varchar(255) not null,
+    status varchar(255) not null,
+    primary key (id)
+) engine=InnoDB;
+
+create table financial_transactions (
+    amount decimal(38,2) not null,
+    transaction_date date not null,
+    car_id bigint not null,
+    created_at datetime(6),
+    id bigint not null auto_increment,
+    description TEXT,
+    receipt_url varchar(255),
+    transaction_type varchar(255) not null,
+    vendor_name varchar(255),
+    primary key (id)
+) engine=InnoDB;
+
+create table inquiries (
+    assigned_employee_id bigint,
+    car_id bigint,
+    client_id bigint not null,
+    created_at datetime(6),
+    id bigint not null auto_increment,
+    response_date datetime(6),
+    updated_at datetime(6),
+    inquiry_type varchar(255) not null,
+    message TEXT not null,
+    response TEXT,
+    status varchar(255) not null,
+    primary key (id)
+) engine=InnoDB;
+
+create table job_leases (
+    partition_no integer not null,
+    id bigint not null auto_increment,
+    last_duration_ms bigint,
+    last_finished_at datetime(6),
+    last_rows_processed bigint,
+    last_started_at datetime(6),
+    lease_until datetime(6),
+    range_end bigint,
+    range_start bigint,
+    completed_run_key varchar(64),
+    job_name varchar(64) not null,
+    planned_run_key varchar(64),
+    owner varchar(128),
+    last_error varchar(512),
+    primary key (id)
+) engine=InnoDB;
+
+create table kanban_columns (
+    position integer,
+    id bigint not null auto_increment,
+    column_id varchar(255),
+    title varchar(255),
+    primary key (id)
+) engine=InnoDB;
+
+create table reservations (
+    deposit_amount decimal(38,2),
+    deposit_paid bit,
+    car_id bigint not null,
+    client_id bigint not null,
+    created_at datetime(6),
+    expiry_date datetime(6) not null,
+    id bigint not null auto_increment,
+    reservation_date datetime(6) not null,
+    updated_at datetime(6),
+    notes TEXT,
+    status varchar(255) not null,
+    primary key (id)
+) engine=InnoDB;
+
+create table sales (
+    commission_rate decimal(38,2),
+    sale_date date not null,
+    sale_price decimal(38,2) not null,
+    total_commission decimal(38,2),
+    car_id bigint not null,
+    client_id bigint not null,
+    created_at datetime(6),
+    handled_by_id bigint not null,
+    id bigint not null auto_increment,
+    payment_method varchar(255),
+    sale_documents_url varchar(255),
+    primary key (id)
+) engine=InnoDB;
+
+create table storage_locations (
+    current_vehicle_count integer,
+    total_capacity integer,
+    id bigint not null auto_increment,
+    address varchar(255) not null,
+    contact_number varchar(255),
+    contact_person varchar(255),
+    name varchar(255) not null,
+    primary key (id)
+) engine=InnoDB;
+
+create table task_positions (
+    position integer,
+    column_id bigint,
+    id bigint not null auto_increment,
+    task_id bigint,
+    primary key (id)
+) engine=InnoDB;
+
+create table task_tags (
+    task_id bigint not null,
+    tag varchar(255)
+) engine=InnoDB;
+
+create table tasks (
+    due_date date,
+    column_id bigint,
+    id bigint not null auto_increment,
+    assignee varchar(255),
+    description varchar(255),
+    task_id varchar(255),
+    title varchar(255),
+    priority enum ('HIGH','LOW','MEDIUM'),
+    primary key (id)
+) engine=InnoDB;
+
+alter table car_detailed_specs
+    add constraint UKn7f1fk7c00etjndedm3a8b8tx unique (car_id);
+
+create index idx_inspection_car
+    on car_inspections (car_id);
+
+create index idx_inspection_date
+    on car_inspections (inspection_date);
+
+create index idx_inspection_pass
+    on car_inspections (inspection_pass);
+
+alter table car_models
+    add constraint uk_car_model_make_model_variant unique (make, model, variant);
+
+create index idx_car_registration
+    on cars (registration_number);
+
+create index idx_car_status
+    on cars (status_code);
+
+create index idx_car_model
+    on cars (model_id);
+
+create index idx_car_location
+    on cars (location_id);
+
+create index idx_car_year
+    on cars (year);
+
+alter table cars
+    add constraint idx_car_vin unique (vin_number);
+
+create index idx_client_phone
+    on clients (phone);
+
+create index idx_client_status
+    on clients (status);
+
+alter table clients
+    add constraint idx_client_email unique (email);
+
+create index idx_employee_position
+    on employees (position);
+
+create index idx_employee_department
+    on employees (department);
+
+create index idx_employee_status
+    on employees (status);
+
+alter table employees
+    add constraint idx_employee_email unique (email);
+
+create index idx_transaction_car
+    on financial_transactions (car_id);
+
+create index idx_transaction_type
+    on financial_transactions (transaction_type);
+
+create index idx_transaction_date
+    on financial_transactions (transaction_date);
+
+create index idx_inquiry_status
+    on inquiries (status);
+
+create index idx_inquiry_car
+    on inquiries (car_id);
+
+create index idx_inquiry_client
+    on inquiries (client_id);
+
+create index idx_inquiry_employee
+    on inquiries (assigned_employee_id);
+
+create index idx_inquiry_created_at
+    on inquiries (created_at);
+
+alter table job_leases
+    add constraint uk_job_lease_partition unique (job_name, partition_no);
+
+create index idx_reservation_status
+    on reservations (status);
+
+create index idx_reservation_car
+    on reservations (car_id);
+
+create index idx_reservation_client
+    on reservations (client_id);
+
+create index idx_reservation_expiry_date
+    on reservations (expiry_date);
+
+create index idx_reservation_deposit_paid
+    on reservations (deposit_paid);
+
+alter table reservations
+    add constraint UKi9yd1uccbcrtfsk1blm6lnn3k unique (car_id);
+
+create index idx_sale_car
+    on sales (car_id);
+
+create index idx_sale_client
+    on sales (client_id);
+
+create index idx_sale_employee
+    on sales (handled_by_id);
+
+create index idx_sale_date
+    on sales (sale_date);
+
+create index idx_sale_payment_method
+    on sales (payment_method);
+
+alter table sales
+    add constraint UKj6x16digtrfuse2a8gy4j5tnh unique (car_id);
+
+alter table car_additional_features
+    add constraint FKr80sd0cktelo5kc7jcx7ambl8
+    foreign key (car_specs_id)
+    references car_detailed_specs (id);
+
+alter table car_detailed_specs
+    add constraint FKi2ob1syr8tkg6v2rqm69tq8m7
+    foreign key (car_id)
+    references cars (id);
+
+alter table car_inspections
+    add constraint FK7kay2l7w61rtwjka39evst659
+    foreign key (car_id)
+    references cars (id);
+
+alter table cars
+    add constraint FKkys7hpraytmuby6dgcwfk7bxk
+    foreign key (model_id)
+    references car_models (id);
+
+alter table cars
+    add constraint FK8nuggm2th826pgqte6201wqr1
+    foreign key (location_id)
+    references storage_locations (id);
+
+alter table financial_transactions
+    add constraint FKsaounpwqbemtsmrldwu9adchf
+    foreign key (car_id)
+    references cars (id);
+
+alter table inquiries
+    add constraint FK39jxyhvj1kkwk3a62a78x5u42
+    foreign key (assigned_employee_id)
+    references employees (id);
+
+alter table inquiries
+    add constraint FKmsoxvhfiy5yyq8q80ieqdpm82
+    foreign key (car_id)
+    references cars (id);
+
+alter table inquiries
+    add constraint FK8qgkwt2pirk6mgquy3m94nqvn
+    foreign key (client_id)
+    references clients (id);
+
+alter table reservations
+    add constraint FKkoxuu4vp8ex6mcc642sa11iyc
+    foreign key (car_id)
+    references cars (id);
+
+alter table reservations
+    add constraint FK6lekctbt4u88agg0b7cjsj6lf
+    foreign key (client_id)
+    references clients (id);
+
+alter table sales
+    add constraint FKhb80sy23hk4kk9s4g271uw9ci
+    foreign key (car_id)
+    references cars (id);
+
+alter table sales
+    add constraint FKbbif9cb3ecyusyms54yvwlhd5
+    foreign key (client_id)
+    references clients (id);
+
+alter table sales
+    add constraint FKd6wj4acd3sflbnky0pmr4jgi7
+    foreign key (handled_by_id)
+    references employees (id);
+
+alter table task_positions
+    add constraint FKjdn46k0vn9gdoghpu6c7ctd5o
+    foreign key (column_id)
+    references kanban_columns (id);
+
+alter table task_positions
+    add constraint FKmapbf1gdwrhy9d1fhkqpd4j5y
+    foreign key (task_id)
+    references tasks (id);
+
+alter table task_tags
+    add constraint FK7xi1reghkj37gqwlr1ujxrxll
+    foreign key (task_id)
+    references tasks (id);
+
+alter table tasks
+    add constraint FKqgwaiqxymudd3ega3in76ydsi
+    foreign key (column_id)
+    references kanban_columns (id);
@@ -0,0 +1,19 @@
+-- Change counters behind the ETag and Last-Modified headers of conditional GETs.
+-- Rows for aggregates added later are inserted by the application on startup.
+
+create table aggregate_versions (
+    version bigint not null,
+    modified_at datetime(6) not null,
+    aggregate varchar(32) not null,
+    primary key (aggregate)
+) engine=InnoDB;
+
+insert into aggregate_versions (aggregate, version, modified_at) values
+    ('CARS', 0, current_timestamp(6)),
+    ('SALES', 0, current_timestamp(6)),
+    ('RESERVATIONS', 0, current_timestamp(6)),
+    ('KANBAN', 0, current_timestamp(6)),
+    ('CALENDAR', 0, current_timestamp(6)),
+    ('LOCATIONS', 0, current_timestamp(6)),
+    ('CLIENTS', 0, current_timestamp(6)),
+    ('EMPLOYEES', 0, current_timestamp(6));
@@ -0,0 +1,20 @@
+-- Idempotency keys of writes and the response replayed to their retries.
+-- Expired rows are deleted by the application.
+
+create table idempotency_keys (
+    response_status integer,
+    created_at datetime(6) not null,
+    expires_at datetime(6) not null,
+    request_hash varchar(64) not null,
+    state varchar(16) not null,
+    content_type varchar(128),
+    idempotency_key varchar(128) not null,
+    response_body mediumblob,
+    primary key (idempotency_key)
+) engine=InnoDB;
+
+create index idx_idempotency_keys_expires_at
+    on idempotency_keys (expires_at);
+
+create index idx_idempotency_keys_created_at
+    on idempotency_keys (created_at);
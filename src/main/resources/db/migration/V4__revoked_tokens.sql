@@ -0,0 +1,8 @@
+-- Access tokens revoked before they expire. Rows are deleted by the
+-- application once the token has expired.
+
+create table revoked_tokens (
+    expires_at datetime(6) not null,
+    token_id varchar(32) not null,
+    primary key (token_id)
+) engine=InnoDB;
@@ -0,0 +1,109 @@
+-- Dealership tenancy. Every business table gets a tenant_id, with the rows
+-- that exist so far belonging to the default tenant. Unique keys become
+-- unique per tenant, and the secondary indexes used for filtering lead with
+-- tenant_id so a tenant's queries only range over its own rows. Indexes on
+-- foreign keys stay as they are.
+--
+-- Idempotency keys are stored as tenant:key, so the column widens by the
+-- 32-character tenant id and the colon.
+
+alter table calendar_events
+    add column tenant_id varchar(32) not null default 'default',
+    add index idx_calendar_event_start (tenant_id, start_time);
+
+alter table car_detailed_specs
+    add column tenant_id varchar(32) not null default 'default',
+    add index idx_car_detailed_specs_tenant (tenant_id);
+
+alter table car_inspections
+    add column tenant_id varchar(32) not null default 'default',
+    drop index idx_inspection_date,
+    drop index idx_inspection_pass,
+    add index idx_inspection_date (tenant_id, inspection_date),
+    add index idx_inspection_pass (tenant_id, inspection_pass);
+
+alter table car_models
+    add column tenant_id varchar(32) not null default 'default',
+    drop index uk_car_model_make_model_variant,
+    add constraint uk_car_model_make_model_variant unique (tenant_id, make, model, variant),
+    add index idx_car_model_tenant (tenant_id);
+
+alter table cars
+    add column tenant_id varchar(32) not null default 'default',
+    drop index idx_car_vin,
+    drop index idx_car_registration,
+    drop index idx_car_status,
+    drop index idx_car_year,
+    add constraint idx_car_vin unique (tenant_id, vin_number),
+    add index idx_car_registration (tenant_id, registration_number),
+    add index idx_car_status (tenant_id, status_code),
+    add index idx_car_year (tenant_id, year);
+
+alter table clients
+    add column tenant_id varchar(32) not null default 'default',
+    drop index idx_client_email,
+    drop index idx_client_phone,
+    drop index idx_client_status,
+    add constraint idx_client_email unique (tenant_id, email),
+    add index idx_client_phone (tenant_id, phone),
+    add index idx_client_status (tenant_id, status);
+
+alter table employees
+    add column tenant_id varchar(32) not null default 'default',
+    drop index idx_employee_email,
+    drop index idx_employee_position,
+    drop index idx_employee_department,
+    drop index idx_employee_status,
+    add constraint idx_employee_email unique (tenant_id, email),
+    add index idx_employee_position (tenant_id, position),
+    add index idx_employee_department (tenant_id, department),
+    add index idx_employee_status (tenant_id, status);
+
+alter table financial_transactions
+    add column tenant_id varchar(32) not null default 'default',
+    drop index idx_transaction_type,
+    drop index idx_transaction_date,
+    add index idx_transaction_type (tenant_id, transaction_type),
+    add index idx_transaction_date (tenant_id, transaction_date);
+
+alter table inquiries
+    add column tenant_id varchar(32) not null default 'default',
+    drop index idx_inquiry_status,
+    drop index idx_inquiry_created_at,
+    add index idx_inquiry_status (tenant_id, status),
+    add index idx_inquiry_created_at (tenant_id, created_at);
+
+alter table kanban_columns
+    add column tenant_id varchar(32) not null default 'default',
+    add index idx_kanban_column_tenant (tenant_id);
+
+alter table reservations
+    add column tenant_id varchar(32) not null default 'default',
+    drop index idx_reservation_status,
+    drop index idx_reservation_expiry_date,
+    drop index idx_reservation_deposit_paid,
+    add index idx_reservation_status (tenant_id, status),
+    add index idx_reservation_expiry_date (tenant_id, expiry_date),
+    add index idx_reservation_deposit_paid (tenant_id, deposit_paid);
+
+alter table sales
+    add column tenant_id varchar(32) not null default 'default',
+    drop index idx_sale_date,
+    drop index idx_sale_payment_method,
+    add index idx_sale_date (tenant_id, sale_date),
+    add index idx_sale_payment_method (tenant_id, payment_method);
+
+alter table storage_locations
+    add column tenant_id varchar(32) not null default 'default',
+    add index idx_storage_location_tenant (tenant_id);
+
+alter table task_positions
+    add column tenant_id varchar(32) not null default 'default',
+    add index idx_task_position_tenant (tenant_id);
+
+alter table tasks
+    add column tenant_id varchar(32) not null default 'default',
+    add index idx_task_tenant (tenant_id);
+
+alter table idempotency_keys
+    modify idempotency_key varchar(161) not null;
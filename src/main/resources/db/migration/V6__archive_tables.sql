@@ -0,0 +1,64 @@
+-- Archive tables for rows past their retention, moved there in batches by
+-- the application. Same columns as the hot tables plus archived_at, with
+-- the original ids and no foreign keys, so the rows they referred to can
+-- change or go without touching the archive.
+
+create table calendar_events_archive (
+    created_at datetime(6),
+    end_time datetime(6) not null,
+    id bigint not null,
+    start_time datetime(6) not null,
+    updated_at datetime(6),
+    archived_at datetime(6) not null,
+    tenant_id varchar(32) not null,
+    background_color varchar(255) not null,
+    border_color varchar(255) not null,
+    car_details varchar(255) not null,
+    created_by varchar(255),
+    customer_name varchar(255) not null,
+    title varchar(255) not null,
+    updated_by varchar(255),
+    event_type enum ('DELIVERY','INSPECTION','MAINTENANCE','NEGOTIATION','TEST_DRIVE') not null,
+    primary key (id)
+) engine=InnoDB;
+
+create table financial_transactions_archive (
+    amount decimal(38,2) not null,
+    transaction_date date not null,
+    car_id bigint not null,
+    created_at datetime(6),
+    id bigint not null,
+    archived_at datetime(6) not null,
+    tenant_id varchar(32) not null,
+    description TEXT,
+    receipt_url varchar(255),
+    transaction_type varchar(255) not null,
+    vendor_name varchar(255),
+    primary key (id)
+) engine=InnoDB;
+
+create table inquiries_archive (
+    assigned_employee_id bigint,
+    car_id bigint,
+    client_id bigint not null,
+    created_at datetime(6),
+    id bigint not null,
+    response_date datetime(6),
+    updated_at datetime(6),
+    archived_at datetime(6) not null,
+    tenant_id varchar(32) not null,
+    inquiry_type varchar(255) not null,
+    message TEXT not null,
+    response TEXT,
+    status varchar(255) not null,
+    primary key (id)
+) engine=InnoDB;
+
+create index idx_calendar_event_archive_start
+    on calendar_events_archive (tenant_id, start_time);
+
+create index idx_transaction_archive_date
+    on financial_transactions_archive (tenant_id, transaction_date);
+
+create index idx_inquiry_archive_created_at
+    on inquiries_archive (tenant_id, created_at);
@@ -0,0 +1,29 @@
+-- One row per car with what it cost and earned, maintained by the
+-- application from the car, its transactions, sale and inspections. Filled
+-- on the first startup that finds it empty.
+
+create table car_cost_summaries (
+    estimated_repair_cost decimal(38,2),
+    other_cost decimal(38,2) not null,
+    profit decimal(38,2),
+    purchase_price decimal(38,2) not null,
+    repair_cost decimal(38,2) not null,
+    sale_date date,
+    sale_price decimal(38,2),
+    total_cost decimal(38,2) not null,
+    model_id integer not null,
+    car_id bigint not null,
+    sold_by_id bigint,
+    updated_at datetime(6) not null,
+    tenant_id varchar(32) not null default 'default',
+    primary key (car_id)
+) engine=InnoDB;
+
+create index idx_cost_summary_sale_date
+    on car_cost_summaries (tenant_id, sale_date);
+
+create index idx_cost_summary_model
+    on car_cost_summaries (model_id);
+
+create index idx_transaction_archive_car
+    on financial_transactions_archive (car_id);
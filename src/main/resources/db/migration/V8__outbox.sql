@@ -0,0 +1,30 @@
+-- Domain events written by the transaction that raised them, and how far
+-- each in-process consumer has read them.
+
+create table outbox_events (
+    id bigint not null auto_increment,
+    tenant_id varchar(32) not null,
+    event_type varchar(64) not null,
+    aggregate_type varchar(32) not null,
+    aggregate_id varchar(64) not null,
+    payload text not null,
+    created_at datetime(6) not null,
+    primary key (id)
+) engine=InnoDB;
+
+create index idx_outbox_created_at
+    on outbox_events (created_at);
+
+create table outbox_consumers (
+    consumer_name varchar(64) not null,
+    position bigint not null,
+    owner varchar(128),
+    lease_until datetime(6),
+    attempts integer not null,
+    next_attempt_at datetime(6),
+    last_error varchar(512),
+    delivered bigint not null,
+    skipped bigint not null,
+    last_delivered_at datetime(6),
+    primary key (consumer_name)
+) engine=InnoDB;
@@ -0,0 +1,24 @@
+-- Latest change of every car, reservation and inspection row for
+-- incrementally syncing clients, and how far deletes were compacted away.
+
+create table change_feed (
+    seq bigint not null auto_increment,
+    tenant_id varchar(32) not null,
+    feed varchar(16) not null,
+    row_id bigint not null,
+    deleted bit not null,
+    changed_at datetime(6) not null,
+    primary key (seq)
+) engine=InnoDB;
+
+create unique index idx_change_feed_row
+    on change_feed (tenant_id, feed, row_id);
+
+create index idx_change_feed_seq
+    on change_feed (tenant_id, feed, seq);
+
+create table change_feed_horizons (
+    feed varchar(16) not null,
+    purged_through bigint not null,
+    primary key (feed)
+) engine=InnoDB;
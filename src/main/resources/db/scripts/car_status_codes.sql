@@ -0,0 +1,44 @@
+-- One-off migration: free-text cars.current_status -> cars.status_code (TINYINT).
+--
+-- Run once against an existing database BEFORE starting the version that
+-- introduces com.wheelshift.model.CarStatus, otherwise ddl-auto=update adds
+-- status_code with a default of 0 and every car reads back as AVAILABLE.
+--
+-- Codes must match CarStatus: 0 AVAILABLE, 1 RESERVED, 2 NEEDS_REPAIR, 3 SOLD.
+-- Values that cannot be mapped are left NULL and listed by the check below,
+-- and the script then stops at the check constraint, whatever the SQL mode
+-- (MySQL 8.0.16 or later). Fix those rows' current_status and run the
+-- script again from the UPDATE; the old column is only dropped once every
+-- car has a code.
+
+ALTER TABLE cars ADD COLUMN status_code TINYINT NULL;
+
+UPDATE cars
+SET status_code = CASE REPLACE(REPLACE(UPPER(TRIM(current_status)), ' ', '_'), '-', '_')
+    WHEN 'AVAILABLE'    THEN 0
+    WHEN 'RESERVED'     THEN 1
+    WHEN 'NEEDS_REPAIR' THEN 2
+    WHEN 'SOLD'         THEN 3
+    ELSE NULL
+END;
+
+-- Cars that have a sale are sold, whatever the text column said
+UPDATE cars c
+JOIN sales s ON s.car_id = c.id
+SET c.status_code = 3;
+
+-- Unmapped values (should return no rows)
+SELECT id, current_status
+FROM cars
+WHERE status_code IS NULL;
+
+-- Fails while any car is unmapped; a plain NOT NULL change would turn the
+-- NULLs into 0 outside strict mode
+ALTER TABLE cars ADD CONSTRAINT chk_status_code_mapped CHECK (status_code IS NOT NULL);
+ALTER TABLE cars DROP CHECK chk_status_code_mapped;
+
+ALTER TABLE cars MODIFY status_code TINYINT NOT NULL;
+
+DROP INDEX idx_car_status ON cars;
+ALTER TABLE cars DROP COLUMN current_status;
+CREATE INDEX idx_car_status ON cars (status_code);
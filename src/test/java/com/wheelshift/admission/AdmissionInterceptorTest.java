@@ -0,0 +1,72 @@
+package com.wheelshift.admission;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdmissionInterceptorTest {
+
+    private final AdmissionProperties properties = new AdmissionProperties();
+
+    @Test
+    void requestsAreClassifiedByAnnotationThenByMethodAndPath() throws Exception {
+        AdmissionInterceptor interceptor = new AdmissionInterceptor(new AdmissionControl(properties));
+
+        assertThat(interceptor.classify(handler("plain"), request("GET", "/api/v1/cars/{id}")))
+                .isEqualTo(TrafficClass.LOOKUP);
+        assertThat(interceptor.classify(handler("plain"), request("GET", "/api/v1/cars/statistics")))
+                .isEqualTo(TrafficClass.ANALYTICS);
+        assertThat(interceptor.classify(handler("plain"), request("GET", "/api/v1/clients/stats/count")))
+                .isEqualTo(TrafficClass.ANALYTICS);
+        assertThat(interceptor.classify(handler("plain"), request("POST", "/api/v1/cars/statistics")))
+                .isEqualTo(TrafficClass.TRANSACTIONAL);
+        assertThat(interceptor.classify(handler("export"), request("GET", "/api/v1/cars")))
+                .isEqualTo(TrafficClass.EXPORT);
+    }
+
+    @Test
+    void fullBulkheadIsAnsweredWithRetryAfter() throws Exception {
+        properties.setExport(new AdmissionProperties.Limits(1, 0, Duration.ZERO));
+        AdmissionInterceptor interceptor = new AdmissionInterceptor(new AdmissionControl(properties));
+        HandlerMethod handler = handler("export");
+        MockHttpServletRequest first = request("GET", "/api/v1/cars");
+
+        assertThat(interceptor.preHandle(first, new MockHttpServletResponse(), handler)).isTrue();
+
+        MockHttpServletResponse shed = new MockHttpServletResponse();
+        assertThat(interceptor.preHandle(request("GET", "/api/v1/cars"), shed, handler)).isFalse();
+        assertThat(shed.getStatus()).isEqualTo(429);
+        assertThat(shed.getHeader(HttpHeaders.RETRY_AFTER)).isEqualTo("1");
+
+        interceptor.afterCompletion(first, new MockHttpServletResponse(), handler, null);
+        assertThat(interceptor.preHandle(request("GET", "/api/v1/cars"), new MockHttpServletResponse(), handler))
+                .isTrue();
+    }
+
+    private static MockHttpServletRequest request(String method, String pattern) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, pattern);
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, pattern);
+        return request;
+    }
+
+    private static HandlerMethod handler(String name) throws NoSuchMethodException {
+        return new HandlerMethod(new Handlers(), Handlers.class.getMethod(name));
+    }
+
+    public static class Handlers {
+
+        public void plain() {
+        }
+
+        @Admission(TrafficClass.EXPORT)
+        public void export() {
+        }
+    }
+}
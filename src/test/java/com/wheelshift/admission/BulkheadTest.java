@@ -0,0 +1,119 @@
+package com.wheelshift.admission;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Drives a bulkhead from a few threads, with hold times measured on a clock
+ * the test moves by hand.
+ */
+class BulkheadTest {
+
+    private final AtomicLong clock = new AtomicLong();
+
+    @Test
+    void queuedRequestIsAdmittedWhenASlotFrees() throws Exception {
+        Bulkhead bulkhead = new Bulkhead(1, 1, Duration.ofSeconds(10), clock::get);
+        Bulkhead.Permit held = bulkhead.tryAcquire();
+
+        CompletableFuture<Bulkhead.Permit> waiting = CompletableFuture.supplyAsync(() -> acquire(bulkhead));
+        awaitQueued(bulkhead, 1);
+        assertThat(waiting).isNotDone();
+
+        held.release();
+        assertThat(waiting.get(5, TimeUnit.SECONDS)).isNotNull();
+    }
+
+    @Test
+    void requestBeyondTheQueueIsShedAtOnce() throws Exception {
+        Bulkhead bulkhead = new Bulkhead(1, 1, Duration.ofSeconds(10), clock::get);
+        Bulkhead.Permit held = bulkhead.tryAcquire();
+        CompletableFuture<Bulkhead.Permit> waiting = CompletableFuture.supplyAsync(() -> acquire(bulkhead));
+        awaitQueued(bulkhead, 1);
+
+        assertThat(bulkhead.tryAcquire()).isNull();
+        assertThat(bulkhead.stats().rejected()).isEqualTo(1);
+
+        held.release();
+        waiting.get(5, TimeUnit.SECONDS).release();
+    }
+
+    @Test
+    void queuedRequestIsShedAfterTheMaximumWait() throws Exception {
+        Bulkhead bulkhead = new Bulkhead(1, 4, Duration.ofMillis(50), clock::get);
+        bulkhead.tryAcquire();
+
+        assertThat(bulkhead.tryAcquire()).isNull();
+        assertThat(bulkhead.stats().queued()).isZero();
+    }
+
+    @Test
+    void releasingTwiceFreesOneSlot() throws Exception {
+        Bulkhead bulkhead = new Bulkhead(2, 0, Duration.ZERO, clock::get);
+        Bulkhead.Permit permit = bulkhead.tryAcquire();
+        bulkhead.tryAcquire();
+
+        permit.release();
+        permit.release();
+
+        assertThat(bulkhead.stats().inFlight()).isEqualTo(1);
+        assertThat(bulkhead.tryAcquire()).isNotNull();
+        assertThat(bulkhead.tryAcquire()).isNull();
+    }
+
+    @Test
+    void tenantOverItsShareIsShedWhileOthersAreAdmitted() throws Exception {
+        Bulkhead bulkhead = new Bulkhead(4, 0, Duration.ZERO, 0.5, clock::get);
+        Bulkhead.Permit first = bulkhead.tryAcquire("north");
+        bulkhead.tryAcquire("north");
+
+        assertThat(bulkhead.tryAcquire("north")).isNull();
+        assertThat(bulkhead.tryAcquire("south")).isNotNull();
+
+        first.release();
+        assertThat(bulkhead.tryAcquire("north")).isNotNull();
+        assertThat(bulkhead.stats().rejected()).isEqualTo(1);
+    }
+
+    @Test
+    void statsAndRetryAfterFollowTheHoldTime() throws Exception {
+        Bulkhead bulkhead = new Bulkhead(2, 0, Duration.ZERO, clock::get);
+        assertThat(bulkhead.retryAfterSeconds()).isEqualTo(1);
+
+        Bulkhead.Permit permit = bulkhead.tryAcquire();
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(6));
+        permit.release();
+        bulkhead.tryAcquire();
+
+        Bulkhead.Stats stats = bulkhead.stats();
+        assertThat(stats.admitted()).isEqualTo(2);
+        assertThat(stats.inFlight()).isEqualTo(1);
+        assertThat(stats.utilization()).isEqualTo(0.5);
+        assertThat(stats.averageHoldMillis()).isEqualTo(6000);
+        // One average hold spread over two slots
+        assertThat(bulkhead.retryAfterSeconds()).isEqualTo(3);
+    }
+
+    private static Bulkhead.Permit acquire(Bulkhead bulkhead) {
+        try {
+            return bulkhead.tryAcquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
+    private static void awaitQueued(Bulkhead bulkhead, int queued) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (bulkhead.stats().queued() < queued && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertThat(bulkhead.stats().queued()).isEqualTo(queued);
+    }
+}
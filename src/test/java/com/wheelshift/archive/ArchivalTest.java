@@ -0,0 +1,122 @@
+package com.wheelshift.archive;
+
+import com.wheelshift.WheelShiftApplication;
+import com.wheelshift.job.JobCoordinator;
+import com.wheelshift.job.JobRunSummary;
+import com.wheelshift.model.CalendarEvent;
+import com.wheelshift.model.EventType;
+import com.wheelshift.repository.CalendarEventRepository;
+import com.wheelshift.tenancy.TenantContext;
+import com.wheelshift.versioning.ChangeVersions;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Archives old calendar events in small batches and reads them back through
+ * the date range endpoint.
+ */
+@SpringBootTest(classes = WheelShiftApplication.class, properties = {
+    "wheelshift.tenancy.header-trusted-from=127.0.0.1",
+    "wheelshift.jobs.reservation-expiry.cron=-",
+    "wheelshift.jobs.location-reconciliation.cron=-",
+    "logging.level.com.wheelshift=warn"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("embedded")
+class ArchivalTest {
+
+    private static final LocalDateTime LONG_AGO = LocalDateTime.of(2019, 5, 6, 10, 0);
+    private static final String EVENTS = "/api/calendar/events/range?start=2019-05-01&end=2019-05-31";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private CalendarEventRepository calendarEventRepository;
+
+    @Autowired
+    private JobCoordinator jobCoordinator;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ChangeVersions changeVersions;
+
+    @Autowired
+    private ArchiveReader archiveReader;
+
+    @Test
+    void oldEventsMoveToTheArchiveAndStayReadable() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            calendarEventRepository.save(event("Archived " + i, LONG_AGO.plusDays(i)));
+        }
+        TenantContext.runAs("north", () -> calendarEventRepository.save(event("North archived", LONG_AGO)));
+        CalendarEvent recent = calendarEventRepository.save(event("Recent", LocalDateTime.now().minusDays(1)));
+
+        ArchivalProperties properties = new ArchivalProperties();
+        properties.setBatchSize(2);
+        properties.setPause(Duration.ZERO);
+        ArchivalJob job = new ArchivalJob(ArchivedTable.CALENDAR_EVENTS, properties, jdbcTemplate,
+                new TransactionTemplate(transactionManager), changeVersions, Clock.systemDefaultZone());
+
+        // Other tests in the shared context may have left old rows of their own
+        Long eligible = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM calendar_events WHERE end_time < ?",
+                Long.class, LocalDateTime.now().minusDays(365));
+        Long archivedBefore = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM calendar_events_archive", Long.class);
+
+        JobRunSummary summary = jobCoordinator.run(job, "archival-test");
+
+        assertThat(eligible).isGreaterThanOrEqualTo(6);
+        assertThat(summary.rowsProcessed()).isEqualTo(eligible);
+        assertThat(TenantContext.callAs(TenantContext.ROOT, () -> calendarEventRepository.findById(recent.getId())))
+                .isPresent();
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM calendar_events WHERE start_time < ?",
+                Long.class, LocalDateTime.of(2020, 1, 1, 0, 0))).isZero();
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM calendar_events_archive", Long.class))
+                .isEqualTo(archivedBefore + eligible);
+
+        String events = mockMvc.perform(get(EVENTS)).andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        assertThat(events).contains("Archived 0", "Archived 4").doesNotContain("North archived");
+        String northEvents = mockMvc.perform(get(EVENTS).header("X-Tenant-Id", "north")).andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        assertThat(northEvents).contains("North archived").doesNotContain("Archived 0");
+
+        // An open bound matches nothing, as on the hot table
+        assertThat(archiveReader.calendarEvents(null, LocalDateTime.now())).isEmpty();
+        assertThat(archiveReader.inquiries(LONG_AGO, null)).isEmpty();
+    }
+
+    private static CalendarEvent event(String title, LocalDateTime start) {
+        return CalendarEvent.builder()
+                .title(title)
+                .startTime(start)
+                .endTime(start.plusHours(1))
+                .backgroundColor("#3788d8")
+                .borderColor("#3788d8")
+                .eventType(EventType.TEST_DRIVE)
+                .customerName("Test Customer")
+                .carDetails("Test Car")
+                .build();
+    }
+}
@@ -0,0 +1,124 @@
+package com.wheelshift.auth;
+
+import com.wheelshift.WheelShiftApplication;
+import com.wheelshift.model.Employee;
+import com.wheelshift.repository.EmployeeRepository;
+import com.wheelshift.service.EmployeeService;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Logs an employee in with authentication required, uses the token, and
+ * logs out again.
+ */
+@SpringBootTest(classes = WheelShiftApplication.class, properties = {
+    "wheelshift.auth.required=true",
+    "wheelshift.auth.last-login-flush-interval-ms=3600000",
+    "wheelshift.jobs.reservation-expiry.cron=-",
+    "wheelshift.jobs.location-reconciliation.cron=-",
+    "logging.level.com.wheelshift=warn"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("embedded")
+class AuthTokenTest {
+
+    private static final String EMAIL = "token.test@ws.com";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private LastLoginRecorder lastLoginRecorder;
+
+    @Autowired
+    private EmployeeService employeeService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void tokenAuthenticatesUntilLogout() throws Exception {
+        Employee employee = employeeRepository.save(employee(EMAIL));
+        mockMvc.perform(get("/api/v1/jobs")).andExpect(status().isUnauthorized());
+        mockMvc.perform(login("wrong")).andExpect(status().isUnauthorized());
+
+        JsonNode issued = objectMapper.readTree(mockMvc.perform(login("secret"))
+                .andExpect(status().isOk()).andReturn().getResponse().getContentAsString());
+        assertThat(issued.get("employeeId").asLong()).isEqualTo(employee.getId());
+        String bearer = "Bearer " + issued.get("accessToken").asText();
+
+        mockMvc.perform(get("/api/v1/jobs").header(HttpHeaders.AUTHORIZATION, bearer)).andExpect(status().isOk());
+        mockMvc.perform(get("/api/v1/jobs").header(HttpHeaders.AUTHORIZATION, bearer + "x"))
+                .andExpect(status().isUnauthorized());
+
+        assertThat(employeeRepository.findById(employee.getId()).orElseThrow().getLastLogin()).isNull();
+        lastLoginRecorder.flush();
+        assertThat(employeeRepository.findById(employee.getId()).orElseThrow().getLastLogin()).isNotNull();
+
+        mockMvc.perform(post("/api/v1/auth/logout").header(HttpHeaders.AUTHORIZATION, bearer))
+                .andExpect(status().isNoContent());
+        mockMvc.perform(get("/api/v1/jobs").header(HttpHeaders.AUTHORIZATION, bearer))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void employeeServiceChecksAndRecordsLoginsTheSameWay() {
+        Employee inactive = employee("inactive.test@ws.com");
+        inactive.setStatus("INACTIVE");
+        employeeRepository.save(inactive);
+        Employee active = employeeRepository.save(employee("active.test@ws.com"));
+
+        assertThat(employeeService.authenticateEmployee("inactive.test@ws.com", "secret")).isFalse();
+        assertThat(employeeService.authenticateEmployee("active.test@ws.com", "wrong")).isFalse();
+        assertThat(employeeService.authenticateEmployee("active.test@ws.com", "secret")).isTrue();
+
+        employeeService.updateLastLogin(active.getId(), LocalDateTime.of(2026, 1, 1, 9, 0));
+        assertThat(employeeRepository.findById(active.getId()).orElseThrow().getLastLogin()).isNull();
+        lastLoginRecorder.flush();
+        assertThat(employeeRepository.findById(active.getId()).orElseThrow().getLastLogin())
+                .isEqualTo(LocalDateTime.of(2026, 1, 1, 9, 0));
+    }
+
+    private static RequestBuilder login(String password) {
+        return post("/api/v1/auth/token").contentType(MediaType.APPLICATION_JSON)
+                .content("{\"email\":\"" + EMAIL + "\",\"password\":\"" + password + "\"}");
+    }
+
+    private Employee employee(String email) {
+        Employee employee = new Employee();
+        employee.setName("Token Test");
+        employee.setEmail(email);
+        employee.setPassword(passwordEncoder.encode("secret"));
+        employee.setPhone("5550100");
+        employee.setPosition("Sales Associate");
+        employee.setDepartment("Sales");
+        employee.setJoinDate(LocalDate.of(2024, 1, 1));
+        employee.setStatus("ACTIVE");
+        return employee;
+    }
+}
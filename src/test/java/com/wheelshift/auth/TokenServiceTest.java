@@ -0,0 +1,59 @@
+package com.wheelshift.auth;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TokenServiceTest {
+
+    private static final String SECRET = Base64.getEncoder().encodeToString(new byte[32]);
+    private static final Instant NOW = Instant.parse("2026-03-01T10:00:00Z");
+
+    @Test
+    void issuedTokenVerifiesUntilItExpires() {
+        TokenService issuer = service(SECRET, NOW);
+        String token = issuer.issue("north", 42);
+
+        TokenClaims claims = issuer.verify(token);
+        assertThat(claims.tenantId()).isEqualTo("north");
+        assertThat(claims.employeeId()).isEqualTo(42);
+        assertThat(claims.expiresAt()).isEqualTo(NOW.plus(Duration.ofMinutes(15)));
+        assertThat(issuer.issue("north", 42)).isNotEqualTo(token);
+
+        assertThat(service(SECRET, NOW.plus(Duration.ofMinutes(15))).verify(token)).isNull();
+    }
+
+    @Test
+    void tamperedOrForeignTokensAreRejected() {
+        TokenService issuer = service(SECRET, NOW);
+        String token = issuer.issue("north", 42);
+        String payload = new String(Base64.getUrlDecoder().decode(token.substring(0, token.indexOf('.'))));
+        String otherTenant = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(payload.replaceFirst("^north", "south").getBytes()) + token.substring(token.indexOf('.'));
+
+        assertThat(issuer.verify(otherTenant)).isNull();
+        assertThat(issuer.verify("not-a-token")).isNull();
+        assertThat(issuer.verify("%%%.%%%")).isNull();
+        String otherSecret = Base64.getEncoder().encodeToString("another secret of thirty-two bytes".getBytes());
+        assertThat(service(otherSecret, NOW).verify(token)).isNull();
+    }
+
+    @Test
+    void shortSecretIsRefused() {
+        assertThatThrownBy(() -> service(Base64.getEncoder().encodeToString(new byte[16]), NOW))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    private static TokenService service(String secret, Instant now) {
+        AuthProperties properties = new AuthProperties();
+        properties.setTokenSecret(secret);
+        return new TokenService(properties, Clock.fixed(now, ZoneOffset.UTC));
+    }
+}
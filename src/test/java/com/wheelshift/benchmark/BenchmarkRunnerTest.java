@@ -0,0 +1,47 @@
+package com.wheelshift.benchmark;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * Runs the JMH benchmarks of this package from the build. Not part of the
+ * regular build; run it with {@code mvn -Pbenchmark test}, narrowing the
+ * benchmarks with {@code -Dbenchmark.include=<regex>}. Throughput and the
+ * GC profiler's {@code gc.alloc.rate.norm}, bytes allocated per operation,
+ * are printed and written to {@code target/benchmark/results.json}.
+ */
+@Tag("benchmark")
+class BenchmarkRunnerTest {
+
+    @Test
+    void runBenchmarks() throws Exception {
+        Path results = Path.of("target", "benchmark", "results.json");
+        Files.createDirectories(results.getParent());
+        Options options = new OptionsBuilder()
+                .include(System.getProperty("benchmark.include", BenchmarkRunnerTest.class.getPackageName() + "."))
+                .forks(Integer.getInteger("benchmark.forks", 1))
+                .warmupIterations(3)
+                .warmupTime(TimeValue.seconds(1))
+                .measurementIterations(5)
+                .measurementTime(TimeValue.seconds(1))
+                .addProfiler(GCProfiler.class)
+                .resultFormat(ResultFormatType.JSON)
+                .result(results.toString())
+                .build();
+        Collection<RunResult> runs = new Runner(options).run();
+        assertFalse(runs.isEmpty(), "no benchmark matched");
+    }
+}
@@ -0,0 +1,106 @@
+package com.wheelshift.benchmark;
+
+import com.wheelshift.model.Money;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * The statistics and commission paths as they were on {@link BigDecimal}
+ * (and {@code double} for the commission totals), next to the same paths on
+ * {@link Money}. Run with the GC profiler to see
+ * the allocation per operation, see {@link BenchmarkRunnerTest}.
+ */
+@State(Scope.Benchmark)
+public class MoneyAggregationBenchmark {
+
+    private static final BigDecimal HUNDRED = new BigDecimal("100");
+
+    @Param({"10000"})
+    private int sales;
+
+    private List<BigDecimal> decimalPrices;
+    private List<Money> moneyPrices;
+    private List<BigDecimal> rates;
+    private List<BigDecimal> decimalCommissions;
+    private List<Money> moneyCommissions;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(7);
+        decimalPrices = new ArrayList<>(sales);
+        moneyPrices = new ArrayList<>(sales);
+        rates = new ArrayList<>(sales);
+        decimalCommissions = new ArrayList<>(sales);
+        moneyCommissions = new ArrayList<>(sales);
+        for (int i = 0; i < sales; i++) {
+            BigDecimal price = BigDecimal.valueOf(500_000 + random.nextInt(9_500_000), 2);
+            decimalPrices.add(price);
+            moneyPrices.add(Money.of(price));
+            BigDecimal rate = BigDecimal.valueOf(1 + random.nextInt(4)).setScale(2);
+            rates.add(rate);
+            BigDecimal commission = price.multiply(rate).divide(HUNDRED, 2, RoundingMode.HALF_UP);
+            decimalCommissions.add(commission);
+            moneyCommissions.add(Money.of(commission));
+        }
+    }
+
+    @Benchmark
+    public BigDecimal totalBigDecimal() {
+        return decimalPrices.stream().reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+
+    @Benchmark
+    public Money totalMoney() {
+        return Money.sum(moneyPrices, price -> price);
+    }
+
+    @Benchmark
+    public BigDecimal averageBigDecimal() {
+        BigDecimal total = decimalPrices.stream().reduce(BigDecimal.ZERO, BigDecimal::add);
+        return total.divide(new BigDecimal(decimalPrices.size()), 2, RoundingMode.HALF_UP);
+    }
+
+    @Benchmark
+    public Money averageMoney() {
+        return Money.sum(moneyPrices, price -> price).dividedBy(moneyPrices.size());
+    }
+
+    @Benchmark
+    public double commissionTotalDouble() {
+        double total = 0.0;
+        for (BigDecimal commission : decimalCommissions) {
+            total += commission.doubleValue();
+        }
+        return total;
+    }
+
+    @Benchmark
+    public Money commissionTotalMoney() {
+        return Money.sum(moneyCommissions, commission -> commission);
+    }
+
+    @Benchmark
+    public void commissionBigDecimal(Blackhole blackhole) {
+        for (int i = 0; i < sales; i++) {
+            blackhole.consume(decimalPrices.get(i).multiply(rates.get(i).divide(HUNDRED, 2, RoundingMode.HALF_UP)));
+        }
+    }
+
+    @Benchmark
+    public void commissionMoney(Blackhole blackhole) {
+        for (int i = 0; i < sales; i++) {
+            blackhole.consume(moneyPrices.get(i).percent(rates.get(i)));
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package com.wheelshift.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.wheelshift.dto.CalendarEventDTO;
+import com.wheelshift.dto.SaleDTO;
+import com.wheelshift.encoding.ProtobufSchemaHttpMessageConverter;
+import com.wheelshift.encoding.ProtobufSchemas;
+import com.wheelshift.model.CarStatus;
+import com.wheelshift.model.EventType;
+import com.wheelshift.model.Money;
+import com.wheelshift.projection.CarBasicDetails;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.core.ResolvableType;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * The list responses of the export endpoints in each encoding the API
+ * offers: the cost of writing them, as the server does, and of reading them
+ * back, as a consumer does. The size of each body is printed when its
+ * benchmark starts. Run with the GC profiler to see the allocation per
+ * operation, see {@link BenchmarkRunnerTest}.
+ */
+@State(Scope.Benchmark)
+public class PayloadEncodingBenchmark {
+
+    @Param({"json", "cbor", "smile", "protobuf"})
+    private String encoding;
+
+    @Param({"sales", "cars", "events"})
+    private String payload;
+
+    @Param({"1000"})
+    private int rows;
+
+    private Object body;
+    private ObjectWriter writer;
+    private ObjectReader reader;
+    private byte[] encoded;
+
+    @Setup
+    public void setUp() throws Exception {
+        Random random = new Random(7);
+        List<?> items;
+        Class<?> type;
+        switch (payload) {
+            case "sales" -> {
+                items = sales(random);
+                type = SaleDTO.class;
+            }
+            case "cars" -> {
+                items = cars(random);
+                type = CarBasicDetails.class;
+            }
+            case "events" -> {
+                items = events(random);
+                type = CalendarEventDTO.class;
+            }
+            default -> throw new IllegalArgumentException("Unknown payload " + payload);
+        }
+        ResolvableType listType = ResolvableType.forClassWithGenerics(List.class, type);
+        ObjectMapper mapper;
+        switch (encoding) {
+            case "json" -> mapper = builder().build();
+            case "cbor" -> mapper = builder().factory(new CBORFactory()).build();
+            case "smile" -> mapper = builder().factory(new SmileFactory()).build();
+            case "protobuf" -> mapper = ProtobufSchemaHttpMessageConverter.objectMapper(builder());
+            default -> throw new IllegalArgumentException("Unknown encoding " + encoding);
+        }
+        if (encoding.equals("protobuf")) {
+            ProtobufSchemas schemas = ProtobufSchemas.load("proto/wheelshift.proto", List.of(type));
+            ProtobufSchemas.Binding binding = schemas.find(listType.getType());
+            body = binding.shape().apply(items);
+            writer = mapper.writer(binding.schema());
+            reader = mapper.readerFor(JsonNode.class).with(binding.schema());
+        } else {
+            body = items;
+            writer = mapper.writerFor(mapper.constructType(listType.getType()));
+            reader = mapper.readerFor(JsonNode.class);
+        }
+        encoded = writer.writeValueAsBytes(body);
+        System.out.printf("%s of %d %s: %d bytes%n", encoding, rows, payload, encoded.length);
+    }
+
+    /** Jackson as Spring Boot configures it for the application. */
+    private static Jackson2ObjectMapperBuilder builder() {
+        return new Jackson2ObjectMapperBuilder()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    }
+
+    @Benchmark
+    public byte[] encode() throws Exception {
+        return writer.writeValueAsBytes(body);
+    }
+
+    @Benchmark
+    public JsonNode decode() throws Exception {
+        return reader.readValue(encoded);
+    }
+
+    /* ===== Payloads ===== */
+
+    private List<SaleDTO> sales(Random random) {
+        List<SaleDTO> sales = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            SaleDTO sale = new SaleDTO();
+            sale.setId(1L + i);
+            sale.setCarId(1L + random.nextInt(50_000));
+            sale.setCarMake("Make " + random.nextInt(40));
+            sale.setCarModel("Model " + random.nextInt(400));
+            sale.setCarYear(2005 + random.nextInt(20));
+            sale.setClientId(1L + random.nextInt(20_000));
+            sale.setClientName("Client " + random.nextInt(20_000));
+            sale.setClientEmail("client" + random.nextInt(20_000) + "@example.com");
+            sale.setEmployeeId(1L + random.nextInt(40));
+            sale.setEmployeeFullName("Employee " + random.nextInt(40));
+            sale.setSaleDate(LocalDate.of(2024, 1, 1).plusDays(random.nextInt(365)));
+            Money price = Money.of(BigDecimal.valueOf(500_000 + random.nextInt(9_500_000), 2));
+            BigDecimal rate = BigDecimal.valueOf(100 + random.nextInt(300), 2);
+            sale.setSalePrice(price);
+            sale.setCommissionRate(rate);
+            sale.setTotalCommission(price.percent(rate));
+            sale.setPaymentMethod(random.nextBoolean() ? "Bank Transfer" : "Finance");
+            sales.add(sale);
+        }
+        return sales;
+    }
+
+    private List<CarBasicDetails> cars(Random random) {
+        // Projections are served as proxies, which is what the endpoints write
+        SpelAwareProxyProjectionFactory projections = new SpelAwareProxyProjectionFactory();
+        CarStatus[] statuses = CarStatus.values();
+        List<CarBasicDetails> cars = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            Map<String, Object> carModel = new LinkedHashMap<>();
+            carModel.put("make", "Make " + random.nextInt(40));
+            carModel.put("model", "Model " + random.nextInt(400));
+            carModel.put("variant", "Variant " + random.nextInt(4));
+            carModel.put("fuelType", random.nextBoolean() ? "Petrol" : "Diesel");
+            carModel.put("bodyType", random.nextBoolean() ? "Sedan" : "SUV");
+            Map<String, Object> car = new LinkedHashMap<>();
+            car.put("id", 1L + i);
+            car.put("vinNumber", "VIN" + (10_000_000_000_000L + random.nextInt(Integer.MAX_VALUE)));
+            car.put("registrationNumber", "REG-" + random.nextInt(100_000));
+            car.put("color", random.nextBoolean() ? "White" : "Black");
+            car.put("year", 2005 + random.nextInt(20));
+            car.put("currentStatus", statuses[random.nextInt(statuses.length)]);
+            car.put("mileage", BigDecimal.valueOf(random.nextInt(20_000_000), 2));
+            car.put("engineCapacity", BigDecimal.valueOf(1000 + random.nextInt(3000)));
+            car.put("carModel", projections.createProjection(CarBasicDetails.CarModelInfo.class, carModel));
+            cars.add(projections.createProjection(CarBasicDetails.class, car));
+        }
+        return cars;
+    }
+
+    private List<CalendarEventDTO> events(Random random) {
+        EventType[] types = EventType.values();
+        List<CalendarEventDTO> events = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            LocalDateTime start = LocalDateTime.of(2024, 1, 1, 9, 0).plusHours(random.nextInt(8760));
+            events.add(CalendarEventDTO.builder()
+                    .id(1L + i)
+                    .title("Appointment " + i)
+                    .start(start.toString())
+                    .end(start.plusHours(1).toString())
+                    .backgroundColor("#3788d8")
+                    .borderColor("#3788d8")
+                    .eventType(types[random.nextInt(types.length)])
+                    .customerName("Client " + random.nextInt(20_000))
+                    .carDetails("Make " + random.nextInt(40) + " Model " + random.nextInt(400))
+                    .build());
+        }
+        return events;
+    }
+}
@@ -0,0 +1,89 @@
+package com.wheelshift.cache;
+
+import com.wheelshift.WheelShiftApplication;
+import com.wheelshift.service.SaleService;
+import com.wheelshift.versioning.Aggregate;
+import com.wheelshift.versioning.ChangeVersions;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * Calls cached service methods through their proxies and looks at what the
+ * caches hold.
+ */
+@SpringBootTest(classes = WheelShiftApplication.class, properties = {
+    "wheelshift.jobs.reservation-expiry.cron=-",
+    "wheelshift.jobs.location-reconciliation.cron=-",
+    "logging.level.com.wheelshift=warn"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("embedded")
+class CoalescedCacheInterceptorTest {
+
+    private static final String PAYMENT_METHODS = "/api/sales/statistics/payment-methods";
+
+    @Autowired
+    private CoalescedCacheInterceptor interceptor;
+
+    @Autowired
+    private SaleService saleService;
+
+    @Autowired
+    private ChangeVersions changeVersions;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void clearCaches() {
+        interceptor.clearAll();
+        // Don't depend on the scheduled poll having run
+        changeVersions.refresh();
+    }
+
+    @Test
+    void metaAnnotatedMethodsAreCached() {
+        Object first = saleService.getSalesByPaymentMethod();
+        saleService.getTopClients(3);
+
+        assertThat(interceptor.cache("sales-statistics").size()).isEqualTo(2);
+        assertThat(saleService.getSalesByPaymentMethod()).isSameAs(first);
+    }
+
+    @Test
+    void outdatedValueIsServedWithAnOlderTagWhileItRefreshes() throws Exception {
+        MockHttpServletResponse first = fetch();
+        assertThat(first.getHeader(HttpHeaders.ETAG)).doesNotContain("~");
+
+        changeVersions.changed(Aggregate.SALES);
+
+        MockHttpServletResponse outdated = fetch();
+        assertThat(outdated.getContentAsString()).isEqualTo(first.getContentAsString());
+        assertThat(outdated.getHeader(HttpHeaders.ETAG)).contains("~").isNotEqualTo(first.getHeader(HttpHeaders.ETAG));
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        MockHttpServletResponse refreshed = fetch();
+        while (refreshed.getHeader(HttpHeaders.ETAG).contains("~") && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+            refreshed = fetch();
+        }
+        assertThat(refreshed.getHeader(HttpHeaders.ETAG)).doesNotContain("~");
+    }
+
+    private MockHttpServletResponse fetch() throws Exception {
+        return mockMvc.perform(get(PAYMENT_METHODS)).andReturn().getResponse();
+    }
+}
@@ -0,0 +1,135 @@
+package com.wheelshift.cache;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CoalescingCacheTest {
+
+    private final AtomicLong clock = new AtomicLong();
+    private final AtomicInteger computations = new AtomicInteger();
+    private final List<Runnable> queuedRefreshes = new ArrayList<>();
+    private final ExecutorService callers = Executors.newFixedThreadPool(16);
+
+    private final CoalescingCache cache = new CoalescingCache("test", Duration.ofSeconds(30), Duration.ofMinutes(5),
+            3, queuedRefreshes::add, clock::get);
+
+    @AfterEach
+    void tearDown() {
+        callers.shutdownNow();
+    }
+
+    @Test
+    void concurrentCallersShareOneComputation() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        List<Future<Object>> results = new ArrayList<>();
+        for (int i = 0; i < 16; i++) {
+            results.add(callers.submit(() -> get("key", () -> {
+                release.await();
+                return computations.incrementAndGet();
+            })));
+        }
+        // Give every caller time to arrive while the first computation is blocked
+        Thread.sleep(200);
+        release.countDown();
+
+        for (Future<Object> result : results) {
+            assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo(1);
+        }
+        assertThat(computations).hasValue(1);
+    }
+
+    @Test
+    void servesStaleValueWhileOneRefreshRuns() throws Exception {
+        assertThat(get("key", computations::incrementAndGet)).isEqualTo(1);
+
+        clock.addAndGet(Duration.ofSeconds(31).toNanos());
+        assertThat(get("key", computations::incrementAndGet)).isEqualTo(1);
+        assertThat(get("key", computations::incrementAndGet)).isEqualTo(1);
+        assertThat(queuedRefreshes).hasSize(1);
+
+        queuedRefreshes.remove(0).run();
+        assertThat(get("key", computations::incrementAndGet)).isEqualTo(2);
+        assertThat(queuedRefreshes).isEmpty();
+    }
+
+    @Test
+    void waitsForFreshValueOnceTooStale() throws Exception {
+        get("key", computations::incrementAndGet);
+
+        clock.addAndGet(Duration.ofSeconds(30).plus(Duration.ofMinutes(5)).toNanos());
+
+        assertThat(get("key", computations::incrementAndGet)).isEqualTo(2);
+        assertThat(queuedRefreshes).isEmpty();
+    }
+
+    @Test
+    void outdatedValueIsServedWhileItRefreshes() throws Exception {
+        assertThat(get("key", computations::incrementAndGet, value -> true)).isEqualTo(1);
+
+        assertThat(get("key", computations::incrementAndGet, value -> false)).isEqualTo(1);
+        assertThat(queuedRefreshes).hasSize(1);
+
+        queuedRefreshes.remove(0).run();
+        assertThat(get("key", computations::incrementAndGet, value -> value.equals(2))).isEqualTo(2);
+        assertThat(queuedRefreshes).isEmpty();
+    }
+
+    @Test
+    void failedRefreshKeepsServingAndFailedLoadIsRetried() throws Exception {
+        get("key", computations::incrementAndGet);
+        clock.addAndGet(Duration.ofSeconds(31).toNanos());
+        get("key", () -> {
+            throw new IllegalStateException("database down");
+        });
+        queuedRefreshes.remove(0).run();
+        assertThat(get("key", computations::incrementAndGet)).isEqualTo(1);
+
+        assertThatThrownBy(() -> get("other", () -> {
+            throw new IllegalStateException("database down");
+        })).isInstanceOf(IllegalStateException.class).hasMessage("database down");
+        assertThat(get("other", computations::incrementAndGet)).isEqualTo(2);
+    }
+
+    @Test
+    void keysAreCachedSeparatelyUpToTheLimit() throws Exception {
+        for (String key : List.of("a", "b", "c", "d")) {
+            get(key, computations::incrementAndGet);
+            clock.incrementAndGet();
+        }
+
+        assertThat(cache.size()).isEqualTo(3);
+        // "a" was loaded first and made room for "d"
+        assertThat(get("d", computations::incrementAndGet)).isEqualTo(4);
+        assertThat(get("a", computations::incrementAndGet)).isEqualTo(5);
+    }
+
+    private Object get(Object key, Callable<Object> loader) throws Exception {
+        return get(key, loader, value -> true);
+    }
+
+    private Object get(Object key, Callable<Object> loader, Predicate<Object> upToDate) throws Exception {
+        try {
+            return cache.get(key, loader::call, upToDate);
+        } catch (Exception | Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new IllegalStateException(t);
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.wheelshift.changefeed;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wheelshift.WheelShiftApplication;
+import com.wheelshift.datagen.DatasetGeneratorProperties;
+import com.wheelshift.datagen.EmbeddedDataset;
+import com.wheelshift.outbox.OutboxDispatcher;
+import com.wheelshift.service.CarInspectionService;
+import com.wheelshift.service.CarService;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Writes through the services, files the outbox events by driving the
+ * dispatcher by hand and syncs from the feed the way a client would.
+ */
+@SpringBootTest(classes = WheelShiftApplication.class, properties = {
+    "wheelshift.jobs.reservation-expiry.cron=-",
+    "wheelshift.jobs.location-reconciliation.cron=-",
+    "wheelshift.outbox.poll-interval-ms=3600000",
+    "wheelshift.change-feed.tombstone-retention=0s",
+    "logging.level.com.wheelshift=warn"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("embedded")
+class ChangeFeedTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private OutboxDispatcher dispatcher;
+
+    @Autowired
+    private ChangeFeedWriter changeFeedWriter;
+
+    @Autowired
+    private ChangeFeeds changeFeeds;
+
+    @Autowired
+    private CarService carService;
+
+    @Autowired
+    private CarInspectionService carInspectionService;
+
+    @Test
+    void clientCatchesUpOnTheLatestChangeOfEveryRow() throws Exception {
+        DatasetGeneratorProperties properties = new DatasetGeneratorProperties();
+        properties.setCars(20);
+        properties.setEmployees(3);
+        properties.setLocations(2);
+        EmbeddedDataset dataset = new EmbeddedDataset(jdbcTemplate, transactionManager);
+        dataset.clear();
+        dataset.load(properties);
+        dispatcher.deliver(changeFeedWriter);
+
+        String token = changes("cars", null).get("resumeToken").asText();
+        Long carId = jdbcTemplate.queryForObject("SELECT MIN(id) FROM cars c WHERE c.status_code = 0 "
+                + "AND NOT EXISTS (SELECT 1 FROM reservations r WHERE r.car_id = c.id)", Long.class);
+        Long inspectionId = jdbcTemplate.queryForObject("SELECT MIN(id) FROM car_inspections", Long.class);
+
+        // Parked until the change is filed
+        MvcResult waiting = mockMvc.perform(get("/api/v1/changes/cars").param("since", token).param("wait", "20"))
+                .andExpect(request().asyncStarted()).andReturn();
+
+        carService.changeStatus(carId, "NEEDS_REPAIR");
+        carService.changeStatus(carId, "AVAILABLE");
+        carInspectionService.deleteInspection(inspectionId);
+        dispatcher.deliver(changeFeedWriter);
+
+        JsonNode woken = objectMapper.readTree(mockMvc.perform(asyncDispatch(waiting)).andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString());
+        assertThat(woken.get("changes")).hasSize(1);
+        JsonNode car = woken.get("changes").get(0);
+        assertThat(car.get("op").asText()).isEqualTo("upsert");
+        assertThat(car.get("id").asLong()).isEqualTo(carId);
+        assertThat(car.get("data").get("currentStatus").asText()).isEqualTo("AVAILABLE");
+        assertThat(car.get("data").has("inspections")).isFalse();
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM change_feed WHERE feed = 'cars' AND row_id = ?",
+                Integer.class, carId)).isEqualTo(1);
+
+        JsonNode inspections = changes("inspections", token);
+        assertThat(inspections.get("changes")).hasSize(1);
+        assertThat(inspections.get("changes").get(0).get("op").asText()).isEqualTo("delete");
+        assertThat(inspections.get("changes").get(0).has("data")).isFalse();
+
+        String caughtUp = woken.get("resumeToken").asText();
+        assertThat(changes("cars", caughtUp).get("changes")).isEmpty();
+
+        // Compacting the delete away strands the tokens from before it
+        changeFeeds.compact();
+        assertThat(statusOf("inspections", token)).isEqualTo(410);
+        assertThat(statusOf("cars", caughtUp)).isEqualTo(200);
+        assertThat(statusOf("trucks", token)).isEqualTo(400);
+    }
+
+    private JsonNode changes(String feed, String since) throws Exception {
+        MvcResult result = call(feed, since);
+        assertThat(result.getResponse().getStatus()).isEqualTo(200);
+        return objectMapper.readTree(result.getResponse().getContentAsString());
+    }
+
+    private int statusOf(String feed, String since) throws Exception {
+        return call(feed, since).getResponse().getStatus();
+    }
+
+    private MvcResult call(String feed, String since) throws Exception {
+        MockHttpServletRequestBuilder builder = get("/api/v1/changes/" + feed);
+        if (since != null) {
+            builder.param("since", since);
+        }
+        return mockMvc.perform(asyncDispatch(mockMvc.perform(builder).andReturn())).andReturn();
+    }
+}
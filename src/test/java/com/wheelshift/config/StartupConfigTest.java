@@ -0,0 +1,41 @@
+package com.wheelshift.config;
+
+import com.wheelshift.WheelShiftApplication;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Starts with the lazy beans prod lists and checks the eager beans leave
+ * them to their first use.
+ */
+@SpringBootTest(classes = WheelShiftApplication.class, properties = {
+    "wheelshift.jobs.reservation-expiry.cron=-",
+    "wheelshift.jobs.location-reconciliation.cron=-",
+    "wheelshift.startup.lazy-beans=carInspectionController,carInspectionService,inquiryController,"
+            + "inquiryService,employeeController,carModelController,carModelService,jobController",
+    "logging.level.com.wheelshift=warn"
+})
+@ActiveProfiles("embedded")
+class StartupConfigTest {
+
+    @Autowired
+    private ConfigurableListableBeanFactory beanFactory;
+
+    @Test
+    void listedBeansAreNotCreatedAtStartup() {
+        assertThat(beanFactory.containsSingleton("carGraphQlController")).isTrue();
+        for (String name : new String[] {"carInspectionController", "carInspectionService", "inquiryController",
+                "inquiryService", "employeeController", "carModelController", "carModelService", "jobController"}) {
+            assertThat(beanFactory.containsSingleton(name)).as(name).isFalse();
+        }
+
+        beanFactory.getBean("inquiryService");
+        assertThat(beanFactory.containsSingleton("inquiryService")).isTrue();
+    }
+}
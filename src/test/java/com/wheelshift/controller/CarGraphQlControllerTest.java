@@ -0,0 +1,148 @@
+package com.wheelshift.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wheelshift.WheelShiftApplication;
+import com.wheelshift.datagen.DatasetGeneratorProperties;
+import com.wheelshift.datagen.EmbeddedDataset;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+/**
+ * Runs GraphQL queries over a generated dataset, counting the SQL statements
+ * each one executes.
+ */
+@SpringBootTest(classes = WheelShiftApplication.class, properties = {
+    "wheelshift.jobs.reservation-expiry.cron=-",
+    "wheelshift.jobs.location-reconciliation.cron=-",
+    "logging.level.com.wheelshift=warn"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("embedded")
+@Import(CarGraphQlControllerTest.CountingConfig.class)
+class CarGraphQlControllerTest {
+
+    private static final String CARS_WITH_RELATIONS = """
+            { cars(size: 100) {
+                id vinNumber currentStatus sellingPrice
+                carModel { make model }
+                storageLocation { name }
+                inspections { id inspectionDate }
+                latestInspection { id }
+                reservation { status client { name } }
+                inquiries { status client { name } assignedEmployee { name } }
+                sale { salePrice client { name } handledBy { name } }
+            } }""";
+
+    @TestConfiguration
+    static class CountingConfig {
+
+        @Bean
+        static BeanPostProcessor countingDataSource() {
+            return StatementCounter.dataSourceWrapper();
+        }
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @BeforeEach
+    void loadDataset() {
+        DatasetGeneratorProperties properties = new DatasetGeneratorProperties();
+        properties.setCars(150);
+        properties.setEmployees(8);
+        properties.setLocations(4);
+        EmbeddedDataset dataset = new EmbeddedDataset(jdbcTemplate, transactionManager);
+        dataset.clear();
+        dataset.load(properties);
+    }
+
+    @Test
+    void nestedRelationsOfAPageOfCarsLoadInAFewStatements() throws Exception {
+        StatementCounter.start();
+        JsonNode response = execute(CARS_WITH_RELATIONS);
+        List<String> statements = StatementCounter.stop();
+
+        assertThat(response.has("errors")).as(response.toString()).isFalse();
+        JsonNode cars = response.get("data").get("cars");
+        assertThat(cars).hasSize(100);
+        assertThat(statements).as(String.join("\n", statements)).hasSizeLessThanOrEqualTo(8);
+
+        long inspections = 0;
+        long inquiries = 0;
+        for (JsonNode car : cars) {
+            inspections += car.get("inspections").size();
+            inquiries += car.get("inquiries").size();
+            JsonNode latest = car.get("latestInspection");
+            if (car.get("inspections").isEmpty()) {
+                assertThat(latest.isNull()).isTrue();
+            } else {
+                assertThat(latest.get("id")).isEqualTo(car.get("inspections").get(0).get("id"));
+            }
+        }
+        long lastCarId = cars.get(99).get("id").asLong();
+        assertThat(inspections).isEqualTo(jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM car_inspections WHERE car_id <= ?", Long.class, lastCarId));
+        assertThat(inquiries).isEqualTo(jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM inquiries WHERE car_id <= ?", Long.class, lastCarId));
+    }
+
+    @Test
+    void queriesOverTheLimitsAreRejectedBeforeTheyRun() throws Exception {
+        String tooDeep = "{ cars(size: 1) { inquiries { client { inquiries { client { purchases { client "
+                + "{ inquiries { id } } } } } } } } }";
+        StatementCounter.start();
+        JsonNode deep = execute(tooDeep);
+        assertThat(StatementCounter.stop()).isEmpty();
+        assertThat(deep.get("errors").get(0).get("message").asText()).contains("depth");
+
+        String tooCostly = "{ cars(size: 100) { inquiries { client { inquiries { client { inquiries { client { id } } } } } "
+                + "} } }";
+        StatementCounter.start();
+        JsonNode costly = execute(tooCostly);
+        assertThat(StatementCounter.stop()).isEmpty();
+        assertThat(costly.get("errors").get(0).get("message").asText()).contains("complexity");
+
+        JsonNode single = execute("{ car(id: 1) { id carModel { make } } }");
+        assertThat(single.get("data").get("car").get("id").asText()).isEqualTo("1");
+    }
+
+    private JsonNode execute(String query) throws Exception {
+        MvcResult started = mockMvc.perform(post("/graphql").contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Map.of("query", query))))
+                .andReturn();
+        MvcResult result = started.getRequest().isAsyncStarted()
+                ? mockMvc.perform(asyncDispatch(started)).andReturn() : started;
+        return objectMapper.readTree(result.getResponse().getContentAsString());
+    }
+}
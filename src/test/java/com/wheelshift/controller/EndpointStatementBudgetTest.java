@@ -0,0 +1,553 @@
+package com.wheelshift.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wheelshift.WheelShiftApplication;
+import com.wheelshift.datagen.DatasetGeneratorProperties;
+import com.wheelshift.datagen.EmbeddedDataset;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.DefaultParameterNameDiscoverer;
+import org.springframework.core.MethodParameter;
+import org.springframework.core.ParameterNameDiscoverer;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.mvc.method.RequestMappingInfo;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * Calls every endpoint in {@code com.wheelshift.controller} against a small and
+ * a four times larger seeded dataset and counts the SQL statements each one
+ * executes. Fails when an endpoint exceeds its budget in
+ * {@code sql-statement-budgets.properties}, has no budget, or executes more
+ * statements on the larger dataset (an N+1 query).
+ *
+ * After an intentional change run with {@code -Dsqlbudget.record=true}; the
+ * observed counts are written to {@code target/sql-statement-budgets.properties}
+ * for review and copying into {@code src/test/resources}. To see what an
+ * endpoint executes, pass e.g. {@code -Dsqlbudget.show="GET /api/v1/cars"}.
+ */
+@SpringBootTest(classes = WheelShiftApplication.class, properties = {
+    "wheelshift.jobs.reservation-expiry.cron=-",
+    "wheelshift.jobs.location-reconciliation.cron=-",
+    // Measure what the statistics endpoints cost, not their cache hits
+    "wheelshift.cache.enabled=false",
+    "logging.level.com.wheelshift=warn",
+    "logging.level.org.springframework.web.servlet.PageNotFound=error"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("embedded")
+@Import(EndpointStatementBudgetTest.CountingConfig.class)
+class EndpointStatementBudgetTest {
+
+    private static final String BUDGET_FILE = "sql-statement-budgets.properties";
+    private static final String CONTROLLER_PACKAGE = "com.wheelshift.controller";
+    private static final Pattern PATH_VARIABLE = Pattern.compile("\\{(\\w+)}");
+    private static final List<RequestMethod> METHOD_ORDER = List.of(
+            RequestMethod.GET, RequestMethod.POST, RequestMethod.PUT, RequestMethod.PATCH, RequestMethod.DELETE);
+
+    @TestConfiguration
+    static class CountingConfig {
+
+        @Bean
+        static BeanPostProcessor countingDataSource() {
+            return StatementCounter.dataSourceWrapper();
+        }
+    }
+
+    private record Endpoint(RequestMethod method, String pattern, HandlerMethod handler) {
+
+        String key() {
+            return method + " " + pattern;
+        }
+    }
+
+    private record Measurement(int statements, int status) {
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    @Qualifier("requestMappingHandlerMapping")
+    private RequestMappingHandlerMapping handlerMapping;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ParameterNameDiscoverer parameterNames = new DefaultParameterNameDiscoverer();
+
+    @Test
+    void statementCountsStayWithinBudgetAndDoNotGrowWithData() throws IOException {
+        List<Endpoint> endpoints = endpoints();
+        assertTrue(endpoints.size() > 100, "Expected to discover the controller endpoints, found " + endpoints.size());
+
+        Map<String, Measurement> small = measure(endpoints, dataset(50, 8, 3));
+        Map<String, Measurement> large = measure(endpoints, dataset(200, 32, 12));
+
+        Properties budgets = loadBudgets();
+        Map<String, Integer> observed = new TreeMap<>();
+        List<String> failures = new ArrayList<>();
+        for (Endpoint endpoint : endpoints) {
+            String key = endpoint.key();
+            Measurement atSmall = small.get(key);
+            Measurement atLarge = large.get(key);
+            int worst = Math.max(atSmall.statements(), atLarge.statements());
+            observed.put(key, worst);
+
+            String budget = budgets.getProperty(key);
+            if (budget == null) {
+                failures.add(key + ": no budget (executed " + worst + " statements)");
+            } else if (worst > Integer.parseInt(budget.trim())) {
+                failures.add(key + ": " + worst + " statements, budget is " + budget.trim());
+            }
+            if (atLarge.statements() > atSmall.statements()) {
+                failures.add(key + ": grows with data size, " + atSmall.statements() + " -> " + atLarge.statements()
+                        + " statements");
+            }
+        }
+
+        if (Boolean.getBoolean("sqlbudget.record")) {
+            writeBudgets(observed, small, large);
+        }
+        if (!failures.isEmpty()) {
+            fail(failures.size() + " endpoint(s) broke their SQL statement budget:\n  " + String.join("\n  ", failures)
+                    + "\nRe-run with -Dsqlbudget.record=true to write the observed counts to target/" + BUDGET_FILE);
+        }
+    }
+
+    /* =====================================================
+       Discovery and measurement
+       ===================================================== */
+
+    private List<Endpoint> endpoints() {
+        List<Endpoint> endpoints = new ArrayList<>();
+        for (Map.Entry<RequestMappingInfo, HandlerMethod> mapping : handlerMapping.getHandlerMethods().entrySet()) {
+            HandlerMethod handler = mapping.getValue();
+            if (!handler.getBeanType().getPackageName().equals(CONTROLLER_PACKAGE)) {
+                continue;
+            }
+            for (RequestMethod method : mapping.getKey().getMethodsCondition().getMethods()) {
+                for (String pattern : mapping.getKey().getPatternValues()) {
+                    endpoints.add(new Endpoint(method, pattern, handler));
+                }
+            }
+        }
+        // Reads first, deletes last, so every call sees the seeded rows it refers to
+        endpoints.sort(Comparator.comparing((Endpoint endpoint) -> METHOD_ORDER.indexOf(endpoint.method()))
+                .thenComparing(Endpoint::pattern));
+        return endpoints;
+    }
+
+    private DatasetGeneratorProperties dataset(int cars, int employees, int locations) {
+        DatasetGeneratorProperties properties = new DatasetGeneratorProperties();
+        properties.setCars(cars);
+        properties.setEmployees(employees);
+        properties.setLocations(locations);
+        properties.setEventsPerCar(0.3);
+        properties.setTasksPerCar(0.4);
+        return properties;
+    }
+
+    private Map<String, Measurement> measure(List<Endpoint> endpoints, DatasetGeneratorProperties properties) {
+        EmbeddedDataset dataset = new EmbeddedDataset(jdbcTemplate, transactionManager);
+        dataset.clear();
+        dataset.load(properties);
+        Fixtures fixtures = new Fixtures(jdbcTemplate, properties.getReferenceDate());
+
+        Map<String, Measurement> measurements = new LinkedHashMap<>();
+        for (Endpoint endpoint : endpoints) {
+            MockHttpServletRequestBuilder request = request(endpoint, fixtures);
+            int status;
+            StatementCounter.start();
+            try {
+                status = mockMvc.perform(request).andReturn().getResponse().getStatus();
+            } catch (Exception e) {
+                // Unhandled exceptions propagate through MockMvc; the statements up to that point still count
+                status = 500;
+            }
+            List<String> statements = StatementCounter.stop();
+            if (endpoint.key().equals(System.getProperty("sqlbudget.show"))) {
+                System.out.println(endpoint.key() + " executed " + statements.size() + " statements with "
+                        + properties.getCars() + " cars:\n  " + String.join("\n  ", statements));
+            }
+            measurements.put(endpoint.key(), new Measurement(statements.size(), status));
+        }
+        return measurements;
+    }
+
+    private MockHttpServletRequestBuilder request(Endpoint endpoint, Fixtures fixtures) {
+        String controller = endpoint.handler().getBeanType().getSimpleName();
+        List<Object> variables = new ArrayList<>();
+        Matcher matcher = PATH_VARIABLE.matcher(endpoint.pattern());
+        while (matcher.find()) {
+            variables.add(fixtures.value(controller, matcher.group(1), pathVariableType(endpoint, matcher.group(1))));
+        }
+        MockHttpServletRequestBuilder request = MockMvcRequestBuilders.request(
+                HttpMethod.valueOf(endpoint.method().name()), endpoint.pattern(), variables.toArray());
+
+        for (MethodParameter parameter : endpoint.handler().getMethodParameters()) {
+            parameter.initParameterNameDiscovery(parameterNames);
+            if (parameter.hasParameterAnnotation(PathVariable.class)) {
+                continue;
+            }
+            if (parameter.hasParameterAnnotation(RequestBody.class)) {
+                Object body = fixtures.body(controller, endpoint.method(), parameter.getParameterType());
+                try {
+                    request.contentType(MediaType.APPLICATION_JSON).content(body instanceof String text ? text
+                            : objectMapper.writeValueAsString(body));
+                } catch (IOException e) {
+                    throw new IllegalStateException(e);
+                }
+                continue;
+            }
+            String name = parameter.getParameterName();
+            String value = name == null ? null : fixtures.value(controller, name, parameter.getParameterType());
+            if (value != null) {
+                request.param(name, value);
+            }
+        }
+        return request;
+    }
+
+    private Class<?> pathVariableType(Endpoint endpoint, String name) {
+        for (MethodParameter parameter : endpoint.handler().getMethodParameters()) {
+            parameter.initParameterNameDiscovery(parameterNames);
+            PathVariable annotation = parameter.getParameterAnnotation(PathVariable.class);
+            if (annotation != null && (name.equals(annotation.value()) || name.equals(annotation.name())
+                    || name.equals(parameter.getParameterName()))) {
+                return parameter.getParameterType();
+            }
+        }
+        return String.class;
+    }
+
+    /* =====================================================
+       Budgets
+       ===================================================== */
+
+    private static Properties loadBudgets() throws IOException {
+        Properties budgets = new Properties();
+        try (InputStream in = EndpointStatementBudgetTest.class.getClassLoader().getResourceAsStream(BUDGET_FILE)) {
+            if (in != null) {
+                budgets.load(in);
+            }
+        }
+        return budgets;
+    }
+
+    private static void writeBudgets(Map<String, Integer> observed, Map<String, Measurement> small,
+                                     Map<String, Measurement> large) throws IOException {
+        StringBuilder file = new StringBuilder();
+        file.append("# Maximum SQL statements per request, see EndpointStatementBudgetTest.\n");
+        file.append("# Keys are escaped as required by java.util.Properties.\n");
+        for (Map.Entry<String, Integer> entry : observed.entrySet()) {
+            String key = entry.getKey();
+            file.append("# status ").append(small.get(key).status()).append('/').append(large.get(key).status())
+                .append(", statements ").append(small.get(key).statements()).append('/')
+                .append(large.get(key).statements()).append('\n');
+            file.append(key.replace(" ", "\\ ").replace(":", "\\:")).append(" = ").append(entry.getValue()).append('\n');
+        }
+        Path target = Path.of("target", BUDGET_FILE);
+        Files.createDirectories(target.getParent());
+        Files.writeString(target, file);
+    }
+
+    /* =====================================================
+       Request values
+       ===================================================== */
+
+    /**
+     * Values for path variables, request parameters and bodies, taken from the
+     * seeded data so the calls hit existing rows.
+     */
+    private static final class Fixtures {
+
+        private final Map<String, String> values = new LinkedHashMap<>();
+        private final Map<String, Map<String, String>> perController = new LinkedHashMap<>();
+        private final LocalDate referenceDate;
+        private final long carId;
+        private final long clientId;
+        private final long employeeId;
+        private final long reservationId;
+        private final List<Long> freeCarIds;
+        private final String carVin;
+        private final String taskColumn;
+
+        Fixtures(JdbcTemplate jdbc, LocalDate referenceDate) {
+            this.referenceDate = referenceDate;
+            carId = jdbc.queryForObject("SELECT MIN(car_id) FROM sales", Long.class);
+            clientId = jdbc.queryForObject("SELECT client_id FROM sales WHERE car_id = ?", Long.class, carId);
+            employeeId = jdbc.queryForObject("SELECT handled_by_id FROM sales WHERE car_id = ?", Long.class, carId);
+            reservationId = jdbc.queryForObject("SELECT MIN(id) FROM reservations WHERE status = 'ACTIVE'", Long.class);
+            freeCarIds = jdbc.queryForList("SELECT id FROM cars WHERE status_code = 0 "
+                    + "AND id NOT IN (SELECT car_id FROM reservations) ORDER BY id LIMIT 2", Long.class);
+            carVin = jdbc.queryForObject("SELECT vin_number FROM cars WHERE id = ?", String.class, carId);
+            taskColumn = jdbc.queryForObject("SELECT k.column_id FROM tasks t JOIN kanban_columns k ON k.id = t.column_id "
+                    + "WHERE t.task_id = 'task-1'", String.class);
+            Map<String, Object> model = jdbc.queryForMap("SELECT * FROM car_models WHERE id = 1");
+            String clientEmail = jdbc.queryForObject("SELECT email FROM clients WHERE id = ?", String.class, clientId);
+            String clientName = jdbc.queryForObject("SELECT name FROM clients WHERE id = ?", String.class, clientId);
+            String employeeEmail = jdbc.queryForObject("SELECT email FROM employees WHERE id = ?", String.class, employeeId);
+
+            values.put("id", String.valueOf(carId));
+            values.put("carId", String.valueOf(carId));
+            values.put("clientId", String.valueOf(clientId));
+            values.put("employeeId", String.valueOf(employeeId));
+            values.put("userId", String.valueOf(employeeId));
+            values.put("locationId", "1");
+            values.put("reservationId", String.valueOf(reservationId));
+            values.put("inquiryId", String.valueOf(jdbc.queryForObject(
+                    "SELECT MIN(id) FROM inquiries WHERE status = 'PENDING'", Long.class)));
+            values.put("vinNumber", carVin);
+            values.put("registrationNumber", jdbc.queryForObject(
+                    "SELECT registration_number FROM cars WHERE id = ?", String.class, carId));
+            values.put("make", (String) model.get("make"));
+            values.put("model", (String) model.get("model"));
+            values.put("variant", (String) model.get("variant"));
+            values.put("fuelType", (String) model.get("fuel_type"));
+            values.put("bodyType", (String) model.get("body_type"));
+            values.put("transmissionType", (String) model.get("transmission_type"));
+            values.put("inspectorName", jdbc.queryForObject(
+                    "SELECT inspector_name FROM car_inspections ORDER BY id LIMIT 1", String.class));
+            values.put("email", clientEmail);
+            values.put("name", clientName);
+            values.put("searchTerm", (String) model.get("model"));
+            values.put("status", "ACTIVE");
+            values.put("type", "REPAIR");
+            values.put("inquiryType", "PRICE");
+            values.put("department", "Sales");
+            values.put("position", "Sales Executive");
+            values.put("performance", "Good");
+            values.put("password", "password");
+            values.put("color", "White");
+            values.put("paymentMethod", "LOAN");
+            values.put("taskId", "task-1");
+            values.put("columnId", taskColumn);
+            values.put("page", "0");
+            values.put("size", "10");
+            values.put("limit", "5");
+            values.put("days", "7");
+            values.put("sortBy", "saleDate");
+            values.put("direction", "desc");
+            values.put("year", String.valueOf(referenceDate.getYear()));
+            values.put("month", String.valueOf(referenceDate.getMonthValue()));
+            values.put("minPrice", "100000");
+            values.put("maxPrice", "5000000");
+            values.put("amount", "10000");
+            values.put("delta", "1");
+            values.put("requiredSpace", "1");
+            values.put("pass", "true");
+            values.put("depositPaid", "true");
+
+            perController.put("CarController", Map.of("status", "AVAILABLE", "year", "2015"));
+            perController.put("SaleController", Map.of("id", String.valueOf(carId)));
+            perController.put("ReservationController", Map.of("id", String.valueOf(reservationId)));
+            perController.put("ClientController", Map.of("id", String.valueOf(clientId)));
+            perController.put("EmployeeController", Map.of("id", String.valueOf(employeeId), "email", employeeEmail,
+                    "status", "ACTIVE"));
+            perController.put("InquiryController", Map.of("id", values.get("inquiryId"), "status", "PENDING"));
+            perController.put("CarInspectionController", Map.of("id", String.valueOf(jdbc.queryForObject(
+                    "SELECT MIN(id) FROM car_inspections", Long.class))));
+            perController.put("FinancialTransactionController", Map.of("id", String.valueOf(jdbc.queryForObject(
+                    "SELECT MIN(id) FROM financial_transactions", Long.class))));
+            perController.put("StorageLocationController", Map.of("id", "1"));
+            // A caught-up client; whether earlier writes have reached the feed yet depends on the outbox poll
+            perController.put("ChangeFeedController", Map.of("feed", "cars", "since", String.valueOf(Long.MAX_VALUE - 1)));
+            perController.put("CarModelController", Map.of("id", "1"));
+            perController.put("CalendarEventController", Map.of("id", String.valueOf(jdbc.queryForObject(
+                    "SELECT MIN(id) FROM calendar_events", Long.class))));
+        }
+
+        String value(String controller, String name, Class<?> type) {
+            if (type == LocalDate.class || type == LocalDateTime.class) {
+                LocalDate date = switch (name) {
+                    case "startDate", "start" -> referenceDate.minusYears(5);
+                    case "endDate", "end" -> referenceDate;
+                    default -> referenceDate.minusDays(14);
+                };
+                return type == LocalDate.class ? date.toString()
+                        : (name.startsWith("end") ? date.atTime(23, 59, 59) : date.atStartOfDay()).toString();
+            }
+            String value = perController.getOrDefault(controller, Map.of()).get(name);
+            return value != null ? value : values.get(name);
+        }
+
+        Object body(String controller, RequestMethod method, Class<?> type) {
+            boolean create = method == RequestMethod.POST;
+            Map<String, Object> body = new LinkedHashMap<>();
+            switch (type.getSimpleName()) {
+                case "Car" -> {
+                    body.put("vinNumber", create ? "BUDGET00000000001" : carVin);
+                    body.put("registrationNumber", "MH01ZZ0001");
+                    body.put("carModel", Map.of("id", 1));
+                    body.put("year", 2022);
+                    body.put("color", "White");
+                    body.put("mileage", 1000);
+                    body.put("currentStatus", create ? "AVAILABLE" : "SOLD");
+                    body.put("purchaseDate", referenceDate.minusMonths(1).toString());
+                    body.put("purchasePrice", 500000);
+                    body.put("sellingPrice", 550000);
+                    body.put("storageLocation", Map.of("id", 1));
+                }
+                case "Sale" -> {
+                    body.put("car", Map.of("id", create ? freeCarIds.get(0) : carId));
+                    body.put("client", Map.of("id", clientId));
+                    body.put("handledBy", Map.of("id", employeeId));
+                    body.put("saleDate", referenceDate.toString());
+                    body.put("salePrice", 600000);
+                    body.put("commissionRate", 2);
+                    body.put("paymentMethod", "LOAN");
+                }
+                case "Reservation" -> {
+                    body.put("car", Map.of("id", create ? freeCarIds.get(1) : carId));
+                    body.put("client", Map.of("id", clientId));
+                    body.put("reservationDate", referenceDate.atTime(10, 0).toString());
+                    body.put("expiryDate", referenceDate.plusDays(7).atTime(10, 0).toString());
+                    body.put("depositAmount", 10000);
+                }
+                case "Client" -> {
+                    body.put("name", "Budget Client");
+                    body.put("email", create ? "budget.client@example.com" : "budget.client.updated@example.com");
+                    body.put("phone", "+919000000000");
+                    body.put("location", "Pune");
+                    body.put("status", "ACTIVE");
+                }
+                case "Employee" -> {
+                    body.put("name", "Budget Employee");
+                    body.put("email", create ? "budget.employee@ws.com" : "budget.employee.updated@ws.com");
+                    body.put("phone", "+919000000001");
+                    body.put("position", "Sales Executive");
+                    body.put("department", "Sales");
+                    body.put("joinDate", referenceDate.minusYears(1).toString());
+                    body.put("status", "ACTIVE");
+                    body.put("password", "password");
+                }
+                case "CarModel" -> {
+                    body.put("make", "Budget");
+                    body.put("model", "Model");
+                    body.put("variant", create ? "Created" : "Updated");
+                    body.put("bodyType", "SUV");
+                    body.put("fuelType", "Petrol");
+                    body.put("transmissionType", "Manual");
+                    body.put("gears", 5);
+                }
+                case "CarInspection" -> {
+                    body.put("car", Map.of("id", carId));
+                    body.put("inspectionDate", referenceDate.toString());
+                    body.put("inspectorName", "Budget Inspector");
+                    body.put("overallCondition", "Good");
+                    body.put("inspectionPass", true);
+                }
+                case "FinancialTransaction" -> {
+                    body.put("car", Map.of("id", carId));
+                    body.put("transactionType", "REPAIR");
+                    body.put("amount", 1000);
+                    body.put("transactionDate", referenceDate.toString());
+                    body.put("description", "Budget test");
+                }
+                case "Inquiry" -> {
+                    body.put("car", Map.of("id", carId));
+                    body.put("client", Map.of("id", clientId));
+                    body.put("inquiryType", "PRICE");
+                    body.put("message", "Budget test inquiry");
+                    body.put("status", "PENDING");
+                }
+                case "StorageLocation" -> {
+                    body.put("name", "Budget Yard");
+                    body.put("address", "1 Test Road");
+                    body.put("contactPerson", "Budget Contact");
+                    body.put("contactNumber", "+919000000002");
+                    body.put("totalCapacity", 100);
+                    body.put("currentVehicleCount", 0);
+                }
+                case "CalendarEventDTO" -> {
+                    body.put("title", "Budget event");
+                    body.put("start", referenceDate.atTime(10, 0).toString());
+                    body.put("end", referenceDate.atTime(11, 0).toString());
+                    body.put("backgroundColor", "#4caf50");
+                    body.put("borderColor", "#4caf50");
+                    body.put("eventType", "TEST_DRIVE");
+                    body.put("customerName", "Budget Customer");
+                    body.put("carDetails", "Budget car");
+                }
+                case "TaskDTO" -> {
+                    body.put("title", "Budget task");
+                    body.put("description", "Budget test");
+                    body.put("assignee", "Budget Assignee");
+                    body.put("dueDate", referenceDate.plusDays(3).toString());
+                    body.put("priority", "HIGH");
+                    body.put("tags", List.of("urgent"));
+                }
+                case "ColumnDTO" -> {
+                    if (create) {
+                        body.put("id", "column-budget");
+                    }
+                    body.put("title", "Budget column");
+                }
+                case "TaskMoveDTO" -> {
+                    body.put("taskId", "task-1");
+                    body.put("sourceColumnId", taskColumn);
+                    body.put("sourceIndex", 0);
+                    body.put("destinationColumnId", taskColumn);
+                    body.put("destinationIndex", 1);
+                }
+                case "CarSearchCriteria" -> {
+                    body.put("make", values.get("make"));
+                    body.put("status", "AVAILABLE");
+                }
+                case "TransactionSearchCriteria" -> body.put("transactionType", "REPAIR");
+                case "LoginRequest" -> {
+                    body.put("email", "admin@ws.com");
+                    body.put("password", "password");
+                }
+                case "String" -> {
+                    return "Thank you for your interest.";
+                }
+                default -> throw new IllegalStateException("No request body fixture for " + type.getName()
+                        + " used by " + controller);
+            }
+            return body;
+        }
+    }
+}
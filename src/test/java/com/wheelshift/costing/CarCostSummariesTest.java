@@ -0,0 +1,151 @@
+package com.wheelshift.costing;
+
+import com.wheelshift.WheelShiftApplication;
+import com.wheelshift.datagen.DatasetGeneratorProperties;
+import com.wheelshift.datagen.EmbeddedDataset;
+import com.wheelshift.dto.ProfitGrouping;
+import com.wheelshift.dto.ProfitSummary;
+import com.wheelshift.job.CarCostReconciliationJob;
+import com.wheelshift.job.JobCoordinator;
+import com.wheelshift.job.JobRunSummary;
+import com.wheelshift.model.Car;
+import com.wheelshift.model.CarCostSummary;
+import com.wheelshift.model.FinancialTransaction;
+import com.wheelshift.repository.CarCostSummaryRepository;
+import com.wheelshift.repository.CarRepository;
+import com.wheelshift.service.FinancialTransactionService;
+import com.wheelshift.service.SaleService;
+import com.wheelshift.versioning.Aggregate;
+import com.wheelshift.versioning.ChangeVersions;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Fills the cost summaries of a generated dataset through the reconciliation
+ * job, then changes one car's costs through JPA and reads the refreshed
+ * summary and the reports built on the summaries.
+ */
+@SpringBootTest(classes = WheelShiftApplication.class, properties = {
+    "wheelshift.jobs.reservation-expiry.cron=-",
+    "wheelshift.jobs.location-reconciliation.cron=-",
+    "logging.level.com.wheelshift=warn"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("embedded")
+class CarCostSummariesTest {
+
+    private static final LocalDate FROM = LocalDate.of(2000, 1, 1);
+    private static final LocalDate TO = LocalDate.of(2100, 1, 1);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JobCoordinator jobCoordinator;
+
+    @Autowired
+    private CarCostReconciliationJob reconciliationJob;
+
+    @Autowired
+    private CarCostSummaryRepository carCostSummaryRepository;
+
+    @Autowired
+    private CarRepository carRepository;
+
+    @Autowired
+    private FinancialTransactionService financialTransactionService;
+
+    @Autowired
+    private SaleService saleService;
+
+    @Autowired
+    private ChangeVersions changeVersions;
+
+    @Test
+    void summariesFollowCostChangesAndFeedTheReports() {
+        DatasetGeneratorProperties properties = new DatasetGeneratorProperties();
+        properties.setCars(80);
+        properties.setEmployees(6);
+        properties.setLocations(3);
+        EmbeddedDataset dataset = new EmbeddedDataset(jdbcTemplate, transactionManager);
+        dataset.clear();
+        dataset.load(properties);
+        jdbcTemplate.update("DELETE FROM car_cost_summaries");
+
+        jobCoordinator.run(reconciliationJob, "cost-summaries-test-" + System.nanoTime());
+
+        assertThat(carCostSummaryRepository.count()).isEqualTo(carRepository.count());
+        BigDecimal revenue = jdbcTemplate.queryForObject("SELECT SUM(sale_price) FROM sales", BigDecimal.class);
+        Map<String, BigDecimal> margin = saleService.calculateProfitMargin(FROM, TO);
+        assertThat(margin.get("totalRevenue")).isEqualByComparingTo(revenue);
+        for (ProfitGrouping grouping : ProfitGrouping.values()) {
+            List<ProfitSummary> report = saleService.getProfitReport(grouping, FROM, TO);
+            assertThat(report.stream().map(ProfitSummary::getRevenue).reduce(BigDecimal.ZERO, BigDecimal::add))
+                    .as(grouping.name()).isEqualByComparingTo(revenue);
+            assertThat(report.stream().map(ProfitSummary::getProfit).reduce(BigDecimal.ZERO, BigDecimal::add))
+                    .as(grouping.name()).isEqualByComparingTo(margin.get("profit"));
+        }
+
+        Long soldCarId = jdbcTemplate.queryForObject("SELECT MIN(car_id) FROM sales", Long.class);
+        CarCostSummary before = carCostSummaryRepository.findById(soldCarId).orElseThrow();
+        assertThat(before.getProfit()).isEqualByComparingTo(before.getSalePrice().subtract(before.getTotalCost()));
+
+        Car car = carRepository.findById(soldCarId).orElseThrow();
+        FinancialTransaction towing = new FinancialTransaction();
+        towing.setCar(car);
+        towing.setTransactionType("Towing");
+        towing.setAmount(new BigDecimal("1234.50"));
+        towing.setTransactionDate(before.getSaleDate());
+        FinancialTransaction saved = financialTransactionService.saveTransaction(towing);
+
+        CarCostSummary after = carCostSummaryRepository.findById(soldCarId).orElseThrow();
+        assertThat(after.getOtherCost()).isEqualByComparingTo(before.getOtherCost().add(new BigDecimal("1234.50")));
+        assertThat(after.getProfit()).isEqualByComparingTo(before.getProfit().subtract(new BigDecimal("1234.50")));
+
+        financialTransactionService.deleteTransaction(saved.getId());
+        assertThat(carCostSummaryRepository.findById(soldCarId).orElseThrow().getProfit())
+                .isEqualByComparingTo(before.getProfit());
+    }
+
+    @Test
+    void reconciliationOnlyRewritesAndAnnouncesSummariesThatChanged() {
+        DatasetGeneratorProperties properties = new DatasetGeneratorProperties();
+        properties.setCars(40);
+        properties.setEmployees(4);
+        properties.setLocations(2);
+        EmbeddedDataset dataset = new EmbeddedDataset(jdbcTemplate, transactionManager);
+        dataset.clear();
+        dataset.load(properties);
+        jobCoordinator.run(reconciliationJob, "cost-versions-test-" + System.nanoTime());
+
+        List<Long> settled = changeVersions.versionsOf(Aggregate.SALES, Aggregate.CARS);
+        JobRunSummary unchanged = jobCoordinator.run(reconciliationJob, "cost-versions-test-" + System.nanoTime());
+        assertThat(unchanged.rowsProcessed()).isZero();
+        assertThat(changeVersions.versionsOf(Aggregate.SALES, Aggregate.CARS)).isEqualTo(settled);
+
+        // Drifted past JPA
+        Long soldCarId = jdbcTemplate.queryForObject("SELECT MIN(car_id) FROM sales", Long.class);
+        jdbcTemplate.update("UPDATE car_cost_summaries SET profit = profit + 1 WHERE car_id = ?", soldCarId);
+        JobRunSummary corrected = jobCoordinator.run(reconciliationJob, "cost-versions-test-" + System.nanoTime());
+        assertThat(corrected.rowsProcessed()).isEqualTo(1);
+        List<Long> after = changeVersions.versionsOf(Aggregate.SALES, Aggregate.CARS);
+        assertThat(after.get(0)).isGreaterThan(settled.get(0));
+        assertThat(after.get(1)).isGreaterThan(settled.get(1));
+    }
+}
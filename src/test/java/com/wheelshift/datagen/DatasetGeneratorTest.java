@@ -0,0 +1,73 @@
+package com.wheelshift.datagen;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Generates small datasets into {@link CsvRowSink} and compares the files:
+ * the output depends on the seed and sizes only, not on the thread count.
+ */
+class DatasetGeneratorTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void sameSeedWritesIdenticalFilesWhateverTheThreadCount() throws IOException {
+        Map<String, byte[]> single = generate("single", 7L, 1);
+        Map<String, byte[]> parallel = generate("parallel", 7L, 4);
+
+        assertThat(single).isNotEmpty();
+        assertThat(single.keySet()).containsExactlyElementsOf(parallel.keySet());
+        single.forEach((file, bytes) -> assertThat(parallel.get(file)).as(file).isEqualTo(bytes));
+    }
+
+    @Test
+    void otherSeedWritesOtherFiles() throws IOException {
+        Map<String, byte[]> first = generate("first", 7L, 2);
+        Map<String, byte[]> second = generate("second", 8L, 2);
+
+        assertThat(first.keySet()).containsExactlyElementsOf(second.keySet());
+        assertThat(first.get("cars/000000.csv")).isNotEqualTo(second.get("cars/000000.csv"));
+        assertThat(first.get("clients/000000.csv")).isNotEqualTo(second.get("clients/000000.csv"));
+    }
+
+    /**
+     * Every file written, by path relative to the output directory; the paths
+     * in {@code load.sql} are made relative too.
+     */
+    private Map<String, byte[]> generate(String name, long seed, int threads) throws IOException {
+        DatasetGeneratorProperties properties = new DatasetGeneratorProperties();
+        properties.setSeed(seed);
+        properties.setThreads(threads);
+        properties.setCars(2_000);
+        // Several chunks per phase, so the threads interleave
+        properties.setChunkSize(300);
+        Path output = dir.resolve(name);
+        try (CsvRowSink sink = new CsvRowSink(output, RowFactory.ALL_TABLES.stream().map(TableSpec::name).toList())) {
+            new DatasetGenerator(properties, sink).generate();
+        }
+        Map<String, byte[]> files = new LinkedHashMap<>();
+        try (Stream<Path> paths = Files.walk(output)) {
+            for (Path file : paths.filter(Files::isRegularFile).sorted().toList()) {
+                String relative = output.relativize(file).toString().replace('\\', '/');
+                byte[] bytes = Files.readAllBytes(file);
+                if (relative.equals("load.sql")) {
+                    bytes = Files.readString(file).replace(output.toAbsolutePath().toString().replace("\\", "/"), "")
+                            .getBytes();
+                }
+                files.put(relative, bytes);
+            }
+        }
+        return files;
+    }
+}
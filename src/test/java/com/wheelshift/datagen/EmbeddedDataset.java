@@ -0,0 +1,56 @@
+package com.wheelshift.datagen;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * Loads the synthetic dataset into the in-memory H2 database of the
+ * {@code embedded} profile for tests.
+ */
+public class EmbeddedDataset {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+
+    public EmbeddedDataset(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionManager = transactionManager;
+    }
+
+    public void load(DatasetGeneratorProperties properties) {
+        try (JdbcRowSink sink = new JdbcRowSink(jdbcTemplate, new TransactionTemplate(transactionManager),
+                properties.getBatchSize())) {
+            new DatasetGenerator(properties, sink).generate();
+        }
+        // The generator assigns ids explicitly and H2 does not move identity counters past them
+        for (String table : tablesWithIdentity()) {
+            Long next = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) + 1 FROM " + table, Long.class);
+            jdbcTemplate.execute("ALTER TABLE " + table + " ALTER COLUMN id RESTART WITH " + next);
+        }
+    }
+
+    /**
+     * Empties every table the generator fills, including rows the application
+     * added since the last load.
+     */
+    public void clear() {
+        jdbcTemplate.execute("SET REFERENTIAL_INTEGRITY FALSE");
+        try {
+            for (TableSpec table : RowFactory.ALL_TABLES) {
+                jdbcTemplate.execute("TRUNCATE TABLE " + table.name());
+            }
+        } finally {
+            jdbcTemplate.execute("SET REFERENTIAL_INTEGRITY TRUE");
+        }
+    }
+
+    private static List<String> tablesWithIdentity() {
+        return RowFactory.ALL_TABLES.stream()
+                .filter(table -> "id".equals(table.columns()[0]))
+                .map(TableSpec::name)
+                .toList();
+    }
+}
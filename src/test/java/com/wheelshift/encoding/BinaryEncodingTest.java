@@ -0,0 +1,222 @@
+package com.wheelshift.encoding;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.protobuf.ProtobufMapper;
+import com.fasterxml.jackson.dataformat.protobuf.schema.NativeProtobufSchema;
+import com.fasterxml.jackson.dataformat.protobuf.schema.ProtobufSchemaLoader;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import com.wheelshift.WheelShiftApplication;
+import com.wheelshift.datagen.DatasetGeneratorProperties;
+import com.wheelshift.datagen.EmbeddedDataset;
+import com.wheelshift.dto.ColumnDTO;
+import com.wheelshift.dto.TaskDTO;
+import com.wheelshift.model.CarStatus;
+import com.wheelshift.model.EventType;
+import com.wheelshift.service.KanbanService;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * Asks the list, export and change feed endpoints for each encoding and
+ * checks the binary bodies decode to the same document as the JSON one.
+ */
+@SpringBootTest(classes = WheelShiftApplication.class, properties = {
+    "wheelshift.jobs.reservation-expiry.cron=-",
+    "wheelshift.jobs.location-reconciliation.cron=-",
+    "logging.level.com.wheelshift=warn"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("embedded")
+class BinaryEncodingTest {
+
+    private static final MediaType CBOR = MediaType.parseMediaType("application/cbor");
+    private static final MediaType SMILE = MediaType.parseMediaType("application/x-jackson-smile");
+    private static final MediaType PROTOBUF = ProtobufSchemaHttpMessageConverter.APPLICATION_X_PROTOBUF;
+
+    private static final List<String> ENDPOINTS = List.of(
+            "/api/v1/cars/basic-details",
+            "/api/v1/cars/basic-details/paged?size=20",
+            "/api/sales",
+            "/api/sales/paged?size=20",
+            "/api/calendar/events/range?start=2000-01-01&end=2100-01-01",
+            "/api/v1/changes/cars");
+
+    /** Enum fields, whose message numbers are the constants' ordinals. */
+    private static final Map<String, Class<? extends Enum<?>>> ENUMS = Map.of(
+            "currentStatus", CarStatus.class,
+            "eventType", EventType.class);
+
+    // Read decimals as decimals everywhere, so amounts compare exactly
+    private final ObjectMapper json = new ObjectMapper().enable(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS);
+    private final ObjectMapper cbor = new CBORMapper().enable(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS);
+    private final ObjectMapper smile = new SmileMapper().enable(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS);
+    private final ProtobufMapper protobuf = new ProtobufMapper();
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private KanbanService kanbanService;
+
+    @BeforeEach
+    void loadDataset() {
+        DatasetGeneratorProperties properties = new DatasetGeneratorProperties();
+        properties.setCars(60);
+        properties.setEmployees(4);
+        properties.setLocations(2);
+        EmbeddedDataset dataset = new EmbeddedDataset(jdbcTemplate, transactionManager);
+        dataset.clear();
+        dataset.load(properties);
+    }
+
+    @Test
+    void cborAndSmileBodiesCarryTheJsonDocument() throws Exception {
+        for (String endpoint : ENDPOINTS) {
+            MockHttpServletResponse jsonResponse = fetch(endpoint, MediaType.ALL);
+            assertThat(jsonResponse.getContentType()).as(endpoint).startsWith(MediaType.APPLICATION_JSON_VALUE);
+            JsonNode document = json.readTree(jsonResponse.getContentAsByteArray());
+
+            MockHttpServletResponse cborResponse = fetch(endpoint, CBOR);
+            assertThat(cborResponse.getContentType()).as(endpoint).isEqualTo(CBOR.toString());
+            assertThat(cbor.readTree(cborResponse.getContentAsByteArray())).as(endpoint).isEqualTo(document);
+
+            MockHttpServletResponse smileResponse = fetch(endpoint, SMILE);
+            assertThat(smileResponse.getContentType()).as(endpoint).isEqualTo(SMILE.toString());
+            assertThat(smile.readTree(smileResponse.getContentAsByteArray())).as(endpoint).isEqualTo(document);
+            if (document.size() > 10) {
+                assertThat(smileResponse.getContentAsByteArray().length).as(endpoint)
+                        .isLessThan(jsonResponse.getContentAsByteArray().length);
+            }
+        }
+    }
+
+    @Test
+    void protobufBodiesFollowTheSchema() throws Exception {
+        NativeProtobufSchema schema = ProtobufSchemaLoader.std.loadNative(
+                new ClassPathResource("proto/wheelshift.proto").getURL());
+
+        JsonNode sales = json.readTree(fetch("/api/sales", MediaType.APPLICATION_JSON).getContentAsByteArray());
+        JsonNode salesList = decode("/api/sales", schema, "SaleDTOList");
+        assertThat(sales).isNotEmpty();
+        assertSameValues(salesList.get("items"), sales, "sales");
+
+        String carsPage = "/api/v1/cars/basic-details/paged?size=20&page=1";
+        JsonNode cars = json.readTree(fetch(carsPage, MediaType.APPLICATION_JSON).getContentAsByteArray());
+        JsonNode carsMessage = decode(carsPage, schema, "CarBasicDetailsPage");
+        assertSameValues(carsMessage.get("content"), cars.get("content"), "cars");
+        assertThat(carsMessage.get("number").asInt()).isEqualTo(1);
+        assertThat(carsMessage.get("totalElements").asLong()).isEqualTo(cars.get("totalElements").asLong());
+
+        String events = "/api/calendar/events/range?start=2000-01-01&end=2100-01-01";
+        assertSameValues(decode(events, schema, "CalendarEventDTOList").get("items"),
+                json.readTree(fetch(events, MediaType.APPLICATION_JSON).getContentAsByteArray()), "events");
+
+        String column = kanbanService.createColumn(column("To do")).getId();
+        TaskDTO task = new TaskDTO();
+        task.setTitle("Wash car");
+        task.setTags(Set.of("detailing"));
+        kanbanService.createTask(task, column);
+        assertSameValues(decode("/api/kanban/board", schema, "KanbanBoardDTO"),
+                json.readTree(fetch("/api/kanban/board", MediaType.APPLICATION_JSON).getContentAsByteArray()),
+                "board");
+    }
+
+    @Test
+    void protobufIsRefusedWhereTheSchemaHasNoMessage() throws Exception {
+        assertThat(fetch("/api/v1/changes/cars", PROTOBUF).getStatus()).isEqualTo(406);
+        assertThat(fetch("/api/sales/statistics/monthly", PROTOBUF).getStatus()).isEqualTo(406);
+
+        // Cacheable bodies vary with the encoding asked for
+        assertThat(fetch("/api/sales", SMILE).getHeaders(HttpHeaders.VARY)).contains(HttpHeaders.ACCEPT);
+    }
+
+    private JsonNode decode(String endpoint, NativeProtobufSchema schema, String message) throws Exception {
+        MockHttpServletResponse response = fetch(endpoint, PROTOBUF);
+        assertThat(response.getStatus()).as(endpoint).isEqualTo(200);
+        assertThat(response.getContentType()).as(endpoint).isEqualTo(PROTOBUF.toString());
+        return protobuf.readerFor(JsonNode.class).with(schema.forType(message))
+                .readValue(response.getContentAsByteArray());
+    }
+
+    private MockHttpServletResponse fetch(String endpoint, MediaType accept) throws Exception {
+        MvcResult started = mockMvc.perform(get(endpoint).accept(accept)).andReturn();
+        MvcResult result = started.getRequest().isAsyncStarted()
+                ? mockMvc.perform(asyncDispatch(started)).andReturn() : started;
+        return result.getResponse();
+    }
+
+    /**
+     * Every non-null value of the JSON is in the message with the same text;
+     * protobuf has no nulls and carries decimals as strings.
+     */
+    private static void assertSameValues(JsonNode message, JsonNode document, String path) {
+        if (document.isArray()) {
+            // Empty repeated fields are left out of the message
+            int size = message == null ? 0 : message.size();
+            assertThat(size).as(path).isEqualTo(document.size());
+            for (int i = 0; i < size; i++) {
+                assertSameValues(message.get(i), document.get(i), path + "[" + i + "]");
+            }
+        } else if (document.isObject()) {
+            assertThat(message).as(path).isNotNull();
+            Iterator<String> names = document.fieldNames();
+            while (names.hasNext()) {
+                String name = names.next();
+                JsonNode value = document.get(name);
+                if (!value.isNull() && !(value.isArray() && value.isEmpty())) {
+                    assertSameValues(message.get(name), value, path + "." + name);
+                }
+            }
+        } else if (document.isNumber()) {
+            // Decimal nodes drop trailing zeros, the strings keep them
+            assertThat(message).as(path).isNotNull();
+            assertThat(new BigDecimal(message.asText())).as(path).isEqualByComparingTo(document.decimalValue());
+        } else if (ENUMS.containsKey(path.substring(path.lastIndexOf('.') + 1))) {
+            // Enums are read back as their numbers
+            Class<? extends Enum<?>> type = ENUMS.get(path.substring(path.lastIndexOf('.') + 1));
+            assertThat(message).as(path).isNotNull();
+            assertThat(type.getEnumConstants()[message.asInt()].name()).as(path).isEqualTo(document.asText());
+        } else {
+            assertThat(message).as(path).isNotNull();
+            assertThat(message.asText()).as(path).isEqualTo(document.asText());
+        }
+    }
+
+    private static ColumnDTO column(String title) {
+        ColumnDTO column = new ColumnDTO();
+        column.setTitle(title);
+        return column;
+    }
+}
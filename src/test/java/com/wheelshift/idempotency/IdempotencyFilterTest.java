@@ -0,0 +1,272 @@
+package com.wheelshift.idempotency;
+
+import com.wheelshift.tenancy.TenantContext;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Sends requests through the filter to a handler that counts how often it
+ * runs, with the keys in an in-memory database.
+ */
+class IdempotencyFilterTest {
+
+    private static final String CREATE_KEYS = "CREATE TABLE idempotency_keys (idempotency_key VARCHAR(161) PRIMARY KEY, "
+            + "request_hash VARCHAR(64) NOT NULL, state VARCHAR(16) NOT NULL, response_status INT, "
+            + "content_type VARCHAR(128), response_body BLOB, created_at TIMESTAMP NOT NULL, "
+            + "expires_at TIMESTAMP NOT NULL)";
+
+    private final IdempotencyProperties properties = new IdempotencyProperties();
+    private final AtomicInteger runs = new AtomicInteger();
+    private JdbcTemplate jdbc;
+    private IdempotencyStore store;
+    private IdempotencyFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        jdbc = new JdbcTemplate(new DriverManagerDataSource(
+                "jdbc:h2:mem:idempotency-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", ""));
+        jdbc.execute(CREATE_KEYS);
+        properties.setMaxWait(Duration.ofSeconds(5));
+        store = new IdempotencyStore(jdbc, properties);
+        filter = new IdempotencyFilter(store, properties);
+    }
+
+    @Test
+    void retryReplaysTheFirstResponse() throws Exception {
+        MockHttpServletResponse first = send(post("/api/sales", "key-1"), created());
+        MockHttpServletResponse retry = send(post("/api/sales", "key-1"), created());
+
+        assertThat(runs).hasValue(1);
+        assertThat(retry.getStatus()).isEqualTo(201);
+        assertThat(retry.getContentType()).isEqualTo("application/json");
+        assertThat(retry.getContentAsString()).isEqualTo(first.getContentAsString()).isEqualTo("{\"run\":1}");
+        assertThat(retry.getHeader(IdempotencyFilter.IDEMPOTENT_REPLAYED)).isEqualTo("true");
+        assertThat(first.getHeader(IdempotencyFilter.IDEMPOTENT_REPLAYED)).isNull();
+    }
+
+    @Test
+    void requestsWithoutAKeyOrThatDoNotWriteAlwaysRun() throws Exception {
+        send(post("/api/sales", null), created());
+        send(post("/api/sales", null), created());
+        MockHttpServletRequest get = new MockHttpServletRequest("GET", "/api/sales");
+        get.addHeader(IdempotencyFilter.IDEMPOTENCY_KEY, "key-1");
+        send(get, created());
+        send(get, created());
+
+        assertThat(runs).hasValue(4);
+    }
+
+    @Test
+    void concurrentDuplicateWaitsForTheFirstAndReplaysIt() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch proceed = new CountDownLatch(1);
+        FilterChain slow = (request, response) -> {
+            started.countDown();
+            await(proceed);
+            created().doFilter(request, response);
+        };
+        CompletableFuture<MockHttpServletResponse> first =
+                CompletableFuture.supplyAsync(() -> sendUnchecked(post("/api/sales", "key-1"), slow));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<MockHttpServletResponse> duplicate =
+                CompletableFuture.supplyAsync(() -> sendUnchecked(post("/api/sales", "key-1"), created()));
+
+        Thread.sleep(100);
+        assertThat(duplicate).isNotDone();
+        proceed.countDown();
+
+        assertThat(first.get(5, TimeUnit.SECONDS).getStatus()).isEqualTo(201);
+        MockHttpServletResponse replayed = duplicate.get(5, TimeUnit.SECONDS);
+        assertThat(replayed.getHeader(IdempotencyFilter.IDEMPOTENT_REPLAYED)).isEqualTo("true");
+        assertThat(replayed.getContentAsString()).isEqualTo("{\"run\":1}");
+        assertThat(runs).hasValue(1);
+    }
+
+    @Test
+    void duplicateRunningOnAnotherNodeIsAnsweredConflictAfterTheWait() throws Exception {
+        properties.setMaxWait(Duration.ofMillis(200));
+        MockHttpServletRequest request = post("/api/sales", "key-1");
+        // Claimed by the same request elsewhere, which never finishes
+        store.claim("default:key-1", IdempotencyFilter.requestHash(request));
+
+        MockHttpServletResponse response = send(request, created());
+
+        assertThat(response.getStatus()).isEqualTo(409);
+        assertThat(runs).hasValue(0);
+    }
+
+    @Test
+    void keyReusedForAnotherRequestIsRejected() throws Exception {
+        send(post("/api/sales", "key-1"), created());
+        MockHttpServletResponse other = send(post("/api/v1/cars", "key-1"), created());
+
+        assertThat(other.getStatus()).isEqualTo(422);
+        assertThat(runs).hasValue(1);
+    }
+
+    @Test
+    void keyReusedWithAnotherBodyIsRejected() throws Exception {
+        send(post("/api/sales", "key-1", "{\"salePrice\":100}"), created());
+        MockHttpServletResponse retry = send(post("/api/sales", "key-1", "{\"salePrice\":100}"), created());
+        MockHttpServletResponse changed = send(post("/api/sales", "key-1", "{\"salePrice\":90}"), created());
+
+        assertThat(retry.getHeader(IdempotencyFilter.IDEMPOTENT_REPLAYED)).isEqualTo("true");
+        assertThat(changed.getStatus()).isEqualTo(422);
+        assertThat(runs).hasValue(1);
+    }
+
+    @Test
+    void handlerReadsTheBodyThatWasHashed() throws Exception {
+        FilterChain echo = (request, response) -> {
+            runs.incrementAndGet();
+            response.getOutputStream().write(request.getInputStream().readAllBytes());
+        };
+
+        MockHttpServletResponse response = send(post("/api/sales", "key-1", "{\"salePrice\":100}"), echo);
+
+        assertThat(response.getContentAsString()).isEqualTo("{\"salePrice\":100}");
+    }
+
+    @Test
+    void tenantsDoNotShareKeys() throws Exception {
+        send(post("/api/sales", "key-1"), created());
+        MockHttpServletResponse other = TenantContext.callAs("north",
+                () -> sendUnchecked(post("/api/sales", "key-1"), created()));
+
+        assertThat(other.getHeader(IdempotencyFilter.IDEMPOTENT_REPLAYED)).isNull();
+        assertThat(runs).hasValue(2);
+    }
+
+    @Test
+    void failedRequestReleasesItsKey() throws Exception {
+        FilterChain failing = (request, response) -> {
+            runs.incrementAndGet();
+            ((HttpServletResponse) response).setStatus(400);
+        };
+        send(post("/api/sales", "key-1"), failing);
+        MockHttpServletResponse retry = send(post("/api/sales", "key-1"), created());
+
+        assertThat(retry.getStatus()).isEqualTo(201);
+        assertThat(retry.getHeader(IdempotencyFilter.IDEMPOTENT_REPLAYED)).isNull();
+        assertThat(runs).hasValue(2);
+    }
+
+    @Test
+    void responseTooLargeToStoreIsReplayedAsItsStatus() throws Exception {
+        properties.setMaxBodyBytes(4);
+        send(post("/api/sales", "key-1"), created());
+        MockHttpServletResponse retry = send(post("/api/sales", "key-1"), created());
+
+        assertThat(runs).hasValue(1);
+        assertThat(retry.getStatus()).isEqualTo(201);
+        assertThat(retry.getHeader(IdempotencyFilter.IDEMPOTENT_REPLAYED)).isEqualTo("true");
+        assertThat(retry.getContentAsByteArray()).isEmpty();
+    }
+
+    @Test
+    void successfulRequestKeepsItsKeyWhenTheResponseCannotBeStored() throws Exception {
+        AtomicInteger failures = new AtomicInteger(1);
+        filter = new IdempotencyFilter(new IdempotencyStore(jdbc, properties) {
+            @Override
+            public void complete(String key, StoredResponse response) {
+                if (failures.getAndDecrement() > 0) {
+                    throw new QueryTimeoutException("Lock wait timeout");
+                }
+                super.complete(key, response);
+            }
+        }, properties);
+
+        // The body could not be stored, the status could
+        send(post("/api/sales", "key-1"), created());
+        assertThat(send(post("/api/sales", "key-1"), created()).getHeader(IdempotencyFilter.IDEMPOTENT_REPLAYED))
+                .isEqualTo("true");
+
+        // Nothing could be stored, retries are refused until the claim runs out
+        failures.set(2);
+        properties.setMaxWait(Duration.ofMillis(200));
+        send(post("/api/sales", "key-2"), created());
+        assertThat(send(post("/api/sales", "key-2"), created()).getStatus()).isEqualTo(409);
+        assertThat(runs).hasValue(2);
+    }
+
+    @Test
+    void expiredKeyRunsAgainAndPurgeKeepsTheNewest() throws Exception {
+        send(post("/api/sales", "key-1"), created());
+        jdbc.update("UPDATE idempotency_keys SET expires_at = created_at");
+        send(post("/api/sales", "key-1"), created());
+        assertThat(runs).hasValue(2);
+
+        properties.setMaxEntries(1);
+        Thread.sleep(5);
+        send(post("/api/sales", "key-2"), created());
+        store.purge();
+
+        assertThat(jdbc.queryForList("SELECT idempotency_key FROM idempotency_keys", String.class))
+                .containsExactly("default:key-2");
+    }
+
+    private FilterChain created() {
+        return (request, response) -> {
+            int run = runs.incrementAndGet();
+            HttpServletResponse http = (HttpServletResponse) response;
+            http.setStatus(201);
+            http.setContentType("application/json");
+            http.getOutputStream().write(("{\"run\":" + run + "}").getBytes(StandardCharsets.UTF_8));
+        };
+    }
+
+    private MockHttpServletResponse send(MockHttpServletRequest request, FilterChain chain) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, chain);
+        return response;
+    }
+
+    private MockHttpServletResponse sendUnchecked(MockHttpServletRequest request, FilterChain chain) {
+        try {
+            return send(request, chain);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static MockHttpServletRequest post(String uri, String key) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", uri);
+        if (key != null) {
+            request.addHeader(IdempotencyFilter.IDEMPOTENCY_KEY, key);
+        }
+        return request;
+    }
+
+    private static MockHttpServletRequest post(String uri, String key, String json) {
+        MockHttpServletRequest request = post(uri, key);
+        request.setContentType("application/json");
+        request.setContent(json.getBytes(StandardCharsets.UTF_8));
+        return request;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,250 @@
+package com.wheelshift.job;
+
+import com.wheelshift.WheelShiftApplication;
+import com.wheelshift.model.JobLease;
+import com.wheelshift.repository.JobLeaseRepository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.BiConsumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs throwaway partitioned jobs through {@link JobCoordinator}s sharing the
+ * embedded database, standing in for the nodes of a cluster.
+ */
+@SpringBootTest(classes = WheelShiftApplication.class, properties = {
+    "wheelshift.jobs.reservation-expiry.cron=-",
+    "wheelshift.jobs.location-reconciliation.cron=-",
+    "logging.level.com.wheelshift=warn"
+})
+@ActiveProfiles("embedded")
+class JobCoordinatorTest {
+
+    private static final String SET_LEASE = "UPDATE job_leases SET owner = ?, lease_until = ? "
+            + "WHERE job_name = ? AND partition_no = ?";
+
+    @Autowired
+    private JobCoordinator coordinator;
+
+    @Autowired
+    private JobLeaseRepository jobLeaseRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Records the ranges it is given; fails the partitions listed in
+     * {@code failing}, and runs {@code whileProcessing}, if set, with the lease.
+     */
+    private static final class RecordingJob implements PartitionedJob {
+
+        private final String name = "test-" + UUID.randomUUID().toString().substring(0, 8);
+        private final List<KeyRange> processed = Collections.synchronizedList(new ArrayList<>());
+        private final List<Long> failing = Collections.synchronizedList(new ArrayList<>());
+        private volatile int partitions = 4;
+        private volatile Duration leaseDuration = Duration.ofMinutes(10);
+        private volatile BiConsumer<KeyRange, PartitionLease> whileProcessing;
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public int getPartitionCount() {
+            return partitions;
+        }
+
+        @Override
+        public Duration getLeaseDuration() {
+            return leaseDuration;
+        }
+
+        @Override
+        public KeyRange getKeySpace() {
+            return new KeyRange(1, 101L);
+        }
+
+        @Override
+        public long processRange(KeyRange range, PartitionLease lease) {
+            if (failing.remove(range.fromInclusive())) {
+                throw new IllegalStateException("boom");
+            }
+            if (whileProcessing != null) {
+                whileProcessing.accept(range, lease);
+            }
+            processed.add(range);
+            return 10;
+        }
+    }
+
+    @Test
+    void eachPartitionOfARunIsProcessedOnce() {
+        RecordingJob job = new RecordingJob();
+
+        JobRunSummary first = coordinator.run(job, "day-1");
+        assertThat(first.partitionsProcessed()).isEqualTo(4);
+        assertThat(first.rowsProcessed()).isEqualTo(40);
+        assertThat(job.processed).extracting(KeyRange::fromInclusive).containsExactlyInAnyOrder(0L, 26L, 51L, 76L);
+        assertThat(job.processed).filteredOn(range -> range.toExclusive() == null).hasSize(1);
+
+        // The same run key again finds every partition completed
+        assertThat(coordinator.run(job, "day-1").partitionsProcessed()).isZero();
+        assertThat(job.processed).hasSize(4);
+
+        // A new run key plans and processes them all again
+        assertThat(coordinator.run(job, "day-2").partitionsProcessed()).isEqualTo(4);
+        assertThat(jobLeaseRepository.findByJobNameOrderByPartitionNo(job.getName()))
+                .allSatisfy(lease -> {
+                    assertThat(lease.getCompletedRunKey()).isEqualTo("day-2");
+                    assertThat(lease.getOwner()).isNull();
+                    assertThat(lease.getLastRowsProcessed()).isEqualTo(10);
+                });
+    }
+
+    @Test
+    void failedPartitionIsReleasedAndRetriedOnTheNextTick() {
+        RecordingJob job = new RecordingJob();
+        job.failing.add(26L);
+
+        JobRunSummary first = coordinator.run(job, "day-1");
+        assertThat(first.partitionsProcessed()).isEqualTo(3);
+        assertThat(first.partitionsFailed()).isEqualTo(1);
+        JobLease failed = lease(job, 1);
+        assertThat(failed.getOwner()).isNull();
+        assertThat(failed.getCompletedRunKey()).isNull();
+        assertThat(failed.getLastError()).contains("boom");
+
+        JobRunSummary retry = coordinator.run(job, "day-1");
+        assertThat(retry.partitionsProcessed()).isEqualTo(1);
+        assertThat(lease(job, 1).getCompletedRunKey()).isEqualTo("day-1");
+        assertThat(lease(job, 1).getLastError()).isNull();
+    }
+
+    @Test
+    void partitionOfADeadNodeIsTakenOverOnceItsLeaseExpires() {
+        RecordingJob job = new RecordingJob();
+        coordinator.run(job, "day-1");
+        job.processed.clear();
+
+        // Plan day-2 without completing it, then have another node hold partition 2 as if it were running it
+        job.failing.add(0L);
+        job.failing.add(26L);
+        job.failing.add(51L);
+        job.failing.add(76L);
+        coordinator.run(job, "day-2");
+        jdbcTemplate.update(SET_LEASE, "dead-node", LocalDateTime.now().plusMinutes(5), job.getName(), 2);
+
+        JobRunSummary whileHeld = coordinator.run(job, "day-2");
+        assertThat(whileHeld.partitionsProcessed()).isEqualTo(3);
+        assertThat(job.processed).extracting(KeyRange::fromInclusive).doesNotContain(51L);
+
+        jdbcTemplate.update(SET_LEASE, "dead-node", LocalDateTime.now().minusSeconds(1), job.getName(), 2);
+        JobRunSummary afterExpiry = coordinator.run(job, "day-2");
+        assertThat(afterExpiry.partitionsProcessed()).isEqualTo(1);
+        assertThat(job.processed).extracting(KeyRange::fromInclusive).containsExactlyInAnyOrder(0L, 26L, 76L, 51L);
+        assertThat(lease(job, 2).getCompletedRunKey()).isEqualTo("day-2");
+    }
+
+    @Test
+    void partitionTakenOverWhileRunningIsLeftToTheNewOwner() {
+        RecordingJob job = new RecordingJob();
+        job.leaseDuration = Duration.ofMillis(500);
+        LocalDateTime otherLease = LocalDateTime.now().plusMinutes(5).withNano(0);
+        List<Boolean> extended = Collections.synchronizedList(new ArrayList<>());
+        job.whileProcessing = (range, lease) -> {
+            pause(100);
+            lease.renew();
+            int partition = (int) (range.fromInclusive() / 25);
+            JobLease held = lease(job, partition);
+            extended.add(held.getLeaseUntil().isAfter(held.getLastStartedAt().plus(job.leaseDuration)));
+            if (range.fromInclusive() == 26L) {
+                // Another node claimed it after this node's lease ran out
+                jdbcTemplate.update(SET_LEASE, "other-node", otherLease, job.getName(), 1);
+                pause(100);
+                lease.renew();
+            }
+        };
+
+        JobRunSummary summary = coordinator.run(job, "day-1");
+        assertThat(summary.partitionsProcessed()).isEqualTo(3);
+        assertThat(summary.partitionsFailed()).isZero();
+        assertThat(job.processed).extracting(KeyRange::fromInclusive).doesNotContain(26L);
+        assertThat(extended).hasSize(4).containsOnly(true);
+        JobLease takenOver = lease(job, 1);
+        assertThat(takenOver.getOwner()).isEqualTo("other-node");
+        assertThat(takenOver.getLeaseUntil()).isEqualTo(otherLease);
+        assertThat(takenOver.getCompletedRunKey()).isNull();
+    }
+
+    @Test
+    void loweringThePartitionCountDeletesTheRowsAboveIt() {
+        RecordingJob job = new RecordingJob();
+        coordinator.run(job, "day-1");
+        job.processed.clear();
+
+        job.partitions = 2;
+        JobRunSummary summary = coordinator.run(job, "day-2");
+        assertThat(summary.partitionsProcessed()).isEqualTo(2);
+        assertThat(job.processed).extracting(KeyRange::fromInclusive).containsExactlyInAnyOrder(0L, 51L);
+        assertThat(jobLeaseRepository.findByJobNameOrderByPartitionNo(job.getName()))
+                .extracting(JobLease::getPartitionNo).containsExactly(0, 1);
+    }
+
+    @Test
+    void concurrentNodesSplitTheRunBetweenThem() throws Exception {
+        RecordingJob job = new RecordingJob();
+        List<JobCoordinator> nodes = List.of(coordinator,
+                new JobCoordinator(jobLeaseRepository, transactionManager),
+                new JobCoordinator(jobLeaseRepository, transactionManager));
+        ExecutorService executor = Executors.newFixedThreadPool(nodes.size());
+        try {
+            List<Callable<JobRunSummary>> runs = new ArrayList<>();
+            for (JobCoordinator node : nodes) {
+                runs.add(() -> node.run(job, "day-1"));
+            }
+            int processed = 0;
+            for (Future<JobRunSummary> run : executor.invokeAll(runs)) {
+                processed += run.get().partitionsProcessed();
+            }
+            assertThat(processed).isEqualTo(4);
+            assertThat(job.processed).hasSize(4);
+            assertThat(job.processed).extracting(KeyRange::fromInclusive).doesNotHaveDuplicates();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void pause(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private JobLease lease(RecordingJob job, int partition) {
+        return jobLeaseRepository.findByJobNameAndPartitionNo(job.getName(), partition).orElseThrow();
+    }
+}
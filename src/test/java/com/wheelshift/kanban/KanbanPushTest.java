@@ -0,0 +1,190 @@
+package com.wheelshift.kanban;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wheelshift.WheelShiftApplication;
+import com.wheelshift.dto.ColumnDTO;
+import com.wheelshift.dto.TaskDTO;
+import com.wheelshift.dto.TaskMoveDTO;
+import com.wheelshift.outbox.OutboxDispatcher;
+import com.wheelshift.service.KanbanService;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Opens board streams through MockMvc, changes the board through the service
+ * and delivers and flushes by hand, then reads the events off the streams.
+ */
+@SpringBootTest(classes = WheelShiftApplication.class, properties = {
+    "wheelshift.jobs.reservation-expiry.cron=-",
+    "wheelshift.jobs.location-reconciliation.cron=-",
+    "wheelshift.outbox.poll-interval-ms=3600000",
+    "wheelshift.kanban-push.coalesce-window-ms=3600000",
+    "wheelshift.kanban-push.heartbeat-ms=3600000",
+    "logging.level.com.wheelshift=warn"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("embedded")
+class KanbanPushTest {
+
+    private record Event(String name, String id, String data) {
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private OutboxDispatcher dispatcher;
+
+    @Autowired
+    private KanbanBroadcaster broadcaster;
+
+    @Autowired
+    private KanbanBoards boards;
+
+    @Autowired
+    private KanbanService kanbanService;
+
+    @Test
+    void burstOfChangesReachesSubscribersAsOneCoalescedMessage() throws Exception {
+        String todo = kanbanService.createColumn(column("To do")).getId();
+        String doing = kanbanService.createColumn(column("Doing")).getId();
+        String first = kanbanService.createTask(task("Wash car"), todo).getId();
+        dispatcher.deliver(broadcaster);
+        boards.flush();
+
+        MockHttpServletResponse stream = open(null);
+        List<Event> opening = events(stream);
+        assertThat(opening).hasSize(1);
+        assertThat(opening.get(0).name()).isEqualTo("ready");
+        String readyId = opening.get(0).id();
+
+        String second = kanbanService.createTask(task("Replace tyres"), todo).getId();
+        TaskDTO renamed = task("Replace all four tyres");
+        renamed.setPriority("high");
+        kanbanService.updateTask(second, renamed);
+        kanbanService.moveTask(move(second, todo, 1, doing, 0));
+        kanbanService.moveTask(move(second, doing, 0, todo, 0));
+        kanbanService.deleteTask(first);
+        dispatcher.deliver(broadcaster);
+        boards.flush();
+
+        List<Event> events = events(stream);
+        assertThat(events).hasSize(2);
+        Event message = events.get(1);
+        assertThat(message.name()).isEqualTo("deltas");
+        JsonNode body = objectMapper.readTree(message.data());
+        assertThat(message.id()).endsWith("." + body.get("seq").asLong());
+        JsonNode deltas = body.get("deltas");
+        assertThat(deltas).hasSize(3);
+        assertThat(deltas.get(0).get("op").asText()).isEqualTo("create");
+        assertThat(deltas.get(0).get("task").get("title").asText()).isEqualTo("Replace all four tyres");
+        assertThat(deltas.get(0).get("columnId").asText()).isEqualTo(todo);
+        assertThat(deltas.get(1).get("op").asText()).isEqualTo("move");
+        assertThat(deltas.get(1).get("fromColumnId").asText()).isEqualTo(todo);
+        assertThat(deltas.get(1).get("columnId").asText()).isEqualTo(todo);
+        assertThat(deltas.get(1).get("index").asInt()).isZero();
+        assertThat(deltas.get(2).get("op").asText()).isEqualTo("delete");
+        assertThat(deltas.get(2).get("taskId").asText()).isEqualTo(first);
+
+        // A reconnect resumes after the last message it got, or is told to start over
+        List<Event> resumed = events(open(readyId));
+        assertThat(resumed).extracting(Event::id).containsExactly(message.id());
+        assertThat(events(open(message.id()))).isEmpty();
+        List<Event> stale = events(open("elsewhere.12"));
+        assertThat(stale).extracting(Event::name).containsExactly("reset");
+    }
+
+    @Test
+    void readingATaskOrSavingItUnchangedPushesNothing() throws Exception {
+        String todo = kanbanService.createColumn(column("Backlog")).getId();
+        TaskDTO created = task("Polish paint");
+        created.setPriority("low");
+        String taskId = kanbanService.createTask(created, todo).getId();
+        dispatcher.deliver(broadcaster);
+        boards.flush();
+        MockHttpServletResponse stream = open(null);
+
+        String body = mockMvc.perform(get("/api/kanban/tasks/" + taskId)).andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        assertThat(objectMapper.readTree(body).get("title").asText()).isEqualTo("Polish paint");
+        kanbanService.updateTask(taskId, created);
+        dispatcher.deliver(broadcaster);
+        boards.flush();
+
+        assertThat(events(stream)).extracting(Event::name).containsExactly("ready");
+        assertThat(kanbanService.getTask(taskId).getPriority()).isEqualTo("low");
+    }
+
+    private MockHttpServletResponse open(String lastEventId) throws Exception {
+        MockHttpServletRequestBuilder builder = get("/api/kanban/board/stream");
+        if (lastEventId != null) {
+            builder.header("Last-Event-ID", lastEventId);
+        }
+        MvcResult result = mockMvc.perform(builder).andExpect(request().asyncStarted()).andReturn();
+        return result.getResponse();
+    }
+
+    private static List<Event> events(MockHttpServletResponse stream) throws Exception {
+        List<Event> events = new ArrayList<>();
+        for (String block : stream.getContentAsString().split("\n\n")) {
+            String name = null;
+            String id = null;
+            StringBuilder data = new StringBuilder();
+            for (String line : block.split("\n")) {
+                if (line.startsWith("event:")) {
+                    name = line.substring(6);
+                } else if (line.startsWith("id:")) {
+                    id = line.substring(3);
+                } else if (line.startsWith("data:")) {
+                    data.append(line.substring(5));
+                }
+            }
+            if (name != null) {
+                events.add(new Event(name, id, data.toString()));
+            }
+        }
+        return events;
+    }
+
+    private static ColumnDTO column(String title) {
+        ColumnDTO column = new ColumnDTO();
+        column.setTitle(title);
+        return column;
+    }
+
+    private static TaskDTO task(String title) {
+        TaskDTO task = new TaskDTO();
+        task.setTitle(title);
+        return task;
+    }
+
+    private static TaskMoveDTO move(String taskId, String from, int fromIndex, String to, int toIndex) {
+        TaskMoveDTO move = new TaskMoveDTO();
+        move.setTaskId(taskId);
+        move.setSourceColumnId(from);
+        move.setSourceIndex(fromIndex);
+        move.setDestinationColumnId(to);
+        move.setDestinationIndex(toIndex);
+        return move;
+    }
+}
@@ -0,0 +1,170 @@
+package com.wheelshift.ledger;
+
+import com.wheelshift.tenancy.TenantContext;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.function.Predicate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Checks the ledger's totals against sums over the same transactions. The
+ * ledger is backed by a mocked JdbcTemplate, so its first load finds no
+ * transactions and everything after that comes through changes, including
+ * days before and after the ones it has seen so far. Rebuilds that meet
+ * concurrent writes run against an in-memory database instead.
+ */
+class FinancialLedgerTest {
+
+    private static final String[] TYPES = {"Purchase", "Sale", "Maintenance"};
+    private static final LocalDate START = LocalDate.of(2022, 6, 1);
+
+    private FinancialLedger ledger;
+    private List<LedgerEntry> transactions;
+
+    @BeforeEach
+    void setUp() {
+        ledger = new FinancialLedger(mock(JdbcTemplate.class));
+        ledger.rebuild();
+        transactions = new ArrayList<>();
+        Random random = new Random(5);
+        for (int i = 0; i < 1_000; i++) {
+            LedgerEntry entry = randomEntry(random);
+            transactions.add(entry);
+            ledger.replace(null, entry);
+        }
+        // Updates and deletes take back what the transaction contributed before
+        for (int i = 0; i < 300; i++) {
+            int index = random.nextInt(transactions.size());
+            LedgerEntry updated = random.nextBoolean() ? randomEntry(random) : null;
+            ledger.replace(transactions.get(index), updated);
+            if (updated == null) {
+                transactions.remove(index);
+            } else {
+                transactions.set(index, updated);
+            }
+        }
+    }
+
+    @Test
+    void rangeTotalsAgreeWithSums() {
+        Random random = new Random(13);
+        for (int round = 0; round < 500; round++) {
+            String type = random.nextInt(4) == 0 ? null : TYPES[random.nextInt(TYPES.length)];
+            LocalDate from = START.plusDays(random.nextInt(1_500) - 200);
+            LocalDate to = from.plusDays(random.nextInt(400));
+            Predicate<LedgerEntry> matches = entry -> (type == null || type.equals(entry.type()))
+                    && entry.epochDay() >= from.toEpochDay() && entry.epochDay() <= to.toEpochDay();
+
+            assertThat(ledger.total(type, from, to)).isEqualTo(sum(TenantContext.DEFAULT_TENANT, matches));
+        }
+        assertThat(ledger.total("Purchase", null, null))
+                .isEqualTo(sum(TenantContext.DEFAULT_TENANT, entry -> entry.type().equals("Purchase")));
+        assertThat(ledger.total("Lease", null, null)).isNull();
+        assertThat(ledger.total(null, LocalDate.of(1990, 1, 1), LocalDate.of(1990, 12, 31))).isNull();
+    }
+
+    @Test
+    void monthlyAndYearlyTotalsAgreeWithSums() {
+        Map<YearMonth, BigDecimal> monthly = new TreeMap<>();
+        Map<Integer, BigDecimal> yearly = new TreeMap<>();
+        for (LedgerEntry entry : transactions) {
+            if (entry.tenantId().equals(TenantContext.DEFAULT_TENANT) && entry.type().equals("Sale")) {
+                LocalDate day = LocalDate.ofEpochDay(entry.epochDay());
+                monthly.merge(YearMonth.from(day), LedgerEntry.fromHundredths(entry.amount()), BigDecimal::add);
+                yearly.merge(day.getYear(), LedgerEntry.fromHundredths(entry.amount()), BigDecimal::add);
+            }
+        }
+
+        assertThat(ledger.monthlyTotals("Sale")).isEqualTo(monthly);
+        assertThat(ledger.yearlyTotals("Sale")).isEqualTo(yearly);
+    }
+
+    @Test
+    void tenantsOnlySeeTheirOwnTotals() {
+        BigDecimal north = TenantContext.callAs("north", () -> ledger.total(null, null, null));
+        BigDecimal all = TenantContext.callAs(TenantContext.ROOT, () -> ledger.total(null, null, null));
+
+        assertThat(north).isEqualTo(sum("north", entry -> true));
+        assertThat(all).isEqualTo(sum(TenantContext.DEFAULT_TENANT, entry -> true).add(north));
+        assertThat(TenantContext.callAs("south", () -> ledger.totalsByType())).isEmpty();
+        assertThat(ledger.totalsByType()).containsOnlyKeys(TYPES);
+    }
+
+    @Test
+    void writesCommittedWhileARebuildLoadsAreCountedOnce() {
+        JdbcTemplate jdbc = new JdbcTemplate(new DriverManagerDataSource(
+                "jdbc:h2:mem:ledger-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", ""));
+        for (String table : List.of("financial_transactions", "financial_transactions_archive")) {
+            jdbc.execute("CREATE TABLE " + table + " (tenant_id VARCHAR(64), transaction_type VARCHAR(50), "
+                    + "transaction_date DATE, amount DECIMAL(12, 2))");
+        }
+        FinancialLedger[] rebuilding = new FinancialLedger[1];
+        FinancialLedger loading = new FinancialLedger(new JdbcTemplate(jdbc.getDataSource()) {
+            @Override
+            public void query(String sql, RowCallbackHandler handler) {
+                if (rebuilding[0] != null) {
+                    // Committed as the load starts, so both read and reported by the listener
+                    insert(jdbc, rebuilding[0], "Sale", START, "100.00");
+                    super.query(sql, handler);
+                    // Committed after the load read its day, only reported
+                    insert(jdbc, rebuilding[0], "Sale", START, "20.00");
+                    insert(jdbc, rebuilding[0], "Purchase", START.plusDays(3), "5.00");
+                } else {
+                    super.query(sql, handler);
+                }
+            }
+        });
+        insert(jdbc, null, "Sale", START, "1.00");
+        loading.rebuild();
+        rebuilding[0] = loading;
+
+        loading.rebuild();
+
+        assertThat(loading.total("Sale", START, START)).isEqualByComparingTo("121.00");
+        assertThat(loading.total("Purchase", null, null)).isEqualByComparingTo("5.00");
+        assertThat(loading.total(null, null, null)).isEqualByComparingTo("126.00");
+    }
+
+    private static void insert(JdbcTemplate jdbc, FinancialLedger ledger, String type, LocalDate day, String amount) {
+        jdbc.update("INSERT INTO financial_transactions VALUES (?, ?, ?, ?)",
+                TenantContext.DEFAULT_TENANT, type, day, new BigDecimal(amount));
+        if (ledger != null) {
+            ledger.replace(null, new LedgerEntry(TenantContext.DEFAULT_TENANT, type, day.toEpochDay(),
+                    LedgerEntry.hundredths(new BigDecimal(amount))));
+        }
+    }
+
+    private BigDecimal sum(String tenantId, Predicate<LedgerEntry> matches) {
+        BigDecimal total = null;
+        for (LedgerEntry entry : transactions) {
+            if (entry.tenantId().equals(tenantId) && matches.test(entry)) {
+                BigDecimal amount = LedgerEntry.fromHundredths(entry.amount());
+                total = total == null ? amount : total.add(amount);
+            }
+        }
+        return total;
+    }
+
+    private static LedgerEntry randomEntry(Random random) {
+        String tenantId = random.nextInt(5) == 0 ? "north" : TenantContext.DEFAULT_TENANT;
+        // Spread over about three years, so the series grow both ways
+        long day = START.plusDays(random.nextInt(1_100) - 100).toEpochDay();
+        return new LedgerEntry(tenantId, TYPES[random.nextInt(TYPES.length)], day, 1 + random.nextInt(5_000_000));
+    }
+}
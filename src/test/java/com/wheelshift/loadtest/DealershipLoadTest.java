@@ -0,0 +1,118 @@
+package com.wheelshift.loadtest;
+
+import com.wheelshift.WheelShiftApplication;
+import com.wheelshift.datagen.DatasetGeneratorProperties;
+import com.wheelshift.datagen.EmbeddedDataset;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * End-to-end throughput test of the REST layer. Boots the application on the
+ * in-memory H2 database, seeds it with the synthetic dataset generator and
+ * replays the dealership traffic mix at a fixed rate. Not part of the regular
+ * build; run it with {@code mvn -Pload-test test} and compare the JSON reports
+ * written to {@code target/loadtest} between versions. See {@link LoadTestConfig}
+ * for the {@code -Dloadtest.*} settings.
+ */
+@Tag("load")
+@SpringBootTest(classes = WheelShiftApplication.class, webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {
+            "wheelshift.jobs.reservation-expiry.cron=-",
+            "wheelshift.jobs.location-reconciliation.cron=-",
+            "logging.level.com.wheelshift=warn",
+            "server.tomcat.threads.max=200"
+        })
+@ActiveProfiles("embedded")
+class DealershipLoadTest {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void replayDealershipTraffic() throws Exception {
+        LoadTestConfig config = LoadTestConfig.fromSystemProperties();
+        seed(config);
+
+        TrafficMix mix = new TrafficMix(URI.create("http://localhost:" + port), fixtures(config), config.mix());
+        List<EndpointStats> stats = new ArrayList<>();
+        for (String name : mix.names()) {
+            stats.add(new EndpointStats(name));
+        }
+        HttpClient httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        LoadDriver driver = new LoadDriver(httpClient, mix, stats, config.maxInFlight(), config.seed());
+
+        if (!config.warmup().isZero()) {
+            driver.run(config.rate(), config.warmup());
+            stats.forEach(EndpointStats::reset);
+        }
+        LoadDriver.DispatchSummary summary = driver.run(config.rate(), config.duration());
+
+        LoadReport report = new LoadReport(config, summary, stats);
+        Path file = report.write();
+        System.out.println(report.summaryTable());
+        System.out.println("Load test report written to " + file.toAbsolutePath());
+
+        assertTrue(summary.sent() > 0, "No requests were sent");
+    }
+
+    private void seed(LoadTestConfig config) {
+        DatasetGeneratorProperties properties = new DatasetGeneratorProperties();
+        properties.setSeed(config.seed());
+        properties.setCars(config.cars());
+        new EmbeddedDataset(jdbcTemplate, transactionManager).load(properties);
+    }
+
+    private TrafficMix.Fixtures fixtures(LoadTestConfig config) {
+        // Reservations are one per car, so only cars that never had one can be claimed
+        List<Long> unsold = new ArrayList<>(jdbcTemplate.queryForList(
+                "SELECT id FROM cars WHERE status_code = 0 AND id NOT IN (SELECT car_id FROM reservations) ORDER BY id", Long.class));
+        Collections.shuffle(unsold, new Random(config.seed()));
+        Map<String, Integer> tasksPerColumn = new LinkedHashMap<>();
+        jdbcTemplate.query("SELECT k.column_id, COUNT(p.id) FROM kanban_columns k "
+                        + "LEFT JOIN task_positions p ON p.column_id = k.id GROUP BY k.column_id ORDER BY k.column_id",
+                row -> {
+                    tasksPerColumn.put(row.getString(1), row.getInt(2));
+                });
+        return new TrafficMix.Fixtures(
+                count("cars"),
+                count("clients"),
+                count("employees"),
+                jdbcTemplate.queryForList("SELECT DISTINCT make FROM car_models ORDER BY make", String.class),
+                tasksPerColumn,
+                new ConcurrentLinkedQueue<>(unsold));
+    }
+
+    private long count(String table) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table, Long.class);
+    }
+}
@@ -0,0 +1,55 @@
+package com.wheelshift.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency and outcome counters for one operation of the traffic mix.
+ *
+ * Two histograms are kept: {@link #latency} measures from the moment the
+ * request was <em>scheduled</em> to be sent, so time spent queued behind a
+ * stalled server is counted (no coordinated omission); {@link #serviceTime}
+ * measures from the moment it was actually sent, which is what a closed-loop
+ * tool would report. A large gap between the two means the server could not
+ * keep up with the offered rate.
+ */
+class EndpointStats {
+
+    private static final long HIGHEST_TRACKABLE_NANOS = TimeUnit.MINUTES.toNanos(2);
+
+    final String name;
+    final Histogram latency = new ConcurrentHistogram(HIGHEST_TRACKABLE_NANOS, 3);
+    final Histogram serviceTime = new ConcurrentHistogram(HIGHEST_TRACKABLE_NANOS, 3);
+    final LongAdder errors = new LongAdder();
+    final LongAdder skipped = new LongAdder();
+    final Map<Integer, LongAdder> statusCodes = new ConcurrentHashMap<>();
+    final AtomicLong lateDispatches = new AtomicLong();
+
+    EndpointStats(String name) {
+        this.name = name;
+    }
+
+    void record(long intendedStartNanos, long sentNanos, long completedNanos, int status) {
+        latency.recordValue(Math.min(HIGHEST_TRACKABLE_NANOS, completedNanos - intendedStartNanos));
+        serviceTime.recordValue(Math.min(HIGHEST_TRACKABLE_NANOS, completedNanos - sentNanos));
+        statusCodes.computeIfAbsent(status, code -> new LongAdder()).increment();
+        if (status >= 400 || status < 0) {
+            errors.increment();
+        }
+    }
+
+    void reset() {
+        latency.reset();
+        serviceTime.reset();
+        errors.reset();
+        skipped.reset();
+        statusCodes.clear();
+        lateDispatches.set(0);
+    }
+}
@@ -0,0 +1,102 @@
+package com.wheelshift.loadtest;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-loop request generator. Request {@code i} is due at {@code start + i / rate}
+ * no matter how long earlier requests take, and its latency is measured from
+ * that due time. When the server stalls, requests queue up on the client side
+ * and that wait shows up in the recorded latency instead of silently lowering
+ * the request rate.
+ */
+class LoadDriver {
+
+    /** A dispatch later than this behind schedule counts as late. */
+    private static final long LATE_THRESHOLD_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    record DispatchSummary(long scheduled, long sent, long skipped, long lateDispatches, long maxLagNanos,
+                           long elapsedNanos) {
+
+        double achievedRate() {
+            return elapsedNanos == 0 ? 0 : sent * 1e9 / elapsedNanos;
+        }
+    }
+
+    private final HttpClient httpClient;
+    private final TrafficMix mix;
+    private final List<EndpointStats> stats;
+    private final int maxInFlight;
+    private final SplittableRandom random;
+
+    LoadDriver(HttpClient httpClient, TrafficMix mix, List<EndpointStats> stats, int maxInFlight, long seed) {
+        this.httpClient = httpClient;
+        this.mix = mix;
+        this.stats = stats;
+        this.maxInFlight = maxInFlight;
+        this.random = new SplittableRandom(seed);
+    }
+
+    DispatchSummary run(double rate, Duration duration) throws InterruptedException {
+        Semaphore inFlight = new Semaphore(maxInFlight);
+        long intervalNanos = (long) (1_000_000_000L / rate);
+        long durationNanos = duration.toNanos();
+        long start = System.nanoTime();
+        long scheduled = 0;
+        long sent = 0;
+        long skipped = 0;
+        long late = 0;
+        long maxLag = 0;
+
+        for (long i = 0; ; i++) {
+            long intendedStart = start + i * intervalNanos;
+            if (intendedStart - start >= durationNanos) {
+                break;
+            }
+            long wait;
+            while ((wait = intendedStart - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            scheduled++;
+            int operation = mix.pick(random);
+            EndpointStats endpoint = stats.get(operation);
+            HttpRequest request = mix.request(operation, random);
+            if (request == null) {
+                endpoint.skipped.increment();
+                skipped++;
+                continue;
+            }
+            // Blocks once maxInFlight requests are outstanding; the wait is charged to the latency below
+            inFlight.acquire();
+            long sentAt = System.nanoTime();
+            long lag = sentAt - intendedStart;
+            if (lag > LATE_THRESHOLD_NANOS) {
+                late++;
+                endpoint.lateDispatches.incrementAndGet();
+            }
+            maxLag = Math.max(maxLag, lag);
+            sent++;
+            httpClient.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, failure) -> {
+                        endpoint.record(intendedStart, sentAt, System.nanoTime(),
+                                failure == null ? response.statusCode() : -1);
+                        inFlight.release();
+                    });
+        }
+        long dispatchEnd = System.nanoTime();
+
+        // Drain outstanding requests before the histograms are read
+        if (!inFlight.tryAcquire(maxInFlight, 60, TimeUnit.SECONDS)) {
+            throw new IllegalStateException("Requests still outstanding 60 s after the run ended");
+        }
+        inFlight.release(maxInFlight);
+        return new DispatchSummary(scheduled, sent, skipped, late, maxLag, dispatchEnd - start);
+    }
+}
@@ -0,0 +1,152 @@
+package com.wheelshift.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Writes the results of a run as JSON. Besides the usual percentiles, each
+ * histogram is embedded in HdrHistogram's compressed form so runs of different
+ * versions can be merged or re-plotted later without re-running them.
+ */
+class LoadReport {
+
+    /** Corrected p99 this many times the service-time p99 means the offered rate was not sustained. */
+    private static final double COORDINATED_OMISSION_RATIO = 2.0;
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+
+    private final LoadTestConfig config;
+    private final LoadDriver.DispatchSummary summary;
+    private final List<EndpointStats> stats;
+
+    LoadReport(LoadTestConfig config, LoadDriver.DispatchSummary summary, List<EndpointStats> stats) {
+        this.config = config;
+        this.summary = summary;
+        this.stats = stats;
+    }
+
+    Map<String, Object> toMap() {
+        Map<String, Object> settings = new LinkedHashMap<>();
+        settings.put("targetRate", config.rate());
+        settings.put("warmup", config.warmup().toString());
+        settings.put("duration", config.duration().toString());
+        settings.put("maxInFlight", config.maxInFlight());
+        settings.put("cars", config.cars());
+        settings.put("seed", config.seed());
+        settings.put("mix", config.mix());
+
+        Map<String, Object> totals = new LinkedHashMap<>();
+        totals.put("scheduled", summary.scheduled());
+        totals.put("sent", summary.sent());
+        totals.put("skipped", summary.skipped());
+        totals.put("errors", stats.stream().mapToLong(endpoint -> endpoint.errors.sum()).sum());
+        totals.put("achievedRate", round(summary.achievedRate()));
+        totals.put("lateDispatches", summary.lateDispatches());
+        totals.put("maxDispatchLagMs", round(summary.maxLagNanos() / 1e6));
+
+        Map<String, Object> endpoints = new LinkedHashMap<>();
+        boolean anySuspected = false;
+        for (EndpointStats endpoint : stats) {
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("count", endpoint.latency.getTotalCount());
+            entry.put("errors", endpoint.errors.sum());
+            entry.put("skipped", endpoint.skipped.sum());
+            Map<Integer, Long> statusCodes = new TreeMap<>();
+            endpoint.statusCodes.forEach((code, count) -> statusCodes.put(code, count.sum()));
+            entry.put("statusCodes", statusCodes);
+            entry.put("throughput", round(endpoint.latency.getTotalCount() * 1e9 / Math.max(1, summary.elapsedNanos())));
+            entry.put("latencyMs", percentiles(endpoint.latency));
+            entry.put("serviceTimeMs", percentiles(endpoint.serviceTime));
+            boolean suspected = coordinatedOmissionSuspected(endpoint);
+            anySuspected |= suspected;
+            entry.put("coordinatedOmissionSuspected", suspected);
+            entry.put("lateDispatches", endpoint.lateDispatches.get());
+            entry.put("latencyHistogram", encode(endpoint.latency));
+            entry.put("serviceTimeHistogram", encode(endpoint.serviceTime));
+            endpoints.put(endpoint.name, entry);
+        }
+        totals.put("coordinatedOmissionSuspected", anySuspected);
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("label", config.label());
+        report.put("timestamp", Instant.now().toString());
+        report.put("javaVersion", System.getProperty("java.version"));
+        report.put("availableProcessors", Runtime.getRuntime().availableProcessors());
+        report.put("config", settings);
+        report.put("totals", totals);
+        report.put("endpoints", endpoints);
+        return report;
+    }
+
+    Path write() throws IOException {
+        Files.createDirectories(config.reportDir());
+        String stamp = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss").withZone(ZoneOffset.UTC).format(Instant.now());
+        Path file = config.reportDir().resolve("load-" + config.label() + "-" + stamp + ".json");
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(file.toFile(), toMap());
+        return file;
+    }
+
+    String summaryTable() {
+        StringBuilder table = new StringBuilder(String.format("%n%-18s %8s %6s %10s %10s %10s %10s %10s%n",
+                "operation", "count", "errors", "p50 ms", "p99 ms", "p99.9 ms", "max ms", "svc p99"));
+        for (EndpointStats endpoint : stats) {
+            Histogram latency = endpoint.latency;
+            table.append(String.format("%-18s %8d %6d %10.2f %10.2f %10.2f %10.2f %10.2f%s%n", endpoint.name,
+                    latency.getTotalCount(), endpoint.errors.sum(), millis(latency.getValueAtPercentile(50)),
+                    millis(latency.getValueAtPercentile(99)), millis(latency.getValueAtPercentile(99.9)),
+                    millis(latency.getMaxValue()), millis(endpoint.serviceTime.getValueAtPercentile(99)),
+                    coordinatedOmissionSuspected(endpoint) ? "  (rate not sustained)" : ""));
+        }
+        table.append(String.format("achieved %.1f req/s of %.1f target, %d late dispatches, max lag %.1f ms",
+                summary.achievedRate(), config.rate(), summary.lateDispatches(), summary.maxLagNanos() / 1e6));
+        return table.toString();
+    }
+
+    private static boolean coordinatedOmissionSuspected(EndpointStats endpoint) {
+        if (endpoint.latency.getTotalCount() == 0) {
+            return false;
+        }
+        long corrected = endpoint.latency.getValueAtPercentile(99);
+        long service = Math.max(1, endpoint.serviceTime.getValueAtPercentile(99));
+        return corrected > COORDINATED_OMISSION_RATIO * service;
+    }
+
+    private static Map<String, Object> percentiles(Histogram histogram) {
+        Map<String, Object> values = new LinkedHashMap<>();
+        for (double percentile : PERCENTILES) {
+            values.put("p" + (percentile == Math.rint(percentile) ? String.valueOf((int) percentile) : String.valueOf(percentile)),
+                    round(millis(histogram.getValueAtPercentile(percentile))));
+        }
+        values.put("max", round(millis(histogram.getMaxValue())));
+        values.put("mean", round(histogram.getTotalCount() == 0 ? 0 : histogram.getMean() / 1e6));
+        return values;
+    }
+
+    private static String encode(Histogram histogram) {
+        ByteBuffer buffer = ByteBuffer.allocate(histogram.getNeededByteBufferCapacity());
+        int length = histogram.encodeIntoCompressedByteBuffer(buffer);
+        return Base64.getEncoder().encodeToString(Arrays.copyOf(buffer.array(), length));
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1e6;
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100) / 100.0;
+    }
+}
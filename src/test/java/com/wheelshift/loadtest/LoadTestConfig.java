@@ -0,0 +1,50 @@
+package com.wheelshift.loadtest;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Load test settings, read from {@code loadtest.*} system properties so they can
+ * be passed on the Maven command line.
+ */
+record LoadTestConfig(
+        String label,
+        double rate,
+        Duration warmup,
+        Duration duration,
+        int maxInFlight,
+        int cars,
+        long seed,
+        Map<String, Integer> mix,
+        Path reportDir) {
+
+    static final String DEFAULT_MIX =
+            "car-search=30,car-detail=35,dashboard-stats=10,kanban-move=10,reservation-claim=8,sale-create=7";
+
+    static LoadTestConfig fromSystemProperties() {
+        return new LoadTestConfig(
+                System.getProperty("loadtest.label", "unlabeled"),
+                Double.parseDouble(System.getProperty("loadtest.rate", "50")),
+                Duration.parse(System.getProperty("loadtest.warmup", "PT15S")),
+                Duration.parse(System.getProperty("loadtest.duration", "PT60S")),
+                Integer.parseInt(System.getProperty("loadtest.max-in-flight", "256")),
+                Integer.parseInt(System.getProperty("loadtest.cars", "20000")),
+                Long.parseLong(System.getProperty("loadtest.seed", "42")),
+                parseMix(System.getProperty("loadtest.mix", DEFAULT_MIX)),
+                Path.of(System.getProperty("loadtest.report-dir", "target/loadtest")));
+    }
+
+    private static Map<String, Integer> parseMix(String text) {
+        Map<String, Integer> mix = new LinkedHashMap<>();
+        for (String entry : text.split(",")) {
+            String[] parts = entry.trim().split("=");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Invalid loadtest.mix entry: " + entry);
+            }
+            mix.put(parts[0].trim(), Integer.parseInt(parts[1].trim()));
+        }
+        return mix;
+    }
+}
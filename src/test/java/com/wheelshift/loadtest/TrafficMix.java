@@ -0,0 +1,181 @@
+package com.wheelshift.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.SplittableRandom;
+
+/**
+ * The dealership traffic the load test replays: browsing and searching stock,
+ * looking at dashboards, moving tasks on the board and, less often, reserving
+ * and selling cars. Each operation turns a random draw into an HTTP request.
+ */
+class TrafficMix {
+
+    /**
+     * One kind of request. Returns {@code null} when it cannot be issued right
+     * now, e.g. when no unsold car is left to reserve.
+     */
+    interface Operation {
+        HttpRequest next(SplittableRandom random);
+    }
+
+    /** What the seeded database contains, as far as request parameters are concerned. */
+    record Fixtures(long cars, long clients, long employees, List<String> searchTerms,
+                    Map<String, Integer> tasksPerColumn, Queue<Long> unsoldCarIds) {
+    }
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+    private static final String[] DASHBOARDS = {
+        "/api/v1/cars/statistics",
+        "/api/v1/locations/statistics",
+        "/api/reservations/statistics",
+        "/api/sales/statistics/monthly"
+    };
+
+    private final URI baseUri;
+    private final Fixtures fixtures;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final List<String> names = new ArrayList<>();
+    private final List<Operation> operations = new ArrayList<>();
+    private final int[] cumulativeWeights;
+
+    TrafficMix(URI baseUri, Fixtures fixtures, Map<String, Integer> weights) {
+        this.baseUri = baseUri;
+        this.fixtures = fixtures;
+        Map<String, Operation> available = new LinkedHashMap<>();
+        available.put("car-search", this::carSearch);
+        available.put("car-detail", this::carDetail);
+        available.put("dashboard-stats", this::dashboard);
+        available.put("kanban-move", this::kanbanMove);
+        available.put("reservation-claim", this::reservationClaim);
+        available.put("sale-create", this::saleCreate);
+
+        cumulativeWeights = new int[weights.size()];
+        int total = 0;
+        for (Map.Entry<String, Integer> weight : weights.entrySet()) {
+            Operation operation = available.get(weight.getKey());
+            if (operation == null) {
+                throw new IllegalArgumentException("Unknown operation " + weight.getKey() + ", expected one of " + available.keySet());
+            }
+            total += weight.getValue();
+            cumulativeWeights[names.size()] = total;
+            names.add(weight.getKey());
+            operations.add(operation);
+        }
+        if (total <= 0) {
+            throw new IllegalArgumentException("Traffic mix weights must add up to more than zero");
+        }
+    }
+
+    List<String> names() {
+        return names;
+    }
+
+    /** Index into {@link #names()} of the next operation to issue. */
+    int pick(SplittableRandom random) {
+        int draw = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (draw < cumulativeWeights[i]) {
+                return i;
+            }
+        }
+        throw new IllegalStateException("Unreachable");
+    }
+
+    HttpRequest request(int operation, SplittableRandom random) {
+        return operations.get(operation).next(random);
+    }
+
+    /* =====================================================
+       Operations
+       ===================================================== */
+
+    private HttpRequest carSearch(SplittableRandom random) {
+        String term = fixtures.searchTerms().get(random.nextInt(fixtures.searchTerms().size()));
+        return get("/api/v1/cars/search?searchTerm=" + term.replace(" ", "%20") + "&page=" + random.nextInt(5) + "&size=20");
+    }
+
+    private HttpRequest carDetail(SplittableRandom random) {
+        return get("/api/v1/cars/" + (1 + random.nextLong(fixtures.cars())));
+    }
+
+    private HttpRequest dashboard(SplittableRandom random) {
+        return get(DASHBOARDS[random.nextInt(DASHBOARDS.length)]);
+    }
+
+    private HttpRequest kanbanMove(SplittableRandom random) {
+        // Reorder within a column; cross-column moves need the task's current column, which changes under load
+        List<String> columns = fixtures.tasksPerColumn().entrySet().stream()
+                .filter(entry -> entry.getValue() > 1).map(Map.Entry::getKey).toList();
+        if (columns.isEmpty()) {
+            return null;
+        }
+        String column = columns.get(random.nextInt(columns.size()));
+        int size = Math.min(20, fixtures.tasksPerColumn().get(column));
+        Map<String, Object> move = new LinkedHashMap<>();
+        move.put("taskId", "task-1");
+        move.put("sourceColumnId", column);
+        move.put("sourceIndex", random.nextInt(size));
+        move.put("destinationColumnId", column);
+        move.put("destinationIndex", random.nextInt(size));
+        return post("/api/kanban/move-task", move);
+    }
+
+    private HttpRequest reservationClaim(SplittableRandom random) {
+        Long carId = fixtures.unsoldCarIds().poll();
+        if (carId == null) {
+            return null;
+        }
+        LocalDateTime now = LocalDateTime.now().withNano(0);
+        Map<String, Object> reservation = new LinkedHashMap<>();
+        reservation.put("car", Map.of("id", carId));
+        reservation.put("client", Map.of("id", 1 + random.nextLong(fixtures.clients())));
+        reservation.put("reservationDate", now.toString());
+        reservation.put("expiryDate", now.plusDays(7).toString());
+        reservation.put("depositAmount", 10_000);
+        reservation.put("notes", "load test");
+        return post("/api/reservations", reservation);
+    }
+
+    private HttpRequest saleCreate(SplittableRandom random) {
+        Long carId = fixtures.unsoldCarIds().poll();
+        if (carId == null) {
+            return null;
+        }
+        Map<String, Object> sale = new LinkedHashMap<>();
+        sale.put("car", Map.of("id", carId));
+        sale.put("client", Map.of("id", 1 + random.nextLong(fixtures.clients())));
+        sale.put("handledBy", Map.of("id", 1 + random.nextLong(fixtures.employees())));
+        sale.put("saleDate", LocalDate.now().toString());
+        sale.put("salePrice", 500_000 + random.nextInt(500_000));
+        sale.put("commissionRate", 2);
+        sale.put("paymentMethod", "LOAN");
+        return post("/api/sales", sale);
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(baseUri.resolve(path)).timeout(TIMEOUT).GET().build();
+    }
+
+    private HttpRequest post(String path, Object body) {
+        try {
+            return HttpRequest.newBuilder(baseUri.resolve(path))
+                    .timeout(TIMEOUT)
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)))
+                    .build();
+        } catch (Exception e) {
+            throw new IllegalStateException("Could not serialize request body", e);
+        }
+    }
+}
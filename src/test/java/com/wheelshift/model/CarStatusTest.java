@@ -0,0 +1,74 @@
+package com.wheelshift.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * The transition table of {@link CarStatus} and its enforcement by
+ * {@link Car#setCurrentStatus(CarStatus)}, and the persisted codes.
+ */
+class CarStatusTest {
+
+    private static final Map<CarStatus, Set<CarStatus>> ALLOWED = Map.of(
+            CarStatus.AVAILABLE, EnumSet.of(CarStatus.RESERVED, CarStatus.NEEDS_REPAIR, CarStatus.SOLD),
+            CarStatus.RESERVED, EnumSet.of(CarStatus.AVAILABLE, CarStatus.NEEDS_REPAIR, CarStatus.SOLD),
+            CarStatus.NEEDS_REPAIR, EnumSet.of(CarStatus.AVAILABLE, CarStatus.RESERVED, CarStatus.SOLD),
+            CarStatus.SOLD, EnumSet.of(CarStatus.AVAILABLE));
+
+    @Test
+    void allowsExactlyTheTransitionsOfTheTable() {
+        for (CarStatus from : CarStatus.values()) {
+            assertThat(from.allowedTransitions()).as(from.name()).isEqualTo(ALLOWED.get(from));
+            for (CarStatus to : CarStatus.values()) {
+                boolean allowed = from == to || ALLOWED.get(from).contains(to);
+                assertThat(from.canTransitionTo(to)).as(from + " -> " + to).isEqualTo(allowed);
+            }
+        }
+    }
+
+    @Test
+    void carRefusesForbiddenTransitions() {
+        for (CarStatus from : CarStatus.values()) {
+            for (CarStatus to : CarStatus.values()) {
+                Car car = car(from);
+                if (from == to || ALLOWED.get(from).contains(to)) {
+                    car.setCurrentStatus(to);
+                    assertThat(car.getCurrentStatus()).isEqualTo(to);
+                } else {
+                    assertThatThrownBy(() -> car.setCurrentStatus(to))
+                            .as(from + " -> " + to)
+                            .isInstanceOf(IllegalStateException.class);
+                    assertThat(car.getCurrentStatus()).isEqualTo(from);
+                }
+            }
+        }
+    }
+
+    @Test
+    void codesAndNamesRoundTrip() {
+        assertThat(CarStatus.AVAILABLE.getCode()).isZero();
+        assertThat(CarStatus.RESERVED.getCode()).isEqualTo(1);
+        assertThat(CarStatus.NEEDS_REPAIR.getCode()).isEqualTo(2);
+        assertThat(CarStatus.SOLD.getCode()).isEqualTo(3);
+        for (CarStatus status : CarStatus.values()) {
+            assertThat(CarStatus.fromCode(status.getCode())).isEqualTo(status);
+        }
+        assertThat(CarStatus.fromString(" needs-repair ")).isEqualTo(CarStatus.NEEDS_REPAIR);
+        assertThat(CarStatus.fromString("Sold")).isEqualTo(CarStatus.SOLD);
+        assertThatThrownBy(() -> CarStatus.fromCode(9)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> CarStatus.fromString("scrapped")).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static Car car(CarStatus status) {
+        Car car = new Car();
+        car.setId(1L);
+        car.setCurrentStatus(status);
+        return car;
+    }
+}
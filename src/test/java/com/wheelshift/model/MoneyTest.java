@@ -0,0 +1,73 @@
+package com.wheelshift.model;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Checks {@link Money} arithmetic against the same operations on
+ * {@link BigDecimal} rounded to cents HALF_UP.
+ */
+class MoneyTest {
+
+    @Test
+    void roundsToCentsHalfUp() {
+        assertThat(Money.of(new BigDecimal("10.005")).minorUnits()).isEqualTo(1001);
+        assertThat(Money.of(new BigDecimal("-10.005")).minorUnits()).isEqualTo(-1001);
+        assertThat(Money.of(new BigDecimal("10.0049")).minorUnits()).isEqualTo(1000);
+        assertThat(Money.of(new BigDecimal("1E+3")).minorUnits()).isEqualTo(100_000);
+        assertThat(Money.of(null)).isNull();
+        assertThat(Money.ofMinor(-5).toBigDecimal()).isEqualTo(new BigDecimal("-0.05"));
+    }
+
+    @Test
+    void timesAndDividedByMatchBigDecimal() {
+        Random random = new Random(11);
+        for (int i = 0; i < 10_000; i++) {
+            long minor = random.nextLong() % 10_000_000_000L;
+            BigDecimal factor = BigDecimal.valueOf(random.nextInt(2_000_000) - 1_000_000, random.nextInt(7));
+            Money money = Money.ofMinor(minor);
+            BigDecimal expected = money.toBigDecimal().multiply(factor).setScale(Money.SCALE, RoundingMode.HALF_UP);
+            assertThat(money.times(factor).toBigDecimal()).isEqualTo(expected);
+            assertThat(money.percent(factor).toBigDecimal()).isEqualTo(money.toBigDecimal().multiply(factor)
+                    .movePointLeft(2).setScale(Money.SCALE, RoundingMode.HALF_UP));
+
+            long parts = 1 + random.nextInt(1_000);
+            BigDecimal share = money.toBigDecimal().divide(BigDecimal.valueOf(parts), Money.SCALE, RoundingMode.HALF_UP);
+            assertThat(money.dividedBy(parts).toBigDecimal()).isEqualTo(share);
+        }
+        // Too large for the long product, still exact through BigDecimal
+        Money large = Money.ofMinor(Long.MAX_VALUE / 10);
+        assertThat(large.times(new BigDecimal("0.05")).toBigDecimal())
+                .isEqualTo(large.toBigDecimal().multiply(new BigDecimal("0.05")).setScale(2, RoundingMode.HALF_UP));
+        assertThat(large.percent(new BigDecimal("5"))).isEqualTo(large.times(new BigDecimal("0.05")));
+    }
+
+    @Test
+    void sumSkipsMissingAmountsAndThrowsOnOverflow() {
+        List<Money> amounts = new ArrayList<>(Arrays.asList(Money.ofMinor(150), null, Money.ofMinor(-25)));
+        assertThat(Money.sum(amounts, amount -> amount)).isEqualTo(Money.ofMinor(125));
+
+        amounts.add(Money.ofMinor(Long.MAX_VALUE));
+        assertThatThrownBy(() -> Money.sum(amounts, amount -> amount)).isInstanceOf(ArithmeticException.class);
+        assertThatThrownBy(() -> Money.of(new BigDecimal("1E+17"))).isInstanceOf(ArithmeticException.class);
+    }
+
+    @Test
+    void readsAndWritesJsonAsTheDecimalAmount() throws Exception {
+        ObjectMapper mapper = new ObjectMapper();
+        assertThat(mapper.writeValueAsString(Money.ofMinor(123450))).isEqualTo("1234.50");
+        assertThat(mapper.readValue("1234.5", Money.class)).isEqualTo(Money.ofMinor(123450));
+        assertThat(mapper.readValue("\"99.99\"", Money.class)).isEqualTo(Money.ofMinor(9999));
+    }
+}
@@ -0,0 +1,347 @@
+package com.wheelshift.outbox;
+
+import com.wheelshift.WheelShiftApplication;
+import com.wheelshift.datagen.DatasetGeneratorProperties;
+import com.wheelshift.datagen.EmbeddedDataset;
+import com.wheelshift.events.ClientPurchaseRollup;
+import com.wheelshift.events.DomainEvent;
+import com.wheelshift.events.TaskMoved;
+import com.wheelshift.model.Car;
+import com.wheelshift.model.Client;
+import com.wheelshift.model.Employee;
+import com.wheelshift.model.Money;
+import com.wheelshift.model.Sale;
+import com.wheelshift.service.SaleService;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Publishes events and drives the dispatcher by hand, with the scheduled
+ * polling off, to check what each consumer receives.
+ */
+@SpringBootTest(classes = WheelShiftApplication.class, properties = {
+    "wheelshift.jobs.reservation-expiry.cron=-",
+    "wheelshift.jobs.location-reconciliation.cron=-",
+    "wheelshift.outbox.poll-interval-ms=3600000",
+    "wheelshift.outbox.max-attempts=3",
+    "wheelshift.outbox.retry-backoff=0s",
+    "logging.level.com.wheelshift=warn"
+})
+@ActiveProfiles("embedded")
+@Import(OutboxDispatcherTest.Consumers.class)
+class OutboxDispatcherTest {
+
+    private static final String SET_OWNER = "UPDATE outbox_consumers SET owner = ?, lease_until = ? "
+            + "WHERE consumer_name = ?";
+
+    @TestConfiguration
+    static class Consumers {
+
+        @Bean
+        ScriptedConsumer scriptedConsumer() {
+            return new ScriptedConsumer();
+        }
+    }
+
+    /**
+     * Takes the test's own task events and fails on the ones listed in
+     * {@code failing}, a batch holding one failing as a whole. Runs
+     * {@code beforeConsume}, if set, first.
+     */
+    static class ScriptedConsumer implements OutboxConsumer {
+
+        final List<String> received = new CopyOnWriteArrayList<>();
+        volatile Set<String> failing = Set.of();
+        volatile Runnable beforeConsume;
+
+        @Override
+        public String getName() {
+            return "scripted-test";
+        }
+
+        @Override
+        public boolean accepts(DomainEvent event) {
+            return event instanceof TaskMoved moved && moved.taskId().startsWith("outbox-test");
+        }
+
+        @Override
+        public void consume(List<PublishedEvent> events) {
+            if (beforeConsume != null) {
+                beforeConsume.run();
+            }
+            for (PublishedEvent event : events) {
+                String taskId = ((TaskMoved) event.event()).taskId();
+                if (failing.contains(taskId)) {
+                    throw new IllegalStateException("Cannot handle " + taskId);
+                }
+            }
+            events.forEach(event -> received.add(((TaskMoved) event.event()).taskId()));
+        }
+    }
+
+    @Autowired
+    private OutboxDispatcher dispatcher;
+
+    @Autowired
+    private ScriptedConsumer consumer;
+
+    @Autowired
+    private ClientPurchaseRollup clientPurchaseRollup;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private SaleService saleService;
+
+    @Test
+    void deliversCommittedEventsInTheOrderTheyWereRaised() {
+        dispatcher.deliver(consumer);
+        consumer.received.clear();
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+
+        transaction.executeWithoutResult(status -> {
+            for (int i = 1; i <= 5; i++) {
+                eventPublisher.publishEvent(moved("outbox-test-order-" + i));
+            }
+        });
+        transaction.executeWithoutResult(status -> {
+            eventPublisher.publishEvent(moved("outbox-test-rolled-back"));
+            status.setRollbackOnly();
+        });
+        assertThatThrownBy(() -> eventPublisher.publishEvent(moved("outbox-test-no-transaction")))
+                .isInstanceOf(IllegalStateException.class);
+
+        dispatcher.deliver(consumer);
+
+        assertThat(consumer.received).containsExactly("outbox-test-order-1", "outbox-test-order-2",
+                "outbox-test-order-3", "outbox-test-order-4", "outbox-test-order-5");
+        assertThat(lag(consumer.getName()).pending()).isZero();
+    }
+
+    @Test
+    void retriesAFailingEventAloneAndSkipsItAfterTheLastAttempt() {
+        dispatcher.deliver(consumer);
+        consumer.received.clear();
+        long skippedBefore = lag(consumer.getName()).skipped();
+        consumer.failing = Set.of("outbox-test-poison");
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            eventPublisher.publishEvent(moved("outbox-test-before"));
+            eventPublisher.publishEvent(moved("outbox-test-poison"));
+            eventPublisher.publishEvent(moved("outbox-test-after"));
+        });
+
+        dispatcher.deliver(consumer);
+        OutboxDispatcher.ConsumerLag failed = lag(consumer.getName());
+        assertThat(consumer.received).isEmpty();
+        assertThat(failed.attempts()).isEqualTo(1);
+        assertThat(failed.lastError()).contains("outbox-test-poison");
+
+        for (int poll = 0; poll < 10 && lag(consumer.getName()).pending() > 0; poll++) {
+            dispatcher.deliver(consumer);
+        }
+
+        OutboxDispatcher.ConsumerLag done = lag(consumer.getName());
+        assertThat(consumer.received).containsExactly("outbox-test-before", "outbox-test-after");
+        assertThat(done.pending()).isZero();
+        assertThat(done.skipped()).isEqualTo(skippedBefore + 1);
+        assertThat(done.attempts()).isZero();
+        consumer.failing = Set.of();
+    }
+
+    @Test
+    void deliversAnEventCommittedAfterLaterOnesOnceItAppears() throws Exception {
+        // Delivering an event of its own first files the gaps earlier tests left
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.executeWithoutResult(status -> eventPublisher.publishEvent(moved("outbox-test-start")));
+        dispatcher.deliver(consumer);
+        consumer.received.clear();
+        long gapsBefore = lag(consumer.getName()).gaps();
+        CountDownLatch written = new CountDownLatch(1);
+        CountDownLatch commit = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            // Takes its id first but commits last
+            Future<?> slow = executor.submit(() -> transaction.executeWithoutResult(status -> {
+                eventPublisher.publishEvent(moved("outbox-test-slow"));
+                written.countDown();
+                try {
+                    commit.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }));
+            assertThat(written.await(10, TimeUnit.SECONDS)).isTrue();
+            transaction.executeWithoutResult(status -> eventPublisher.publishEvent(moved("outbox-test-fast")));
+            transaction.executeWithoutResult(status -> {
+                eventPublisher.publishEvent(moved("outbox-test-abandoned"));
+                status.setRollbackOnly();
+            });
+            transaction.executeWithoutResult(status -> eventPublisher.publishEvent(moved("outbox-test-last")));
+
+            dispatcher.deliver(consumer);
+            assertThat(consumer.received).containsExactly("outbox-test-fast", "outbox-test-last");
+            assertThat(lag(consumer.getName()).gaps()).isEqualTo(gapsBefore + 2);
+
+            commit.countDown();
+            slow.get(10, TimeUnit.SECONDS);
+            dispatcher.deliver(consumer);
+            assertThat(consumer.received).containsExactly("outbox-test-fast", "outbox-test-last",
+                    "outbox-test-slow");
+            assertThat(lag(consumer.getName()).gaps()).isEqualTo(gapsBefore + 1);
+        } finally {
+            commit.countDown();
+            executor.shutdownNow();
+        }
+
+        // The rolled back event never appears, so it is given up on after the gap timeout, like the older gaps
+        jdbcTemplate.update("UPDATE outbox_gaps SET noticed_at = ? WHERE consumer_name = ?",
+                Timestamp.valueOf(LocalDateTime.now().minusHours(1)), consumer.getName());
+        dispatcher.deliver(consumer);
+        assertThat(lag(consumer.getName()).gaps()).isZero();
+        assertThat(consumer.received).hasSize(3);
+    }
+
+    @Test
+    void stopsOnceAnotherNodeTookTheConsumerOver() {
+        dispatcher.deliver(consumer);
+        consumer.received.clear();
+        long position = lag(consumer.getName()).position();
+        new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                eventPublisher.publishEvent(moved("outbox-test-taken-over")));
+
+        // Its lease ran out while the batch was being consumed, and another node claimed it
+        consumer.beforeConsume = () -> jdbcTemplate.update(SET_OWNER, "other-node",
+                Timestamp.valueOf(LocalDateTime.now().plusMinutes(5)), consumer.getName());
+        try {
+            dispatcher.deliver(consumer);
+        } finally {
+            consumer.beforeConsume = null;
+        }
+        assertThat(consumer.received).containsExactly("outbox-test-taken-over");
+        assertThat(lag(consumer.getName()).position()).isEqualTo(position);
+        assertThat(lag(consumer.getName()).owner()).isEqualTo("other-node");
+
+        dispatcher.deliver(consumer);
+        assertThat(consumer.received).hasSize(1);
+
+        // Once the other node's lease runs out, the batch is delivered again from where it stopped
+        jdbcTemplate.update(SET_OWNER, "other-node", Timestamp.valueOf(LocalDateTime.now().minusSeconds(1)),
+                consumer.getName());
+        dispatcher.deliver(consumer);
+        assertThat(consumer.received).containsExactly("outbox-test-taken-over", "outbox-test-taken-over");
+        assertThat(lag(consumer.getName()).position()).isGreaterThan(position);
+        assertThat(lag(consumer.getName()).owner()).isNotEqualTo("other-node");
+    }
+
+    @Test
+    void deletesConsumersNoNodeHeldForTheAbandonTimeout() {
+        LocalDateTime longAgo = LocalDateTime.now().minusDays(2);
+        jdbcTemplate.update("INSERT INTO outbox_consumers (consumer_name, position, owner, lease_until, attempts, "
+                + "delivered, skipped) VALUES (?, 0, ?, ?, 0, 0, 0)", "kanban-push@dead-node", "dead-node",
+                Timestamp.valueOf(longAgo));
+        jdbcTemplate.update("INSERT INTO outbox_gaps (consumer_name, event_id, noticed_at) VALUES (?, 1, ?)",
+                "kanban-push@dead-node", Timestamp.valueOf(longAgo));
+        dispatcher.deliver(consumer);
+        jdbcTemplate.update(SET_OWNER, "dead-node", Timestamp.valueOf(longAgo), consumer.getName());
+
+        dispatcher.deleteDelivered();
+
+        assertThat(dispatcher.lag()).extracting(OutboxDispatcher.ConsumerLag::consumer)
+                .doesNotContain("kanban-push@dead-node")
+                .contains(consumer.getName());
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM outbox_gaps WHERE consumer_name = ?",
+                Integer.class, "kanban-push@dead-node")).isZero();
+    }
+
+    @Test
+    void clientPurchasesFollowTheSalesOnceDelivered() {
+        DatasetGeneratorProperties properties = new DatasetGeneratorProperties();
+        properties.setCars(30);
+        properties.setEmployees(3);
+        properties.setLocations(2);
+        EmbeddedDataset dataset = new EmbeddedDataset(jdbcTemplate, transactionManager);
+        dataset.clear();
+        dataset.load(properties);
+        dispatcher.deliver(clientPurchaseRollup);
+
+        Long carId = jdbcTemplate.queryForObject("SELECT MIN(id) FROM cars c WHERE c.status_code = 0 "
+                + "AND NOT EXISTS (SELECT 1 FROM sales s WHERE s.car_id = c.id)", Long.class);
+        Long clientId = jdbcTemplate.queryForObject("SELECT MIN(id) FROM clients", Long.class);
+        Long employeeId = jdbcTemplate.queryForObject("SELECT MIN(id) FROM employees", Long.class);
+        int purchasesBefore = purchases(clientId);
+        LocalDate saleDate = LocalDate.of(2099, 6, 1);
+
+        Sale sale = new Sale();
+        Car car = new Car();
+        car.setId(carId);
+        sale.setCar(car);
+        Client client = new Client();
+        client.setId(clientId);
+        sale.setClient(client);
+        Employee employee = new Employee();
+        employee.setId(employeeId);
+        sale.setHandledBy(employee);
+        sale.setSalePrice(Money.of(new BigDecimal("15000")));
+        sale.setSaleDate(saleDate);
+        Sale saved = saleService.createSale(sale);
+
+        assertThat(purchases(clientId)).isEqualTo(purchasesBefore);
+        dispatcher.deliver(clientPurchaseRollup);
+        assertThat(purchases(clientId)).isEqualTo(purchasesBefore + 1);
+        assertThat(jdbcTemplate.queryForObject("SELECT last_purchase FROM clients WHERE id = ?", LocalDate.class,
+                clientId)).isEqualTo(saleDate);
+
+        // Delivering the same events again leaves the counters as they are
+        dispatcher.deliver(clientPurchaseRollup);
+        saleService.deleteSale(saved.getId());
+        dispatcher.deliver(clientPurchaseRollup);
+        assertThat(purchases(clientId)).isEqualTo(purchasesBefore);
+    }
+
+    private static TaskMoved moved(String taskId) {
+        return new TaskMoved("default", taskId, "todo", "done", 0);
+    }
+
+    private int purchases(Long clientId) {
+        return jdbcTemplate.queryForObject("SELECT total_purchases FROM clients WHERE id = ?", Integer.class,
+                clientId);
+    }
+
+    private OutboxDispatcher.ConsumerLag lag(String name) {
+        return dispatcher.lag().stream().filter(lag -> lag.consumer().equals(name)).findFirst().orElseThrow();
+    }
+}
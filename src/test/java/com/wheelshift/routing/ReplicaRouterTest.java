@@ -0,0 +1,205 @@
+package com.wheelshift.routing;
+
+import com.wheelshift.versioning.Aggregate;
+import com.wheelshift.versioning.ChangeVersions;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Routes between two in-memory databases that tell which one answered, with
+ * replication simulated by copying change versions to the replica by hand.
+ */
+class ReplicaRouterTest {
+
+    private static final String CREATE_VERSIONS = "CREATE TABLE aggregate_versions (aggregate VARCHAR(32) PRIMARY KEY, "
+            + "version BIGINT NOT NULL, modified_at TIMESTAMP NOT NULL)";
+
+    private DataSource primary;
+    private JdbcTemplate primaryJdbc;
+    private JdbcTemplate replicaJdbc;
+    private UnreliableDataSource replica;
+    private ChangeVersions changeVersions;
+    private ReplicaRouter router;
+    private JdbcTemplate routedJdbc;
+    private PlatformTransactionManager routedTransactions;
+
+    @BeforeEach
+    void setUp() {
+        DataSource primary = database("primary");
+        replica = new UnreliableDataSource(database("replica"));
+        primaryJdbc = new JdbcTemplate(primary);
+        replicaJdbc = new JdbcTemplate(replica);
+
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.registerSingleton("transactionManager", new DataSourceTransactionManager(primary));
+        changeVersions = new ChangeVersions(primaryJdbc, beanFactory.getBeanProvider(PlatformTransactionManager.class));
+        changeVersions.refresh();
+        replicate();
+
+        this.primary = primary;
+        route(Duration.ZERO);
+    }
+
+    private void route(Duration maxLag) {
+        router = new ReplicaRouter(primary, Map.of("replica-0", replica), () -> changeVersions, maxLag);
+        DataSource routed = router.dataSource();
+        routedJdbc = new JdbcTemplate(routed);
+        routedTransactions = new DataSourceTransactionManager(routed);
+    }
+
+    @AfterEach
+    void tearDown() {
+        ReadYourWrites.end();
+        ReadDependencies.end();
+    }
+
+    @Test
+    void onlyReadOnlyTransactionsGoToTheReplica() {
+        router.checkReplicas();
+
+        assertThat(readOnly()).isEqualTo("replica");
+        assertThat(readWrite()).isEqualTo("primary");
+        assertThat(routedJdbc.queryForObject("SELECT name FROM whoami", String.class)).isEqualTo("primary");
+    }
+
+    @Test
+    void replicaIsNotUsedBeforeItsFirstCheck() {
+        assertThat(readOnly()).isEqualTo("primary");
+    }
+
+    @Test
+    void writeSendsReadsToThePrimaryUntilTheReplicaHasCaughtUp() {
+        router.checkReplicas();
+        changeVersions.changed(Aggregate.CARS);
+
+        assertThat(readOnly()).isEqualTo("primary");
+        router.checkReplicas();
+        assertThat(readOnly()).isEqualTo("primary");
+
+        replicate();
+        router.checkReplicas();
+        assertThat(readOnly()).isEqualTo("replica");
+    }
+
+    @Test
+    void replicaWithinTheMaximumLagServesReadsThatDoNotDependOnTheWrite() {
+        route(Duration.ofMinutes(1));
+        router.checkReplicas();
+        changeVersions.changed(Aggregate.CARS);
+
+        assertThat(readOnly()).isEqualTo("replica");
+        ReadDependencies.begin(Aggregate.SALES);
+        assertThat(readOnly()).isEqualTo("replica");
+        // A body tagged with the cars version must include the write
+        ReadDependencies.begin(Aggregate.SALES, Aggregate.CARS);
+        assertThat(readOnly()).isEqualTo("primary");
+
+        replicate();
+        router.checkReplicas();
+        assertThat(readOnly()).isEqualTo("replica");
+    }
+
+    @Test
+    void replicaFurtherBehindThanTheMaximumLagIsNotUsed() throws InterruptedException {
+        route(Duration.ofMillis(50));
+        router.checkReplicas();
+        changeVersions.changed(Aggregate.CARS);
+        Thread.sleep(100);
+        router.checkReplicas();
+
+        assertThat(readOnly()).isEqualTo("primary");
+        replicate();
+        router.checkReplicas();
+        assertThat(readOnly()).isEqualTo("replica");
+    }
+
+    @Test
+    void requestStaysOnThePrimaryAfterWriting() {
+        router.checkReplicas();
+        ReadYourWrites.begin();
+
+        assertThat(readOnly()).isEqualTo("replica");
+        readWrite();
+        assertThat(readOnly()).isEqualTo("primary");
+
+        ReadYourWrites.end();
+        assertThat(readOnly()).isEqualTo("replica");
+    }
+
+    @Test
+    void unreachableReplicaFallsBackToThePrimary() {
+        router.checkReplicas();
+        replica.down = true;
+
+        assertThat(readOnly()).isEqualTo("primary");
+        replica.down = false;
+        assertThat(readOnly()).isEqualTo("primary");
+
+        router.checkReplicas();
+        assertThat(readOnly()).isEqualTo("replica");
+    }
+
+    private String readOnly() {
+        TransactionTemplate template = new TransactionTemplate(routedTransactions);
+        template.setReadOnly(true);
+        return template.execute(status -> routedJdbc.queryForObject("SELECT name FROM whoami", String.class));
+    }
+
+    private String readWrite() {
+        return new TransactionTemplate(routedTransactions)
+                .execute(status -> routedJdbc.queryForObject("SELECT name FROM whoami", String.class));
+    }
+
+    private void replicate() {
+        replicaJdbc.update("DELETE FROM aggregate_versions");
+        primaryJdbc.query("SELECT aggregate, version, modified_at FROM aggregate_versions", rs -> {
+            replicaJdbc.update("INSERT INTO aggregate_versions VALUES (?, ?, ?)",
+                    rs.getString(1), rs.getLong(2), rs.getTimestamp(3));
+        });
+    }
+
+    private static DataSource database(String name) {
+        DataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:" + name + "-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("CREATE TABLE whoami (name VARCHAR(16))");
+        jdbc.update("INSERT INTO whoami VALUES (?)", name);
+        jdbc.execute(CREATE_VERSIONS);
+        return dataSource;
+    }
+
+    private static final class UnreliableDataSource extends DelegatingDataSource {
+
+        private volatile boolean down;
+
+        UnreliableDataSource(DataSource target) {
+            super(target);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            if (down) {
+                throw new SQLException("Connection refused");
+            }
+            return super.getConnection();
+        }
+    }
+}
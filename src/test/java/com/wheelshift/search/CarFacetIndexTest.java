@@ -0,0 +1,215 @@
+package com.wheelshift.search;
+
+import com.wheelshift.dto.CarFacetResult.FacetValue;
+import com.wheelshift.dto.CarSearchCriteria;
+import com.wheelshift.model.CarStatus;
+import com.wheelshift.tenancy.TenantContext;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Checks the bitmap index against a brute force evaluation of the same
+ * criteria. The index is backed by a mocked JdbcTemplate, so its first load
+ * finds an empty table and everything after that comes through upserts.
+ */
+class CarFacetIndexTest {
+
+    private static final String[][] MODELS = {
+        {"Toyota", "Corolla", "Sedan", "Petrol", "Manual"},
+        {"Toyota", "RAV4", "SUV", "Hybrid", "Automatic"},
+        {"Honda", "Civic", "Sedan", "Petrol", "Automatic"},
+        {"Ford", "Ranger", "Pickup", "Diesel", "Manual"},
+        {"Tesla", "Model 3", "Sedan", "Electric", "Automatic"}
+    };
+    private static final String[] COLORS = {"Red", "White", "Black", null};
+
+    private CarFacetIndex index;
+    private List<CarFacetEntry> cars;
+
+    @BeforeEach
+    void setUp() {
+        index = new CarFacetIndex(mock(JdbcTemplate.class), 5);
+        index.rebuild();
+        cars = new ArrayList<>();
+        Random random = new Random(7);
+        for (long id = 1; id <= 2_000; id++) {
+            CarFacetEntry car = randomCar(id, random);
+            cars.add(car);
+            index.upsert(car);
+        }
+    }
+
+    @Test
+    void matchesAndCountsAgreeWithBruteForce() {
+        Random random = new Random(11);
+        for (int round = 0; round < 200; round++) {
+            CarSearchCriteria criteria = new CarSearchCriteria();
+            if (random.nextBoolean()) {
+                criteria.setMake(MODELS[random.nextInt(MODELS.length)][0].toUpperCase());
+            }
+            if (random.nextInt(3) == 0) {
+                criteria.setBodyType(MODELS[random.nextInt(MODELS.length)][2]);
+            }
+            if (random.nextBoolean()) {
+                criteria.setColor(COLORS[random.nextInt(COLORS.length - 1)]);
+            }
+            if (random.nextBoolean()) {
+                criteria.setStatus(CarStatus.values()[random.nextInt(CarStatus.values().length)].name().toLowerCase());
+            }
+            if (random.nextInt(3) == 0) {
+                criteria.setLocationId((long) random.nextInt(4) + 1);
+            }
+            if (random.nextBoolean()) {
+                criteria.setYearFrom(2012 + random.nextInt(6));
+                criteria.setYearTo(criteria.getYearFrom() + random.nextInt(6));
+            }
+            RoaringBitmap restrictTo = random.nextInt(4) == 0 ? everyThird() : null;
+
+            CarFacetIndex.Result result = index.search(criteria, restrictTo, 0, Integer.MAX_VALUE, false);
+
+            List<CarFacetEntry> scope = cars.stream()
+                    .filter(car -> restrictTo == null || restrictTo.contains((int) car.id()))
+                    .collect(Collectors.toList());
+            List<Long> expected = scope.stream().filter(car -> matches(criteria, car, null)).map(CarFacetEntry::id)
+                    .collect(Collectors.toList());
+            assertThat(result.ids()).isEqualTo(expected);
+            assertThat(result.total()).isEqualTo(expected.size());
+
+            for (CarFacet facet : CarFacet.values()) {
+                if (facet == CarFacet.YEAR) {
+                    continue;
+                }
+                Map<String, Long> expectedCounts = scope.stream()
+                        .filter(car -> matches(criteria, car, facet) && car.value(facet) != null)
+                        .collect(Collectors.groupingBy(car -> car.value(facet), Collectors.counting()));
+                assertThat(counts(result, facet)).as("%s for %s", facet, criteria).isEqualTo(expectedCounts);
+            }
+        }
+    }
+
+    @Test
+    void yearsAreCountedInBuckets() {
+        CarSearchCriteria criteria = new CarSearchCriteria();
+        criteria.setYearFrom(2016);
+
+        CarFacetIndex.Result result = index.search(criteria, null, 0, 10, false);
+
+        Map<String, Long> expected = cars.stream().collect(Collectors.groupingBy(
+                car -> car.year() < 2015 ? "2010-2014" : car.year() < 2020 ? "2015-2019" : "2020-2024",
+                Collectors.counting()));
+        assertThat(counts(result, CarFacet.YEAR)).isEqualTo(expected);
+        assertThat(result.facets().get("yearBucket")).filteredOn(FacetValue::isSelected)
+                .extracting(FacetValue::getValue).containsExactly("2020-2024", "2015-2019");
+    }
+
+    @Test
+    void followsUpdatesRemovalsAndModelEdits() {
+        CarFacetEntry first = cars.get(0);
+        index.upsert(new CarFacetEntry(first.id(), first.tenantId(), first.modelId(), first.make(), first.model(), first.bodyType(),
+                first.fuelType(), first.transmissionType(), "Green", CarStatus.SOLD, null, null, first.year()));
+        index.remove(cars.get(1).id());
+        index.updateModel(new CarFacetEntry(0, null, 4, "Ford", "Ranger Raptor", "Pickup", "Petrol", "Automatic",
+                null, null, null, null, null));
+
+        CarSearchCriteria green = new CarSearchCriteria();
+        green.setColor("green");
+        assertThat(index.search(green, null, 0, 10, false).ids()).containsExactly(first.id());
+
+        CarSearchCriteria all = new CarSearchCriteria();
+        CarFacetIndex.Result result = index.search(all, null, 0, 10, false);
+        assertThat(result.total()).isEqualTo(cars.size() - 1);
+        assertThat(result.ids()).doesNotContain(cars.get(1).id());
+        assertThat(counts(result, CarFacet.MODEL)).doesNotContainKey("Ranger")
+                .containsEntry("Ranger Raptor", cars.stream().skip(2).filter(car -> car.modelId() == 4).count()
+                        + (cars.get(0).modelId() == 4 ? 1 : 0));
+    }
+
+    @Test
+    void pagesInIdOrderEitherWay() {
+        CarSearchCriteria criteria = new CarSearchCriteria();
+        criteria.setMake("toyota");
+        List<Long> toyotas = cars.stream().filter(car -> car.make().equals("Toyota")).map(CarFacetEntry::id)
+                .collect(Collectors.toList());
+
+        assertThat(index.search(criteria, null, 20, 10, false).ids()).isEqualTo(toyotas.subList(20, 30));
+        List<Long> newestFirst = index.search(criteria, null, 0, 5, true).ids();
+        assertThat(newestFirst).containsExactly(toyotas.get(toyotas.size() - 1), toyotas.get(toyotas.size() - 2),
+                toyotas.get(toyotas.size() - 3), toyotas.get(toyotas.size() - 4), toyotas.get(toyotas.size() - 5));
+    }
+
+    @Test
+    void searchesOnlySeeTheCurrentTenant() {
+        CarFacetEntry first = cars.get(0);
+        CarFacetEntry moved = new CarFacetEntry(first.id(), "north", first.modelId(), first.make(), first.model(),
+                first.bodyType(), first.fuelType(), first.transmissionType(), first.color(), first.status(),
+                first.locationId(), first.locationName(), first.year());
+        index.upsert(moved);
+        CarSearchCriteria all = new CarSearchCriteria();
+
+        assertThat(index.search(all, null, 0, 10, false).ids()).doesNotContain(first.id());
+        assertThat(TenantContext.callAs("north", () -> index.search(all, null, 0, 10, false).ids()))
+                .containsExactly(first.id());
+        assertThat(TenantContext.callAs("south", () -> index.search(all, null, 0, 10, false).total())).isZero();
+        assertThat(TenantContext.callAs(TenantContext.ROOT, () -> index.search(all, null, 0, 10, false).total()))
+                .isEqualTo(cars.size());
+    }
+
+    private static CarFacetEntry randomCar(long id, Random random) {
+        int model = random.nextInt(MODELS.length);
+        String[] attributes = MODELS[model];
+        long location = random.nextInt(5);
+        return new CarFacetEntry(id, TenantContext.DEFAULT_TENANT, model + 1, attributes[0], attributes[1], attributes[2], attributes[3],
+                attributes[4], COLORS[random.nextInt(COLORS.length)],
+                CarStatus.values()[random.nextInt(CarStatus.values().length)],
+                location == 0 ? null : location, location == 0 ? null : "Lot " + location, 2010 + random.nextInt(15));
+    }
+
+    private RoaringBitmap everyThird() {
+        RoaringBitmap bitmap = new RoaringBitmap();
+        cars.stream().filter(car -> car.id() % 3 == 0).forEach(car -> bitmap.add((int) car.id()));
+        return bitmap;
+    }
+
+    private static boolean matches(CarSearchCriteria criteria, CarFacetEntry car, CarFacet except) {
+        Map<CarFacet, Predicate<CarFacetEntry>> filters = new HashMap<>();
+        if (criteria.getMake() != null) {
+            filters.put(CarFacet.MAKE, c -> c.make().equalsIgnoreCase(criteria.getMake()));
+        }
+        if (criteria.getBodyType() != null) {
+            filters.put(CarFacet.BODY_TYPE, c -> c.bodyType().equalsIgnoreCase(criteria.getBodyType()));
+        }
+        if (criteria.getColor() != null) {
+            filters.put(CarFacet.COLOR, c -> criteria.getColor().equalsIgnoreCase(c.color()));
+        }
+        if (criteria.getStatus() != null) {
+            filters.put(CarFacet.STATUS, c -> c.status() == CarStatus.fromString(criteria.getStatus()));
+        }
+        if (criteria.getLocationId() != null) {
+            filters.put(CarFacet.LOCATION, c -> criteria.getLocationId().equals(c.locationId()));
+        }
+        if (criteria.getYearFrom() != null) {
+            filters.put(CarFacet.YEAR, c -> c.year() >= criteria.getYearFrom() && c.year() <= criteria.getYearTo());
+        }
+        return filters.entrySet().stream().allMatch(filter -> filter.getKey() == except || filter.getValue().test(car));
+    }
+
+    private static Map<String, Long> counts(CarFacetIndex.Result result, CarFacet facet) {
+        return result.facets().get(facet.getField()).stream()
+                .filter(value -> value.getCount() > 0)
+                .collect(Collectors.toMap(FacetValue::getValue, FacetValue::getCount));
+    }
+}
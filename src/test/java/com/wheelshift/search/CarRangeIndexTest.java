@@ -0,0 +1,176 @@
+package com.wheelshift.search;
+
+import com.wheelshift.dto.CarSearchCriteria;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Checks the range index against a brute force evaluation of the same
+ * criteria, through enough writes that the overlay is merged into the sorted
+ * columns several times.
+ */
+class CarRangeIndexTest {
+
+    private static final LocalDate EPOCH = LocalDate.of(2015, 1, 1);
+
+    private CarRangeIndex index;
+    private Map<Long, CarRangeEntry> cars;
+    private Random random;
+
+    @BeforeEach
+    void setUp() {
+        index = new CarRangeIndex(mock(JdbcTemplate.class));
+        index.rebuild();
+        cars = new LinkedHashMap<>();
+        random = new Random(3);
+        for (long id = 1; id <= 5_000; id++) {
+            save(randomCar(id));
+        }
+    }
+
+    @Test
+    void rangesAgreeWithBruteForce() {
+        assertAgreesWithBruteForce(300);
+    }
+
+    @Test
+    void followsUpdatesAndRemovals() {
+        for (int i = 0; i < 4_000; i++) {
+            long id = 1 + random.nextInt(6_000);
+            if (random.nextInt(5) == 0) {
+                cars.remove(id);
+                index.remove(id);
+            } else {
+                save(randomCar(id));
+            }
+        }
+        assertAgreesWithBruteForce(300);
+    }
+
+    @Test
+    void boundsAreInclusiveAndRoundedToCents() {
+        index.upsert(new CarRangeEntry(9_001, CarRangeEntry.stored(new BigDecimal("10000.005")), null, 2020L, null));
+        index.upsert(new CarRangeEntry(9_002, CarRangeEntry.stored(new BigDecimal("10000.00")), null, 2020L, null));
+
+        CarSearchCriteria criteria = new CarSearchCriteria();
+        criteria.setMinPrice(new BigDecimal("10000.001"));
+        criteria.setMaxPrice(new BigDecimal("10000.01"));
+        assertThat(index.filter(criteria, false).contains(9_001)).isTrue();
+        assertThat(index.filter(criteria, false).contains(9_002)).isFalse();
+
+        criteria.setMinPrice(new BigDecimal("10000"));
+        criteria.setMaxPrice(new BigDecimal("10000"));
+        assertThat(index.filter(criteria, false).contains(9_002)).isTrue();
+    }
+
+    @Test
+    void yearIsOnlyAppliedWhenAsked() {
+        CarSearchCriteria criteria = new CarSearchCriteria();
+        criteria.setYearFrom(2030);
+
+        assertThat(index.filter(criteria, false)).isNull();
+        assertThat(index.filter(criteria, true).isEmpty()).isTrue();
+    }
+
+    private void assertAgreesWithBruteForce(int rounds) {
+        for (int round = 0; round < rounds; round++) {
+            CarSearchCriteria criteria = randomCriteria();
+            boolean includeYear = random.nextBoolean();
+
+            RoaringBitmap result = index.filter(criteria, includeYear);
+
+            List<Long> expected = cars.values().stream()
+                    .filter(car -> matches(criteria, includeYear, car))
+                    .map(CarRangeEntry::id)
+                    .sorted()
+                    .collect(Collectors.toList());
+            List<Long> actual = result == null ? cars.keySet().stream().sorted().collect(Collectors.toList())
+                    : result.stream().mapToObj(Long::valueOf).collect(Collectors.toList());
+            assertThat(actual).as("%s (year %s)", criteria, includeYear).isEqualTo(expected);
+        }
+    }
+
+    private void save(CarRangeEntry car) {
+        cars.put(car.id(), car);
+        index.upsert(car);
+    }
+
+    private CarRangeEntry randomCar(long id) {
+        // Coarse values so ranges land on ties
+        Long price = random.nextInt(10) == 0 ? null : 500_000L * (1 + random.nextInt(40));
+        Long mileage = random.nextInt(10) == 0 ? null : (long) random.nextInt(20_000_000);
+        Long purchaseDate = random.nextInt(10) == 0 ? null : EPOCH.toEpochDay() + random.nextInt(3_000);
+        return new CarRangeEntry(id, price, mileage, 2010L + random.nextInt(15), purchaseDate);
+    }
+
+    private CarSearchCriteria randomCriteria() {
+        CarSearchCriteria criteria = new CarSearchCriteria();
+        if (random.nextBoolean()) {
+            criteria.setMinPrice(BigDecimal.valueOf(5_000L * random.nextInt(40)));
+        }
+        if (random.nextBoolean()) {
+            criteria.setMaxPrice(BigDecimal.valueOf(5_000L * random.nextInt(40)));
+        }
+        if (random.nextInt(3) == 0) {
+            criteria.setMinMileage(BigDecimal.valueOf(random.nextInt(200_000)));
+        }
+        if (random.nextInt(3) == 0) {
+            criteria.setMaxMileage(new BigDecimal(random.nextInt(200_000) + ".5"));
+        }
+        if (random.nextInt(3) == 0) {
+            criteria.setYearFrom(2010 + random.nextInt(15));
+        }
+        if (random.nextInt(3) == 0) {
+            criteria.setYearTo(2010 + random.nextInt(15));
+        }
+        if (random.nextInt(3) == 0) {
+            criteria.setPurchaseDateFrom(EPOCH.plusDays(random.nextInt(3_000)));
+        }
+        if (random.nextInt(3) == 0) {
+            criteria.setPurchaseDateTo(EPOCH.plusDays(random.nextInt(3_000)));
+        }
+        return criteria;
+    }
+
+    private static boolean matches(CarSearchCriteria criteria, boolean includeYear, CarRangeEntry car) {
+        return within(car.sellingPrice(), cents(criteria.getMinPrice()), cents(criteria.getMaxPrice()))
+                && within(car.mileage(), cents(criteria.getMinMileage()), cents(criteria.getMaxMileage()))
+                && (!includeYear || within(car.year(), toLong(criteria.getYearFrom()), toLong(criteria.getYearTo())))
+                && within(car.purchaseDate(), CarRangeEntry.epochDay(criteria.getPurchaseDateFrom()),
+                        CarRangeEntry.epochDay(criteria.getPurchaseDateTo()));
+    }
+
+    private static boolean within(Long value, BigDecimal from, BigDecimal to) {
+        if (from == null && to == null) {
+            return true;
+        }
+        BigDecimal decimal = value == null ? null : BigDecimal.valueOf(value);
+        return decimal != null && (from == null || decimal.compareTo(from) >= 0) && (to == null || decimal.compareTo(to) <= 0);
+    }
+
+    private static boolean within(Long value, Long from, Long to) {
+        return within(value, from == null ? null : BigDecimal.valueOf(from), to == null ? null : BigDecimal.valueOf(to));
+    }
+
+    private static BigDecimal cents(BigDecimal value) {
+        return value == null ? null : value.movePointRight(2);
+    }
+
+    private static Long toLong(Integer value) {
+        return value == null ? null : value.longValue();
+    }
+}
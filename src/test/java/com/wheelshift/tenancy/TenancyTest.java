@@ -0,0 +1,126 @@
+package com.wheelshift.tenancy;
+
+import com.wheelshift.WheelShiftApplication;
+import com.wheelshift.auth.TokenService;
+import com.wheelshift.model.CalendarEvent;
+import com.wheelshift.model.EventType;
+import com.wheelshift.repository.CalendarEventRepository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Writes calendar events for two tenants and reads them back through the
+ * endpoints, which only ever answer with the rows of the request's tenant.
+ */
+@SpringBootTest(classes = WheelShiftApplication.class, properties = {
+    "wheelshift.tenancy.served=default,north,south",
+    "wheelshift.tenancy.header-trusted-from=127.0.0.1",
+    "wheelshift.jobs.reservation-expiry.cron=-",
+    "wheelshift.jobs.location-reconciliation.cron=-",
+    "logging.level.com.wheelshift=warn"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("embedded")
+class TenancyTest {
+
+    private static final String EVENTS = "/api/calendar/events/range?start=2026-03-01&end=2026-03-31";
+    private static final String TENANT = "X-Tenant-Id";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private CalendarEventRepository calendarEventRepository;
+
+    @Autowired
+    private TokenService tokenService;
+
+    @Test
+    void tenantsOnlySeeTheirOwnRows() throws Exception {
+        CalendarEvent north = TenantContext.callAs("north", () -> calendarEventRepository.save(event("North event")));
+        TenantContext.callAs("south", () -> calendarEventRepository.save(event("South event")));
+        assertThat(north.getTenantId()).isEqualTo("north");
+
+        String northEvents = mockMvc.perform(get(EVENTS).header(TENANT, "north"))
+                .andExpect(status().isOk()).andReturn().getResponse().getContentAsString();
+        assertThat(northEvents).contains("North event").doesNotContain("South event");
+        String defaultEvents = mockMvc.perform(get(EVENTS))
+                .andExpect(status().isOk()).andReturn().getResponse().getContentAsString();
+        assertThat(defaultEvents).doesNotContain("North event", "South event");
+
+        mockMvc.perform(get("/api/calendar/events/" + north.getId()).header(TENANT, "north"))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/calendar/events/" + north.getId()).header(TENANT, "south"))
+                .andExpect(status().isNotFound());
+        assertThat(TenantContext.callAs(TenantContext.ROOT, () -> calendarEventRepository.findById(north.getId())))
+                .isPresent();
+    }
+
+    @Test
+    void tenantsGetTagsOfTheirOwn() throws Exception {
+        String defaultTag = mockMvc.perform(get(EVENTS)).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        String northTag = mockMvc.perform(get(EVENTS).header(TENANT, "north"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        assertThat(northTag).startsWith("W/\"north:").isNotEqualTo(defaultTag);
+        mockMvc.perform(get(EVENTS).header(TENANT, "south").header(HttpHeaders.IF_NONE_MATCH, northTag))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void requestsForOtherTenantsAreRefused() throws Exception {
+        mockMvc.perform(get(EVENTS).header(TENANT, "North!")).andExpect(status().isBadRequest());
+        mockMvc.perform(get(EVENTS).header(TENANT, "east")).andExpect(status().is(421));
+
+        String token = tokenService.issue("north", 1);
+        mockMvc.perform(get(EVENTS).header(HttpHeaders.AUTHORIZATION, "Bearer " + token).header(TENANT, "south"))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(get(EVENTS).header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void headerFromAnUntrustedCallerNeedsAToken() throws Exception {
+        mockMvc.perform(get(EVENTS).header(TENANT, "north").with(from("203.0.113.7")))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(get(EVENTS).header(TENANT, "default").with(from("203.0.113.7")))
+                .andExpect(status().isOk());
+
+        String token = tokenService.issue("north", 1);
+        mockMvc.perform(get(EVENTS).header(HttpHeaders.AUTHORIZATION, "Bearer " + token).header(TENANT, "north")
+                .with(from("203.0.113.7"))).andExpect(status().isOk());
+    }
+
+    private static RequestPostProcessor from(String address) {
+        return request -> {
+            request.setRemoteAddr(address);
+            return request;
+        };
+    }
+
+    private static CalendarEvent event(String title) {
+        return CalendarEvent.builder()
+                .title(title)
+                .startTime(LocalDateTime.of(2026, 3, 10, 10, 0))
+                .endTime(LocalDateTime.of(2026, 3, 10, 11, 0))
+                .backgroundColor("#3788d8")
+                .borderColor("#3788d8")
+                .eventType(EventType.TEST_DRIVE)
+                .customerName("Test Customer")
+                .carDetails("Test Car")
+                .build();
+    }
+}
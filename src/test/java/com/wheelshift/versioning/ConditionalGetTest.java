@@ -0,0 +1,133 @@
+package com.wheelshift.versioning;
+
+import com.wheelshift.WheelShiftApplication;
+import com.wheelshift.model.CalendarEvent;
+import com.wheelshift.model.EventType;
+import com.wheelshift.repository.CalendarEventRepository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Goes through the calendar endpoints: an unchanged aggregate is answered with
+ * 304 before the controller runs, a committed write changes the tag, and a
+ * rolled back one does not.
+ */
+@SpringBootTest(classes = WheelShiftApplication.class, properties = {
+    "wheelshift.jobs.reservation-expiry.cron=-",
+    "wheelshift.jobs.location-reconciliation.cron=-",
+    "logging.level.com.wheelshift=warn"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("embedded")
+class ConditionalGetTest {
+
+    private static final String EVENTS = "/api/calendar/events/range?start=2026-01-01&end=2026-01-31";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ChangeVersions changeVersions;
+
+    @Autowired
+    private CalendarEventRepository calendarEventRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @BeforeEach
+    void setUp() {
+        // Don't depend on the scheduled poll having run
+        changeVersions.refresh();
+    }
+
+    @Test
+    void unchangedAggregateIsNotModified() throws Exception {
+        MvcResult first = mockMvc.perform(get(EVENTS)).andExpect(status().isOk()).andReturn();
+        String etag = first.getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(etag).isEqualTo("W/" + changeVersions.etag(Aggregate.CALENDAR));
+        assertThat(first.getResponse().getHeader(HttpHeaders.LAST_MODIFIED)).isNull();
+        assertThat(first.getResponse().getHeader(HttpHeaders.CACHE_CONTROL)).isEqualTo("private, no-cache");
+
+        MvcResult second = mockMvc.perform(get(EVENTS).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified()).andReturn();
+        assertThat(second.getResponse().getContentAsString()).isEmpty();
+    }
+
+    @Test
+    void ifModifiedSinceAloneIsAnsweredNormally() throws Exception {
+        mockMvc.perform(get(EVENTS).header(HttpHeaders.IF_MODIFIED_SINCE, "Fri, 01 Jan 2100 00:00:00 GMT"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void committedWriteChangesTheTag() throws Exception {
+        String etag = mockMvc.perform(get(EVENTS)).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        calendarEventRepository.save(event());
+
+        MvcResult after = mockMvc.perform(get(EVENTS).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk()).andReturn();
+        assertThat(after.getResponse().getHeader(HttpHeaders.ETAG)).isNotEqualTo(etag);
+        assertThat(after.getResponse().getContentAsString()).contains("Conditional GET");
+    }
+
+    @Test
+    void rolledBackWriteKeepsTheTag() {
+        ChangeVersions.Version before = changeVersions.current(Aggregate.CALENDAR);
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            calendarEventRepository.saveAndFlush(event());
+            status.setRollbackOnly();
+        });
+
+        assertThat(changeVersions.current(Aggregate.CALENDAR)).isEqualTo(before);
+    }
+
+    @Test
+    void writesInOneTransactionBumpOnce() {
+        long before = changeVersions.current(Aggregate.CALENDAR).version();
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            calendarEventRepository.save(event());
+            calendarEventRepository.save(event());
+        });
+
+        assertThat(changeVersions.current(Aggregate.CALENDAR).version()).isEqualTo(before + 1);
+    }
+
+    @Test
+    void methodsWithoutTheAnnotationAreAnsweredNormally() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/reservations/expiring")).andExpect(status().isOk()).andReturn();
+        assertThat(result.getResponse().getHeader(HttpHeaders.ETAG)).isNull();
+    }
+
+    private static CalendarEvent event() {
+        return CalendarEvent.builder()
+                .title("Conditional GET")
+                .startTime(LocalDateTime.of(2026, 1, 10, 10, 0))
+                .endTime(LocalDateTime.of(2026, 1, 10, 11, 0))
+                .backgroundColor("#3788d8")
+                .borderColor("#3788d8")
+                .eventType(EventType.TEST_DRIVE)
+                .customerName("Test Customer")
+                .carDetails("Test Car")
+                .build();
+    }
+}